@@ -2,6 +2,7 @@ package com.depavlo.ddlschematorfx;
 
 import com.depavlo.ddlschematorfx.controller.MainWindowController;
 import com.depavlo.ddlschematorfx.persistence.ConnectionConfigManager;
+import com.depavlo.ddlschematorfx.persistence.NormalizationCache;
 import com.depavlo.ddlschematorfx.service.SchemaComparisonService;
 import com.depavlo.ddlschematorfx.service.SchemaService;
 import com.depavlo.ddlschematorfx.service.ScriptGenerationService; // Імпорт нового сервісу
@@ -23,6 +24,12 @@ public class MainApp extends Application {
 
     @Override
     public void start(Stage primaryStage) throws IOException {
+        try {
+            schemaComparisonService.setNormalizationCache(NormalizationCache.openDefault());
+        } catch (IOException e) {
+            // Без кешу порівняння працює, лише нормалізує DDL заново
+            System.err.println("Не вдалося відкрити кеш нормалізації DDL: " + e.getMessage());
+        }
         FXMLLoader loader = new FXMLLoader(getClass().getResource("main_window.fxml"));
         Parent root = loader.load();
 
@@ -41,6 +48,15 @@ public class MainApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        NormalizationCache normalizationCache = schemaComparisonService.getNormalizationCache();
+        if (normalizationCache != null) {
+            System.out.println(normalizationCache.describe());
+            normalizationCache.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -1,12 +1,21 @@
 package com.depavlo.ddlschematorfx.controller;
 
+import com.depavlo.ddlschematorfx.model.ComparisonProgress;
+import com.depavlo.ddlschematorfx.model.ComparisonResult;
+import com.depavlo.ddlschematorfx.model.ComparisonRule;
 import com.depavlo.ddlschematorfx.model.Difference;
 import com.depavlo.ddlschematorfx.model.DifferenceType;
 import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.model.ObjectKey;
 import com.depavlo.ddlschematorfx.model.Schema;
+import com.depavlo.ddlschematorfx.service.ComparisonSession;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -14,7 +23,15 @@ import javafx.scene.control.TextArea;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
 
 public class ComparisonResultsController {
 
@@ -42,19 +59,40 @@ public class ComparisonResultsController {
     @FXML
     private TextArea targetDdlTextArea;
 
+    @FXML
+    private Button refreshButton;
+
     private Stage dialogStage;
-    private ObservableList<Difference> differencesData = FXCollections.observableArrayList();
+    private Runnable refreshHandler; // Повторне порівняння змінених об'єктів; null - оновлення недоступне
+    private Runnable hiddenHandler; // Викликається після закриття вікна (наприклад, скасування порівняння, що ще триває)
+    private StreamingSubscriber streamingSubscriber; // Не null, поки таблиця заповнюється проміжними результатами
+    private String sourceSchemaName;
+    private String targetSchemaName;
+    // Відмінності в порядку ComparisonSession.DIFFERENCE_ORDER (під час потокового заповнення - в порядку надходження);
+    // таблиця показує їх через SortedList, тож сортування за стовпцями не змінює цей список
+    private final ObservableList<Difference> differencesData = FXCollections.observableArrayList();
+    private final SortedList<Difference> sortedDifferences = new SortedList<>(differencesData);
+    private final Map<ObjectKey, Difference> differencesByKey = new HashMap<>();
 
     @FXML
     private void initialize() {
         // Ініціалізація колонок таблиці
         diffTypeColumn.setCellValueFactory(new PropertyValueFactory<>("type"));
         objectTypeColumn.setCellValueFactory(new PropertyValueFactory<>("objectType"));
-        objectNameColumn.setCellValueFactory(new PropertyValueFactory<>("objectName"));
+        objectNameColumn.setCellValueFactory(cellData -> {
+            Difference difference = cellData.getValue();
+            if (difference.getType() == DifferenceType.RENAMED) {
+                // Для перейменування показуємо обидва імені та оцінку подібності DDL
+                return new SimpleStringProperty(String.format("%s → %s (%.0f%%)",
+                        difference.getPreviousObjectName(), difference.getObjectName(), difference.getSimilarity() * 100));
+            }
+            return new SimpleStringProperty(difference.getObjectName());
+        });
         objectOwnerColumn.setCellValueFactory(new PropertyValueFactory<>("objectOwner"));
 
-        // Встановлюємо дані в таблицю
-        differencesTableView.setItems(differencesData);
+        // Встановлюємо дані в таблицю; порядок рядків задають стовпці, за якими користувач сортує
+        sortedDifferences.comparatorProperty().bind(differencesTableView.comparatorProperty());
+        differencesTableView.setItems(sortedDifferences);
 
         // Додаємо слухача для вибору рядка в таблиці
         differencesTableView.getSelectionModel().selectedItemProperty().addListener(
@@ -62,6 +100,36 @@ public class ComparisonResultsController {
 
         // Очищаємо текстові області за замовчуванням
         showDifferenceDetails(null);
+        refreshButton.setDisable(true);
+    }
+
+    /**
+     * Встановлює обробник кнопки "Оновити порівняння".
+     * @param refreshHandler Обробник або null, щоб вимкнути кнопку.
+     */
+    public void setRefreshHandler(Runnable refreshHandler) {
+        this.refreshHandler = refreshHandler;
+        refreshButton.setDisable(refreshHandler == null);
+    }
+
+    /**
+     * Встановлює обробник закриття вікна. Викликається при будь-якому закритті, у тому числі через {@link #close()}.
+     * @param hiddenHandler Обробник або null.
+     */
+    public void setHiddenHandler(Runnable hiddenHandler) {
+        this.hiddenHandler = hiddenHandler;
+    }
+
+    // Вимикає кнопку, поки триває повторне порівняння
+    public void setRefreshing(boolean refreshing) {
+        refreshButton.setDisable(refreshing || refreshHandler == null);
+    }
+
+    @FXML
+    private void handleRefresh() {
+        if (refreshHandler != null) {
+            refreshHandler.run();
+        }
     }
 
     /**
@@ -70,6 +138,131 @@ public class ComparisonResultsController {
      */
     public void setDialogStage(Stage dialogStage) {
         this.dialogStage = dialogStage;
+        dialogStage.setOnHidden(event -> {
+            stopStreaming();
+            if (hiddenHandler != null) {
+                hiddenHandler.run();
+            }
+        });
+    }
+
+    public void close() {
+        stopStreaming();
+        if (dialogStage != null) {
+            dialogStage.close();
+        }
+    }
+
+    /**
+     * Готує вікно до показу відмінностей під час порівняння: таблиця очищується, а проміжні результати,
+     * отримані підписником, додаються до неї раз на кадр JavaFX (усі частини, що надійшли між кадрами, - однією зміною списку).
+     * Заповнення завершується викликом {@link #setComparisonResult}, який замінює таблицю остаточним результатом.
+     * @return Підписник для {@link com.depavlo.ddlschematorfx.service.ComparisonSession#compare(int, Flow.Subscriber)}.
+     */
+    public Flow.Subscriber<ComparisonProgress> beginStreaming(String sourceSchemaName, String targetSchemaName) {
+        stopStreaming();
+        this.sourceSchemaName = sourceSchemaName;
+        this.targetSchemaName = targetSchemaName;
+        differencesData.clear();
+        differencesByKey.clear();
+        showDifferenceDetails(null);
+        refreshButton.setDisable(true);
+        comparisonTitleLabel.setText("Порівняння: " + sourceSchemaName + " (Source) vs " + targetSchemaName + " (Target)...");
+        streamingSubscriber = new StreamingSubscriber();
+        streamingSubscriber.timer.start();
+        return streamingSubscriber;
+    }
+
+    private void stopStreaming() {
+        if (streamingSubscriber != null) {
+            streamingSubscriber.cancel();
+            streamingSubscriber = null;
+        }
+    }
+
+    /**
+     * Приймає проміжні результати в потоках видавця і складає їх у чергу; таймер анімації
+     * на кожному кадрі переносить накопичене в таблицю, тому потік JavaFX не обробляє кожну частину окремо.
+     */
+    private final class StreamingSubscriber implements Flow.Subscriber<ComparisonProgress> {
+        private final ConcurrentLinkedQueue<ComparisonProgress> pending = new ConcurrentLinkedQueue<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private int foundDifferenceCount;
+        private int suppressedDifferenceCount;
+
+        private final AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drain();
+            }
+        };
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE); // Частини накопичуються в черзі до наступного кадру
+            }
+        }
+
+        @Override
+        public void onNext(ComparisonProgress progress) {
+            if (!cancelled) {
+                pending.add(progress);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Порівняння перервано помилкою: " + throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            // Остаточний результат встановлюється через setComparisonResult
+        }
+
+        private void drain() {
+            List<Difference> batch = new ArrayList<>();
+            ComparisonProgress latest = null;
+            ComparisonProgress progress;
+            while ((progress = pending.poll()) != null) {
+                batch.addAll(progress.getDifferences());
+                suppressedDifferenceCount += progress.getSuppressedDifferenceCount();
+                latest = progress;
+            }
+            if (latest == null) {
+                return;
+            }
+            if (!batch.isEmpty()) {
+                boolean wasEmpty = differencesData.isEmpty();
+                differencesData.addAll(batch);
+                for (Difference difference : batch) {
+                    differencesByKey.put(ComparisonSession.keyOf(difference), difference);
+                }
+                foundDifferenceCount += batch.size();
+                if (wasEmpty) {
+                    differencesTableView.getSelectionModel().selectFirst();
+                }
+            }
+            comparisonTitleLabel.setText("Порівняння: " + sourceSchemaName + " (Source) vs " + targetSchemaName + " (Target)..."
+                    + "\nПеревірено об'єктів: " + latest.getComparedObjectCount() + " з " + latest.getTotalObjectCount()
+                    + ", знайдено відмінностей: " + foundDifferenceCount
+                    + (suppressedDifferenceCount > 0 ? ", приховано правилами: " + suppressedDifferenceCount : ""));
+        }
+
+        private void cancel() {
+            cancelled = true;
+            timer.stop();
+            pending.clear();
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
     }
 
     /**
@@ -79,7 +272,15 @@ public class ComparisonResultsController {
      * @param targetSchemaName Назва цільової схеми.
      */
     public void setDifferences(List<Difference> differences, String sourceSchemaName, String targetSchemaName) {
-        differencesData.setAll(differences);
+        this.sourceSchemaName = sourceSchemaName;
+        this.targetSchemaName = targetSchemaName;
+        List<Difference> ordered = new ArrayList<>(differences);
+        ordered.sort(ComparisonSession.DIFFERENCE_ORDER);
+        differencesData.setAll(ordered);
+        differencesByKey.clear();
+        for (Difference difference : ordered) {
+            differencesByKey.put(ComparisonSession.keyOf(difference), difference);
+        }
         comparisonTitleLabel.setText("Результати порівняння: " + sourceSchemaName + " (Source) vs " + targetSchemaName + " (Target)");
 
         // Якщо є відмінності, вибираємо першу для відображення деталей
@@ -90,6 +291,90 @@ public class ComparisonResultsController {
         }
     }
 
+    /**
+     * Завантажує результат порівняння: значущі відмінності показуються в таблиці,
+     * а кількість прихованих правилами порівняння - у заголовку з розбивкою за правилами.
+     * @param result Результат порівняння.
+     * @param sourceSchemaName Назва схеми-джерела.
+     * @param targetSchemaName Назва цільової схеми.
+     */
+    public void setComparisonResult(ComparisonResult result, String sourceSchemaName, String targetSchemaName) {
+        stopStreaming();
+        setDifferences(result.getDifferences(), sourceSchemaName, targetSchemaName);
+        updateTitle(result);
+    }
+
+    /**
+     * Оновлює таблицю на місці за змінами сеансу порівняння: усунуті відмінності видаляються,
+     * змінені замінюються в тих самих рядках, нові вставляються у порядку повного порівняння
+     * (позиція у впорядкованому списку - двійковим пошуком, рядок у таблиці - через сортування стовпців).
+     * Вибраний рядок зберігається, якщо його відмінність не усунуто.
+     */
+    public void applyUpdate(ComparisonSession.Update update) {
+        Difference selected = differencesTableView.getSelectionModel().getSelectedItem();
+        ObjectKey selectedKey = (selected != null) ? ComparisonSession.keyOf(selected) : null;
+
+        Set<ObjectKey> resolvedKeys = new HashSet<>(update.resolvedKeys());
+        if (!resolvedKeys.isEmpty()) {
+            differencesByKey.keySet().removeAll(resolvedKeys);
+            differencesData.removeIf(difference -> resolvedKeys.contains(ComparisonSession.keyOf(difference)));
+        }
+        for (Difference difference : update.updatedDifferences()) {
+            Difference previous = differencesByKey.put(ComparisonSession.keyOf(difference), difference);
+            if (previous == null) {
+                insertSorted(difference);
+            } else if (ComparisonSession.DIFFERENCE_ORDER.compare(previous, difference) == 0) {
+                differencesData.set(sortedIndexOf(previous), difference);
+            } else {
+                // Змінився тип (наприклад, видалений об'єкт з'явився в target): рядок переходить в іншу групу
+                differencesData.remove(sortedIndexOf(previous));
+                insertSorted(difference);
+            }
+        }
+        for (Difference difference : update.addedDifferences()) {
+            differencesByKey.put(ComparisonSession.keyOf(difference), difference);
+            insertSorted(difference);
+        }
+
+        Difference current = (selectedKey != null) ? differencesByKey.get(selectedKey) : null;
+        if (current != null) {
+            differencesTableView.getSelectionModel().select(sortedDifferences.getViewIndex(sortedIndexOf(current)));
+            showDifferenceDetails(current);
+        } else if (!differencesData.isEmpty()) {
+            differencesTableView.getSelectionModel().selectFirst();
+        } else {
+            showDifferenceDetails(null);
+        }
+        updateTitle(update.result());
+    }
+
+    // Позиція відмінності, що є у списку, впорядкованому за DIFFERENCE_ORDER (ключ об'єкта в ньому унікальний)
+    private int sortedIndexOf(Difference difference) {
+        return Collections.binarySearch(differencesData, difference, ComparisonSession.DIFFERENCE_ORDER);
+    }
+
+    private void insertSorted(Difference difference) {
+        int index = sortedIndexOf(difference);
+        differencesData.add((index >= 0) ? index : -index - 1, difference);
+    }
+
+    private void updateTitle(ComparisonResult result) {
+        String title = "Результати порівняння: " + sourceSchemaName + " (Source) vs " + targetSchemaName + " (Target)";
+        if (result.getSuppressedDifferences().isEmpty()) {
+            comparisonTitleLabel.setText(title);
+            return;
+        }
+        StringBuilder suppressedSummary = new StringBuilder();
+        for (Map.Entry<ComparisonRule, Integer> entry : result.getSuppressedCountsByRule().entrySet()) {
+            if (suppressedSummary.length() > 0) {
+                suppressedSummary.append("; ");
+            }
+            suppressedSummary.append(entry.getKey().getDisplayName()).append(": ").append(entry.getValue());
+        }
+        comparisonTitleLabel.setText(title + "\nПриховано правилами порівняння: "
+                + result.getSuppressedDifferences().size() + " (" + suppressedSummary + ")");
+    }
+
     /**
      * Відображає DDL для вибраної відмінності у текстових областях.
      * @param difference Об'єкт Difference або null, якщо нічого не вибрано.
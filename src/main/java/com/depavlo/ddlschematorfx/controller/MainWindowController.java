@@ -1,11 +1,20 @@
 package com.depavlo.ddlschematorfx.controller;
 
 import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.DdlContentPool;
+import com.depavlo.ddlschematorfx.model.ComparisonOptions;
+import com.depavlo.ddlschematorfx.model.ComparisonProgress;
+import com.depavlo.ddlschematorfx.model.ComparisonResult;
+import com.depavlo.ddlschematorfx.model.ComparisonRule;
 import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.DriftMatrix;
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
 import com.depavlo.ddlschematorfx.model.MigrationScript; // Імпорт MigrationScript
 import com.depavlo.ddlschematorfx.model.Schema;
 import com.depavlo.ddlschematorfx.persistence.ConnectionConfigManager;
 import com.depavlo.ddlschematorfx.persistence.OracleSchemaExtractor;
+import com.depavlo.ddlschematorfx.persistence.SchemaExtractionListener;
+import com.depavlo.ddlschematorfx.service.ComparisonSession;
 import com.depavlo.ddlschematorfx.service.SchemaComparisonService;
 import com.depavlo.ddlschematorfx.service.SchemaService;
 import com.depavlo.ddlschematorfx.service.ScriptGenerationService; // Імпорт ScriptGenerationService
@@ -19,9 +28,17 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.Menu;
 import javafx.scene.control.ChoiceDialog;
+import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
@@ -34,10 +51,16 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Flow;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
 
@@ -48,11 +71,17 @@ public class MainWindowController {
     @FXML
     private MenuItem compareSchemasMenuItem;
     @FXML
+    private MenuItem driftMatrixMenuItem; // "Матриця розбіжностей середовищ..."
+    @FXML
     private MenuItem saveSchemaMenuItem; // "Зберегти схему як..."
     @FXML
     private MenuItem saveSchemaDirectMenuItem; // "Зберегти"
     @FXML
     private MenuItem extractSchemaMenuItem;
+    @FXML
+    private CheckMenuItem compressDdlMenuItem; // "Стискати DDL у пам'яті"
+    @FXML
+    private Menu comparisonRulesMenu; // "Правила порівняння", пункти додаються в initialize
 
     private Stage primaryStage;
     private ConnectionConfigManager connectionConfigManager;
@@ -63,17 +92,60 @@ public class MainWindowController {
     private static final DateTimeFormatter DIRECTORY_TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
     private static final String PREF_LAST_SAVE_BASE_DIR = "lastSaveBaseDir";
     private static final String PREF_LAST_LOAD_DIR = "lastLoadBaseDir";
+    private static final String PREF_COMPRESS_DDL = "compressDdlInMemory";
+    private static final String PREF_DDL_MEMORY_BUDGET_MB = "ddlMemoryBudgetMb";
+    private static final String PREF_COMPARISON_RULE_PREFIX = "comparisonRule.";
+    private static final String PREF_DETECT_RENAMES = "detectRenames";
+    private static final int PARALLEL_COMPARISON_MIN_OBJECTS = 2000;
 
     private Schema activeSchema = null;
+    private final ComparisonOptions comparisonOptions = ComparisonOptions.defaults();
 
 
     @FXML
     private void initialize() {
         if (compareSchemasMenuItem != null) compareSchemasMenuItem.setDisable(true);
+        if (driftMatrixMenuItem != null) driftMatrixMenuItem.setDisable(true);
         if (saveSchemaMenuItem != null) saveSchemaMenuItem.setDisable(true);
         if (saveSchemaDirectMenuItem != null) saveSchemaDirectMenuItem.setDisable(true);
         if (extractSchemaMenuItem != null) extractSchemaMenuItem.setDisable(true);
         // Стан extractSchemaMenuItem буде оновлено в setConnectionConfigManager
+        boolean compressDdl = Preferences.userNodeForPackage(MainWindowController.class).getBoolean(PREF_COMPRESS_DDL, false);
+        DdlContentPool.shared().setCompressionEnabled(compressDdl);
+        if (compressDdlMenuItem != null) compressDdlMenuItem.setSelected(compressDdl);
+        initializeComparisonRules();
+    }
+
+    // Пункт меню для кожного правила порівняння; вибір зберігається в налаштуваннях
+    private void initializeComparisonRules() {
+        Preferences prefs = Preferences.userNodeForPackage(MainWindowController.class);
+        Set<ComparisonRule> defaultRules = ComparisonOptions.defaults().getRules();
+        for (ComparisonRule rule : ComparisonRule.values()) {
+            boolean enabled = prefs.getBoolean(PREF_COMPARISON_RULE_PREFIX + rule.name(), defaultRules.contains(rule));
+            comparisonOptions.setRuleEnabled(rule, enabled);
+            if (comparisonRulesMenu != null) {
+                CheckMenuItem ruleMenuItem = new CheckMenuItem(rule.getDisplayName());
+                ruleMenuItem.setMnemonicParsing(false);
+                ruleMenuItem.setSelected(enabled);
+                ruleMenuItem.setOnAction(event -> {
+                    comparisonOptions.setRuleEnabled(rule, ruleMenuItem.isSelected());
+                    prefs.putBoolean(PREF_COMPARISON_RULE_PREFIX + rule.name(), ruleMenuItem.isSelected());
+                });
+                comparisonRulesMenu.getItems().add(ruleMenuItem);
+            }
+        }
+        boolean detectRenames = prefs.getBoolean(PREF_DETECT_RENAMES, true);
+        comparisonOptions.setRenameDetectionEnabled(detectRenames);
+        if (comparisonRulesMenu != null) {
+            CheckMenuItem renameMenuItem = new CheckMenuItem("Виявляти перейменування");
+            renameMenuItem.setMnemonicParsing(false);
+            renameMenuItem.setSelected(detectRenames);
+            renameMenuItem.setOnAction(event -> {
+                comparisonOptions.setRenameDetectionEnabled(renameMenuItem.isSelected());
+                prefs.putBoolean(PREF_DETECT_RENAMES, renameMenuItem.isSelected());
+            });
+            comparisonRulesMenu.getItems().addAll(new SeparatorMenuItem(), renameMenuItem);
+        }
     }
 
     public void setPrimaryStage(Stage primaryStage) {
@@ -89,6 +161,10 @@ public class MainWindowController {
 
     public void setSchemaService(SchemaService schemaService) {
         this.schemaService = schemaService;
+        long budgetMb = Preferences.userNodeForPackage(MainWindowController.class).getLong(PREF_DDL_MEMORY_BUDGET_MB, 0);
+        if (schemaService != null && budgetMb > 0) {
+            schemaService.setMemoryBudgetBytes(budgetMb * 1024 * 1024);
+        }
         updateSchemaActionMenuItemsState(); // Оновлюємо стан меню після ініціалізації сервісу
     }
 
@@ -112,6 +188,9 @@ public class MainWindowController {
         if (compareSchemasMenuItem != null) {
             compareSchemasMenuItem.setDisable(allSchemas.size() < 2);
         }
+        if (driftMatrixMenuItem != null) {
+            driftMatrixMenuItem.setDisable(allSchemas.size() < 2);
+        }
         if (saveSchemaMenuItem != null) { // "Зберегти як..."
             saveSchemaMenuItem.setDisable(!activeSchemaAvailableForSave);
         }
@@ -121,6 +200,58 @@ public class MainWindowController {
         // Стан extractSchemaMenuItem оновлюється в setConnectionConfigManager та handleDbSettings
     }
 
+    @FXML
+    private void handleToggleDdlCompression() {
+        boolean compressDdl = compressDdlMenuItem.isSelected();
+        DdlContentPool.shared().setCompressionEnabled(compressDdl);
+        Preferences.userNodeForPackage(MainWindowController.class).putBoolean(PREF_COMPRESS_DDL, compressDdl);
+        // Режим діє для схем, що завантажуються після перемикання; вже завантажені схеми не перепаковуються
+        statusBarLabel.setText(compressDdl
+                ? "Стиснення DDL увімкнено для наступних завантажень. " + DdlContentPool.shared().describe()
+                : "Стиснення DDL вимкнено для наступних завантажень. " + DdlContentPool.shared().describe());
+    }
+
+    @FXML
+    private void handleSetDdlMemoryBudget() {
+        if (schemaService == null) {
+            return;
+        }
+        TextInputDialog budgetDialog = new TextInputDialog(String.valueOf(schemaService.getMemoryBudgetBytes() / (1024 * 1024)));
+        budgetDialog.setTitle("Бюджет пам'яті DDL");
+        budgetDialog.setHeaderText("DDL схем, до яких найдовше не зверталися, вивантажуються на диск,\nколи тексти в пам'яті перевищують бюджет.");
+        budgetDialog.setContentText("Бюджет, МБ:");
+        Optional<String> budgetResult = budgetDialog.showAndWait();
+        if (budgetResult.isEmpty()) {
+            return;
+        }
+        long budgetMb;
+        try {
+            budgetMb = Long.parseLong(budgetResult.get().trim());
+        } catch (NumberFormatException e) {
+            budgetMb = 0;
+        }
+        if (budgetMb <= 0) {
+            showAlert(AlertType.WARNING, "Бюджет пам'яті DDL", "Некоректне значення", "Вкажіть додатне ціле число мегабайт.");
+            return;
+        }
+        schemaService.setMemoryBudgetBytes(budgetMb * 1024 * 1024);
+        Preferences.userNodeForPackage(MainWindowController.class).putLong(PREF_DDL_MEMORY_BUDGET_MB, budgetMb);
+        statusBarLabel.setText("Бюджет пам'яті DDL: " + budgetMb + " МБ. " + DdlContentPool.shared().describe());
+    }
+
+    @FXML
+    private void handleShowMemoryUsage() {
+        if (schemaService == null) {
+            return;
+        }
+        statusBarLabel.setText(DdlContentPool.shared().describe());
+        String usage = schemaService.describeMemoryUsage();
+        if (schemaComparisonService != null && schemaComparisonService.getNormalizationCache() != null) {
+            usage += "\n\n" + schemaComparisonService.getNormalizationCache().describe();
+        }
+        showAlert(AlertType.INFORMATION, "Використання пам'яті", "Пам'ять під DDL завантажених схем", usage);
+    }
+
     @FXML
     private void handleExit() {
         Platform.exit();
@@ -152,39 +283,192 @@ public class MainWindowController {
 
     @FXML
     private void handleExtractSchema() {
+        chooseConnection("Виберіть підключення для витягнення схеми:").ifPresent(this::performSchemaExtraction);
+    }
+
+    /**
+     * Пропонує вибрати одне з налаштованих підключень.
+     * @param headerText Заголовок діалогу вибору.
+     * @return Optional<ConnectionDetails> вибране підключення, або Optional.empty(), якщо вибір скасовано або підключень немає.
+     */
+    private Optional<ConnectionDetails> chooseConnection(String headerText) {
         if (connectionConfigManager == null) {
             showAlert(AlertType.ERROR, "Помилка конфігурації", "Менеджер конфігурацій не ініціалізовано.", null);
-            return;
+            return Optional.empty();
         }
         List<ConnectionDetails> connections = connectionConfigManager.loadConnections();
         if (connections.isEmpty()) {
             showAlert(AlertType.INFORMATION, "Витягнення схеми", "Немає налаштованих підключень", "Будь ласка, спочатку налаштуйте підключення до бази даних.");
-            return;
+            return Optional.empty();
         }
 
         List<String> connectionNames = connections.stream().map(ConnectionDetails::getName).collect(Collectors.toList());
         ChoiceDialog<String> dialog = new ChoiceDialog<>(null, connectionNames);
         dialog.setTitle("Вибір підключення");
-        dialog.setHeaderText("Виберіть підключення для витягнення схеми:");
+        dialog.setHeaderText(headerText);
         dialog.setContentText("Підключення:");
 
         Optional<String> result = dialog.showAndWait();
-        result.ifPresent(selectedName -> {
-            connections.stream()
-                    .filter(c -> c.getName().equals(selectedName))
-                    .findFirst()
-                    .ifPresent(this::performSchemaExtraction);
+        return result.flatMap(selectedName -> connections.stream()
+                .filter(c -> c.getName().equals(selectedName))
+                .findFirst());
+    }
+
+    /**
+     * Витягує кілька схем (власників) одного підключення за одне завдання зі спільними з'єднаннями.
+     * Прогрес і час витягнення кожної схеми відображаються у рядку стану.
+     */
+    @FXML
+    private void handleExtractMultipleSchemas() {
+        Optional<ConnectionDetails> selectedConnectionOpt = chooseConnection("Виберіть підключення для витягнення кількох схем:");
+        if (selectedConnectionOpt.isEmpty()) {
+            return;
+        }
+        final ConnectionDetails selectedConnection = selectedConnectionOpt.get();
+
+        TextInputDialog ownersDialog = new TextInputDialog(selectedConnection.getSchemaName());
+        ownersDialog.setTitle("Витягнення кількох схем");
+        ownersDialog.setHeaderText("Вкажіть власників схем через кому або пробіл:");
+        ownersDialog.setContentText("Схеми:");
+        Optional<String> ownersResult = ownersDialog.showAndWait();
+        if (ownersResult.isEmpty() || ownersResult.get().trim().isEmpty()) {
+            statusBarLabel.setText("Витягнення кількох схем скасовано.");
+            return;
+        }
+        final List<String> schemaOwnerNames = Arrays.stream(ownersResult.get().split("[,;\\s]+"))
+                .filter(owner -> !owner.isEmpty())
+                .collect(Collectors.toList());
+
+        if (extractSchemaMenuItem != null) extractSchemaMenuItem.setDisable(true);
+        statusBarLabel.setText("Витягнення " + schemaOwnerNames.size() + " схем з " + selectedConnection.getName() + "...");
+
+        Task<Map<String, Schema>> extractionTask = new Task<>() {
+            @Override
+            protected Map<String, Schema> call() throws Exception {
+                OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+                return extractor.extractSchemas(selectedConnection, schemaOwnerNames, ExtractionOptions.defaults(), new SchemaExtractionListener() {
+                    @Override
+                    public void objectProcessed(String schemaOwnerName, int processedCount, int objectCount) {
+                        updateMessage("Витягнення схеми " + schemaOwnerName + ": " + processedCount + " з " + objectCount + " об'єктів...");
+                    }
+
+                    @Override
+                    public void schemaCompleted(String schemaOwnerName, int extractedCount, Duration elapsed) {
+                        updateMessage("Схему " + schemaOwnerName + " витягнуто (" + extractedCount + " DDL, " + elapsed.toMillis() + " мс).");
+                    }
+                });
+            }
+        };
+        extractionTask.messageProperty().addListener((obs, oldMessage, newMessage) -> {
+            if (newMessage != null && !newMessage.isEmpty()) statusBarLabel.setText(newMessage);
+        });
+        extractionTask.setOnSucceeded(event -> {
+            final Map<String, Schema> extractedSchemas = extractionTask.getValue();
+            Schema lastSchema = null;
+            for (Schema extractedSchema : extractedSchemas.values()) {
+                schemaService.addSchema(extractedSchema);
+                lastSchema = extractedSchema;
+            }
+            if (lastSchema != null) setActiveSchema(lastSchema);
+            statusBarLabel.setText("Витягнуто схем: " + extractedSchemas.size() + ".");
+            showAlert(AlertType.INFORMATION, "Витягнення кількох схем", "Успіх", "Витягнуто схеми: " + String.join(", ", extractedSchemas.keySet()));
+        });
+        extractionTask.setOnFailed(event -> handleTaskFailure(extractionTask, "витягнення кількох схем"));
+        extractionTask.setOnCancelled(event -> handleTaskCancellation("витягнення кількох схем"));
+
+        extractionTask.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+            if (!isRunning) {
+                if (extractSchemaMenuItem != null) extractSchemaMenuItem.setDisable(false);
+                updateSchemaActionMenuItemsState();
+            }
         });
+        new Thread(extractionTask).start();
+    }
+
+    /**
+     * Витягує схему одразу в нову директорію знімка (DDL записуються на диск у міру отримання),
+     * після чого завантажує записаний знімок як звичайну схему з директорії.
+     */
+    @FXML
+    private void handleExtractSchemaToDirectory() {
+        Optional<ConnectionDetails> selectedConnectionOpt = chooseConnection("Виберіть підключення для витягнення схеми в директорію:");
+        if (selectedConnectionOpt.isEmpty()) {
+            return;
+        }
+        final ConnectionDetails selectedConnection = selectedConnectionOpt.get();
+
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Виберіть базову директорію для знімка схеми");
+        Preferences prefs = Preferences.userNodeForPackage(MainWindowController.class);
+        String lastUsedBaseDir = prefs.get(PREF_LAST_SAVE_BASE_DIR, null);
+        if (lastUsedBaseDir != null) {
+            File initialDir = new File(lastUsedBaseDir);
+            if (initialDir.isDirectory()) directoryChooser.setInitialDirectory(initialDir);
+        }
+        File selectedBaseDirectory = directoryChooser.showDialog(primaryStage);
+        if (selectedBaseDirectory == null) {
+            statusBarLabel.setText("Витягнення схеми в директорію скасовано.");
+            return;
+        }
+        prefs.put(PREF_LAST_SAVE_BASE_DIR, selectedBaseDirectory.getAbsolutePath());
+
+        final Path baseDirectoryPath = selectedBaseDirectory.toPath();
+        final String schemaDirectoryName = selectedConnection.getName().replaceAll("[^a-zA-Z0-9_.-]", "_") + "_" +
+                selectedConnection.getSchemaName().replaceAll("[^a-zA-Z0-9_.-]", "_") + "_" +
+                LocalDateTime.now().format(DIRECTORY_TIMESTAMP_FORMATTER);
+        final Path targetSchemaDir = baseDirectoryPath.resolve(schemaDirectoryName);
+        if (Files.exists(targetSchemaDir)) {
+            showAlert(AlertType.WARNING, "Витягнення схеми", "Директорія вже існує", "Директорія '" + schemaDirectoryName + "' вже існує. Спробуйте ще раз.");
+            return;
+        }
+
+        if (extractSchemaMenuItem != null) extractSchemaMenuItem.setDisable(true);
+        statusBarLabel.setText("Витягнення схеми " + selectedConnection.getSchemaName() + " з " + selectedConnection.getName() + " у " + schemaDirectoryName + "...");
+
+        Task<Schema> extractionTask = new Task<>() {
+            @Override
+            protected Schema call() throws Exception {
+                OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+                Path writtenDirectory = extractor.extractSchemaToDirectory(selectedConnection, selectedConnection.getSchemaName(),
+                        baseDirectoryPath, schemaDirectoryName, ExtractionOptions.defaults());
+                return schemaService.loadSchemaFromDirectory(writtenDirectory);
+            }
+        };
+        extractionTask.setOnSucceeded(event -> {
+            final Schema extractedSchema = extractionTask.getValue();
+            extractedSchema.setLastSavedPath(targetSchemaDir);
+            schemaService.addSchema(extractedSchema);
+            setActiveSchema(extractedSchema);
+            statusBarLabel.setText("Схему '" + extractedSchema.getName() + "' витягнуто в '" + schemaDirectoryName + "'.");
+            showAlert(AlertType.INFORMATION, "Витягнення схеми", "Успіх", "Схему витягнуто в:\n" + targetSchemaDir.toString());
+        });
+        extractionTask.setOnFailed(event -> handleTaskFailure(extractionTask, "витягнення схеми в директорію"));
+        extractionTask.setOnCancelled(event -> handleTaskCancellation("витягнення схеми в директорію"));
+
+        extractionTask.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+            if (!isRunning) {
+                if (extractSchemaMenuItem != null) extractSchemaMenuItem.setDisable(false);
+                updateSchemaActionMenuItemsState();
+            }
+        });
+        new Thread(extractionTask).start();
     }
 
     private void performSchemaExtraction(ConnectionDetails selectedConnection) {
         if (extractSchemaMenuItem != null) extractSchemaMenuItem.setDisable(true);
         statusBarLabel.setText("Витягнення схеми для " + selectedConnection.getSchemaName() + " з " + selectedConnection.getName() + "...");
 
+        // Якщо ця схема вже витягувалася з цього підключення, отримуємо лише змінені об'єкти
+        final Schema previousSchema = schemaService.findSchemaByCurrentSourceIdentifier(
+                "DB::" + selectedConnection.getId() + "::" + selectedConnection.getSchemaName().toUpperCase());
+
         Task<Schema> extractionTask = new Task<>() {
             @Override
             protected Schema call() throws Exception {
                 OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+                if (previousSchema != null) {
+                    return extractor.extractSchemaIncremental(selectedConnection, selectedConnection.getSchemaName(), previousSchema, ExtractionOptions.defaults());
+                }
                 return extractor.extractSchema(selectedConnection, selectedConnection.getSchemaName());
             }
         };
@@ -329,7 +613,7 @@ public class MainWindowController {
         saveTask.setOnSucceeded(event -> {
             statusBarLabel.setText("Схему '" + schemaToSave.getName() + "' успішно збережено у '" + targetPath.getFileName() + "'.");
             showAlert(AlertType.INFORMATION, "Збереження схеми", "Успіх", "Схему '" + schemaToSave.getName() + "' успішно збережено.");
-            schemaToSave.setCurrentSourceIdentifier("DIR::" + targetPath.toAbsolutePath().toString());
+            schemaService.updateCurrentSourceIdentifier(schemaToSave, "DIR::" + targetPath.toAbsolutePath().toString());
             setActiveSchema(schemaToSave);
         });
         saveTask.setOnFailed(event -> handleTaskFailure(saveTask, "збереження схеми (перезапис)"));
@@ -434,7 +718,7 @@ public class MainWindowController {
 
                 saveTask.setOnSucceeded(event -> {
                     finalSchemaToSave.setLastSavedPath(targetSchemaDir);
-                    finalSchemaToSave.setCurrentSourceIdentifier("DIR::" + targetSchemaDir.toAbsolutePath().toString());
+                    schemaService.updateCurrentSourceIdentifier(finalSchemaToSave, "DIR::" + targetSchemaDir.toAbsolutePath().toString());
                     setActiveSchema(finalSchemaToSave);
                     statusBarLabel.setText("Схему '" + finalSchemaToSave.getName() + "' успішно збережено як '" + finalSchemaDirectoryName + "'.");
                     showAlert(AlertType.INFORMATION, "Збереження схеми", "Успіх", "Схему збережено в:\n" + targetSchemaDir.toString());
@@ -510,19 +794,41 @@ public class MainWindowController {
         statusBarLabel.setText("Порівняння схем: " + sourceSchema.getName() + " та " + targetSchema.getName() + "...");
         if (compareSchemasMenuItem != null) compareSchemasMenuItem.setDisable(true);
 
-        Task<List<Difference>> comparisonTask = new Task<>() {
+        // Копія: зміна правил у меню під час порівняння не впливає на нього
+        final ComparisonOptions options = comparisonOptions.copy();
+        if (schemaComparisonService == null) {
+            showAlert(AlertType.ERROR, "Порівняння схем", "Помилка", "SchemaComparisonService не ініціалізовано.");
+            return;
+        }
+        final ComparisonSession session = schemaComparisonService.openSession(sourceSchema, targetSchema, options);
+        // Вікно результатів відкривається одразу і заповнюється відмінностями в міру їх знаходження
+        final ComparisonResultsController resultsController = openComparisonResultsWindow();
+        final Flow.Subscriber<ComparisonProgress> progressSubscriber = (resultsController != null)
+                ? resultsController.beginStreaming(sourceSchema.getName(), targetSchema.getName()) : null;
+        Task<ComparisonResult> comparisonTask = new Task<>() {
             @Override
-            protected List<Difference> call() throws Exception {
-                if (schemaComparisonService == null) {
-                    throw new IllegalStateException("SchemaComparisonService не ініціалізовано.");
-                }
-                return schemaComparisonService.compareSchemas(sourceSchema, targetSchema);
+            protected ComparisonResult call() throws Exception {
+                // Для невеликих схем накладні витрати на розподіл завдань більші за виграш
+                int objectCount = Math.max(sourceSchema.getObjectCount(), targetSchema.getObjectCount());
+                int parallelism = (objectCount >= PARALLEL_COMPARISON_MIN_OBJECTS) ? Runtime.getRuntime().availableProcessors() : 1;
+                return session.compare(parallelism, progressSubscriber);
             }
         };
+        if (resultsController != null) {
+            // Без вікна результат нікуди показати: закриття вікна під час порівняння скасовує його
+            // (cancel() перериває потік порівняння, а закрите вікно скасовує підписку на проміжні результати).
+            // Для вже завершеного порівняння cancel() нічого не робить.
+            resultsController.setHiddenHandler(comparisonTask::cancel);
+        }
 
         comparisonTask.setOnSucceeded(event -> {
-            List<Difference> differences = comparisonTask.getValue();
-            statusBarLabel.setText("Порівняння завершено. Знайдено відмінностей: " + differences.size());
+            ComparisonResult result = comparisonTask.getValue();
+            List<Difference> differences = result.getDifferences();
+            statusBarLabel.setText("Порівняння завершено. Знайдено відмінностей: " + differences.size()
+                    + (result.getSuppressedDifferences().isEmpty() ? "" : ", приховано правилами: " + result.getSuppressedDifferences().size()));
+            if (schemaComparisonService.getNormalizationCache() != null) {
+                System.out.println(schemaComparisonService.getNormalizationCache().describe());
+            }
 
             if (scriptGenerationService != null && !differences.isEmpty()) {
                 System.out.println("\n--- Генерація скриптів для " + differences.size() + " відмінностей ---");
@@ -544,14 +850,30 @@ public class MainWindowController {
             }
 
             if (differences.isEmpty()) {
+                if (resultsController != null) {
+                    resultsController.close();
+                }
                 showAlert(AlertType.INFORMATION, "Результат порівняння", "Відмінностей не знайдено",
-                        "Схеми '" + sourceSchema.getName() + "' та '" + targetSchema.getName() + "' ідентичні.");
-            } else {
-                showComparisonResultsWindow(differences, sourceSchema.getName(), targetSchema.getName());
+                        "Схеми '" + sourceSchema.getName() + "' та '" + targetSchema.getName() + "' ідентичні"
+                                + (result.getSuppressedDifferences().isEmpty() ? "." : " з урахуванням правил порівняння (приховано відмінностей: "
+                                + result.getSuppressedDifferences().size() + ")."));
+            } else if (resultsController != null) {
+                resultsController.setComparisonResult(result, sourceSchema.getName(), targetSchema.getName());
+                resultsController.setRefreshHandler(() -> refreshComparison(session, resultsController));
             }
         });
-        comparisonTask.setOnFailed(event -> handleTaskFailure(comparisonTask, "порівняння схем"));
-        comparisonTask.setOnCancelled(event -> handleTaskCancellation("порівняння схем"));
+        comparisonTask.setOnFailed(event -> {
+            if (resultsController != null) {
+                resultsController.close();
+            }
+            handleTaskFailure(comparisonTask, "порівняння схем");
+        });
+        comparisonTask.setOnCancelled(event -> {
+            if (resultsController != null) {
+                resultsController.close();
+            }
+            handleTaskCancellation("порівняння схем");
+        });
 
         comparisonTask.runningProperty().addListener((obs, wasRunning, isRunning) -> {
             if (!isRunning) {
@@ -562,29 +884,147 @@ public class MainWindowController {
         new Thread(comparisonTask).start();
     }
 
-    private void showComparisonResultsWindow(List<Difference> differences, String sourceSchemaName, String targetSchemaName) {
+    @FXML
+    private void handleShowDriftMatrix() {
+        List<Schema> availableSchemas = schemaService.getAllSchemas();
+        if (availableSchemas.size() < 2) {
+            showAlert(AlertType.WARNING, "Матриця розбіжностей", "Недостатньо схем", "Для порівняння потрібно щонайменше дві завантажені схеми.");
+            return;
+        }
+
+        ListView<String> schemaListView = new ListView<>(FXCollections.observableArrayList(
+                availableSchemas.stream().map(this::getSchemaDisplayName).collect(Collectors.toList())));
+        schemaListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        schemaListView.getSelectionModel().selectAll();
+        schemaListView.setPrefHeight(240);
+        Dialog<List<String>> schemasDialog = new Dialog<>();
+        schemasDialog.setTitle("Матриця розбіжностей");
+        schemasDialog.setHeaderText("Виберіть середовища (схеми) для порівняння в порядку стовпців матриці:");
+        schemasDialog.getDialogPane().setContent(schemaListView);
+        schemasDialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        schemasDialog.setResultConverter(button -> (button == ButtonType.OK)
+                ? new ArrayList<>(schemaListView.getSelectionModel().getSelectedItems()) : null);
+        Optional<List<String>> schemasResult = schemasDialog.showAndWait();
+        if (schemasResult.isEmpty() || schemasResult.get().size() < 2) {
+            statusBarLabel.setText("Побудову матриці розбіжностей скасовано.");
+            return;
+        }
+        final List<Schema> schemas = new ArrayList<>();
+        for (String displayName : schemaListView.getItems()) {
+            if (schemasResult.get().contains(displayName)) {
+                schemas.add(findSchemaByDisplayName(displayName, availableSchemas));
+            }
+        }
+
+        final ComparisonOptions options = comparisonOptions.copy();
+        statusBarLabel.setText("Порівняння " + schemas.size() + " середовищ...");
+        if (driftMatrixMenuItem != null) driftMatrixMenuItem.setDisable(true);
+        Task<DriftMatrix> driftTask = new Task<>() {
+            @Override
+            protected DriftMatrix call() throws Exception {
+                if (schemaComparisonService == null) {
+                    throw new IllegalStateException("SchemaComparisonService не ініціалізовано.");
+                }
+                return schemaComparisonService.compareAll(schemas, options, Runtime.getRuntime().availableProcessors());
+            }
+        };
+        driftTask.setOnSucceeded(event -> {
+            DriftMatrix matrix = driftTask.getValue();
+            int driftingCount = matrix.getDriftingObjects().size();
+            statusBarLabel.setText("Матрицю розбіжностей побудовано: " + matrix.getObjects().size() + " об'єктів, відрізняються " + driftingCount + ".");
+            TextArea matrixTextArea = new TextArea(matrix.format());
+            matrixTextArea.setEditable(false);
+            matrixTextArea.setStyle("-fx-font-family: monospace;");
+            matrixTextArea.setPrefSize(800, 500);
+            Alert alert = new Alert(AlertType.INFORMATION);
+            alert.setTitle("Матриця розбіжностей");
+            alert.setHeaderText(driftingCount == 0
+                    ? "Усі " + schemas.size() + " середовищ однакові."
+                    : "Об'єктів, що відрізняються між середовищами: " + driftingCount);
+            alert.getDialogPane().setContent(matrixTextArea);
+            alert.setResizable(true);
+            alert.showAndWait();
+        });
+        driftTask.setOnFailed(event -> handleTaskFailure(driftTask, "побудова матриці розбіжностей"));
+        driftTask.setOnCancelled(event -> handleTaskCancellation("побудова матриці розбіжностей"));
+        driftTask.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+            if (!isRunning) {
+                updateSchemaActionMenuItemsState();
+            }
+        });
+        new Thread(driftTask).start();
+    }
+
+    // Вікно результатів не модальне: поки воно відкрите, можна повторно витягти схему і оновити порівняння
+    /**
+     * Відкриває порожнє вікно результатів порівняння (немодальне).
+     * @return Контролер вікна або null, якщо вікно не вдалося відкрити.
+     */
+    private ComparisonResultsController openComparisonResultsWindow() {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/depavlo/ddlschematorfx/view/ComparisonResultsView.fxml"));
             AnchorPane page = loader.load();
 
             Stage resultsStage = new Stage();
             resultsStage.setTitle("Результати порівняння схем");
-            resultsStage.initModality(Modality.WINDOW_MODAL);
+            resultsStage.initModality(Modality.NONE);
             resultsStage.initOwner(primaryStage);
             Scene scene = new Scene(page);
             resultsStage.setScene(scene);
 
             ComparisonResultsController controller = loader.getController();
             controller.setDialogStage(resultsStage);
-            controller.setDifferences(differences, sourceSchemaName, targetSchemaName);
 
-            resultsStage.showAndWait();
+            resultsStage.show();
+            return controller;
 
         } catch (IOException e) {
             e.printStackTrace();
             showAlert(AlertType.ERROR, "Помилка відображення", "Не вдалося відкрити вікно результатів",
                     "Сталася помилка: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Повторне порівняння сеансу з актуальними схемами: якщо схему повторно витягнуто або завантажено з того самого джерела,
+     * у сеанс передається нова схема, і порівнюються лише змінені об'єкти. Таблиця результатів оновлюється на місці.
+     */
+    private void refreshComparison(ComparisonSession session, ComparisonResultsController controller) {
+        final Schema currentSource = findCurrentSchema(session.getSourceSchema());
+        final Schema currentTarget = findCurrentSchema(session.getTargetSchema());
+        controller.setRefreshing(true);
+        statusBarLabel.setText("Повторне порівняння схем: " + currentSource.getName() + " та " + currentTarget.getName() + "...");
+        Task<ComparisonSession.Update> refreshTask = new Task<>() {
+            @Override
+            protected ComparisonSession.Update call() throws Exception {
+                return session.update(currentSource, currentTarget);
+            }
+        };
+        refreshTask.setOnSucceeded(event -> {
+            ComparisonSession.Update update = refreshTask.getValue();
+            controller.applyUpdate(update);
+            statusBarLabel.setText("Повторне порівняння завершено: перевірено об'єктів " + update.recomparedObjectCount()
+                    + ", нових відмінностей " + update.addedDifferences().size() + ", змінених " + update.updatedDifferences().size()
+                    + ", усунутих " + update.resolvedKeys().size() + ". Усього відмінностей: " + update.result().getDifferences().size());
+        });
+        refreshTask.setOnFailed(event -> handleTaskFailure(refreshTask, "повторне порівняння схем"));
+        refreshTask.setOnCancelled(event -> handleTaskCancellation("повторне порівняння схем"));
+        refreshTask.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+            if (!isRunning) {
+                controller.setRefreshing(false);
+            }
+        });
+        new Thread(refreshTask).start();
+    }
+
+    // Схема, зареєстрована зараз під тим самим джерелом (після повторного витягнення - нова), або та сама схема
+    private Schema findCurrentSchema(Schema schema) {
+        if (schemaService == null || schema.getCurrentSourceIdentifier() == null) {
+            return schema;
         }
+        Schema current = schemaService.findSchemaByCurrentSourceIdentifier(schema.getCurrentSourceIdentifier());
+        return (current != null) ? current : schema;
     }
 
     private void handleTaskFailure(Task<?> task, String operationName) {
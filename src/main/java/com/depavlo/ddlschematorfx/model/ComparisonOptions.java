@@ -0,0 +1,105 @@
+package com.depavlo.ddlschematorfx.model;
+
+import com.depavlo.ddlschematorfx.utils.DdlNormalizer;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Параметри порівняння схем: правила, за якими відмінності DDL вважаються незначущими, та пошук перейменувань
+public class ComparisonOptions {
+    public static final double DEFAULT_RENAME_SIMILARITY_THRESHOLD = 0.8;
+
+    // Незначущі відмінності, які специфікація вимагає ігнорувати
+    private static final Set<ComparisonRule> DEFAULT_RULES = EnumSet.of(
+            ComparisonRule.IGNORE_WHITESPACE, ComparisonRule.IGNORE_CASE, ComparisonRule.IGNORE_COMMENTS);
+
+    private final EnumSet<ComparisonRule> rules = EnumSet.copyOf(DEFAULT_RULES);
+    private boolean renameDetectionEnabled = true; // Пари REMOVED + ADDED з подібним DDL - RENAMED
+    private double renameSimilarityThreshold = DEFAULT_RENAME_SIMILARITY_THRESHOLD;
+
+    public static ComparisonOptions defaults() {
+        return new ComparisonOptions();
+    }
+
+    // Точне порівняння: лише без префіксів власника
+    public static ComparisonOptions exact() {
+        ComparisonOptions options = new ComparisonOptions();
+        options.setRules(EnumSet.noneOf(ComparisonRule.class));
+        return options;
+    }
+
+    // Незалежна копія параметрів (для фонового порівняння, поки користувач змінює налаштування)
+    public ComparisonOptions copy() {
+        ComparisonOptions copy = new ComparisonOptions();
+        copy.setRules(rules);
+        copy.renameDetectionEnabled = renameDetectionEnabled;
+        copy.renameSimilarityThreshold = renameSimilarityThreshold;
+        return copy;
+    }
+
+    public Set<ComparisonRule> getRules() {
+        return Collections.unmodifiableSet(rules);
+    }
+
+    public boolean hasRules() {
+        return !rules.isEmpty();
+    }
+
+    /**
+     * @return Правила нормалізатора DDL, що відповідають правилам порівняння.
+     */
+    public Set<DdlNormalizer.Option> getNormalizerOptions() {
+        Set<DdlNormalizer.Option> options = EnumSet.noneOf(DdlNormalizer.Option.class);
+        for (ComparisonRule rule : rules) {
+            options.add(rule.getNormalizerOption());
+        }
+        return options;
+    }
+
+    public void setRules(Set<ComparisonRule> rules) {
+        this.rules.clear();
+        if (rules != null) {
+            this.rules.addAll(rules);
+        }
+    }
+
+    public void setRuleEnabled(ComparisonRule rule, boolean enabled) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Comparison rule must not be null.");
+        }
+        if (enabled) {
+            rules.add(rule);
+        } else {
+            rules.remove(rule);
+        }
+    }
+
+    public boolean isRenameDetectionEnabled() {
+        return renameDetectionEnabled;
+    }
+
+    public void setRenameDetectionEnabled(boolean renameDetectionEnabled) {
+        this.renameDetectionEnabled = renameDetectionEnabled;
+    }
+
+    public double getRenameSimilarityThreshold() {
+        return renameSimilarityThreshold;
+    }
+
+    /**
+     * @param renameSimilarityThreshold Мінімальна оцінка подібності DDL (0, 1], з якою пара REMOVED + ADDED вважається перейменуванням.
+     */
+    public void setRenameSimilarityThreshold(double renameSimilarityThreshold) {
+        if (!(renameSimilarityThreshold > 0 && renameSimilarityThreshold <= 1)) {
+            throw new IllegalArgumentException("Rename similarity threshold must be in (0, 1], got: " + renameSimilarityThreshold);
+        }
+        this.renameSimilarityThreshold = renameSimilarityThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "ComparisonOptions{rules=" + rules + ", renameDetection=" + renameDetectionEnabled
+                + (renameDetectionEnabled ? " (" + renameSimilarityThreshold + ")" : "") + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Проміжний результат порівняння, що публікується під час його виконання
+ * ({@link com.depavlo.ddlschematorfx.service.SchemaComparisonService#compare(Schema, Schema, ComparisonOptions, int, java.util.concurrent.Flow.Subscriber)}).
+ * Містить лише відмінності, знайдені з попередньої публікації; лічильник перевірених об'єктів - загальний.
+ * Перейменування шукаються після завершення порівняння, тому тут їх немає: остаточний список - у {@link ComparisonResult}.
+ */
+public class ComparisonProgress {
+    private final List<Difference> differences;
+    private final int suppressedDifferenceCount;
+    private final int comparedObjectCount;
+    private final int totalObjectCount;
+
+    public ComparisonProgress(List<Difference> differences, int suppressedDifferenceCount, int comparedObjectCount, int totalObjectCount) {
+        this.differences = Collections.unmodifiableList(differences);
+        this.suppressedDifferenceCount = suppressedDifferenceCount;
+        this.comparedObjectCount = comparedObjectCount;
+        this.totalObjectCount = totalObjectCount;
+    }
+
+    // Нові значущі відмінності (без прихованих правилами порівняння)
+    public List<Difference> getDifferences() {
+        return differences;
+    }
+
+    // Нові відмінності, приховані правилами порівняння
+    public int getSuppressedDifferenceCount() {
+        return suppressedDifferenceCount;
+    }
+
+    public int getComparedObjectCount() {
+        return comparedObjectCount;
+    }
+
+    // Об'єкти source і target разом: об'єкт, що є в обох схемах, рахується двічі
+    public int getTotalObjectCount() {
+        return totalObjectCount;
+    }
+
+    public boolean isComplete() {
+        return comparedObjectCount >= totalObjectCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ComparisonProgress{" +
+                "differences=" + differences.size() +
+                ", suppressedDifferenceCount=" + suppressedDifferenceCount +
+                ", comparedObjectCount=" + comparedObjectCount +
+                ", totalObjectCount=" + totalObjectCount +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат порівняння двох схем: відмінності та відмінності, приховані правилами порівняння.
+ * Прихована відмінність - об'єкт, DDL якого відрізняється лише тим, що ігнорують правила
+ * ({@link Difference#getSuppressedByRules()}); скрипти для таких об'єктів не генеруються.
+ */
+public class ComparisonResult {
+    private final List<Difference> differences;
+    private final List<Difference> suppressedDifferences;
+    private final ComparisonOptions options;
+
+    public ComparisonResult(List<Difference> differences, List<Difference> suppressedDifferences, ComparisonOptions options) {
+        this.differences = Collections.unmodifiableList(differences);
+        this.suppressedDifferences = Collections.unmodifiableList(suppressedDifferences);
+        this.options = options;
+    }
+
+    public List<Difference> getDifferences() {
+        return differences;
+    }
+
+    public List<Difference> getSuppressedDifferences() {
+        return suppressedDifferences;
+    }
+
+    public ComparisonOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return Кількість прихованих відмінностей для кожного правила (відмінність може бути прихована кількома правилами).
+     */
+    public Map<ComparisonRule, Integer> getSuppressedCountsByRule() {
+        Map<ComparisonRule, Integer> counts = new EnumMap<>(ComparisonRule.class);
+        for (Difference difference : suppressedDifferences) {
+            for (ComparisonRule rule : difference.getSuppressedByRules()) {
+                counts.merge(rule, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
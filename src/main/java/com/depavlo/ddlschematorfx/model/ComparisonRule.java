@@ -0,0 +1,41 @@
+package com.depavlo.ddlschematorfx.model;
+
+import com.depavlo.ddlschematorfx.utils.DdlNormalizer;
+
+// Правило порівняння: незначуща відмінність DDL, яка не вважається зміною об'єкта
+public enum ComparisonRule {
+    IGNORE_WHITESPACE("Ігнорувати пробіли", DdlNormalizer.Option.IGNORE_WHITESPACE),
+    IGNORE_CASE("Ігнорувати регістр (поза літералами)", DdlNormalizer.Option.IGNORE_CASE),
+    IGNORE_COMMENTS("Ігнорувати коментарі", DdlNormalizer.Option.IGNORE_COMMENTS),
+    IGNORE_STORAGE_CLAUSES("Ігнорувати параметри зберігання", DdlNormalizer.Option.IGNORE_STORAGE_CLAUSES),
+    IGNORE_SYSTEM_CONSTRAINT_NAMES("Ігнорувати системні імена обмежень (SYS_C...)", DdlNormalizer.Option.IGNORE_SYSTEM_CONSTRAINT_NAMES),
+    IGNORE_PARTITION_LISTS("Ігнорувати списки розділів", DdlNormalizer.Option.IGNORE_PARTITION_LISTS);
+
+    private final String displayName;
+    private final DdlNormalizer.Option normalizerOption;
+
+    ComparisonRule(String displayName, DdlNormalizer.Option normalizerOption) {
+        this.displayName = displayName;
+        this.normalizerOption = normalizerOption;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public DdlNormalizer.Option getNormalizerOption() {
+        return normalizerOption;
+    }
+
+    /**
+     * @return Правило, що відповідає правилу нормалізатора, або null.
+     */
+    public static ComparisonRule fromNormalizerOption(DdlNormalizer.Option option) {
+        for (ComparisonRule rule : values()) {
+            if (rule.normalizerOption == option) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
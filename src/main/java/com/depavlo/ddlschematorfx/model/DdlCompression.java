@@ -0,0 +1,95 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Стиснення текстів DDL для {@link DdlContentPool}: DEFLATE із попередньо заданим словником.
+ * Словник містить фрагменти, що повторюються у виводі DBMS_METADATA, тому навіть короткі DDL
+ * стискаються добре, хоча кожен текст стискається окремо і доступний без розпакування сусідніх.
+ * Словник є частиною формату: його зміна робить раніше стиснені дані нечитабельними, тому дані
+ * стискаються лише в пам'яті і ніколи не записуються на диск.
+ */
+final class DdlCompression {
+
+    // Найчастіші фрагменти - наприкінці: DEFLATE дешевше кодує близькі посилання
+    private static final byte[] DICTIONARY = (
+            "COMPRESS BASIC NOCOMPRESS LOGGING NOLOGGING PARALLEL NOPARALLEL CACHE NOCACHE MONITORING " +
+            "PARTITION BY RANGE INTERVAL SUBPARTITION VALUES LESS THAN (MAXVALUE) LOB (\"\") STORE AS SECUREFILE BASICFILE " +
+            "ENABLE STORAGE IN ROW CHUNK RETENTION " +
+            "PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1 BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT " +
+            "STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645 " +
+            "SEGMENT CREATION IMMEDIATE DEFERRED PCTFREE 10 PCTUSED 40 INITRANS 1 MAXTRANS 255 " +
+            "TABLESPACE \"USERS\" " +
+            "CREATE SEQUENCE MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH CACHE 20 NOORDER NOCYCLE NOKEEP NOSCALE GLOBAL ; " +
+            "CREATE OR REPLACE FORCE EDITIONABLE VIEW AS SELECT FROM WHERE AND OR JOIN ON GROUP BY ORDER BY " +
+            "CREATE OR REPLACE EDITIONABLE PACKAGE BODY PROCEDURE FUNCTION RETURN IS AS BEGIN EXCEPTION WHEN OTHERS THEN RAISE; " +
+            "IF THEN ELSIF ELSE END IF; LOOP END LOOP; FOR IN NULL; COMMIT; ROLLBACK; END; " +
+            "VARCHAR2 NUMBER INTEGER BOOLEAN PLS_INTEGER %TYPE %ROWTYPE := SYSDATE " +
+            "CREATE UNIQUE INDEX COMPUTE STATISTICS ON \"\" (\"\") " +
+            "ALTER TABLE ADD CONSTRAINT FOREIGN KEY REFERENCES CHECK UNIQUE PRIMARY KEY USING INDEX ENABLE; " +
+            "DEFAULT NULL NOT NULL ENABLE, DATE TIMESTAMP(6) CLOB BLOB CHAR(1 BYTE) NUMBER(10,0) " +
+            "VARCHAR2(4000 BYTE) VARCHAR2(255 BYTE) VARCHAR2(100 BYTE) VARCHAR2(50 BYTE), " +
+            "CREATE TABLE \"\".\"\" \n  (\t\"\" \n   ) \n  \n  ;\n"
+    ).getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private DdlCompression() {
+    }
+
+    // Стиснений текст і довжина його UTF-8 представлення (потрібна для розпакування без перевиділень)
+    record CompressedText(byte[] data, int utf8Length) {
+    }
+
+    static CompressedText compress(String text) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(input);
+        deflater.finish();
+        // Нестисливий вхід може дещо збільшитися; запас за оцінкою zlib (deflateBound)
+        byte[] buffer = new byte[input.length + (input.length >> 12) + (input.length >> 14) + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return new CompressedText(Arrays.copyOf(buffer, length), input.length);
+    }
+
+    static String decompress(CompressedText compressed) {
+        int utf8Length = compressed.utf8Length();
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(compressed.data());
+        byte[] output = new byte[utf8Length];
+        try {
+            int length = 0;
+            while (length < utf8Length) {
+                int inflated = inflater.inflate(output, length, utf8Length - length);
+                if (inflated == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.finished() || inflater.needsInput()) {
+                        break;
+                    }
+                }
+                length += inflated;
+            }
+            if (length != utf8Length) {
+                throw new IllegalStateException("Compressed DDL is truncated: expected " + utf8Length + " bytes, got " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed DDL is corrupted: " + e.getMessage(), e);
+        }
+        return new String(output, StandardCharsets.UTF_8);
+    }
+}
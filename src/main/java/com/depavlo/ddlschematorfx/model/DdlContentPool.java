@@ -0,0 +1,229 @@
+package com.depavlo.ddlschematorfx.model;
+
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Спільний пул текстів DDL з адресацією за вмістом.
+ * Кожен текст зберігається один раз під ключем SHA-256 ({@link DdlUtils#sha256Hex(String)}) з лічильником посилань;
+ * схеми тримають лише ключі. Однакові DDL із різних середовищ та знімків займають пам'ять один раз,
+ * а текст видаляється з пулу, щойно на нього не лишається посилань.
+ * Пул потокобезпечний: схеми наповнюються у фонових потоках витягнення, поки інтерфейс читає інші.
+ * <p>
+ * У режимі стиснення ({@link #setCompressionEnabled(boolean)}) нові тексти, довші за {@link #MIN_COMPRESSED_LENGTH},
+ * зберігаються стисненими ({@link DdlCompression}) і розпаковуються при читанні; останні прочитані тексти
+ * тримаються розпакованими в невеликому LRU-кеші. Тексти, додані до ввімкнення режиму, лишаються нестисненими.
+ */
+public final class DdlContentPool {
+
+    // Коротші тексти не стискаються: виграш менший за накладні витрати на масив і розпакування
+    public static final int MIN_COMPRESSED_LENGTH = 256;
+    public static final int DEFAULT_HOT_CACHE_SIZE = 512;
+
+    private static final DdlContentPool SHARED = new DdlContentPool();
+
+    private final ConcurrentHashMap<String, PooledDdl> entries = new ConcurrentHashMap<>();
+    private final AtomicLong referenceCount = new AtomicLong();
+    private final AtomicLong storedChars = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong(); // Оцінка: довжина тексту (компактні рядки) або розмір стиснених даних
+    private final Map<String, String> hotCache; // Розпаковані тексти, до яких зверталися останніми (ключ - хеш)
+    private volatile boolean compressionEnabled = false;
+
+    public DdlContentPool() {
+        this(DEFAULT_HOT_CACHE_SIZE);
+    }
+
+    public DdlContentPool(int hotCacheSize) {
+        if (hotCacheSize < 0) {
+            throw new IllegalArgumentException("Hot cache size must be non-negative, got: " + hotCacheSize);
+        }
+        this.hotCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > hotCacheSize;
+            }
+        };
+    }
+
+    public static DdlContentPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Додає посилання на текст DDL (текст зберігається, якщо його ще немає у пулі).
+     * @return Ключ тексту; той самий екземпляр String для однакових текстів.
+     */
+    public String acquire(String ddl) {
+        if (ddl == null) {
+            throw new IllegalArgumentException("DDL must not be null.");
+        }
+        String hash = DdlUtils.sha256Hex(ddl);
+        // Стискаємо поза compute, щоб не тримати блокування мапи; для вже відомого тексту стиснення не потрібне
+        DdlCompression.CompressedText compressed = (compressionEnabled && ddl.length() >= MIN_COMPRESSED_LENGTH && !entries.containsKey(hash))
+                ? DdlCompression.compress(ddl) : null;
+        PooledDdl pooled = entries.compute(hash, (key, existing) -> {
+            if (existing == null) {
+                PooledDdl created = (compressed != null)
+                        ? new PooledDdl(key, null, compressed, ddl.length())
+                        : new PooledDdl(key, ddl, null, ddl.length());
+                storedChars.addAndGet(created.length);
+                storedBytes.addAndGet(created.storedBytes());
+                return created;
+            }
+            existing.references++;
+            return existing;
+        });
+        referenceCount.incrementAndGet();
+        return pooled.hash;
+    }
+
+    /**
+     * Додає ще одне посилання на текст, що вже є в пулі (без обчислення хешу).
+     * @return Ключ тексту або null, якщо такого тексту в пулі немає.
+     */
+    public String acquireExisting(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        PooledDdl pooled = entries.computeIfPresent(hash, (key, existing) -> {
+            existing.references++;
+            return existing;
+        });
+        if (pooled == null) {
+            return null;
+        }
+        referenceCount.incrementAndGet();
+        return pooled.hash;
+    }
+
+    /**
+     * Знімає посилання; текст без посилань видаляється з пулу.
+     */
+    public void release(String hash) {
+        if (hash == null) {
+            return;
+        }
+        boolean[] released = new boolean[1];
+        entries.computeIfPresent(hash, (key, existing) -> {
+            released[0] = true;
+            if (--existing.references > 0) {
+                return existing;
+            }
+            storedChars.addAndGet(-existing.length);
+            storedBytes.addAndGet(-existing.storedBytes());
+            if (existing.compressed != null) {
+                synchronized (hotCache) {
+                    hotCache.remove(key);
+                }
+            }
+            return null;
+        });
+        if (released[0]) {
+            referenceCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return Текст DDL або null, якщо ключ невідомий.
+     */
+    public String get(String hash) {
+        PooledDdl pooled = (hash != null) ? entries.get(hash) : null;
+        if (pooled == null) {
+            return null;
+        }
+        if (pooled.ddl != null) {
+            return pooled.ddl;
+        }
+        synchronized (hotCache) {
+            String cached = hotCache.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String ddl = DdlCompression.decompress(pooled.compressed);
+        synchronized (hotCache) {
+            // Текст могли звільнити, поки він розпаковувався; тоді не кешуємо його
+            if (entries.get(hash) == pooled) {
+                hotCache.put(hash, ddl);
+            }
+        }
+        return ddl;
+    }
+
+    /**
+     * @return Оцінка пам'яті під текст (див. {@link #getStoredBytes()}), байт; 0, якщо ключ невідомий.
+     */
+    public long getStoredSize(String hash) {
+        PooledDdl pooled = (hash != null) ? entries.get(hash) : null;
+        return (pooled != null) ? pooled.storedBytes() : 0;
+    }
+
+    /**
+     * @return Кількість посилань на текст; 0, якщо ключ невідомий.
+     */
+    public int getReferenceCount(String hash) {
+        PooledDdl pooled = (hash != null) ? entries.get(hash) : null;
+        return (pooled != null) ? pooled.references : 0;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Вмикає або вимикає стиснення для текстів, що додаються до пулу надалі.
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    // Кількість унікальних текстів
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    // Кількість посилань з усіх схем (кількість об'єктів, якби кожна схема зберігала власну копію)
+    public long getReferenceCount() {
+        return referenceCount.get();
+    }
+
+    // Загальна довжина унікальних текстів, символів
+    public long getStoredChars() {
+        return storedChars.get();
+    }
+
+    // Оцінка пам'яті, яку займають тексти (без розпакованих копій у кеші), байт
+    public long getStoredBytes() {
+        return storedBytes.get();
+    }
+
+    public String describe() {
+        return "DDL у пулі: " + getEntryCount() + " унікальних текстів на " + getReferenceCount() + " посилань, "
+                + (getStoredChars() / 1000) + " тис. символів, ~" + (getStoredBytes() / 1024) + " КБ"
+                + (compressionEnabled ? " (стиснення ввімкнено)" : "");
+    }
+
+    // references змінюється лише всередині compute*; volatile - для читання поза ними (getReferenceCount)
+    private static final class PooledDdl {
+        private final String hash;
+        private final String ddl; // null, якщо текст зберігається стисненим
+        private final DdlCompression.CompressedText compressed;
+        private final int length;
+        private volatile int references = 1;
+
+        private PooledDdl(String hash, String ddl, DdlCompression.CompressedText compressed, int length) {
+            this.hash = hash;
+            this.ddl = ddl;
+            this.compressed = compressed;
+            this.length = length;
+        }
+
+        private long storedBytes() {
+            return (compressed != null) ? compressed.data().length : length;
+        }
+    }
+}
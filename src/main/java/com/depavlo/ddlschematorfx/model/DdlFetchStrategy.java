@@ -0,0 +1,7 @@
+package com.depavlo.ddlschematorfx.model;
+
+// Стратегія отримання DDL з DBMS_METADATA під час витягнення схеми
+public enum DdlFetchStrategy {
+    PER_OBJECT, // Окремий виклик DBMS_METADATA.GET_DDL для кожного об'єкта
+    BULK // Один дескриптор DBMS_METADATA.OPEN на тип об'єкта з пакетним FETCH_DDL
+}
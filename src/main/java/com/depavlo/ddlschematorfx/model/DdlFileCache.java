@@ -0,0 +1,84 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Обмежений кеш вмісту файлів DDL для схем, відкритих з директорії без попереднього читання файлів.
+ * Тексти витісняються за принципом LRU, коли їхня сумарна довжина перевищує межу, тому пам'ять
+ * залежить лише від того, до яких об'єктів зверталися порівняння та інтерфейс, а не від розміру знімка.
+ * Ключ кешу включає розмір і час зміни файлу, тому змінений файл читається заново.
+ */
+public final class DdlFileCache {
+
+    public static final long DEFAULT_MAX_CACHED_CHARS = 64L * 1024 * 1024;
+
+    private static final DdlFileCache SHARED = new DdlFileCache(DEFAULT_MAX_CACHED_CHARS);
+
+    private final long maxCachedChars;
+    private final LinkedHashMap<LazyDdlFile, String> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedChars = 0;
+    private long hitCount = 0;
+    private long readCount = 0;
+
+    public DdlFileCache(long maxCachedChars) {
+        if (maxCachedChars < 0) {
+            throw new IllegalArgumentException("Max cached chars must be non-negative, got: " + maxCachedChars);
+        }
+        this.maxCachedChars = maxCachedChars;
+    }
+
+    public static DdlFileCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Повертає вміст файлу з кешу або читає його з диска.
+     */
+    public String read(LazyDdlFile ddlFile) throws IOException {
+        LazyDdlFile key = ddlFile.withDdlHash(null); // Хеш не впливає на вміст
+        synchronized (this) {
+            String cached = cache.get(key);
+            if (cached != null) {
+                hitCount++;
+                return cached;
+            }
+        }
+        // Читання файлу - поза блокуванням, щоб повільний диск не зупиняв інші звернення до кешу
+        String ddl = Files.readString(ddlFile.file(), StandardCharsets.UTF_8);
+        synchronized (this) {
+            readCount++;
+            if (ddl.length() <= maxCachedChars && cache.put(key, ddl) == null) {
+                cachedChars += ddl.length();
+                evict();
+            }
+        }
+        return ddl;
+    }
+
+    private void evict() {
+        var iterator = cache.entrySet().iterator();
+        while (cachedChars > maxCachedChars && iterator.hasNext()) {
+            Map.Entry<LazyDdlFile, String> eldest = iterator.next();
+            cachedChars -= eldest.getValue().length();
+            iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        cachedChars = 0;
+    }
+
+    public synchronized long getCachedChars() {
+        return cachedChars;
+    }
+
+    public synchronized String describe() {
+        return "Кеш файлів DDL: " + cache.size() + " текстів, " + (cachedChars / 1000) + " тис. символів (межа "
+                + (maxCachedChars / 1000) + " тис.), прочитано з диска " + readCount + ", з кешу " + hitCount;
+    }
+}
@@ -1,16 +1,23 @@
 package com.depavlo.ddlschematorfx.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
 // Клас для представлення знайденої відмінності між схемами
 public class Difference {
-    private DifferenceType type; // Тип зміни (ADDED, REMOVED, MODIFIED)
+    private DifferenceType type; // Тип зміни (ADDED, REMOVED, MODIFIED, RENAMED)
     private ObjectType objectType; // Тип об'єкта (TABLE, PROCEDURE тощо)
     private String objectName; // Ім'я об'єкта
     private String objectOwner; // Власник об'єкта
     private String sourceDdl; // DDL об'єкта в першій схемі (для порівняння або видалення)
     private String targetDdl; // DDL об'єкта в другій схемі (для порівняння або створення)
     private String diffDetails; // Деталі відмінностей (наприклад, результат текстового diff)
+    private Set<ComparisonRule> suppressedByRules = Collections.emptySet(); // Правила, що приховали відмінність (порожньо - відмінність значуща)
+    private String previousObjectName; // Для RENAMED: ім'я об'єкта в source (objectName - нове ім'я в target)
+    private double similarity; // Для RENAMED: оцінка подібності DDL від 0 до 1
+    private boolean definitionChanged; // Для RENAMED: нормалізований DDL без імені об'єкта відрізняється (крім імені змінилося й визначення)
 
     // Конструктор
     public Difference(DifferenceType type, ObjectType objectType, String objectName, String objectOwner, String sourceDdl, String targetDdl, String diffDetails) {
@@ -23,6 +30,30 @@ public class Difference {
         this.diffDetails = diffDetails;
     }
 
+    // Конструктор для відмінності, прихованої правилами порівняння
+    public Difference(DifferenceType type, ObjectType objectType, String objectName, String objectOwner, String sourceDdl, String targetDdl, String diffDetails,
+                      Set<ComparisonRule> suppressedByRules) {
+        this(type, objectType, objectName, objectOwner, sourceDdl, targetDdl, diffDetails);
+        if (suppressedByRules != null && !suppressedByRules.isEmpty()) {
+            this.suppressedByRules = Collections.unmodifiableSet(EnumSet.copyOf(suppressedByRules));
+        }
+    }
+
+    // Конструктор для перейменованого об'єкта
+    // similarity - лише оцінка (MinHash), тому чи змінилося визначення, передається окремо за точним порівнянням текстів
+    public static Difference renamed(ObjectType objectType, String previousObjectName, String objectName, String objectOwner,
+                                     String sourceDdl, String targetDdl, double similarity, boolean definitionChanged) {
+        if (similarity < 0 || similarity > 1) {
+            throw new IllegalArgumentException("Similarity must be between 0 and 1, got: " + similarity);
+        }
+        Difference difference = new Difference(DifferenceType.RENAMED, objectType, objectName, objectOwner, sourceDdl, targetDdl,
+                String.format("Object renamed from %s to %s (similarity %.2f)", previousObjectName, objectName, similarity));
+        difference.previousObjectName = previousObjectName;
+        difference.similarity = similarity;
+        difference.definitionChanged = definitionChanged;
+        return difference;
+    }
+
     // Гетери
     public DifferenceType getType() {
         return type;
@@ -52,6 +83,26 @@ public class Difference {
         return diffDetails;
     }
 
+    public Set<ComparisonRule> getSuppressedByRules() {
+        return suppressedByRules;
+    }
+
+    public boolean isSuppressed() {
+        return !suppressedByRules.isEmpty();
+    }
+
+    public String getPreviousObjectName() {
+        return previousObjectName;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public boolean isDefinitionChanged() {
+        return definitionChanged;
+    }
+
     // Сетери (якщо потрібні)
     // public void setDiffDetails(String diffDetails) { this.diffDetails = diffDetails; }
 
@@ -62,6 +113,7 @@ public class Difference {
                "type=" + type +
                ", objectType=" + objectType +
                ", objectName='" + objectName + '\'' +
+               (previousObjectName != null ? ", previousObjectName='" + previousObjectName + '\'' : "") +
                ", objectOwner='" + objectOwner + '\'' +
                '}';
     }
@@ -4,5 +4,6 @@ package com.depavlo.ddlschematorfx.model;
 public enum DifferenceType {
     ADDED,
     REMOVED,
-    MODIFIED
+    MODIFIED,
+    RENAMED // Об'єкт source перейменовано: пара REMOVED + ADDED з подібним DDL
 }
\ No newline at end of file
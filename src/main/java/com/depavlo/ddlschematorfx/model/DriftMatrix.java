@@ -0,0 +1,183 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат порівняння кількох середовищ (схем) за один прохід.
+ * Для кожного об'єкта зберігається, який варіант DDL має кожне середовище: середовища з однаковим варіантом
+ * після нормалізації збігаються. Для кожного типу об'єктів є зведений хеш середовища, за яким
+ * можна швидко побачити, чи збігаються середовища в цілому.
+ */
+public class DriftMatrix {
+
+    public static final int ABSENT = -1; // Об'єкта немає в середовищі
+    public static final int UNKNOWN = -2; // Об'єкт є, але його DDL не вдалося прочитати: збіг з іншими середовищами невідомий
+
+    /**
+     * Рядок матриці: варіанти DDL одного об'єкта в середовищах.
+     * Варіанти нумеруються з 0 у порядку середовищ, у яких вони трапилися вперше.
+     */
+    public static final class ObjectDrift {
+        private final ObjectType objectType;
+        private final String objectName;
+        private final int[] variants;
+        private final int variantCount;
+
+        public ObjectDrift(ObjectType objectType, String objectName, int[] variants, int variantCount) {
+            this.objectType = objectType;
+            this.objectName = objectName;
+            this.variants = variants.clone();
+            this.variantCount = variantCount;
+        }
+
+        public ObjectType getObjectType() {
+            return objectType;
+        }
+
+        public String getObjectName() {
+            return objectName;
+        }
+
+        /**
+         * @return Номер варіанту DDL у середовищі, {@link #ABSENT} або {@link #UNKNOWN}.
+         */
+        public int getVariant(int environmentIndex) {
+            return variants[environmentIndex];
+        }
+
+        public int getVariantCount() {
+            return variantCount;
+        }
+
+        // Чи однаковий об'єкт в обох середовищах (відсутність в обох теж вважається збігом, непрочитаний DDL - ні)
+        public boolean agrees(int environmentIndex, int otherEnvironmentIndex) {
+            return variants[environmentIndex] == variants[otherEnvironmentIndex] && variants[environmentIndex] != UNKNOWN;
+        }
+
+        // Об'єкт є в усіх середовищах з однаковим прочитаним DDL
+        public boolean isConsistent() {
+            for (int variant : variants) {
+                if (variant != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Зведення за типом об'єктів.
+     * Зведений хеш середовища - SHA-256 впорядкованого списку імен об'єктів цього типу з відбитками; null - об'єктів типу немає.
+     * Об'єкт з непрочитаним DDL додає до хешу позначку, унікальну для середовища, тому такий хеш не збігається з жодним іншим.
+     */
+    public static final class TypeSummary {
+        private final ObjectType objectType;
+        private final String[] summaryHashes;
+        private final int objectCount;
+        private final int driftingObjectCount;
+
+        public TypeSummary(ObjectType objectType, String[] summaryHashes, int objectCount, int driftingObjectCount) {
+            this.objectType = objectType;
+            this.summaryHashes = summaryHashes.clone();
+            this.objectCount = objectCount;
+            this.driftingObjectCount = driftingObjectCount;
+        }
+
+        public ObjectType getObjectType() {
+            return objectType;
+        }
+
+        public String getSummaryHash(int environmentIndex) {
+            return summaryHashes[environmentIndex];
+        }
+
+        // Кількість різних об'єктів цього типу в усіх середовищах разом
+        public int getObjectCount() {
+            return objectCount;
+        }
+
+        public int getDriftingObjectCount() {
+            return driftingObjectCount;
+        }
+
+        public boolean isAllEqual() {
+            return driftingObjectCount == 0;
+        }
+    }
+
+    private final List<String> environmentNames;
+    private final List<ObjectDrift> objects;
+    private final Map<ObjectType, TypeSummary> typeSummaries;
+    private final ComparisonOptions options;
+
+    public DriftMatrix(List<String> environmentNames, List<ObjectDrift> objects, Map<ObjectType, TypeSummary> typeSummaries,
+                       ComparisonOptions options) {
+        this.environmentNames = List.copyOf(environmentNames);
+        this.objects = Collections.unmodifiableList(objects);
+        this.typeSummaries = Collections.unmodifiableMap(typeSummaries);
+        this.options = options;
+    }
+
+    public List<String> getEnvironmentNames() {
+        return environmentNames;
+    }
+
+    // Усі об'єкти, впорядковані за типом та ім'ям
+    public List<ObjectDrift> getObjects() {
+        return objects;
+    }
+
+    public List<ObjectDrift> getDriftingObjects() {
+        List<ObjectDrift> drifting = new ArrayList<>();
+        for (ObjectDrift object : objects) {
+            if (!object.isConsistent()) {
+                drifting.add(object);
+            }
+        }
+        return drifting;
+    }
+
+    public Map<ObjectType, TypeSummary> getTypeSummaries() {
+        return typeSummaries;
+    }
+
+    public ComparisonOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Текстове подання: зведення за типами і рядки об'єктів, що відрізняються
+     * (літера - варіант DDL, {@code -} - об'єкта немає, {@code ?} - DDL не вдалося прочитати).
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append("Середовища: ");
+        for (int i = 0; i < environmentNames.size(); i++) {
+            text.append(i > 0 ? ", " : "").append(i + 1).append(" = ").append(environmentNames.get(i));
+        }
+        text.append("\n\nЗведення за типами:\n");
+        for (TypeSummary summary : typeSummaries.values()) {
+            text.append(summary.getObjectType()).append(": ")
+                    .append(summary.isAllEqual() ? "однакові" : "відрізняються (" + summary.getDriftingObjectCount() + " з " + summary.getObjectCount() + ")");
+            text.append(" [");
+            for (int i = 0; i < environmentNames.size(); i++) {
+                String hash = summary.getSummaryHash(i);
+                text.append(i > 0 ? " " : "").append(hash != null ? hash.substring(0, 8) : "--------");
+            }
+            text.append("]\n");
+        }
+        List<ObjectDrift> drifting = getDriftingObjects();
+        text.append("\nОб'єкти, що відрізняються: ").append(drifting.size()).append('\n');
+        for (ObjectDrift object : drifting) {
+            for (int i = 0; i < environmentNames.size(); i++) {
+                int variant = object.getVariant(i);
+                text.append(variant == ABSENT ? '-' : variant == UNKNOWN ? '?' : (char) ('A' + Math.min(variant, 25)));
+            }
+            text.append("  ").append(object.getObjectType()).append(' ').append(object.getObjectName()).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.depavlo.ddlschematorfx.model;
+
+// Параметри витягнення схеми з БД (кількість паралельних з'єднань, стратегія отримання DDL тощо)
+public class ExtractionOptions {
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final int MAX_PARALLELISM = 64;
+    public static final int DEFAULT_BULK_FETCH_SIZE = 100;
+    public static final int MAX_BULK_FETCH_SIZE = 1000; // Більші пакети не зменшують кількість звернень помітно, але тримають усі DDL пакета в пам'яті
+    public static final int DEFAULT_LOB_PREFETCH_SIZE = 32768;
+
+    private int parallelism = DEFAULT_PARALLELISM; // Кількість робочих з'єднань для отримання DDL (1 = послідовний режим)
+    private DdlFetchStrategy fetchStrategy = DdlFetchStrategy.PER_OBJECT;
+    private int bulkFetchSize = DEFAULT_BULK_FETCH_SIZE; // Кількість об'єктів за один FETCH_DDL у режимі BULK
+    private int lobPrefetchSize = DEFAULT_LOB_PREFETCH_SIZE; // oracle.jdbc.defaultLobPrefetchSize для з'єднань (-1 = значення драйвера)
+    private boolean adaptiveConcurrency = false; // Адаптивно змінювати кількість одночасних викликів GET_DDL між minParallelism і parallelism
+    private int minParallelism = 1; // Нижня межа одночасних викликів в адаптивному режимі
+    private double maxCallsPerSecond = 0; // Жорстка межа викликів GET_DDL за секунду (0 = без обмеження)
+    private MetadataTransformProfile transformProfile = MetadataTransformProfile.DATABASE_DEFAULT; // NLS та параметри трансформації DDL для сесій витягнення
+    private boolean serverSideHashing = false; // При інкрементальному витягненні порівнювати хеш DDL, обчислений у БД, замість LAST_DDL_TIME
+    private ObjectFilter objectFilter = ObjectFilter.acceptAll(); // Типи та шаблони імен об'єктів, що витягуються
+
+    public static ExtractionOptions defaults() {
+        return new ExtractionOptions();
+    }
+
+    // Гетери
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public DdlFetchStrategy getFetchStrategy() {
+        return fetchStrategy;
+    }
+
+    public int getBulkFetchSize() {
+        return bulkFetchSize;
+    }
+
+    public int getLobPrefetchSize() {
+        return lobPrefetchSize;
+    }
+
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public int getMinParallelism() {
+        return minParallelism;
+    }
+
+    public double getMaxCallsPerSecond() {
+        return maxCallsPerSecond;
+    }
+
+    public MetadataTransformProfile getTransformProfile() {
+        return transformProfile;
+    }
+
+    public boolean isServerSideHashing() {
+        return serverSideHashing;
+    }
+
+    public ObjectFilter getObjectFilter() {
+        return objectFilter;
+    }
+
+    // Сетери
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM) {
+            throw new IllegalArgumentException("Parallelism must be between 1 and " + MAX_PARALLELISM + ", got: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public void setFetchStrategy(DdlFetchStrategy fetchStrategy) {
+        this.fetchStrategy = (fetchStrategy != null) ? fetchStrategy : DdlFetchStrategy.PER_OBJECT;
+    }
+
+    public void setBulkFetchSize(int bulkFetchSize) {
+        if (bulkFetchSize < 1 || bulkFetchSize > MAX_BULK_FETCH_SIZE) {
+            throw new IllegalArgumentException("Bulk fetch size must be between 1 and " + MAX_BULK_FETCH_SIZE + ", got: " + bulkFetchSize);
+        }
+        this.bulkFetchSize = bulkFetchSize;
+    }
+
+    public void setLobPrefetchSize(int lobPrefetchSize) {
+        if (lobPrefetchSize < -1) {
+            throw new IllegalArgumentException("LOB prefetch size must be -1 (driver default) or non-negative, got: " + lobPrefetchSize);
+        }
+        this.lobPrefetchSize = lobPrefetchSize;
+    }
+
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    public void setMinParallelism(int minParallelism) {
+        if (minParallelism < 1 || minParallelism > MAX_PARALLELISM) {
+            throw new IllegalArgumentException("Min parallelism must be between 1 and " + MAX_PARALLELISM + ", got: " + minParallelism);
+        }
+        this.minParallelism = minParallelism;
+    }
+
+    public void setMaxCallsPerSecond(double maxCallsPerSecond) {
+        if (maxCallsPerSecond < 0 || Double.isNaN(maxCallsPerSecond)) {
+            throw new IllegalArgumentException("Max calls per second must be 0 (unlimited) or positive, got: " + maxCallsPerSecond);
+        }
+        this.maxCallsPerSecond = maxCallsPerSecond;
+    }
+
+    public void setTransformProfile(MetadataTransformProfile transformProfile) {
+        this.transformProfile = (transformProfile != null) ? transformProfile : MetadataTransformProfile.DATABASE_DEFAULT;
+    }
+
+    public void setServerSideHashing(boolean serverSideHashing) {
+        this.serverSideHashing = serverSideHashing;
+    }
+
+    public void setObjectFilter(ObjectFilter objectFilter) {
+        this.objectFilter = (objectFilter != null) ? objectFilter : ObjectFilter.acceptAll();
+    }
+
+    /**
+     * @return true, якщо виклики GET_DDL потрібно пропускати через обмежувач (адаптивна кількість або межа викликів за секунду).
+     */
+    public boolean isCallRateLimited() {
+        return adaptiveConcurrency || maxCallsPerSecond > 0;
+    }
+
+    public boolean isParallel() {
+        return parallelism > 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionOptions{" +
+                "parallelism=" + parallelism +
+                ", fetchStrategy=" + fetchStrategy +
+                ", bulkFetchSize=" + bulkFetchSize +
+                ", lobPrefetchSize=" + lobPrefetchSize +
+                ", adaptiveConcurrency=" + adaptiveConcurrency +
+                ", minParallelism=" + minParallelism +
+                ", maxCallsPerSecond=" + maxCallsPerSecond +
+                ", transformProfile=" + transformProfile +
+                ", serverSideHashing=" + serverSideHashing +
+                ", objectFilter=" + objectFilter +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.nio.file.Path;
+
+/**
+ * Запис індексу знімка, відкритого з директорії: файл DDL об'єкта, вміст якого ще не прочитано.
+ * Розмір і час зміни фіксуються під час відкриття знімка і є частиною ключа кешу {@link DdlFileCache}.
+ * @param ddlHash SHA-256 вмісту з маніфесту знімка або обчислений при першому читанні; null - ще невідомий.
+ */
+public record LazyDdlFile(Path file, long size, long lastModifiedMillis, String ddlHash) {
+
+    public LazyDdlFile withDdlHash(String ddlHash) {
+        return new LazyDdlFile(file, size, lastModifiedMillis, ddlHash);
+    }
+}
@@ -0,0 +1,69 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Іменований набір параметрів сесії витягнення: NLS та DBMS_METADATA.SET_TRANSFORM_PARAM
+public enum MetadataTransformProfile {
+    // Без фізичних атрибутів (STORAGE, TABLESPACE, SEGMENT ATTRIBUTES): менший обсяг DDL і менше хибних відмінностей між середовищами
+    COMPARE_LEAN("compare-lean", true, transformParams(false)),
+    // Повний DDL з фізичними атрибутами, як для відтворення об'єктів один в один
+    FULL_FIDELITY("full-fidelity", true, transformParams(true)),
+    // Сесія не змінюється: NLS і параметри трансформації DBMS_METADATA - як налаштовано в БД
+    DATABASE_DEFAULT("database-default", false, Collections.emptyMap());
+
+    private final String profileName;
+    private final boolean stableNls;
+    private final Map<String, Boolean> transformParams;
+
+    MetadataTransformProfile(String profileName, boolean stableNls, Map<String, Boolean> transformParams) {
+        this.profileName = profileName;
+        this.stableNls = stableNls;
+        this.transformParams = Collections.unmodifiableMap(transformParams);
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    /**
+     * @return true, якщо сесія отримує фіксовані NLS-параметри, незалежні від локалі клієнта та налаштувань БД.
+     */
+    public boolean isStableNls() {
+        return stableNls;
+    }
+
+    /**
+     * @return Параметри трансформації DDL (назва параметра DBMS_METADATA -> значення) у порядку застосування.
+     */
+    public Map<String, Boolean> getTransformParams() {
+        return transformParams;
+    }
+
+    /**
+     * @return Профіль за назвою (наприклад, "compare-lean") або null, якщо назва невідома.
+     */
+    public static MetadataTransformProfile fromProfileName(String profileName) {
+        for (MetadataTransformProfile profile : values()) {
+            if (profile.profileName.equalsIgnoreCase(profileName) || profile.name().equalsIgnoreCase(profileName)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Boolean> transformParams(boolean physicalAttributes) {
+        Map<String, Boolean> params = new LinkedHashMap<>();
+        params.put("SEGMENT_ATTRIBUTES", physicalAttributes);
+        params.put("STORAGE", physicalAttributes);
+        params.put("TABLESPACE", physicalAttributes);
+        params.put("PRETTY", true);
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        return profileName;
+    }
+}
@@ -0,0 +1,161 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Фільтр об'єктів схеми: типи та шаблони імен для включення/виключення.
+ * Під час витягнення перетворюється на умови WHERE запиту до all_objects, тому виключені об'єкти
+ * взагалі не отримуються; той самий фільтр застосовується при завантаженні знімка з директорії.
+ * Об'єкт проходить фільтр, якщо його тип дозволено, ім'я відповідає хоча б одному шаблону включення
+ * (або їх немає) і не відповідає жодному шаблону виключення.
+ */
+public class ObjectFilter {
+
+    // Синтаксис шаблонів імен
+    public enum PatternSyntax {
+        LIKE, // Шаблон SQL LIKE: % - будь-яка послідовність, _ - один символ, \ - екранування
+        REGEX // Регулярний вираз (REGEXP_LIKE у БД, java.util.regex при завантаженні з директорії)
+    }
+
+    private final Set<ObjectType> objectTypes = EnumSet.noneOf(ObjectType.class); // Порожній набір - усі типи
+    private final List<String> includePatterns = new ArrayList<>();
+    private final List<String> excludePatterns = new ArrayList<>();
+    private PatternSyntax patternSyntax = PatternSyntax.LIKE;
+
+    // Скомпільовані шаблони для перевірки на стороні клієнта (створюються за потреби)
+    private List<Pattern> compiledIncludes;
+    private List<Pattern> compiledExcludes;
+
+    public static ObjectFilter acceptAll() {
+        return new ObjectFilter();
+    }
+
+    // Гетери
+    public Set<ObjectType> getObjectTypes() {
+        return Collections.unmodifiableSet(objectTypes);
+    }
+
+    public List<String> getIncludePatterns() {
+        return Collections.unmodifiableList(includePatterns);
+    }
+
+    public List<String> getExcludePatterns() {
+        return Collections.unmodifiableList(excludePatterns);
+    }
+
+    public PatternSyntax getPatternSyntax() {
+        return patternSyntax;
+    }
+
+    // Сетери
+    public void setObjectTypes(Set<ObjectType> types) {
+        objectTypes.clear();
+        if (types != null) {
+            objectTypes.addAll(types);
+        }
+    }
+
+    public void addIncludePattern(String pattern) {
+        includePatterns.add(validatePattern(pattern));
+        compiledIncludes = null;
+    }
+
+    public void addExcludePattern(String pattern) {
+        excludePatterns.add(validatePattern(pattern));
+        compiledExcludes = null;
+    }
+
+    public void setPatternSyntax(PatternSyntax patternSyntax) {
+        this.patternSyntax = (patternSyntax != null) ? patternSyntax : PatternSyntax.LIKE;
+        compiledIncludes = null;
+        compiledExcludes = null;
+    }
+
+    /**
+     * @return true, якщо фільтр нічого не відкидає.
+     */
+    public boolean isAcceptAll() {
+        return objectTypes.isEmpty() && includePatterns.isEmpty() && excludePatterns.isEmpty();
+    }
+
+    public boolean acceptsType(ObjectType objectType) {
+        return objectTypes.isEmpty() || objectTypes.contains(objectType);
+    }
+
+    /**
+     * Перевіряє об'єкт на стороні клієнта (ті самі правила, що й умови запиту до all_objects).
+     */
+    public boolean accepts(ObjectType objectType, String objectName) {
+        if (!acceptsType(objectType)) {
+            return false;
+        }
+        if (includePatterns.isEmpty() && excludePatterns.isEmpty()) {
+            return true;
+        }
+        if (compiledIncludes == null) {
+            compiledIncludes = compile(includePatterns);
+        }
+        if (compiledExcludes == null) {
+            compiledExcludes = compile(excludePatterns);
+        }
+        if (!compiledIncludes.isEmpty() && compiledIncludes.stream().noneMatch(p -> matches(p, objectName))) {
+            return false;
+        }
+        return compiledExcludes.stream().noneMatch(p -> matches(p, objectName));
+    }
+
+    private boolean matches(Pattern pattern, String objectName) {
+        // LIKE має збігатися з усім ім'ям, REGEXP_LIKE - з будь-якою частиною
+        return (patternSyntax == PatternSyntax.LIKE) ? pattern.matcher(objectName).matches() : pattern.matcher(objectName).find();
+    }
+
+    private List<Pattern> compile(List<String> patterns) {
+        List<Pattern> compiled = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            compiled.add(patternSyntax == PatternSyntax.LIKE ? Pattern.compile(likeToRegex(pattern), Pattern.DOTALL) : Pattern.compile(pattern));
+        }
+        return compiled;
+    }
+
+    /**
+     * Перетворює шаблон LIKE (з екрануванням \) на регулярний вираз Java.
+     */
+    static String likeToRegex(String likePattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < likePattern.length(); i++) {
+            char c = likePattern.charAt(i);
+            if (c == '\\' && i + 1 < likePattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(likePattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    private static String validatePattern(String pattern) {
+        if (pattern == null || pattern.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name pattern must not be empty.");
+        }
+        return pattern.trim();
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectFilter{" +
+                "objectTypes=" + objectTypes +
+                ", includePatterns=" + includePatterns +
+                ", excludePatterns=" + excludePatterns +
+                ", patternSyntax=" + patternSyntax +
+                '}';
+    }
+}
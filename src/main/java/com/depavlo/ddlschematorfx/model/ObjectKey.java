@@ -0,0 +1,25 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.Objects;
+
+/**
+ * Ключ об'єкта схеми: тип та ім'я. Ім'я інтернується, тому однакові імена з різних знімків
+ * (і з різних сховищ однієї схеми) посилаються на один екземпляр String.
+ */
+public record ObjectKey(ObjectType objectType, String objectName) {
+
+    public ObjectKey {
+        Objects.requireNonNull(objectType, "objectType");
+        Objects.requireNonNull(objectName, "objectName");
+        objectName = objectName.intern();
+    }
+
+    public static ObjectKey of(ObjectType objectType, String objectName) {
+        return new ObjectKey(objectType, objectName);
+    }
+
+    @Override
+    public String toString() {
+        return objectType + "/" + objectName;
+    }
+}
@@ -1,30 +1,54 @@
 package com.depavlo.ddlschematorfx.model;
 
-import org.apache.commons.collections4.map.MultiKeyMap;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
 
+import java.io.IOException;
+import java.lang.ref.Cleaner;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
 
 public class Schema {
+    // Знімає посилання на DDL у пулі, якщо схему не звільнено явно (releaseDdlContent), а вона стала недосяжною
+    private static final Cleaner DDL_REFERENCE_CLEANER = Cleaner.create();
+
     private String id; // Унікальний UUID ідентифікатор екземпляра схеми в пам'яті
     private String name; // Назва схеми (власник)
-    private MultiKeyMap<Object, String> objectDdls;
+    private final DdlContentPool ddlPool = DdlContentPool.shared();
+    private final SchemaObjectStore<String> objectDdlHashes = new SchemaObjectStore<>(); // Ключі DDL об'єктів у пулі (SHA-256 тексту)
+    private final Cleaner.Cleanable ddlReferences;
+    private final SchemaObjectStore<LazyDdlFile> lazyDdlFiles = new SchemaObjectStore<>(); // Ще не прочитані файли знімка з директорії
+    // Відбитки для порівняння (DdlUtils.comparisonFingerprint); доступ лише під блокуванням сховища, бо відбитки
+    // доповнюються під час паралельного порівняння
+    private final SchemaObjectStore<String> objectFingerprints = new SchemaObjectStore<>();
+    private volatile long lastAccessMillis = System.currentTimeMillis(); // Для вибору схем, що вивантажуються першими
+    // Оренди читання фоновими операціями (спільний режим) проти змін сховищ DDL вивантаженням чи читанням файлів (винятковий)
+    private final StampedLock ddlStoreLock = new StampedLock();
+    private SchemaObjectStore<LocalDateTime> objectLastDdlTimes = new SchemaObjectStore<>(); // all_objects.LAST_DDL_TIME для інкрементального витягнення
+    // Об'єкти зі списку all_objects, для яких DDL не отримано (черги, LOB-індекси, помилка GET_DDL), з їх LAST_DDL_TIME
+    private final SchemaObjectStore<LocalDateTime> objectsWithoutDdl = new SchemaObjectStore<>();
     private LocalDateTime extractionTimestamp; // Час витягнення/завантаження схеми
     private ConnectionDetails sourceConnection; // Деталі підключення-джерела (null для схем з файлів)
     private String currentSourceIdentifier; // Унікальний ідентифікатор поточного джерела (DB::connId::schemaName або DIR::path)
     private String originalSourceIdentifier; // Ідентифікатор первинного джерела, якщо завантажено з meta.properties
     private Path lastSavedPath; // Шлях до директорії, куди схему було востаннє збережено
+    private MetadataTransformProfile transformProfile; // Профіль трансформації, з яким отримано DDL (null - невідомо)
 
     // Конструктор для витягнення з БД
-    public Schema(String id, String name, MultiKeyMap<Object, String> objectDdls,
+    public Schema(String id, String name, SchemaObjectStore<String> objectDdls,
                   LocalDateTime extractionTimestamp, ConnectionDetails sourceConnection,
                   String currentSourceIdentifier) {
         this(id, name, objectDdls, extractionTimestamp, sourceConnection, currentSourceIdentifier, currentSourceIdentifier, null); // lastSavedPath = null
     }
 
     // Конструктор для завантаження з файлів (може мати originalSourceIdentifier)
-    public Schema(String id, String name, MultiKeyMap<Object, String> objectDdls,
+    public Schema(String id, String name, SchemaObjectStore<String> objectDdls,
                   LocalDateTime extractionTimestamp, ConnectionDetails sourceConnection, // Зазвичай null для файлів
                   String currentSourceIdentifier, String originalSourceIdentifier) {
         this(id, name, objectDdls, extractionTimestamp, sourceConnection, currentSourceIdentifier, originalSourceIdentifier, null); // lastSavedPath = null спочатку
@@ -32,12 +56,15 @@ public class Schema {
 
 
     // Повний конструктор
-    public Schema(String id, String name, MultiKeyMap<Object, String> objectDdls,
+    public Schema(String id, String name, SchemaObjectStore<String> objectDdls,
                   LocalDateTime extractionTimestamp, ConnectionDetails sourceConnection,
                   String currentSourceIdentifier, String originalSourceIdentifier, Path lastSavedPath) {
         this.id = id;
         this.name = name;
-        this.objectDdls = (objectDdls != null) ? objectDdls : new MultiKeyMap<>();
+        this.ddlReferences = DDL_REFERENCE_CLEANER.register(this, new DdlReferences(ddlPool, objectDdlHashes));
+        if (objectDdls != null) {
+            objectDdls.forEach(this::addObjectDdl);
+        }
         this.extractionTimestamp = extractionTimestamp;
         this.sourceConnection = sourceConnection;
         this.currentSourceIdentifier = currentSourceIdentifier;
@@ -54,10 +81,6 @@ public class Schema {
         return name;
     }
 
-    public MultiKeyMap<Object, String> getObjectDdls() {
-        return objectDdls;
-    }
-
     public LocalDateTime getExtractionTimestamp() {
         return extractionTimestamp;
     }
@@ -97,12 +120,434 @@ public class Schema {
         this.currentSourceIdentifier = currentSourceIdentifier;
     }
 
+    public MetadataTransformProfile getTransformProfile() {
+        return transformProfile;
+    }
+
+    public void setTransformProfile(MetadataTransformProfile transformProfile) {
+        this.transformProfile = transformProfile;
+    }
+
 
     public void addObjectDdl(ObjectType objectType, String objectName, String ddl) {
-        if (this.objectDdls == null) {
-            this.objectDdls = new MultiKeyMap<>();
+        String hash = ddlPool.acquire(ddl);
+        String previousHash = objectDdlHashes.put(objectType, objectName, hash);
+        ddlPool.release(previousHash);
+        LazyDdlFile previousFile = lazyDdlFiles.remove(objectType, objectName);
+        if (previousHash == null && previousFile != null) {
+            previousHash = previousFile.ddlHash();
+        }
+        // Відбиток лишається дійсним, якщо текст не змінився (наприклад, файл знімка прочитано в пам'ять)
+        if (!hash.equals(previousHash)) {
+            forgetFingerprint(objectType, objectName);
         }
-        this.objectDdls.put(objectType, objectName, ddl);
+    }
+
+    /**
+     * Переносить DDL об'єкта з іншої схеми без копіювання та повторного хешування тексту.
+     * @return false, якщо в іншій схемі такого об'єкта немає.
+     */
+    public boolean copyObjectDdlFrom(Schema otherSchema, ObjectType objectType, String objectName) {
+        String hash = ddlPool.acquireExisting(otherSchema.objectDdlHashes.get(objectType, objectName));
+        if (hash == null) {
+            // Об'єкт іншої схеми ще не прочитано з директорії
+            String ddl = otherSchema.getObjectDdl(objectType, objectName);
+            if (ddl == null) {
+                return false;
+            }
+            addObjectDdl(objectType, objectName, ddl);
+            return true;
+        }
+        ddlPool.release(objectDdlHashes.put(objectType, objectName, hash));
+        lazyDdlFiles.remove(objectType, objectName);
+        // Відбиток залежить від власника, тому переноситься лише між схемами з однаковою назвою
+        String fingerprint = otherSchema.knownFingerprint(objectType, objectName);
+        if (fingerprint != null && name != null && name.equalsIgnoreCase(otherSchema.name)) {
+            rememberFingerprint(objectType, objectName, fingerprint);
+        } else {
+            forgetFingerprint(objectType, objectName);
+        }
+        return true;
+    }
+
+    public void removeObjectDdl(ObjectType objectType, String objectName) {
+        ddlPool.release(objectDdlHashes.remove(objectType, objectName));
+        lazyDdlFiles.remove(objectType, objectName);
+        objectLastDdlTimes.remove(objectType, objectName);
+        forgetFingerprint(objectType, objectName);
+    }
+
+    /**
+     * Підключає індекс файлів знімка: вміст файлів читається при першому зверненні через {@link DdlFileCache}.
+     * @param ddlFiles Файли об'єктів (тип, ім'я -> файл).
+     */
+    public void attachLazyDdlFiles(SchemaObjectStore<LazyDdlFile> ddlFiles) {
+        ddlFiles.forEach((objectType, objectName, ddlFile) -> {
+            if (!objectDdlHashes.containsKey(objectType, objectName)) {
+                lazyDdlFiles.put(objectType, objectName, ddlFile);
+            }
+        });
+    }
+
+    // Записує текст DDL у файл, з якого його можна буде прочитати знову (див. {@link #spillDdl})
+    @FunctionalInterface
+    public interface DdlSpillWriter {
+        LazyDdlFile write(String ddlHash, String ddl) throws IOException;
+    }
+
+    /**
+     * Оренда читання схеми фоновою операцією (порівняння, збереження, інкрементальне витягнення).
+     * Закривається один раз; повторне закриття нічого не робить.
+     */
+    public final class ReadLease implements AutoCloseable {
+        private long stamp;
+
+        private ReadLease(long stamp) {
+            this.stamp = stamp;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (stamp != 0L) {
+                ddlStoreLock.unlockRead(stamp);
+                stamp = 0L;
+                lastAccessMillis = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Бере оренду читання: поки вона не закрита, сховища DDL схеми не змінюються вивантаженням на диск ({@link #spillDdl})
+     * чи читанням файлів знімка ({@link #materializeLazyDdl}), тому їх можна читати з кількох потоків.
+     * Оренди не прив'язані до потоку і можуть вкладатися. Якщо схема саме вивантажується, виклик чекає завершення.
+     */
+    public ReadLease acquireReadLease() {
+        long stamp = ddlStoreLock.readLock();
+        lastAccessMillis = System.currentTimeMillis();
+        return new ReadLease(stamp);
+    }
+
+    /**
+     * @return true, якщо схему зараз читає фонова операція (є незакрита оренда).
+     */
+    public boolean isInUse() {
+        return ddlStoreLock.isReadLocked();
+    }
+
+    /**
+     * Замінює DDL, що зберігаються в пам'яті, на їхні копії у файлах (вивантаження схеми при перевищенні бюджету пам'яті).
+     * Тексти читаються знову при зверненні, як для знімка з директорії. Час останнього звернення не змінюється.
+     * Схема, яку читає фонова операція ({@link #acquireReadLease()}), не вивантажується.
+     * @return Кількість вивантажених об'єктів; 0, якщо схема зараз використовується.
+     * @throws IOException Якщо файл не вдалося записати; вже вивантажені об'єкти лишаються у файлах.
+     */
+    public int spillDdl(DdlSpillWriter writer) throws IOException {
+        long stamp = ddlStoreLock.tryWriteLock();
+        if (stamp == 0L) {
+            return 0;
+        }
+        try {
+            int spilledCount = 0;
+            for (ObjectKey key : objectDdlHashes.keys()) {
+                String hash = objectDdlHashes.get(key);
+                String ddl = ddlPool.get(hash);
+                if (ddl == null) {
+                    continue;
+                }
+                LazyDdlFile ddlFile = writer.write(hash, ddl);
+                // Спершу індекс файлу, потім звільнення тексту: об'єкт завжди знаходиться в одному з двох сховищ
+                lazyDdlFiles.put(key, ddlFile.withDdlHash(hash));
+                objectDdlHashes.remove(key);
+                ddlPool.release(hash);
+                spilledCount++;
+            }
+            return spilledCount;
+        } finally {
+            ddlStoreLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return true, якщо DDL частини об'єктів ще не прочитано з файлів у директорії (або її піддиректоріях).
+     */
+    public boolean isBackedByDirectory(Path directory) {
+        if (lazyDdlFiles.isEmpty() || directory == null) {
+            return false;
+        }
+        Path normalized = directory.toAbsolutePath().normalize();
+        for (ObjectType objectType : lazyDdlFiles.getObjectTypes()) {
+            for (LazyDdlFile ddlFile : lazyDdlFiles.getObjectsOfType(objectType).values()) {
+                if (ddlFile.file().toAbsolutePath().normalize().startsWith(normalized)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Читає у пам'ять ще не прочитані DDL, файли яких розташовані в директорії. Викликається перед перезаписом або видаленням файлів знімка.
+     * Чекає, поки фонові операції, що читають схему, закриють свої оренди; не можна викликати, тримаючи оренду цієї схеми.
+     * @throws IOException Якщо файл не вдалося прочитати; вже прочитані DDL лишаються в пам'яті.
+     */
+    public void materializeLazyDdl(Path directory) throws IOException {
+        Path normalized = directory.toAbsolutePath().normalize();
+        long stamp = ddlStoreLock.writeLock();
+        try {
+            for (ObjectKey key : lazyDdlFiles.keys()) {
+                LazyDdlFile ddlFile = lazyDdlFiles.get(key);
+                if (ddlFile.file().toAbsolutePath().normalize().startsWith(normalized)) {
+                    addObjectDdl(key.objectType(), key.objectName(), DdlFileCache.shared().read(ddlFile));
+                }
+            }
+        } finally {
+            ddlStoreLock.unlockWrite(stamp);
+        }
+    }
+
+    public int getLazyObjectCount() {
+        return lazyDdlFiles.size();
+    }
+
+    public int getInMemoryObjectCount() {
+        return objectDdlHashes.size();
+    }
+
+    /**
+     * @return Оцінка пам'яті під тексти DDL схеми, байт. Текст, спільний з іншими схемами, враховується в кожній з них.
+     */
+    public long getInMemoryDdlBytes() {
+        long[] bytes = new long[1];
+        objectDdlHashes.forEach((objectType, objectName, hash) -> bytes[0] += ddlPool.getStoredSize(hash));
+        return bytes[0];
+    }
+
+    /**
+     * @return Час останнього звернення до DDL схеми (мс від епохи).
+     */
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    public void markAccessed() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @return Текст DDL об'єкта або null, якщо об'єкта немає у схемі (або його файл не вдалося прочитати).
+     */
+    public String getObjectDdl(ObjectType objectType, String objectName) {
+        lastAccessMillis = System.currentTimeMillis();
+        String hash = objectDdlHashes.get(objectType, objectName);
+        if (hash != null) {
+            return ddlPool.get(hash);
+        }
+        LazyDdlFile ddlFile = lazyDdlFiles.get(objectType, objectName);
+        return (ddlFile != null) ? readLazyDdl(objectType, objectName, ddlFile) : null;
+    }
+
+    private String readLazyDdl(ObjectType objectType, String objectName, LazyDdlFile ddlFile) {
+        try {
+            return DdlFileCache.shared().read(ddlFile);
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу DDL " + ddlFile.file().toAbsolutePath() + " (" + objectType + "/" + objectName + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean containsObject(ObjectType objectType, String objectName) {
+        return objectDdlHashes.containsKey(objectType, objectName) || lazyDdlFiles.containsKey(objectType, objectName);
+    }
+
+    public int getObjectCount() {
+        // Об'єкт зберігається або в пулі, або в індексі файлів, але не в обох
+        return objectDdlHashes.size() + lazyDdlFiles.size();
+    }
+
+    /**
+     * @return Типи, для яких у схемі є хоча б один об'єкт.
+     */
+    public Set<ObjectType> getObjectTypes() {
+        if (lazyDdlFiles.isEmpty()) {
+            return objectDdlHashes.getObjectTypes();
+        }
+        Set<ObjectType> objectTypes = EnumSet.noneOf(ObjectType.class);
+        objectTypes.addAll(objectDdlHashes.getObjectTypes());
+        objectTypes.addAll(lazyDdlFiles.getObjectTypes());
+        return Collections.unmodifiableSet(objectTypes);
+    }
+
+    /**
+     * @return Імена об'єктів типу (незмінне представлення або копія для знімка з директорії).
+     */
+    public Set<String> getObjectNames(ObjectType objectType) {
+        if (lazyDdlFiles.sizeOfType(objectType) == 0) {
+            return objectDdlHashes.getObjectsOfType(objectType).keySet();
+        }
+        Set<String> objectNames = new HashSet<>(lazyDdlFiles.getObjectsOfType(objectType).keySet());
+        objectNames.addAll(objectDdlHashes.getObjectsOfType(objectType).keySet());
+        return Collections.unmodifiableSet(objectNames);
+    }
+
+    public List<ObjectKey> getObjectKeys() {
+        List<ObjectKey> keys = objectDdlHashes.keys();
+        keys.addAll(lazyDdlFiles.keys());
+        return keys;
+    }
+
+    /**
+     * Обходить усі об'єкти схеми з їхніми DDL (для знімка з директорії - з читанням файлів).
+     */
+    public void forEachObjectDdl(SchemaObjectStore.EntryConsumer<String> consumer) {
+        lastAccessMillis = System.currentTimeMillis();
+        objectDdlHashes.forEach((objectType, objectName, hash) -> consumer.accept(objectType, objectName, ddlPool.get(hash)));
+        lazyDdlFiles.forEach((objectType, objectName, ddlFile) -> consumer.accept(objectType, objectName, readLazyDdl(objectType, objectName, ddlFile)));
+    }
+
+    /**
+     * Звільняє посилання схеми на тексти DDL у спільному пулі. Після виклику схема не містить об'єктів.
+     * Лише для схем, якими більше ніхто не користується: сховище схем цей метод не викликає, бо замінену чи видалену схему
+     * можуть ще читати фонові операції; для схем, що не були звільнені явно, це відбувається під час збирання сміття.
+     */
+    public void releaseDdlContent() {
+        ddlReferences.clean();
+        lazyDdlFiles.clear();
+        synchronized (objectFingerprints) {
+            objectFingerprints.clear();
+        }
+    }
+
+    public SchemaObjectStore<LocalDateTime> getObjectLastDdlTimes() {
+        return objectLastDdlTimes;
+    }
+
+    public LocalDateTime getObjectLastDdlTime(ObjectType objectType, String objectName) {
+        return objectLastDdlTimes.get(objectType, objectName);
+    }
+
+    public void setObjectLastDdlTime(ObjectType objectType, String objectName, LocalDateTime lastDdlTime) {
+        if (lastDdlTime == null) {
+            objectLastDdlTimes.remove(objectType, objectName);
+        } else {
+            objectLastDdlTimes.put(objectType, objectName, lastDdlTime);
+        }
+    }
+
+    /**
+     * Повертає SHA-256 DDL об'єкта (див. {@link DdlUtils#sha256Hex(String)}), який є також ключем тексту у {@link DdlContentPool}.
+     * Для ще не прочитаного файлу знімка використовується хеш з маніфесту, якщо він є, інакше файл читається.
+     * @return Хеш або null, якщо об'єкта немає у схемі.
+     */
+    public String getObjectDdlHash(ObjectType objectType, String objectName) {
+        lastAccessMillis = System.currentTimeMillis();
+        String hash = objectDdlHashes.get(objectType, objectName);
+        if (hash != null) {
+            return hash;
+        }
+        LazyDdlFile ddlFile = lazyDdlFiles.get(objectType, objectName);
+        if (ddlFile == null) {
+            return null;
+        }
+        if (ddlFile.ddlHash() == null) {
+            String ddl = readLazyDdl(objectType, objectName, ddlFile);
+            if (ddl == null) {
+                return null;
+            }
+            ddlFile = ddlFile.withDdlHash(DdlUtils.sha256Hex(ddl));
+            // Заміна значення наявного ключа не змінює структуру мапи, тому безпечна під час паралельного читання
+            lazyDdlFiles.put(objectType, objectName, ddlFile);
+        }
+        return ddlFile.ddlHash();
+    }
+
+    /**
+     * Повертає відбиток DDL об'єкта для порівняння ({@link DdlUtils#comparisonFingerprint(String, String)} з назвою цієї схеми).
+     * Відбиток обчислюється один раз і зберігається разом зі знімком, тому для знімка з директорії файл не читається.
+     * @return Відбиток або null, якщо об'єкта немає у схемі (або його файл не вдалося прочитати).
+     */
+    public String getObjectFingerprint(ObjectType objectType, String objectName) {
+        lastAccessMillis = System.currentTimeMillis();
+        String fingerprint = knownFingerprint(objectType, objectName);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        String ddl = getObjectDdl(objectType, objectName);
+        if (ddl == null) {
+            return null;
+        }
+        fingerprint = DdlUtils.comparisonFingerprint(ddl, name);
+        rememberFingerprint(objectType, objectName, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * @return Уже відомий відбиток об'єкта або null, якщо його ще не обчислювали (текст при цьому не читається).
+     */
+    public String getKnownObjectFingerprint(ObjectType objectType, String objectName) {
+        lastAccessMillis = System.currentTimeMillis();
+        return knownFingerprint(objectType, objectName);
+    }
+
+    /**
+     * Встановлює відомий відбиток об'єкта (з маніфесту знімка), щоб не обчислювати його з тексту.
+     * Відбиток має бути обчислений для поточної версії нормалізації ({@link DdlUtils#COMPARISON_FINGERPRINT_VERSION}).
+     */
+    public void setObjectFingerprint(ObjectType objectType, String objectName, String fingerprint) {
+        if (fingerprint != null && containsObject(objectType, objectName)) {
+            rememberFingerprint(objectType, objectName, fingerprint);
+        }
+    }
+
+    private String knownFingerprint(ObjectType objectType, String objectName) {
+        synchronized (objectFingerprints) {
+            return objectFingerprints.get(objectType, objectName);
+        }
+    }
+
+    private void rememberFingerprint(ObjectType objectType, String objectName, String fingerprint) {
+        synchronized (objectFingerprints) {
+            objectFingerprints.put(objectType, objectName, fingerprint);
+        }
+    }
+
+    private void forgetFingerprint(ObjectType objectType, String objectName) {
+        synchronized (objectFingerprints) {
+            objectFingerprints.remove(objectType, objectName);
+        }
+    }
+
+    /**
+     * Об'єкти, які були у списку all_objects під час витягнення, але не мають DDL у схемі.
+     * Разом з {@link #getObjectLastDdlTimes()} описують увесь список, з яким порівнюється словник БД
+     * при перевірці "нічого не змінилося".
+     */
+    public SchemaObjectStore<LocalDateTime> getObjectsWithoutDdl() {
+        return objectsWithoutDdl;
+    }
+
+    /**
+     * @return Кількість об'єктів списку all_objects, відомих знімку: з LAST_DDL_TIME і без DDL.
+     */
+    public int getListedObjectCount() {
+        return objectLastDdlTimes.size() + objectsWithoutDdl.size();
+    }
+
+    /**
+     * @return Найпізніший LAST_DDL_TIME серед об'єктів схеми (включно з об'єктами без DDL) або null, якщо час змін невідомий.
+     */
+    public LocalDateTime getMaxObjectLastDdlTime() {
+        LocalDateTime max = null;
+        for (LocalDateTime lastDdlTime : objectLastDdlTimes.values()) {
+            if (max == null || lastDdlTime.isAfter(max)) {
+                max = lastDdlTime;
+            }
+        }
+        for (LocalDateTime lastDdlTime : objectsWithoutDdl.values()) {
+            if (max == null || lastDdlTime.isAfter(max)) {
+                max = lastDdlTime;
+            }
+        }
+        return max;
     }
 
     @Override
@@ -113,7 +558,7 @@ public class Schema {
                 ", currentSourceId='" + (currentSourceIdentifier != null ? currentSourceIdentifier : "N/A") + '\'' +
                 (originalSourceIdentifier != null && !originalSourceIdentifier.equals(currentSourceIdentifier) ? ", originalSourceId='" + originalSourceIdentifier + '\'' : "") +
                 (lastSavedPath != null ? ", lastSavedPath='" + lastSavedPath.toString() + '\'' : "") +
-                ", objectCount=" + (objectDdls != null ? objectDdls.size() : 0) +
+                ", objectCount=" + getObjectCount() +
                 ", extractionTimestamp=" + extractionTimestamp +
                 ", sourceConnectionName='" + (sourceConnection != null ? sourceConnection.getName() : "N/A") + '\'' +
                 '}';
@@ -131,4 +576,21 @@ public class Schema {
     public int hashCode() {
         return Objects.hash(id);
     }
+
+    // Дія очищення не посилається на схему, інакше схема ніколи не стала б недосяжною
+    private static final class DdlReferences implements Runnable {
+        private final DdlContentPool ddlPool;
+        private final SchemaObjectStore<String> objectDdlHashes;
+
+        private DdlReferences(DdlContentPool ddlPool, SchemaObjectStore<String> objectDdlHashes) {
+            this.ddlPool = ddlPool;
+            this.objectDdlHashes = objectDdlHashes;
+        }
+
+        @Override
+        public void run() {
+            objectDdlHashes.forEach((objectType, objectName, hash) -> ddlPool.release(hash));
+            objectDdlHashes.clear();
+        }
+    }
 }
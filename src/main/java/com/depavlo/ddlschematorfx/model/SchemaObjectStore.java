@@ -0,0 +1,172 @@
+package com.depavlo.ddlschematorfx.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Сховище значень об'єктів схеми (DDL, LAST_DDL_TIME, хешів), розбите на розділи за типом об'єкта.
+ * Кожен тип має власну мапу ім'я -> значення, тому пошук за (тип, ім'я) не створює складених ключів,
+ * а обхід об'єктів одного типу ({@link #forEachOfType}) не створює проміжних об'єктів.
+ * Імена об'єктів інтернуються при додаванні. Сховище не є потокобезпечним.
+ * @param <V> Тип значення.
+ */
+public class SchemaObjectStore<V> {
+
+    // Споживач елементів сховища без створення ключа-об'єкта
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(ObjectType objectType, String objectName, V value);
+    }
+
+    private final EnumMap<ObjectType, Map<String, V>> partitions = new EnumMap<>(ObjectType.class);
+    private int size = 0;
+
+    public SchemaObjectStore() {
+    }
+
+    // Копія іншого сховища (значення не копіюються)
+    public SchemaObjectStore(SchemaObjectStore<? extends V> other) {
+        putAll(other);
+    }
+
+    public V get(ObjectType objectType, String objectName) {
+        Map<String, V> partition = partitions.get(objectType);
+        return (partition != null) ? partition.get(objectName) : null;
+    }
+
+    public V get(ObjectKey key) {
+        return get(key.objectType(), key.objectName());
+    }
+
+    public boolean containsKey(ObjectType objectType, String objectName) {
+        Map<String, V> partition = partitions.get(objectType);
+        return partition != null && partition.containsKey(objectName);
+    }
+
+    public boolean containsKey(ObjectKey key) {
+        return containsKey(key.objectType(), key.objectName());
+    }
+
+    /**
+     * @return Попереднє значення або null.
+     */
+    public V put(ObjectType objectType, String objectName, V value) {
+        if (objectType == null || objectName == null || value == null) {
+            throw new IllegalArgumentException("Object type, name and value must not be null.");
+        }
+        V previous = partitions.computeIfAbsent(objectType, type -> new HashMap<>()).put(objectName.intern(), value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    public V put(ObjectKey key, V value) {
+        return put(key.objectType(), key.objectName(), value);
+    }
+
+    public void putAll(SchemaObjectStore<? extends V> other) {
+        if (other != null) {
+            other.forEach((objectType, objectName, value) -> put(objectType, objectName, value));
+        }
+    }
+
+    public V remove(ObjectType objectType, String objectName) {
+        Map<String, V> partition = partitions.get(objectType);
+        if (partition == null) {
+            return null;
+        }
+        V previous = partition.remove(objectName);
+        if (previous != null) {
+            size--;
+            if (partition.isEmpty()) {
+                partitions.remove(objectType);
+            }
+        }
+        return previous;
+    }
+
+    public V remove(ObjectKey key) {
+        return remove(key.objectType(), key.objectName());
+    }
+
+    public void clear() {
+        partitions.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Типи, для яких у сховищі є хоча б один об'єкт, у порядку оголошення ObjectType.
+     */
+    public Set<ObjectType> getObjectTypes() {
+        return Collections.unmodifiableSet(partitions.keySet());
+    }
+
+    /**
+     * @return Незмінне представлення розділу типу (ім'я -> значення); порожня мапа, якщо об'єктів цього типу немає.
+     */
+    public Map<String, V> getObjectsOfType(ObjectType objectType) {
+        Map<String, V> partition = partitions.get(objectType);
+        return (partition != null) ? Collections.unmodifiableMap(partition) : Collections.emptyMap();
+    }
+
+    public int sizeOfType(ObjectType objectType) {
+        Map<String, V> partition = partitions.get(objectType);
+        return (partition != null) ? partition.size() : 0;
+    }
+
+    public void forEachOfType(ObjectType objectType, BiConsumer<String, ? super V> consumer) {
+        Map<String, V> partition = partitions.get(objectType);
+        if (partition != null) {
+            partition.forEach(consumer);
+        }
+    }
+
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (Map.Entry<ObjectType, Map<String, V>> partition : partitions.entrySet()) {
+            ObjectType objectType = partition.getKey();
+            for (Map.Entry<String, V> entry : partition.getValue().entrySet()) {
+                consumer.accept(objectType, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return Ключі всіх об'єктів (створюються під час виклику; для обходу без створення ключів див. {@link #forEach}).
+     */
+    public List<ObjectKey> keys() {
+        List<ObjectKey> keys = new ArrayList<>(size);
+        forEach((objectType, objectName, value) -> keys.add(new ObjectKey(objectType, objectName)));
+        return keys;
+    }
+
+    /**
+     * @return Усі значення сховища (нова колекція).
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Map<String, V> partition : partitions.values()) {
+            values.addAll(partition.values());
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaObjectStore{size=" + size + ", types=" + partitions.keySet() + "}";
+    }
+}
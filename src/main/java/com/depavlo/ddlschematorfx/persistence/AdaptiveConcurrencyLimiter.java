@@ -0,0 +1,272 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивне обмеження кількості одночасних викликів до БД за схемою AIMD з градієнтом затримки.
+ * Рішення приймається раз на вікно з {@code max(limit, MIN_WINDOW_CALLS)} викликів: медіана затримки вікна
+ * порівнюється з базовою (найменшою медіаною попередніх вікон). Медіана не реагує на поодинокі великі об'єкти,
+ * тому довгий GET_DDL великої таблиці не вважається перевантаженням. Якщо затримка лишається високою навіть на
+ * нижній межі ліміту, БД сповільнилася загалом, і медіана такого вікна стає новою базовою.
+ * Якщо у вікні була помилка виклику або медіана перевищує базову у {@link #LATENCY_TOLERANCE} разів, ліміт зменшується
+ * у {@link #DECREASE_FACTOR} разів (мультиплікативне зменшення), інакше зростає на 1 (адитивне збільшення).
+ * Кожна зміна ліміту одразу записується в журнал.
+ * Додатково підтримується жорстка межа викликів за секунду: дозволи видаються з рівномірним інтервалом.
+ * Ліміт завжди лишається в межах [minLimit, maxLimit].
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // У скільки разів медіана затримки вікна може перевищувати базову, перш ніж вважати БД перевантаженою
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double DECREASE_FACTOR = 0.75;
+    // Мінімальна кількість викликів у вікні, щоб медіана була стійкою
+    private static final int MIN_WINDOW_CALLS = 10;
+    // Вага нового значення в експоненційному середньому затримки (лише для метрик)
+    private static final double LATENCY_EWMA_WEIGHT = 0.1;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final boolean adaptive;
+    private final long permitIntervalNanos; // 0 = без межі викликів за секунду
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private int limit;
+    private int inFlight = 0;
+    private long nextPermitNanos = 0;
+    private long[] windowLatencies = new long[MIN_WINDOW_CALLS]; // Затримки успішних викликів поточного вікна
+    private int windowSuccesses = 0;
+    private int windowFailures = 0;
+    private double baselineLatencyNanos = 0; // 0 - ще не було жодного вікна
+    private double lastWindowMedianNanos = 0;
+    private double averageLatencyNanos = 0;
+    private long totalCalls = 0;
+    private long failedCalls = 0;
+    private long decreaseCount = 0;
+    private long increaseCount = 0;
+
+    /**
+     * @param name Назва для журналу (наприклад, схема).
+     * @param minLimit Нижня межа одночасних викликів.
+     * @param maxLimit Верхня межа одночасних викликів (зазвичай кількість робочих з'єднань).
+     * @param initialLimit Початковий ліміт.
+     * @param adaptive false - ліміт фіксований (maxLimit), діє лише межа викликів за секунду.
+     * @param maxCallsPerSecond Межа викликів за секунду (0 = без обмеження).
+     */
+    public AdaptiveConcurrencyLimiter(String name, int minLimit, int maxLimit, int initialLimit, boolean adaptive, double maxCallsPerSecond) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max, got: " + minLimit + ".." + maxLimit);
+        }
+        if (maxCallsPerSecond < 0) {
+            throw new IllegalArgumentException("Max calls per second must be 0 (unlimited) or positive, got: " + maxCallsPerSecond);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.adaptive = adaptive;
+        this.limit = adaptive ? Math.max(minLimit, Math.min(maxLimit, initialLimit)) : maxLimit;
+        this.permitIntervalNanos = (maxCallsPerSecond > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / maxCallsPerSecond) : 0;
+    }
+
+    /**
+     * Створює обмежувач згідно з параметрами витягнення.
+     * @param maxConcurrency Кількість робочих потоків/з'єднань.
+     * @param name Назва для журналу (наприклад, схема).
+     * @return Обмежувач або null, якщо обмеження не налаштовано.
+     */
+    public static AdaptiveConcurrencyLimiter fromOptions(ExtractionOptions options, int maxConcurrency, String name) {
+        if (options == null || !options.isCallRateLimited()) {
+            return null;
+        }
+        int min = Math.min(options.getMinParallelism(), maxConcurrency);
+        return new AdaptiveConcurrencyLimiter(name, min, maxConcurrency, min, options.isAdaptiveConcurrency(), options.getMaxCallsPerSecond());
+    }
+
+    /**
+     * Чекає, поки кількість викликів у роботі стане меншою за ліміт і (за наявності межі) настане черговий дозвіл за часом.
+     */
+    public void acquire() throws InterruptedException {
+        long waitUntilNanos;
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= limit) {
+                permitAvailable.await();
+            }
+            inFlight++;
+            long now = System.nanoTime();
+            if (permitIntervalNanos > 0) {
+                waitUntilNanos = Math.max(now, nextPermitNanos);
+                nextPermitNanos = waitUntilNanos + permitIntervalNanos;
+            } else {
+                waitUntilNanos = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+        long delayNanos = waitUntilNanos - System.nanoTime();
+        if (delayNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                release(0, false, false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Повертає дозвіл після виклику.
+     * @param latencyNanos Тривалість виклику.
+     * @param failed true, якщо виклик завершився помилкою.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        release(latencyNanos, failed, true);
+    }
+
+    private void release(long latencyNanos, boolean failed, boolean completed) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (completed) {
+                recordCall(latencyNanos, failed);
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordCall(long latencyNanos, boolean failed) {
+        totalCalls++;
+        if (failed) {
+            failedCalls++;
+        } else {
+            averageLatencyNanos = (totalCalls - failedCalls == 1) ? latencyNanos
+                    : averageLatencyNanos + LATENCY_EWMA_WEIGHT * (latencyNanos - averageLatencyNanos);
+        }
+        if (!adaptive) {
+            return;
+        }
+        if (failed) {
+            windowFailures++;
+        } else {
+            if (windowSuccesses == windowLatencies.length) {
+                windowLatencies = Arrays.copyOf(windowLatencies, windowLatencies.length * 2);
+            }
+            windowLatencies[windowSuccesses++] = latencyNanos;
+        }
+        if (windowSuccesses + windowFailures >= Math.max(limit, MIN_WINDOW_CALLS)) {
+            closeWindow();
+        }
+    }
+
+    private void closeWindow() {
+        boolean overloaded = windowFailures > 0;
+        if (windowSuccesses > 0) {
+            long[] latencies = Arrays.copyOf(windowLatencies, windowSuccesses);
+            Arrays.sort(latencies);
+            lastWindowMedianNanos = latencies[latencies.length / 2];
+            if (baselineLatencyNanos == 0 || limit == minLimit) {
+                // На нижній межі менша кількість викликів неможлива: їхня затримка і є базовою
+                baselineLatencyNanos = (baselineLatencyNanos == 0) ? lastWindowMedianNanos : Math.max(baselineLatencyNanos, lastWindowMedianNanos);
+            } else {
+                overloaded |= lastWindowMedianNanos > baselineLatencyNanos * LATENCY_TOLERANCE;
+                baselineLatencyNanos = Math.min(baselineLatencyNanos, lastWindowMedianNanos);
+            }
+        }
+        int previousLimit = limit;
+        if (overloaded && limit > minLimit) {
+            limit = Math.max(minLimit, (int) (limit * DECREASE_FACTOR));
+            decreaseCount++;
+        } else if (!overloaded && limit < maxLimit) {
+            limit++;
+            increaseCount++;
+        }
+        if (limit != previousLimit) {
+            System.out.println(String.format("Ліміт викликів %s: %d -> %d (медіана вікна %.1f мс, базова %.1f мс, помилок у вікні %d)",
+                    name, previousLimit, limit, lastWindowMedianNanos / 1_000_000.0, baselineLatencyNanos / 1_000_000.0, windowFailures));
+        }
+        windowSuccesses = 0;
+        windowFailures = 0;
+    }
+
+    public int getCurrentLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Експоненційне середнє затримки успішних викликів, мс.
+     */
+    public double getAverageLatencyMillis() {
+        lock.lock();
+        try {
+            return averageLatencyNanos / 1_000_000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Базова затримка (найменша медіана вікон), мс; 0, якщо жодного вікна ще не було.
+     */
+    public double getBaselineLatencyMillis() {
+        lock.lock();
+        try {
+            return baselineLatencyNanos / 1_000_000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTotalCalls() {
+        lock.lock();
+        try {
+            return totalCalls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFailedCalls() {
+        lock.lock();
+        try {
+            return failedCalls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String describeMetrics() {
+        lock.lock();
+        try {
+            return String.format("ліміт %d (межі %d..%d, збільшень %d, зменшень %d), викликів %d, помилок %d, середня затримка %.1f мс, базова %.1f мс%s",
+                    limit, minLimit, maxLimit, increaseCount, decreaseCount, totalCalls, failedCalls,
+                    averageLatencyNanos / 1_000_000.0,
+                    baselineLatencyNanos / 1_000_000.0,
+                    (permitIntervalNanos > 0) ? String.format(", не більше %.1f викликів/с", TimeUnit.SECONDS.toNanos(1) / (double) permitIntervalNanos) : "");
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+import com.depavlo.ddlschematorfx.model.MetadataTransformProfile;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Пакетне отримання DDL через DBMS_METADATA.OPEN / FETCH_DDL.
+ * Для кожного типу об'єкта відкривається один дескриптор з фільтром за схемою та параметрами трансформації профілю,
+ * після чого DDL забираються пакетами по {@code fetchSize} об'єктів разом з іменами (parse item NAME).
+ * Клас працює лише через java.sql.Connection, тому його можна прогнати проти заглушки JDBC-драйвера.
+ */
+public class BulkDdlFetcher {
+
+    // %s - параметри трансформації профілю для дескриптора th
+    private static final String OPEN_HANDLE_SQL_TEMPLATE =
+            "DECLARE\n" +
+            "  h NUMBER;\n" +
+            "  th NUMBER;\n" +
+            "BEGIN\n" +
+            "  h := DBMS_METADATA.OPEN(?);\n" +
+            "  DBMS_METADATA.SET_FILTER(h, 'SCHEMA', ?);\n" +
+            "  DBMS_METADATA.SET_COUNT(h, ?);\n" +
+            "  DBMS_METADATA.SET_PARSE_ITEM(h, 'NAME');\n" +
+            "  th := DBMS_METADATA.ADD_TRANSFORM(h, 'DDL');\n" +
+            "%s" +
+            "  ? := h;\n" +
+            "END;";
+
+    // Один виклик повертає пакет: імена (через \n), довжини DDL (через кому) та всі DDL - трьома CLOB.
+    // CLOB замість VARCHAR2(32767) для імен і довжин: їхній обсяг росте з розміром пакета і не обмежується 32 КБ.
+    private static final String FETCH_BATCH_SQL =
+            "DECLARE\n" +
+            "  ddls sys.ku$_ddls;\n" +
+            "  names CLOB;\n" +
+            "  lens CLOB;\n" +
+            "  buf CLOB;\n" +
+            "  nm VARCHAR2(512);\n" +
+            "  len NUMBER;\n" +
+            "  item VARCHAR2(600);\n" +
+            "BEGIN\n" +
+            "  ddls := DBMS_METADATA.FETCH_DDL(?);\n" +
+            "  IF ddls IS NOT NULL THEN\n" +
+            "    DBMS_LOB.CREATETEMPORARY(names, TRUE);\n" +
+            "    DBMS_LOB.CREATETEMPORARY(lens, TRUE);\n" +
+            "    DBMS_LOB.CREATETEMPORARY(buf, TRUE);\n" +
+            "    FOR i IN 1 .. ddls.COUNT LOOP\n" +
+            "      nm := NULL;\n" +
+            "      IF ddls(i).parsedItems IS NOT NULL THEN\n" +
+            "        FOR j IN 1 .. ddls(i).parsedItems.COUNT LOOP\n" +
+            "          IF ddls(i).parsedItems(j).item = 'NAME' THEN\n" +
+            "            nm := ddls(i).parsedItems(j).value;\n" +
+            "          END IF;\n" +
+            "        END LOOP;\n" +
+            "      END IF;\n" +
+            "      len := NVL(DBMS_LOB.GETLENGTH(ddls(i).ddlText), 0);\n" +
+            "      item := nm || CHR(10);\n" +
+            "      DBMS_LOB.WRITEAPPEND(names, LENGTH(item), item);\n" +
+            "      item := TO_CHAR(len) || ',';\n" +
+            "      DBMS_LOB.WRITEAPPEND(lens, LENGTH(item), item);\n" +
+            "      IF len > 0 THEN\n" +
+            "        DBMS_LOB.APPEND(buf, ddls(i).ddlText);\n" +
+            "      END IF;\n" +
+            "    END LOOP;\n" +
+            "  END IF;\n" +
+            "  ? := names;\n" +
+            "  ? := lens;\n" +
+            "  ? := buf;\n" +
+            "END;";
+
+    private static final String CLOSE_HANDLE_SQL = "{ call DBMS_METADATA.CLOSE(?) }";
+
+    // Назви типів для DBMS_METADATA.OPEN. Типи без відповідника (наприклад, DIRECTORY, який не належить схемі)
+    // отримуються по одному через GET_DDL.
+    private static final Map<ObjectType, String> METADATA_OBJECT_TYPES = new EnumMap<>(ObjectType.class);
+
+    static {
+        METADATA_OBJECT_TYPES.put(ObjectType.TABLE, "TABLE");
+        METADATA_OBJECT_TYPES.put(ObjectType.VIEW, "VIEW");
+        METADATA_OBJECT_TYPES.put(ObjectType.SEQUENCE, "SEQUENCE");
+        METADATA_OBJECT_TYPES.put(ObjectType.PROCEDURE, "PROCEDURE");
+        METADATA_OBJECT_TYPES.put(ObjectType.FUNCTION, "FUNCTION");
+        METADATA_OBJECT_TYPES.put(ObjectType.PACKAGE, "PACKAGE");
+        METADATA_OBJECT_TYPES.put(ObjectType.TRIGGER, "TRIGGER");
+        METADATA_OBJECT_TYPES.put(ObjectType.INDEX, "INDEX");
+        METADATA_OBJECT_TYPES.put(ObjectType.MATERIALIZED_VIEW, "MATERIALIZED_VIEW");
+        METADATA_OBJECT_TYPES.put(ObjectType.SYNONYM, "SYNONYM");
+        METADATA_OBJECT_TYPES.put(ObjectType.DATABASE_LINK, "DB_LINK");
+        METADATA_OBJECT_TYPES.put(ObjectType.JOB, "PROCOBJ");
+        METADATA_OBJECT_TYPES.put(ObjectType.QUEUE, "AQ_QUEUE");
+        METADATA_OBJECT_TYPES.put(ObjectType.TYPE, "TYPE");
+        METADATA_OBJECT_TYPES.put(ObjectType.JAVA_SOURCE, "JAVA_SOURCE");
+        METADATA_OBJECT_TYPES.put(ObjectType.LIBRARY, "LIBRARY");
+        METADATA_OBJECT_TYPES.put(ObjectType.XML_SCHEMA, "XMLSCHEMA");
+    }
+
+    private final int fetchSize;
+    private final ClobReader clobReader;
+    private final String openHandleSql;
+
+    public BulkDdlFetcher(int fetchSize) {
+        this(fetchSize, new ClobReader(), MetadataTransformProfile.DATABASE_DEFAULT);
+    }
+
+    public BulkDdlFetcher(int fetchSize, MetadataTransformProfile transformProfile) {
+        this(fetchSize, new ClobReader(), transformProfile);
+    }
+
+    BulkDdlFetcher(int fetchSize, ClobReader clobReader, MetadataTransformProfile transformProfile) {
+        if (fetchSize < 1 || fetchSize > ExtractionOptions.MAX_BULK_FETCH_SIZE) {
+            throw new IllegalArgumentException("Fetch size must be between 1 and " + ExtractionOptions.MAX_BULK_FETCH_SIZE + ", got: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+        this.clobReader = clobReader;
+        this.openHandleSql = String.format(OPEN_HANDLE_SQL_TEMPLATE, MetadataSessionSetup.handleTransformStatements(transformProfile, "th"));
+    }
+
+    public static boolean supports(ObjectType objectType) {
+        return METADATA_OBJECT_TYPES.containsKey(objectType);
+    }
+
+    /**
+     * Отримує DDL усіх об'єктів заданого типу у схемі.
+     * Якщо DBMS_METADATA повертає кілька DDL для одного імені (наприклад, специфікація і тіло пакета),
+     * вони об'єднуються в один текст у порядку отримання.
+     * @param connection Відкрите з'єднання.
+     * @param objectType Тип об'єкта (має підтримуватися, див. {@link #supports(ObjectType)}).
+     * @param schemaName Власник об'єктів.
+     * @return Мапа ім'я об'єкта -> DDL у порядку отримання.
+     */
+    public Map<String, String> fetchAll(Connection connection, ObjectType objectType, String schemaName) throws SQLException {
+        String metadataType = METADATA_OBJECT_TYPES.get(objectType);
+        if (metadataType == null) {
+            throw new IllegalArgumentException("Object type is not supported by bulk fetch: " + objectType);
+        }
+
+        Map<String, StringBuilder> collected = new LinkedHashMap<>();
+        int handle = openHandle(connection, metadataType, schemaName.toUpperCase());
+        int batches = 0;
+        try (CallableStatement cs = connection.prepareCall(FETCH_BATCH_SQL)) {
+            while (true) {
+                cs.setInt(1, handle);
+                cs.registerOutParameter(2, Types.CLOB);
+                cs.registerOutParameter(3, Types.CLOB);
+                cs.registerOutParameter(4, Types.CLOB);
+                cs.execute();
+
+                String names = readClob(cs, 2);
+                if (names == null) {
+                    break; // FETCH_DDL повернув NULL - об'єкти цього типу закінчилися
+                }
+                String lengths = readClob(cs, 3);
+                String buffer = readClob(cs, 4);
+                splitBatch(names, lengths, (buffer != null) ? buffer : "", collected);
+                batches++;
+            }
+        } finally {
+            closeHandle(connection, handle);
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        collected.forEach((name, ddl) -> result.put(name, ddl.toString()));
+        System.out.println("Пакетно отримано " + result.size() + " DDL типу " + objectType + " (схема " + schemaName + ") за " + batches + " звернень FETCH_DDL.");
+        return result;
+    }
+
+    private String readClob(CallableStatement cs, int parameterIndex) throws SQLException {
+        Clob clob = cs.getClob(parameterIndex);
+        if (clob == null) {
+            return null;
+        }
+        try {
+            return clobReader.read(clob);
+        } finally {
+            clob.free();
+        }
+    }
+
+    private int openHandle(Connection connection, String metadataType, String schemaName) throws SQLException {
+        try (CallableStatement cs = connection.prepareCall(openHandleSql)) {
+            cs.setString(1, metadataType);
+            cs.setString(2, schemaName);
+            cs.setInt(3, fetchSize);
+            cs.registerOutParameter(4, Types.INTEGER);
+            cs.execute();
+            return cs.getInt(4);
+        }
+    }
+
+    private void closeHandle(Connection connection, int handle) {
+        try (CallableStatement cs = connection.prepareCall(CLOSE_HANDLE_SQL)) {
+            cs.setInt(1, handle);
+            cs.execute();
+        } catch (SQLException e) {
+            System.err.println("Помилка закриття дескриптора DBMS_METADATA " + handle + ": " + e.getMessage());
+        }
+    }
+
+    private void splitBatch(String names, String lengths, String buffer, Map<String, StringBuilder> collected) throws SQLException {
+        String[] nameParts = names.split("\n", -1);
+        String[] lengthParts = (lengths != null) ? lengths.split(",", -1) : new String[0];
+        // Останні елементи порожні через завершальні роздільники
+        int count = nameParts.length - 1;
+        if (lengthParts.length - 1 != count) {
+            throw new SQLException("Некоректна відповідь FETCH_DDL: " + count + " імен, " + (lengthParts.length - 1) + " довжин.");
+        }
+
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(lengthParts[i].trim());
+            if (offset + length > buffer.length()) {
+                throw new SQLException("Некоректна відповідь FETCH_DDL: довжина DDL виходить за межі пакета.");
+            }
+            String name = nameParts[i];
+            String ddl = buffer.substring(offset, offset + length);
+            offset += length;
+            if (name.isEmpty()) {
+                System.err.println("Попередження: FETCH_DDL повернув DDL без імені об'єкта. Пропущено.");
+                continue;
+            }
+            collected.computeIfAbsent(name, key -> new StringBuilder()).append(ddl);
+        }
+    }
+}
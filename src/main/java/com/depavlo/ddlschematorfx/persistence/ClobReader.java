@@ -0,0 +1,124 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокове читання CLOB через getCharacterStream без попереднього запиту clob.length()
+ * (довжина запитується лише для CLOB, більших за буфер потоку). Символи читаються одразу в буфер,
+ * що перевикористовується в межах потоку, тому на кожен невеликий об'єкт виділяється лише підсумковий String. Також рахує обсяг виділеної пам'яті на прочитаний CLOB
+ * (якщо JVM підтримує com.sun.management.ThreadMXBean) за вибіркою з кожного {@value #ALLOCATION_SAMPLE_INTERVAL}-го читання:
+ * виклик ThreadMXBean коштує порівнянно з читанням невеликого DDL.
+ */
+class ClobReader {
+
+    private static final int BUFFER_SIZE = 8192;
+    // Більші буфери не тримаємо між викликами, щоб один великий пакет не займав пам'ять назавжди
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1 << 20;
+    private static final int ALLOCATION_SAMPLE_INTERVAL = 16;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final ThreadLocal<char[]> BUFFERS = ThreadLocal.withInitial(() -> new char[BUFFER_SIZE]);
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = resolveThreadMxBean();
+
+    private final LongAdder readCount = new LongAdder();
+    private final LongAdder charsRead = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder sampledReadCount = new LongAdder();
+
+    /**
+     * Читає весь вміст CLOB у рядок.
+     * @return Вміст CLOB ("" для порожнього).
+     */
+    String read(Clob clob) throws SQLException {
+        boolean sampled = THREAD_MX_BEAN != null && ThreadLocalRandom.current().nextInt(ALLOCATION_SAMPLE_INTERVAL) == 0;
+        long allocatedBefore = sampled ? currentThreadAllocatedBytes() : -1;
+        // Символи читаються одразу в буфер потоку (без проміжного StringBuilder): єдина копія - підсумковий String
+        char[] buffer = BUFFERS.get();
+        int length = 0;
+        boolean lengthRequested = false;
+        try (Reader reader = clob.getCharacterStream()) {
+            int read;
+            while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    // Великий CLOB: одного запиту довжини досить, щоб не копіювати буфер при кожному подвоєнні
+                    long totalLength = lengthRequested ? -1 : clob.length();
+                    lengthRequested = true;
+                    int newSize = (totalLength >= length && totalLength < MAX_ARRAY_SIZE) ? (int) totalLength + 1
+                            : (int) Math.min(MAX_ARRAY_SIZE, buffer.length * 2L);
+                    if (newSize <= length) {
+                        throw new SQLException("CLOB is too large to read into a String.");
+                    }
+                    buffer = Arrays.copyOf(buffer, newSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Помилка потокового читання CLOB: " + e.getMessage(), e);
+        }
+
+        String result = new String(buffer, 0, length);
+        if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFERS.remove();
+        } else {
+            BUFFERS.set(buffer);
+        }
+
+        readCount.increment();
+        charsRead.add(result.length());
+        if (allocatedBefore >= 0) {
+            allocatedBytes.add(currentThreadAllocatedBytes() - allocatedBefore);
+            sampledReadCount.increment();
+        }
+        return result;
+    }
+
+    long getReadCount() {
+        return readCount.sum();
+    }
+
+    long getCharsRead() {
+        return charsRead.sum();
+    }
+
+    /**
+     * @return Середній обсяг пам'яті (байт), виділений на читання одного CLOB, або -1, якщо вимір недоступний.
+     */
+    long getAverageAllocatedBytesPerRead() {
+        long reads = sampledReadCount.sum();
+        if (THREAD_MX_BEAN == null || reads == 0) {
+            return -1;
+        }
+        return allocatedBytes.sum() / reads;
+    }
+
+    String describeStatistics() {
+        long averageAllocated = getAverageAllocatedBytesPerRead();
+        return "прочитано CLOB: " + getReadCount() + ", символів: " + getCharsRead()
+                + (averageAllocated >= 0 ? ", виділено в середньому на об'єкт: " + averageAllocated + " байт" : "");
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return (THREAD_MX_BEAN != null) ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean resolveThreadMxBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+                return sunBean;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            System.err.println("Вимірювання виділеної пам'яті недоступне: " + e.getMessage());
+        }
+        return null;
+    }
+}
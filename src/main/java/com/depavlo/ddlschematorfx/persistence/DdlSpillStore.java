@@ -0,0 +1,74 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.LazyDdlFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Тимчасове сховище DDL, вивантажених з пам'яті ({@link com.depavlo.ddlschematorfx.model.Schema#spillDdl}).
+ * Файли адресуються за хешем вмісту ({@code <hash>.sql}), тому однаковий текст із кількох схем записується один раз,
+ * а повторне вивантаження того самого тексту не пише на диск. Директорія створюється при першому записі
+ * у системній тимчасовій директорії і видаляється при завершенні програми.
+ */
+public final class DdlSpillStore {
+
+    private static final DdlSpillStore SHARED = new DdlSpillStore();
+
+    private Path spillDirectory; // null - ще нічого не вивантажувалось
+
+    public static DdlSpillStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * Записує DDL у файл сховища (якщо файлу з таким хешем ще немає).
+     * @return Запис для відкладеного читання DDL.
+     */
+    public LazyDdlFile write(String ddlHash, String ddl) throws IOException {
+        Path file = getSpillDirectory().resolve(ddlHash + SchemaDirectoryFormat.DDL_FILE_EXTENSION);
+        if (!Files.exists(file)) {
+            // Через тимчасовий файл, щоб читач не побачив частково записаний DDL
+            Path tempFile = Files.createTempFile(file.getParent(), ddlHash, ".tmp");
+            Files.writeString(tempFile, ddl, StandardCharsets.UTF_8);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new LazyDdlFile(file, attributes.size(), attributes.lastModifiedTime().toMillis(), ddlHash);
+    }
+
+    private synchronized Path getSpillDirectory() throws IOException {
+        if (spillDirectory == null) {
+            spillDirectory = Files.createTempDirectory("ddl-schemator-spill-");
+            Path directory = spillDirectory;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteDirectory(directory), "ddl-spill-cleanup"));
+            System.out.println("Директорія для вивантаження DDL: " + directory);
+        }
+        return spillDirectory;
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("Не вдалося видалити " + path + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Не вдалося очистити директорію вивантаження " + directory + ": " + e.getMessage());
+        }
+    }
+}
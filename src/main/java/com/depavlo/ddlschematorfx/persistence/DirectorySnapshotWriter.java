@@ -0,0 +1,158 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Запис знімка схеми у директорію під час витягнення.
+ * Потоки, що отримують DDL, передають кожен DDL через обмежену чергу потокам запису, які одразу
+ * створюють файл {@code <TYPE>/<NAME>.sql}. Якщо запис не встигає, {@link #write} блокується,
+ * тому в пам'яті одночасно перебуває не більше {@code queueCapacity} DDL незалежно від розміру схеми.
+ * meta.properties записується останнім у {@link #finish(Properties)}, тому незавершена директорія
+ * не завантажується як знімок.
+ */
+class DirectorySnapshotWriter implements AutoCloseable {
+
+    // Маркер завершення для потоків запису
+    private static final PendingFile POISON_PILL = new PendingFile(null, null, null);
+
+    private final Path schemaDirectory;
+    private final String schemaOwnerName;
+    private final BlockingQueue<PendingFile> pendingFiles;
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private final Properties objectsManifest = new Properties();
+    private final AtomicReference<IOException> writeError = new AtomicReference<>();
+    private final AtomicInteger writtenCount = new AtomicInteger();
+    private boolean finished = false;
+
+    DirectorySnapshotWriter(Path schemaDirectory, String schemaOwnerName, int writerThreadCount, int queueCapacity) throws IOException {
+        if (writerThreadCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Writer thread count and queue capacity must be positive.");
+        }
+        this.schemaDirectory = schemaDirectory;
+        this.schemaOwnerName = schemaOwnerName;
+        this.pendingFiles = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(schemaDirectory);
+        for (int i = 1; i <= writerThreadCount; i++) {
+            Thread thread = new Thread(this::drainQueue, "ddl-write-" + schemaOwnerName + "-" + i);
+            thread.setDaemon(true);
+            writerThreads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Ставить DDL об'єкта у чергу на запис. Блокується, якщо черга заповнена.
+     * @throws IOException Якщо запис одного з попередніх файлів не вдався.
+     */
+    void write(OracleSchemaExtractor.ListedObject listedObject, String ddl) throws IOException, InterruptedException {
+        rethrowWriteError();
+        String manifestValue = (listedObject.lastDdlTime() != null)
+                ? listedObject.lastDdlTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+        if (ddl == null || ddl.trim().isEmpty()) {
+            if (manifestValue != null) {
+                objectsManifest.setProperty(SchemaDirectoryFormat.manifestKey(listedObject.objectType(), listedObject.objectName())
+                        + SchemaDirectoryFormat.MANIFEST_SUFFIX_WITHOUT_DDL_LAST_DDL_TIME, manifestValue);
+            }
+            return;
+        }
+        pendingFiles.put(new PendingFile(listedObject, ddl, manifestValue));
+    }
+
+    /**
+     * Дочікується запису всіх файлів, після чого записує маніфест об'єктів і meta.properties.
+     * @param metaProperties Вміст meta.properties.
+     */
+    void finish(Properties metaProperties) throws IOException, InterruptedException {
+        stopWriters();
+        rethrowWriteError();
+        if (!objectsManifest.isEmpty()) {
+            objectsManifest.setProperty(SchemaDirectoryFormat.MANIFEST_KEY_FINGERPRINT_VERSION, String.valueOf(DdlUtils.COMPARISON_FINGERPRINT_VERSION));
+            SchemaDirectoryFormat.storeProperties(schemaDirectory.resolve(SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE),
+                    objectsManifest, "Schema Objects Manifest");
+        }
+        SchemaDirectoryFormat.storeProperties(schemaDirectory.resolve(SchemaDirectoryFormat.META_PROPERTIES_FILE),
+                metaProperties, "Schema Metadata");
+    }
+
+    int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    private void drainQueue() {
+        while (true) {
+            PendingFile pendingFile;
+            try {
+                pendingFile = pendingFiles.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (pendingFile == POISON_PILL) {
+                return;
+            }
+            if (writeError.get() != null) {
+                continue; // Після першої помилки лише звільняємо чергу, щоб не блокувати потоки отримання DDL
+            }
+            OracleSchemaExtractor.ListedObject listedObject = pendingFile.listedObject();
+            try {
+                SchemaDirectoryFormat.writeDdlFile(schemaDirectory, listedObject.objectType(), listedObject.objectName(), pendingFile.ddl());
+                // Properties синхронізований, тому потоки запису можуть доповнювати маніфест одночасно
+                String manifestKey = SchemaDirectoryFormat.manifestKey(listedObject.objectType(), listedObject.objectName());
+                if (pendingFile.lastDdlTime() != null) {
+                    objectsManifest.setProperty(manifestKey + SchemaDirectoryFormat.MANIFEST_SUFFIX_LAST_DDL_TIME, pendingFile.lastDdlTime());
+                }
+                objectsManifest.setProperty(manifestKey + SchemaDirectoryFormat.MANIFEST_SUFFIX_DDL_HASH, DdlUtils.sha256Hex(pendingFile.ddl()));
+                objectsManifest.setProperty(manifestKey + SchemaDirectoryFormat.MANIFEST_SUFFIX_FINGERPRINT,
+                        DdlUtils.comparisonFingerprint(pendingFile.ddl(), schemaOwnerName));
+                writtenCount.incrementAndGet();
+            } catch (IOException e) {
+                writeError.compareAndSet(null, new IOException("Помилка запису DDL для " + listedObject.objectType() + "/"
+                        + listedObject.objectName() + ": " + e.getMessage(), e));
+            }
+        }
+    }
+
+    private void stopWriters() throws InterruptedException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        for (int i = 0; i < writerThreads.size(); i++) {
+            pendingFiles.put(POISON_PILL);
+        }
+        for (Thread thread : writerThreads) {
+            thread.join();
+        }
+    }
+
+    private void rethrowWriteError() throws IOException {
+        IOException error = writeError.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        pendingFiles.clear();
+        writerThreads.forEach(Thread::interrupt);
+    }
+
+    private record PendingFile(OracleSchemaExtractor.ListedObject listedObject, String ddl, String lastDdlTime) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.MetadataTransformProfile;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Налаштування сесії витягнення за профілем: стабільні NLS-параметри та параметри трансформації DBMS_METADATA.
+ * Профіль {@link MetadataTransformProfile#DATABASE_DEFAULT} сесію не змінює.
+ * Виконується один раз для кожного відкритого з'єднання (у тому числі з'єднань пулу), тому окремі виклики GET_DDL
+ * нічого не налаштовують. Дескриптори DBMS_METADATA.OPEN не успадковують параметри сесії, тому для пакетного
+ * отримання ті самі параметри додаються до трансформації дескриптора через {@link #handleTransformStatements}.
+ */
+final class MetadataSessionSetup {
+
+    // NLS профілів зі стабільними NLS: однакові формати в DDL (DEFAULT-значення, партиції) та явна семантика довжини
+    private static final String ALTER_SESSION_NLS_SQL =
+            "ALTER SESSION SET NLS_LANGUAGE = 'AMERICAN' NLS_TERRITORY = 'AMERICA' NLS_NUMERIC_CHARACTERS = '.,' " +
+            "NLS_DATE_FORMAT = 'YYYY-MM-DD HH24:MI:SS' NLS_TIMESTAMP_FORMAT = 'YYYY-MM-DD HH24:MI:SS.FF' " +
+            "NLS_SORT = 'BINARY' NLS_COMP = 'BINARY' NLS_LENGTH_SEMANTICS = 'BYTE'";
+
+    private MetadataSessionSetup() {
+    }
+
+    /**
+     * Застосовує NLS-параметри та профіль трансформації до сесії.
+     * @param profile Профіль; null рівнозначний {@link MetadataTransformProfile#DATABASE_DEFAULT}.
+     */
+    static void apply(Connection connection, MetadataTransformProfile profile) throws SQLException {
+        if (profile == null || (!profile.isStableNls() && profile.getTransformParams().isEmpty())) {
+            return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            if (profile.isStableNls()) {
+                stmt.execute(ALTER_SESSION_NLS_SQL);
+            }
+            if (!profile.getTransformParams().isEmpty()) {
+                stmt.execute(buildSessionTransformBlock(profile));
+            }
+        }
+    }
+
+    private static String buildSessionTransformBlock(MetadataTransformProfile profile) {
+        StringBuilder sb = new StringBuilder("BEGIN\n");
+        // Скидаємо параметри, встановлені раніше в цій сесії, щоб профіль діяв точно
+        sb.append("  DBMS_METADATA.SET_TRANSFORM_PARAM(DBMS_METADATA.SESSION_TRANSFORM, 'DEFAULT', TRUE);\n");
+        for (Map.Entry<String, Boolean> param : profile.getTransformParams().entrySet()) {
+            sb.append("  DBMS_METADATA.SET_TRANSFORM_PARAM(DBMS_METADATA.SESSION_TRANSFORM, '")
+                    .append(param.getKey()).append("', ").append(param.getValue() ? "TRUE" : "FALSE").append(");\n");
+        }
+        return sb.append("END;").toString();
+    }
+
+    /**
+     * Оператори PL/SQL, що встановлюють параметри профілю для дескриптора трансформації.
+     * Параметри, які не застосовні до типу об'єкта дескриптора (наприклад, STORAGE для VIEW), пропускаються.
+     * @param transformHandleVariable Ім'я змінної PL/SQL з дескриптором, отриманим від ADD_TRANSFORM.
+     * @return Текст операторів (порожній для профілю без параметрів).
+     */
+    static String handleTransformStatements(MetadataTransformProfile profile, String transformHandleVariable) {
+        if (profile == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Boolean> param : profile.getTransformParams().entrySet()) {
+            sb.append("  BEGIN DBMS_METADATA.SET_TRANSFORM_PARAM(").append(transformHandleVariable).append(", '")
+                    .append(param.getKey()).append("', ").append(param.getValue() ? "TRUE" : "FALSE")
+                    .append("); EXCEPTION WHEN OTHERS THEN NULL; END;\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,373 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Постійний кеш результатів нормалізації DDL для порівняння.
+ * Ключ - хеш вихідного DDL, власник схеми (префікси якого видаляються) і версія набору правил нормалізації;
+ * значення - відбиток нормалізованого тексту, правила, що змінили текст, і, за бажанням, сам нормалізований текст.
+ * Тому повторне порівняння тих самих знімків не нормалізує однакові DDL заново, навіть після перезапуску програми.
+ * <p>
+ * Кеш зберігається як журнал записів, що лише дописуються в кінець файлу; при відкритті журнал читається повністю,
+ * пізніший запис з тим самим ключем заміняє попередній, а пошкоджений хвіст (наприклад, після аварійного завершення)
+ * відрізається. Кількість записів у пам'яті обмежена: найдавніше використані витісняються (LRU).
+ * Коли в журналі накопичується забагато застарілих записів, він перезаписується лише з актуальними.
+ * <p>
+ * Журнал може дописувати лише один процес: на час роботи кеш тримає блокування файлу {@code <журнал>.lock}
+ * (окремого, бо ущільнення замінює сам журнал). Якщо журнал уже відкрито іншим екземпляром програми,
+ * кеш читає наявні записи, але далі працює лише в пам'яті.
+ * Усі методи потокобезпечні.
+ */
+public final class NormalizationCache implements Closeable {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    public static final String DEFAULT_FILE_NAME = "normalization-cache.log";
+
+    private static final int MAGIC = 0x44444E43; // "DDNC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    // Довші нормалізовані тексти не зберігаються навіть у режимі збереження тексту
+    private static final int MAX_STORED_TEXT_LENGTH = 64 * 1024;
+
+    /**
+     * Результат нормалізації одного DDL.
+     * @param fingerprint SHA-256 нормалізованого тексту.
+     * @param appliedOptions Біти правил нормалізації (ordinal), що змінили текст.
+     * @param normalizedText Нормалізований текст або null, якщо він не зберігається.
+     */
+    public record Entry(String fingerprint, int appliedOptions, String normalizedText) {
+    }
+
+    private final Path file;
+    private final int maxEntries;
+    private final boolean storeNormalizedText;
+    private final LinkedHashMap<String, Entry> entries;
+    private DataOutputStream log; // null - кеш закрито або працює лише в пам'яті
+    private FileChannel lockChannel; // Утримує блокування журналу; null - журнал не дописується
+    private long logRecordCount = 0; // Записи в журналі, включно із застарілими
+
+    private long lookupCount = 0;
+    private long hitCount = 0;
+    private long lookupNanos = 0;
+    private long computeCount = 0;
+    private long computeNanos = 0;
+
+    private NormalizationCache(Path file, int maxEntries, boolean storeNormalizedText) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.storeNormalizedText = storeNormalizedText;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > NormalizationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Відкриває кеш у файлі за замовчуванням ({@code ~/.ddlschematorfx/normalization-cache.log}).
+     */
+    public static NormalizationCache openDefault() throws IOException {
+        Path directory = Path.of(System.getProperty("user.home"), ".ddlschematorfx");
+        return open(directory.resolve(DEFAULT_FILE_NAME), DEFAULT_MAX_ENTRIES, false);
+    }
+
+    /**
+     * Відкриває кеш (файл створюється, якщо його немає).
+     * @param maxEntries Максимальна кількість записів.
+     * @param storeNormalizedText Чи зберігати нормалізовані тексти разом з відбитками.
+     */
+    public static NormalizationCache open(Path file, int maxEntries, boolean storeNormalizedText) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Cache file must not be null.");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be positive, got: " + maxEntries);
+        }
+        NormalizationCache cache = new NormalizationCache(file, maxEntries, storeNormalizedText);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        boolean locked = cache.tryLock();
+        long validLength = cache.replay();
+        if (!locked) {
+            System.out.println("Кеш нормалізації " + file + " використовується іншим екземпляром програми: "
+                    + cache.entries.size() + " записів прочитано, нові записи зберігаються лише в пам'яті.");
+            return cache;
+        }
+        try {
+            if (cache.logRecordCount > 2L * Math.max(cache.entries.size(), 1000)) {
+                cache.compact();
+            } else {
+                cache.openLog(validLength);
+            }
+        } catch (IOException e) {
+            cache.close();
+            throw e;
+        }
+        System.out.println("Кеш нормалізації DDL відкрито: " + file + " (" + cache.entries.size() + " записів)");
+        return cache;
+    }
+
+    /**
+     * Ключ запису: хеш вихідного DDL, власник і версія набору правил.
+     */
+    public static String key(String ddlHash, String owner, String ruleSetVersion) {
+        return ddlHash + '|' + (owner != null ? owner : "") + '|' + ruleSetVersion;
+    }
+
+    /**
+     * @return Запис або null, якщо його немає в кеші.
+     */
+    public Entry get(String key) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            lookupCount++;
+            if (entry != null) {
+                hitCount++;
+            }
+            lookupNanos += System.nanoTime() - start;
+            return entry;
+        }
+    }
+
+    /**
+     * Додає запис і дописує його в журнал.
+     * @param computeNanos Час нормалізації, яку заощадить запис (для статистики).
+     */
+    public void put(String key, Entry entry, long computeNanos) {
+        Entry stored = (storeNormalizedText && entry.normalizedText() != null && entry.normalizedText().length() <= MAX_STORED_TEXT_LENGTH)
+                ? entry
+                : new Entry(entry.fingerprint(), entry.appliedOptions(), null);
+        synchronized (this) {
+            computeCount++;
+            this.computeNanos += computeNanos;
+            if (stored.equals(entries.put(key, stored)) || log == null) {
+                return;
+            }
+            try {
+                writeRecord(log, key, stored);
+                logRecordCount++;
+                if (logRecordCount > 2L * maxEntries) {
+                    log.close();
+                    compact();
+                }
+            } catch (IOException e) {
+                // Кеш лише прискорює порівняння: без журналу він працює в пам'яті до кінця сеансу
+                System.err.println("Не вдалося записати кеш нормалізації " + file + ": " + e.getMessage());
+                closeLogQuietly();
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.flush();
+        } catch (IOException e) {
+            System.err.println("Не вдалося записати кеш нормалізації " + file + ": " + e.getMessage());
+            closeLogQuietly();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        closeLogQuietly();
+        releaseLock();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized double getHitRate() {
+        return (lookupCount > 0) ? (double) hitCount / lookupCount : 0.0;
+    }
+
+    public synchronized String describe() {
+        return String.format("Кеш нормалізації DDL: %d записів, звернень %d, влучань %d (%.1f%%), середній пошук %.1f мкс, "
+                        + "нормалізовано %d (середньо %.1f мкс)",
+                entries.size(), lookupCount, hitCount, getHitRate() * 100,
+                (lookupCount > 0) ? lookupNanos / 1000.0 / lookupCount : 0.0,
+                computeCount, (computeCount > 0) ? computeNanos / 1000.0 / computeCount : 0.0);
+    }
+
+    /**
+     * Бере блокування журналу між процесами.
+     * @return false, якщо журнал уже відкрито іншим процесом (або іншим кешем у цьому процесі).
+     */
+    private boolean tryLock() throws IOException {
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseLock() {
+        if (lockChannel == null) {
+            return;
+        }
+        try {
+            lockChannel.close(); // Знімає й блокування
+        } catch (IOException e) {
+            System.err.println("Не вдалося зняти блокування кешу нормалізації " + file + ": " + e.getMessage());
+        }
+        lockChannel = null;
+    }
+
+    /**
+     * Читає журнал у пам'ять.
+     * @return Довжина коректної частини файлу (заголовок і цілі записи); 0 - файлу немає або він іншого формату.
+     */
+    private long replay() throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                System.out.println("Кеш нормалізації " + file + " має інший формат, його буде створено заново.");
+                return 0;
+            }
+            validLength = HEADER_SIZE;
+            while (true) {
+                String key = in.readUTF();
+                String fingerprint = in.readUTF();
+                int appliedOptions = in.readInt();
+                int textLength = in.readInt();
+                String normalizedText = null;
+                if (textLength >= 0) {
+                    byte[] text = in.readNBytes(textLength);
+                    if (text.length != textLength) {
+                        throw new EOFException();
+                    }
+                    normalizedText = new String(text, StandardCharsets.UTF_8);
+                }
+                entries.put(key, new Entry(fingerprint, appliedOptions, storeNormalizedText ? normalizedText : null));
+                logRecordCount++;
+                validLength += recordSize(key, fingerprint, normalizedText);
+            }
+        } catch (EOFException e) {
+            // Кінець журналу або недописаний останній запис
+        } catch (IOException e) {
+            System.err.println("Кеш нормалізації " + file + " пошкоджено після " + validLength + " байт: " + e.getMessage());
+        }
+        return validLength;
+    }
+
+    // Відкриває журнал для дописування, відрізаючи пошкоджений хвіст
+    private void openLog(long validLength) throws IOException {
+        if (validLength == 0) {
+            writeLogFile(file);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > validLength) {
+                channel.truncate(validLength);
+            }
+        }
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+    }
+
+    // Перезаписує журнал лише з актуальними записами
+    private void compact() throws IOException {
+        long compactedRecordCount = logRecordCount; // writeLogFile скидає лічильник
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        writeLogFile(tempFile);
+        log.close();
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+        System.out.println("Кеш нормалізації ущільнено: " + compactedRecordCount + " записів журналу -> " + entries.size());
+    }
+
+    // Створює файл журналу з поточними записами і лишає log відкритим на дописування в нього
+    private void writeLogFile(Path target) throws IOException {
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        log.writeInt(MAGIC);
+        log.writeInt(FORMAT_VERSION);
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            writeRecord(log, entry.getKey(), entry.getValue());
+        }
+        log.flush();
+        logRecordCount = entries.size();
+    }
+
+    private static void writeRecord(DataOutputStream out, String key, Entry entry) throws IOException {
+        out.writeUTF(key);
+        out.writeUTF(entry.fingerprint());
+        out.writeInt(entry.appliedOptions());
+        if (entry.normalizedText() != null) {
+            byte[] text = entry.normalizedText().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(text.length);
+            out.write(text);
+        } else {
+            out.writeInt(-1);
+        }
+    }
+
+    // Розмір запису у файлі (writeUTF - 2 байти довжини і модифікований UTF-8, для ASCII-ключів збігається з UTF-8)
+    private static long recordSize(String key, String fingerprint, String normalizedText) {
+        long size = 2L + utfLength(key) + 2L + utfLength(fingerprint) + 4 + 4;
+        if (normalizedText != null) {
+            size += normalizedText.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF ? 2 : 3);
+        }
+        return length;
+    }
+
+    private void closeLogQuietly() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Не вдалося закрити кеш нормалізації " + file + ": " + e.getMessage());
+        }
+        log = null;
+    }
+}
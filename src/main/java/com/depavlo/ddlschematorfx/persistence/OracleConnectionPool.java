@@ -0,0 +1,119 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Простий пул JDBC-з'єднань фіксованого розміру для паралельного витягнення DDL.
+ * З'єднання створюються ліниво (не більше maxSize) і закриваються разом з пулом.
+ */
+public class OracleConnectionPool implements AutoCloseable {
+
+    private static final String PROPERTY_LOB_PREFETCH_SIZE = "oracle.jdbc.defaultLobPrefetchSize";
+
+    private final ConnectionDetails connectionDetails;
+    private final ExtractionOptions options;
+    private final int maxSize;
+    private final BlockingQueue<Connection> idleConnections;
+    private final List<Connection> allConnections = new ArrayList<>();
+    private boolean closed = false;
+
+    public OracleConnectionPool(ConnectionDetails connectionDetails, ExtractionOptions options, int maxSize) {
+        if (connectionDetails == null) {
+            throw new IllegalArgumentException("Connection details must be provided.");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive, got: " + maxSize);
+        }
+        this.connectionDetails = connectionDetails;
+        this.options = (options != null) ? options : ExtractionOptions.defaults();
+        this.maxSize = maxSize;
+        this.idleConnections = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    /**
+     * Бере з'єднання з пулу. Якщо вільних немає і ліміт не вичерпано, відкриває нове,
+     * інакше чекає, поки інший потік поверне з'єднання.
+     * @return Відкрите з'єднання.
+     */
+    public Connection borrow() throws SQLException, InterruptedException {
+        Connection connection = idleConnections.poll();
+        if (connection != null) {
+            return connection;
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new SQLException("Пул з'єднань вже закрито.");
+            }
+            if (allConnections.size() < maxSize) {
+                Connection newConnection = openConnection(connectionDetails, options);
+                allConnections.add(newConnection);
+                return newConnection;
+            }
+        }
+        return idleConnections.take();
+    }
+
+    /**
+     * Повертає з'єднання у пул.
+     * @param connection З'єднання, отримане через {@link #borrow()}.
+     */
+    public void release(Connection connection) {
+        if (connection != null && !idleConnections.offer(connection)) {
+            System.err.println("Попередження: не вдалося повернути з'єднання у пул (пул переповнено).");
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Відкриває з'єднання для витягнення схеми з урахуванням параметрів (розмір попередньої вибірки LOB тощо)
+     * і одразу налаштовує сесію за профілем трансформації (NLS та параметри DDL, див. {@link MetadataSessionSetup}).
+     */
+    public static Connection openConnection(ConnectionDetails connectionDetails, ExtractionOptions options) throws SQLException {
+        Properties connectionProperties = new Properties();
+        if (connectionDetails.getUser() != null) {
+            connectionProperties.setProperty("user", connectionDetails.getUser());
+        }
+        if (connectionDetails.getPassword() != null) {
+            connectionProperties.setProperty("password", connectionDetails.getPassword());
+        }
+        if (options != null && options.getLobPrefetchSize() >= 0) {
+            // DDL переважно невеликі: з попередньою вибіркою вони приходять разом з локатором без окремого звернення
+            connectionProperties.setProperty(PROPERTY_LOB_PREFETCH_SIZE, String.valueOf(options.getLobPrefetchSize()));
+        }
+        Connection connection = DriverManager.getConnection(connectionDetails.getUrl(), connectionProperties);
+        try {
+            MetadataSessionSetup.apply(connection, (options != null) ? options.getTransformProfile() : null);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Connection connection : allConnections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Помилка закриття з'єднання пулу: " + e.getMessage());
+            }
+        }
+        allConnections.clear();
+        idleConnections.clear();
+    }
+}
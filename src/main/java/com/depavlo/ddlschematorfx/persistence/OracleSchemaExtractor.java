@@ -1,101 +1,843 @@
 package com.depavlo.ddlschematorfx.persistence;
 
 import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.DdlFetchStrategy;
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+import com.depavlo.ddlschematorfx.model.MetadataTransformProfile;
+import com.depavlo.ddlschematorfx.model.ObjectFilter;
 import com.depavlo.ddlschematorfx.model.ObjectType;
 import com.depavlo.ddlschematorfx.model.Schema;
-import org.apache.commons.collections4.map.MultiKeyMap;
+import com.depavlo.ddlschematorfx.model.SchemaObjectStore;
 
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.CallableStatement;
+import java.sql.Clob;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 // import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OracleSchemaExtractor {
 
+    // %1$s - параметри власників (?, ?, ...), %2$s - типи об'єктів, %3$s - умови за іменами з ObjectFilter
+    private static final String SCHEMA_OBJECTS_FILTER_SQL_TEMPLATE =
+            "FROM all_objects WHERE owner IN (%1$s) AND object_type IN (%2$s) AND status = 'VALID' AND NOT (object_type = 'SEQUENCE' AND object_name LIKE 'ISEQ$$_%%')%3$s";
+
     private static final String GET_SCHEMA_OBJECTS_SQL_TEMPLATE =
-            "SELECT object_name, object_type FROM all_objects WHERE owner = ? AND object_type IN (%s) AND status = 'VALID' AND NOT (object_type = 'SEQUENCE' AND object_name LIKE 'ISEQ$$_%%')";
+            "SELECT owner, object_name, object_type, last_ddl_time " + SCHEMA_OBJECTS_FILTER_SQL_TEMPLATE;
+
+    // Той самий список разом з SHA-256 DDL кожного об'єкта, обчисленим на стороні БД: повний текст DDL передається
+    // лише для об'єктів, хеш яких не збігся з попереднім знімком. Вбудована PL/SQL-функція потребує Oracle 12c+
+    // та права EXECUTE на DBMS_CRYPTO (4 = DBMS_CRYPTO.HASH_SH256). Помилка GET_DDL дає NULL-хеш,
+    // і зміни такого об'єкта визначаються за LAST_DDL_TIME.
+    private static final String GET_HASHED_SCHEMA_OBJECTS_SQL_TEMPLATE =
+            "WITH FUNCTION ddl_hash(p_type VARCHAR2, p_name VARCHAR2, p_owner VARCHAR2) RETURN VARCHAR2 IS\n" +
+            "BEGIN\n" +
+            "  RETURN RAWTOHEX(DBMS_CRYPTO.HASH(DBMS_METADATA.GET_DDL(p_type, p_name, p_owner), 4));\n" +
+            "EXCEPTION WHEN OTHERS THEN\n" +
+            "  RETURN NULL;\n" +
+            "END;\n" +
+            "SELECT owner, object_name, object_type, last_ddl_time, " +
+            "ddl_hash(DECODE(object_type, 'JOB', 'PROCOBJ', object_type), object_name, owner) AS ddl_hash " +
+            SCHEMA_OBJECTS_FILTER_SQL_TEMPLATE;
+
+    // Список об'єктів кількох схем одним запитом, згрупований за власником
+    private static final String GET_OWNERS_OBJECTS_SQL_TEMPLATE = GET_SCHEMA_OBJECTS_SQL_TEMPLATE + " ORDER BY owner";
+
+    // Швидка перевірка "нічого не змінилося": кількість об'єктів та найпізніший LAST_DDL_TIME одним запитом
+    private static final String PROBE_SCHEMA_OBJECTS_SQL_TEMPLATE =
+            "SELECT COUNT(*) AS object_count, MAX(last_ddl_time) AS max_last_ddl_time " + SCHEMA_OBJECTS_FILTER_SQL_TEMPLATE;
 
     private static final String GET_DDL_SQL =
             "{ ? = call DBMS_METADATA.GET_DDL(?, ?, ?) }";
 
+    private static final ObjectType[] OBJECT_TYPES_TO_EXTRACT = {
+            ObjectType.TABLE, ObjectType.VIEW, ObjectType.SEQUENCE,
+            ObjectType.PROCEDURE, ObjectType.FUNCTION, ObjectType.PACKAGE,
+            ObjectType.TRIGGER, ObjectType.INDEX,
+            ObjectType.MATERIALIZED_VIEW, ObjectType.SYNONYM, ObjectType.DATABASE_LINK,
+            ObjectType.DIRECTORY_OBJECT, ObjectType.JOB, ObjectType.QUEUE,
+            ObjectType.TYPE, ObjectType.JAVA_SOURCE, ObjectType.LIBRARY,
+            ObjectType.SCHEDULER, ObjectType.XML_SCHEMA
+    };
+
+    // Витягнення одразу на диск: кількість потоків запису файлів та скільки DDL може чекати на запис
+    private static final int DIRECTORY_WRITER_THREADS = 2;
+    private static final int DIRECTORY_WRITE_QUEUE_CAPACITY = 64;
+
+    private final ClobReader clobReader = new ClobReader();
+
     public Schema extractSchema(ConnectionDetails connectionDetails, String schemaOwnerName) throws SQLException {
+        return extractSchema(connectionDetails, schemaOwnerName, ExtractionOptions.defaults());
+    }
+
+    public Schema extractSchema(ConnectionDetails connectionDetails, String schemaOwnerName, ExtractionOptions options) throws SQLException {
+        return extract(connectionDetails, schemaOwnerName, options, null);
+    }
+
+    /**
+     * Інкрементальне витягнення: DDL отримується лише для нових об'єктів та об'єктів, у яких змінився LAST_DDL_TIME,
+     * решта переноситься з попереднього знімка. Якщо кількість об'єктів та найпізніший LAST_DDL_TIME не змінилися,
+     * схема повністю переноситься з попереднього знімка після одного запиту до словника.
+     * Якщо у options увімкнено хешування на стороні БД, об'єкт вважається незмінним за збігом SHA-256 його DDL,
+     * і з БД передаються лише хеші та DDL змінених об'єктів.
+     * @param previousSchema Попередній знімок тієї ж схеми (витягнутий з БД або завантажений з директорії).
+     *                       Якщо null або без часу змін об'єктів, виконується повне витягнення.
+     */
+    public Schema extractSchemaIncremental(ConnectionDetails connectionDetails, String schemaOwnerName, Schema previousSchema,
+                                           ExtractionOptions options) throws SQLException {
+        Schema effectivePrevious = previousSchema;
+        if (previousSchema != null && !schemaOwnerName.equalsIgnoreCase(previousSchema.getName())) {
+            System.err.println("Попередження: попередній знімок належить схемі '" + previousSchema.getName()
+                    + "', а не '" + schemaOwnerName + "'. Виконується повне витягнення.");
+            effectivePrevious = null;
+        } else if (previousSchema != null && previousSchema.getObjectLastDdlTimes().isEmpty()
+                && (options == null || !options.isServerSideHashing())) {
+            System.out.println("Попередній знімок схеми '" + schemaOwnerName + "' не містить LAST_DDL_TIME. Виконується повне витягнення.");
+            effectivePrevious = null;
+        }
+        MetadataTransformProfile transformProfile = (options != null ? options : ExtractionOptions.defaults()).getTransformProfile();
+        // Знімки, збережені до появи профілів, не містять профілю: їх отримано без зміни сесії, тобто як DATABASE_DEFAULT
+        MetadataTransformProfile previousProfile = (effectivePrevious != null && effectivePrevious.getTransformProfile() != null)
+                ? effectivePrevious.getTransformProfile() : MetadataTransformProfile.DATABASE_DEFAULT;
+        if (effectivePrevious != null && previousProfile != transformProfile) {
+            // DDL з іншим профілем трансформації відрізняється текстом, тому змішувати його з новим не можна
+            System.out.println("Попередній знімок схеми '" + schemaOwnerName + "' отримано з профілем трансформації '"
+                    + previousProfile + "', а не '" + transformProfile + "'. Виконується повне витягнення.");
+            effectivePrevious = null;
+        }
+        return extract(connectionDetails, schemaOwnerName, options, effectivePrevious);
+    }
+
+    private Schema extract(ConnectionDetails connectionDetails, String schemaOwnerName, ExtractionOptions options,
+                           Schema previousSchema) throws SQLException {
         if (connectionDetails == null || schemaOwnerName == null || schemaOwnerName.trim().isEmpty()) {
             throw new IllegalArgumentException("Connection details and schema owner name must be provided.");
         }
         if (connectionDetails.getId() == null || connectionDetails.getId().trim().isEmpty()){
             throw new IllegalArgumentException("ConnectionDetails ID must not be null or empty to create a source identifier.");
         }
+        ExtractionOptions effectiveOptions = (options != null) ? options : ExtractionOptions.defaults();
+
+        // Оренда попереднього знімка: поки його DDL переносяться в нову схему, вони не вивантажуються на диск
+        try (Schema.ReadLease previousLease = (previousSchema != null) ? previousSchema.acquireReadLease() : null;
+             Connection connection = OracleConnectionPool.openConnection(connectionDetails, effectiveOptions)) {
+
+            ExtractedObjects extracted = new ExtractedObjects();
+            if (previousSchema != null && isUnchangedSince(connection, schemaOwnerName, previousSchema, effectiveOptions.getObjectFilter())) {
+                System.out.println("Схема '" + schemaOwnerName + "' не змінилася з моменту попереднього знімка. DDL перенесено без витягнення.");
+                previousSchema.forEachObjectDdl(extracted.ddls::put);
+                extracted.lastDdlTimes.putAll(previousSchema.getObjectLastDdlTimes());
+                extracted.withoutDdl.putAll(previousSchema.getObjectsWithoutDdl());
+                extracted.carriedForwardCount = extracted.ddls.size();
+            } else if (effectiveOptions.getFetchStrategy() == DdlFetchStrategy.BULK) {
+                extractDdlsInBulk(connection, connectionDetails, schemaOwnerName, effectiveOptions, previousSchema, extracted);
+            } else if (effectiveOptions.isParallel()) {
+                extractDdlsInParallel(connection, connectionDetails, schemaOwnerName, effectiveOptions, previousSchema, extracted);
+            } else {
+                extractDdlsSerially(connection, schemaOwnerName, effectiveOptions, previousSchema, extracted);
+            }
+            if (previousSchema != null) {
+                System.out.println("Інкрементальне витягнення схеми '" + schemaOwnerName + "': перенесено з попереднього знімка "
+                        + extracted.carriedForwardCount + " з " + extracted.ddls.size() + " об'єктів.");
+            }
+            System.out.println("Читання DDL схеми '" + schemaOwnerName + "': " + clobReader.describeStatistics());
+
+            return buildSchema(connectionDetails, schemaOwnerName, effectiveOptions, extracted);
+
+        } catch (SQLException e) {
+            System.err.println("Помилка витягнення схеми '" + schemaOwnerName + "': " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Невідома помилка при витягненні схеми '" + schemaOwnerName + "': " + e.getMessage());
+            e.printStackTrace();
+            throw new SQLException("Невідома помилка при витягненні схеми", e);
+        }
+    }
 
-        MultiKeyMap<Object, String> objectDdlsMap = new MultiKeyMap<>();
+    /**
+     * Пакетне витягнення кількох схем одного екземпляра БД за одне завдання.
+     * Список об'єктів усіх схем читається одним запитом до словника (owner IN (...)), а DDL отримуються через спільні
+     * з'єднання: основне (послідовний режим) або один пул з {@code parallelism} з'єднань на всі схеми, тож об'єкти
+     * різних власників обробляються одночасно без окремого підключення та налаштування сесії для кожної схеми.
+     * @param schemaOwnerNames Власники схем (порожні та повторні значення ігноруються).
+     * @param listener Отримувач прогресу та часу витягнення кожної схеми; може бути null.
+     * @return Мапа власник (у верхньому регістрі) -> схема у порядку schemaOwnerNames.
+     */
+    public Map<String, Schema> extractSchemas(ConnectionDetails connectionDetails, List<String> schemaOwnerNames,
+                                              ExtractionOptions options, SchemaExtractionListener listener) throws SQLException {
+        if (connectionDetails == null || schemaOwnerNames == null) {
+            throw new IllegalArgumentException("Connection details and schema owner names must be provided.");
+        }
+        if (connectionDetails.getId() == null || connectionDetails.getId().trim().isEmpty()){
+            throw new IllegalArgumentException("ConnectionDetails ID must not be null or empty to create a source identifier.");
+        }
+        List<String> owners = schemaOwnerNames.stream()
+                .filter(Objects::nonNull)
+                .map(owner -> owner.trim().toUpperCase())
+                .filter(owner -> !owner.isEmpty())
+                .distinct()
+                .toList();
+        if (owners.isEmpty()) {
+            throw new IllegalArgumentException("At least one schema owner name must be provided.");
+        }
+        ExtractionOptions effectiveOptions = (options != null) ? options : ExtractionOptions.defaults();
+        SchemaExtractionListener effectiveListener = (listener != null) ? listener : new SchemaExtractionListener() { };
+        long batchStartNanos = System.nanoTime();
 
-        try (Connection connection = DriverManager.getConnection(
-                connectionDetails.getUrl(),
-                connectionDetails.getUser(),
-                connectionDetails.getPassword())) {
+        try (Connection connection = OracleConnectionPool.openConnection(connectionDetails, effectiveOptions);
+             OracleConnectionPool pool = effectiveOptions.isParallel()
+                     ? new OracleConnectionPool(connectionDetails, effectiveOptions, effectiveOptions.getParallelism()) : null) {
 
-            ObjectType[] objectTypesToExtract = {
-                    ObjectType.TABLE, ObjectType.VIEW, ObjectType.SEQUENCE,
-                    ObjectType.PROCEDURE, ObjectType.FUNCTION, ObjectType.PACKAGE,
-                    ObjectType.TRIGGER, ObjectType.INDEX,
-                    ObjectType.MATERIALIZED_VIEW, ObjectType.SYNONYM, ObjectType.DATABASE_LINK,
-                    ObjectType.DIRECTORY_OBJECT, ObjectType.JOB, ObjectType.QUEUE,
-                    ObjectType.TYPE, ObjectType.JAVA_SOURCE, ObjectType.LIBRARY,
-                    ObjectType.SCHEDULER, ObjectType.XML_SCHEMA
-            };
+            Map<String, List<ListedObject>> objectsByOwner = new LinkedHashMap<>();
+            owners.forEach(owner -> objectsByOwner.put(owner, new ArrayList<>()));
+            try (PreparedStatement pstmt = prepareSchemaObjectsStatement(connection, GET_OWNERS_OBJECTS_SQL_TEMPLATE, owners, effectiveOptions.getObjectFilter());
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ListedObject listedObject = readListedObject(rs);
+                    if (listedObject != null && objectsByOwner.containsKey(listedObject.owner())) {
+                        objectsByOwner.get(listedObject.owner()).add(listedObject);
+                    }
+                }
+            }
 
-            String objectTypesSqlString = buildObjectTypesSqlString(objectTypesToExtract);
+            Map<String, ExtractedObjects> extractedByOwner = new LinkedHashMap<>();
+            Map<String, OwnerProgress> progressByOwner = new LinkedHashMap<>();
+            objectsByOwner.forEach((owner, listedObjects) -> {
+                extractedByOwner.put(owner, new ExtractedObjects());
+                progressByOwner.put(owner, new OwnerProgress(owner, listedObjects.size(), effectiveListener));
+            });
 
-            try (PreparedStatement pstmt = connection.prepareStatement(String.format(GET_SCHEMA_OBJECTS_SQL_TEMPLATE, objectTypesSqlString))) {
-                pstmt.setString(1, schemaOwnerName.toUpperCase());
+            if (effectiveOptions.getFetchStrategy() == DdlFetchStrategy.BULK) {
+                for (Map.Entry<String, List<ListedObject>> entry : objectsByOwner.entrySet()) {
+                    String owner = entry.getKey();
+                    progressByOwner.get(owner).start();
+                    fetchListedObjectsInBulk(connection, pool, connectionDetails, owner, effectiveOptions, false,
+                            entry.getValue(), extractedByOwner.get(owner), progressByOwner.get(owner));
+                }
+            } else if (pool != null) {
+                extractOwnersInParallel(pool, connectionDetails, effectiveOptions, objectsByOwner, extractedByOwner, progressByOwner);
+            } else {
+                AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.fromOptions(effectiveOptions, 1, "batch");
+                for (Map.Entry<String, List<ListedObject>> entry : objectsByOwner.entrySet()) {
+                    OwnerProgress progress = progressByOwner.get(entry.getKey());
+                    progress.start();
+                    for (ListedObject listedObject : entry.getValue()) {
+                        String ddl = fetchObjectDdl(connection, listedObject, listedObject.owner(), limiter);
+                        extractedByOwner.get(entry.getKey()).put(listedObject, ddl);
+                        progress.objectProcessed(ddl != null);
+                    }
+                }
+                reportLimiterMetrics("batch", limiter);
+            }
 
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        String objectName = rs.getString("object_name");
-                        String objectTypeString = rs.getString("object_type");
+            Map<String, Schema> schemas = new LinkedHashMap<>();
+            extractedByOwner.forEach((owner, extracted) -> schemas.put(owner, buildSchema(connectionDetails, owner, effectiveOptions, extracted)));
+            System.out.println("Пакетне витягнення " + schemas.size() + " схем завершено за "
+                    + Duration.ofNanos(System.nanoTime() - batchStartNanos).toMillis() + " мс.");
+            progressByOwner.values().forEach(progress -> System.out.println("  " + progress.describe()));
+            System.out.println("Читання DDL: " + clobReader.describeStatistics());
+            return schemas;
 
-                        ObjectType currentObjectType = getObjectTypeFromString(objectTypeString);
-                        if (currentObjectType == ObjectType.OTHER && !"CONSTRAINT".equals(objectTypeString)) {
-                            System.out.println("Пропущено невідомий тип об'єкта: " + objectTypeString + " для " + objectName);
-                            continue;
-                        }
+        } catch (SQLException e) {
+            System.err.println("Помилка пакетного витягнення схем " + owners + ": " + e.getMessage());
+            throw e;
+        }
+    }
 
-                        String ddl = getObjectDdl(connection, objectTypeString, objectName, schemaOwnerName);
-                        if (ddl != null) {
-                            objectDdlsMap.put(currentObjectType, objectName, ddl);
-                            // Розкоментовано для індикації прогресу
-                            System.out.println("Витягнуто DDL для: " + currentObjectType + "/" + objectName + " (Власник: " + schemaOwnerName + ")");
-                        } else {
-                            // Розкоментовано для індикації прогресу
-                            System.out.println("Порожній DDL для: " + currentObjectType + "/" + objectName + " (Власник: " + schemaOwnerName + "). Пропущено.");
+    /**
+     * Подає об'єкти всіх схем одному паралельному отримувачу з спільним пулом з'єднань.
+     * Об'єкти подаються згруповано за власником, тому схеми завершуються приблизно по черзі.
+     */
+    private void extractOwnersInParallel(OracleConnectionPool pool, ConnectionDetails connectionDetails, ExtractionOptions options,
+                                         Map<String, List<ListedObject>> objectsByOwner, Map<String, ExtractedObjects> extractedByOwner,
+                                         Map<String, OwnerProgress> progressByOwner) throws SQLException {
+        List<ListedObject> submittedObjects = new ArrayList<>();
+        Map<Integer, String> fetchedDdls;
+        try (ParallelDdlFetcher fetcher = new ParallelDdlFetcher(pool, options, "batch",
+                (workerConnection, listedObject) -> {
+                    String ddl = null;
+                    try {
+                        ddl = fetchObjectDdlOrFail(workerConnection, listedObject, listedObject.owner());
+                        return ddl;
+                    } finally {
+                        progressByOwner.get(listedObject.owner()).objectProcessed(ddl != null);
+                    }
+                }, null)) {
+            for (Map.Entry<String, List<ListedObject>> entry : objectsByOwner.entrySet()) {
+                if (fetcher.hasFailed()) {
+                    break;
+                }
+                progressByOwner.get(entry.getKey()).start();
+                for (ListedObject listedObject : entry.getValue()) {
+                    if (fetcher.hasFailed()) {
+                        break;
+                    }
+                    fetcher.submit(submittedObjects.size(), listedObject);
+                    submittedObjects.add(listedObject);
+                }
+            }
+            fetchedDdls = fetcher.awaitResults();
+            reportLimiterMetrics("batch", fetcher.getLimiter());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Пакетне витягнення схем перервано.", e);
+        }
+        for (int i = 0; i < submittedObjects.size(); i++) {
+            ListedObject listedObject = submittedObjects.get(i);
+            extractedByOwner.get(listedObject.owner()).put(listedObject, fetchedDdls.get(i));
+        }
+    }
+
+    private Schema buildSchema(ConnectionDetails connectionDetails, String schemaOwnerName, ExtractionOptions options,
+                               ExtractedObjects extracted) {
+        String schemaId = UUID.randomUUID().toString();
+        LocalDateTime extractionTimestamp = LocalDateTime.now();
+        String currentSourceIdentifier = "DB::" + connectionDetails.getId() + "::" + schemaOwnerName.toUpperCase();
+
+        // Використовуємо конструктор, який встановлює originalSourceIdentifier = currentSourceIdentifier
+        Schema schema = new Schema(schemaId, schemaOwnerName, extracted.ddls, extractionTimestamp, connectionDetails, currentSourceIdentifier);
+        schema.getObjectLastDdlTimes().putAll(extracted.lastDdlTimes);
+        schema.getObjectsWithoutDdl().putAll(extracted.withoutDdl);
+        schema.setTransformProfile(options.getTransformProfile());
+        return schema;
+    }
+
+    /**
+     * Перевіряє, що директорія знімка відсутня або порожня, до підключення до бази.
+     * Відсутня директорія створюється через {@link Files#createDirectory}, яке атомарно відмовляє,
+     * якщо її вже створив інший процес, тож два витягнення не пишуть в одну директорію.
+     */
+    private static void reserveEmptyDirectory(Path schemaDirectory) throws IOException {
+        if (Files.notExists(schemaDirectory)) {
+            Path parent = schemaDirectory.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.createDirectory(schemaDirectory);
+            return;
+        }
+        if (!Files.isDirectory(schemaDirectory)) {
+            throw new FileAlreadyExistsException(schemaDirectory.toString(), null, "Snapshot path exists and is not a directory.");
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(schemaDirectory)) {
+            if (entries.iterator().hasNext()) {
+                throw new DirectoryNotEmptyException(schemaDirectory.toString());
+            }
+        }
+    }
+
+    /**
+     * Витягує схему одразу у директорію знімка (формат {@link SchemaDirectoryFormat}), не тримаючи всю схему в пам'яті:
+     * кожен отриманий DDL через обмежену чергу передається потокам запису {@link DirectorySnapshotWriter}.
+     * Отримання DDL виконується по одному об'єкту (послідовно або паралельно згідно з options);
+     * пакетна стратегія в цьому режимі не використовується, бо пакет DBMS_METADATA збирається в пам'яті цілком.
+     * @param baseDirectoryPath Батьківська директорія.
+     * @param schemaDirectoryName Ім'я директорії знімка (має бути порожньою або відсутньою).
+     * @return Шлях до записаної директорії знімка.
+     * @throws DirectoryNotEmptyException Директорія знімка вже містить файли (інший знімок не перезаписується).
+     * @throws FileAlreadyExistsException Шлях знімка зайнятий файлом або директорію створено паралельно.
+     */
+    public Path extractSchemaToDirectory(ConnectionDetails connectionDetails, String schemaOwnerName, Path baseDirectoryPath,
+                                         String schemaDirectoryName, ExtractionOptions options) throws SQLException, IOException {
+        if (connectionDetails == null || schemaOwnerName == null || schemaOwnerName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Connection details and schema owner name must be provided.");
+        }
+        if (baseDirectoryPath == null || schemaDirectoryName == null || schemaDirectoryName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Base directory path and schema directory name must be provided and not empty.");
+        }
+        ExtractionOptions effectiveOptions = (options != null) ? options : ExtractionOptions.defaults();
+        if (effectiveOptions.getFetchStrategy() == DdlFetchStrategy.BULK) {
+            System.out.println("Витягнення на диск: пакетна стратегія не використовується, DDL отримуються по одному об'єкту.");
+        }
+        Path schemaDirectory = baseDirectoryPath.resolve(schemaDirectoryName);
+        reserveEmptyDirectory(schemaDirectory);
+        LocalDateTime extractionTimestamp = LocalDateTime.now();
+
+        try (Connection connection = OracleConnectionPool.openConnection(connectionDetails, effectiveOptions);
+             DirectorySnapshotWriter writer = new DirectorySnapshotWriter(schemaDirectory, schemaOwnerName,
+                     DIRECTORY_WRITER_THREADS, DIRECTORY_WRITE_QUEUE_CAPACITY)) {
+
+            if (effectiveOptions.isParallel()) {
+                try (ParallelDdlFetcher fetcher = new ParallelDdlFetcher(connectionDetails, effectiveOptions, schemaOwnerName,
+                        (workerConnection, listedObject) -> fetchObjectDdlOrFail(workerConnection, listedObject, schemaOwnerName),
+                        (objectIndex, listedObject, ddl) -> writer.write(listedObject, ddl))) {
+                    try (PreparedStatement pstmt = prepareSchemaObjectsStatement(connection, GET_SCHEMA_OBJECTS_SQL_TEMPLATE, schemaOwnerName, effectiveOptions.getObjectFilter());
+                         ResultSet rs = pstmt.executeQuery()) {
+                        int objectIndex = 0;
+                        while (!fetcher.hasFailed() && rs.next()) {
+                            ListedObject listedObject = readListedObject(rs);
+                            if (listedObject != null) {
+                                fetcher.submit(objectIndex++, listedObject);
+                            }
+                        }
+                    }
+                    fetcher.awaitResults();
+                    reportLimiterMetrics(schemaOwnerName, fetcher.getLimiter());
+                }
+            } else {
+                AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.fromOptions(effectiveOptions, 1, schemaOwnerName);
+                try (PreparedStatement pstmt = prepareSchemaObjectsStatement(connection, GET_SCHEMA_OBJECTS_SQL_TEMPLATE, schemaOwnerName, effectiveOptions.getObjectFilter());
+                     ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ListedObject listedObject = readListedObject(rs);
+                        if (listedObject != null) {
+                            writer.write(listedObject, fetchObjectDdl(connection, listedObject, schemaOwnerName, limiter));
                         }
                     }
                 }
+                reportLimiterMetrics(schemaOwnerName, limiter);
             }
 
-            String schemaId = UUID.randomUUID().toString();
-            LocalDateTime extractionTimestamp = LocalDateTime.now();
-            String currentSourceIdentifier = "DB::" + connectionDetails.getId() + "::" + schemaOwnerName.toUpperCase();
+            Properties metaProps = new Properties();
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_SCHEMA_NAME, schemaOwnerName);
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_EXTRACTION_TIMESTAMP, extractionTimestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_CONN_NAME,
+                    (connectionDetails.getName() != null) ? connectionDetails.getName() : "N/A_OR_FROM_FILE");
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_CURRENT_SOURCE_ID, "DIR::" + schemaDirectory.toAbsolutePath());
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_SOURCE_ID, "DB::" + connectionDetails.getId() + "::" + schemaOwnerName.toUpperCase());
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_TRANSFORM_PROFILE, effectiveOptions.getTransformProfile().getProfileName());
+            writer.finish(metaProps);
 
-            // Використовуємо конструктор, який встановлює originalSourceIdentifier = currentSourceIdentifier
-            return new Schema(schemaId, schemaOwnerName, objectDdlsMap, extractionTimestamp, connectionDetails, currentSourceIdentifier);
+            System.out.println("Схему '" + schemaOwnerName + "' витягнуто у директорію " + schemaDirectory.toAbsolutePath()
+                    + ": записано " + writer.getWrittenCount() + " файлів DDL.");
+            System.out.println("Читання DDL схеми '" + schemaOwnerName + "': " + clobReader.describeStatistics());
+            return schemaDirectory;
 
-        } catch (SQLException e) {
-            System.err.println("Помилка витягнення схеми '" + schemaOwnerName + "': " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Витягнення схеми '" + schemaOwnerName + "' у директорію перервано.", e);
+        } catch (SQLException | IOException e) {
+            System.err.println("Помилка витягнення схеми '" + schemaOwnerName + "' у директорію: " + e.getMessage());
             throw e;
-        } catch (Exception e) {
-            System.err.println("Невідома помилка при витягненні схеми '" + schemaOwnerName + "': " + e.getMessage());
-            e.printStackTrace();
-            throw new SQLException("Невідома помилка при витягненні схеми", e);
         }
     }
 
+    /**
+     * Порівнює кількість об'єктів та найпізніший LAST_DDL_TIME у БД з попереднім знімком.
+     * Будь-яка DDL-зміна, створення чи видалення об'єкта змінює хоча б одне з цих значень.
+     * Запит рахує всі об'єкти списку, тому знімок порівнюється разом з об'єктами, для яких DDL не отримано
+     * ({@link Schema#getObjectsWithoutDdl()}); такі об'єкти повторно запитуються лише після зміни схеми.
+     */
+    private boolean isUnchangedSince(Connection connection, String schemaOwnerName, Schema previousSchema,
+                                     ObjectFilter objectFilter) throws SQLException {
+        LocalDateTime previousMax = previousSchema.getMaxObjectLastDdlTime();
+        if (previousMax == null) {
+            return false;
+        }
+        // Знімок, витягнутий з ширшим фільтром, містить об'єкти, які поточний фільтр відкидає
+        for (SchemaObjectStore<LocalDateTime> previousObjects : List.of(previousSchema.getObjectLastDdlTimes(), previousSchema.getObjectsWithoutDdl())) {
+            for (ObjectType objectType : previousObjects.getObjectTypes()) {
+                for (String objectName : previousObjects.getObjectsOfType(objectType).keySet()) {
+                    if (!objectFilter.accepts(objectType, objectName)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        try (PreparedStatement pstmt = prepareSchemaObjectsStatement(connection, PROBE_SCHEMA_OBJECTS_SQL_TEMPLATE, schemaOwnerName, objectFilter);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                return false;
+            }
+            int objectCount = rs.getInt("object_count");
+            LocalDateTime maxLastDdlTime = toLocalDateTime(rs.getTimestamp("max_last_ddl_time"));
+            return objectCount == previousSchema.getListedObjectCount() && Objects.equals(maxLastDdlTime, previousMax);
+        }
+    }
+
+    /**
+     * Переносить DDL з попереднього знімка, якщо об'єкт там є і не змінився: у режимі хешування на стороні БД
+     * порівнюється хеш DDL, інакше - LAST_DDL_TIME.
+     * @return true, якщо DDL перенесено і отримувати його з БД не потрібно.
+     */
+    private boolean carryForward(Schema previousSchema, ListedObject listedObject, ExtractedObjects extracted) {
+        if (previousSchema == null) {
+            return false;
+        }
+        String previousDdl = previousSchema.getObjectDdl(listedObject.objectType(), listedObject.objectName());
+        if (previousDdl == null) {
+            return false;
+        }
+        if (listedObject.ddlHash() != null) {
+            if (!listedObject.ddlHash().equalsIgnoreCase(previousSchema.getObjectDdlHash(listedObject.objectType(), listedObject.objectName()))) {
+                return false;
+            }
+        } else {
+            LocalDateTime previousTime = previousSchema.getObjectLastDdlTime(listedObject.objectType(), listedObject.objectName());
+            if (listedObject.lastDdlTime() == null || !listedObject.lastDdlTime().equals(previousTime)) {
+                return false;
+            }
+        }
+        extracted.put(listedObject, previousDdl);
+        extracted.carriedForwardCount++;
+        return true;
+    }
+
+    private boolean usesServerSideHashing(ExtractionOptions options, Schema previousSchema) {
+        return previousSchema != null && options.isServerSideHashing();
+    }
+
+    private String schemaObjectsTemplate(ExtractionOptions options, Schema previousSchema) {
+        return usesServerSideHashing(options, previousSchema) ? GET_HASHED_SCHEMA_OBJECTS_SQL_TEMPLATE : GET_SCHEMA_OBJECTS_SQL_TEMPLATE;
+    }
+
+    private void extractDdlsSerially(Connection connection, String schemaOwnerName, ExtractionOptions options, Schema previousSchema,
+                                     ExtractedObjects extracted) throws SQLException {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.fromOptions(options, 1, schemaOwnerName);
+        try (PreparedStatement pstmt = prepareSchemaObjectsStatement(connection, schemaObjectsTemplate(options, previousSchema), schemaOwnerName, options.getObjectFilter());
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ListedObject listedObject = readListedObject(rs, usesServerSideHashing(options, previousSchema));
+                if (listedObject == null || carryForward(previousSchema, listedObject, extracted)) {
+                    continue;
+                }
+                extracted.put(listedObject, fetchObjectDdl(connection, listedObject, schemaOwnerName, limiter));
+            }
+        }
+        reportLimiterMetrics(schemaOwnerName, limiter);
+    }
+
+    /**
+     * Паралельне витягнення DDL: список об'єктів читається через основне з'єднання і потоково
+     * передається пулу з {@code parallelism} робочих з'єднань, кожне з яких викликає GET_DDL.
+     * Вміст схеми ідентичний послідовному режиму.
+     */
+    private void extractDdlsInParallel(Connection listingConnection, ConnectionDetails connectionDetails, String schemaOwnerName,
+                                       ExtractionOptions options, Schema previousSchema, ExtractedObjects extracted) throws SQLException {
+        int parallelism = options.getParallelism();
+        List<ListedObject> submittedObjects = new ArrayList<>();
+        Map<Integer, String> fetchedDdls;
+        int missingDdlCount;
+
+        try (ParallelDdlFetcher fetcher = new ParallelDdlFetcher(connectionDetails, options, schemaOwnerName,
+                (workerConnection, listedObject) -> fetchObjectDdlOrFail(workerConnection, listedObject, schemaOwnerName))) {
+            try (PreparedStatement pstmt = prepareSchemaObjectsStatement(listingConnection, schemaObjectsTemplate(options, previousSchema), schemaOwnerName, options.getObjectFilter());
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (!fetcher.hasFailed() && rs.next()) {
+                    ListedObject listedObject = readListedObject(rs, usesServerSideHashing(options, previousSchema));
+                    if (listedObject == null || carryForward(previousSchema, listedObject, extracted)) {
+                        continue;
+                    }
+                    fetcher.submit(submittedObjects.size(), listedObject);
+                    submittedObjects.add(listedObject);
+                }
+            }
+            fetchedDdls = fetcher.awaitResults();
+            missingDdlCount = fetcher.getMissingDdlCount();
+            reportLimiterMetrics(schemaOwnerName, fetcher.getLimiter());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Паралельне витягнення схеми '" + schemaOwnerName + "' перервано.", e);
+        }
+
+        for (int i = 0; i < submittedObjects.size(); i++) {
+            extracted.put(submittedObjects.get(i), fetchedDdls.get(i));
+        }
+        System.out.println("Паралельне витягнення схеми '" + schemaOwnerName + "' завершено (" + parallelism + " з'єднань): "
+                + "отримано " + (submittedObjects.size() - missingDdlCount) + " з " + submittedObjects.size() + " DDL, без DDL: " + missingDdlCount);
+    }
+
+    /**
+     * Пакетне витягнення DDL: список об'єктів читається як зазвичай, а DDL отримуються через
+     * {@link BulkDdlFetcher} - один дескриптор DBMS_METADATA на тип об'єкта.
+     * Об'єкти, яких немає у пакетній відповіді (або типи без підтримки OPEN), добираються через GET_DDL,
+     * а зайві об'єкти з пакетної відповіді (наприклад, невалідні) відкидаються - склад схеми такий самий, як у режимі PER_OBJECT.
+     * При інкрементальному витягненні тип отримується пакетно лише тоді, коли змінених об'єктів цього типу
+     * не менше за розмір пакета; інакше дешевше взяти їх по одному.
+     */
+    private void extractDdlsInBulk(Connection connection, ConnectionDetails connectionDetails, String schemaOwnerName,
+                                   ExtractionOptions options, Schema previousSchema, ExtractedObjects extracted) throws SQLException {
+        List<ListedObject> objectsToFetch = new ArrayList<>();
+        try (PreparedStatement pstmt = prepareSchemaObjectsStatement(connection, schemaObjectsTemplate(options, previousSchema), schemaOwnerName, options.getObjectFilter());
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ListedObject listedObject = readListedObject(rs, usesServerSideHashing(options, previousSchema));
+                if (listedObject == null || carryForward(previousSchema, listedObject, extracted)) {
+                    continue;
+                }
+                objectsToFetch.add(listedObject);
+            }
+        }
+        fetchListedObjectsInBulk(connection, null, connectionDetails, schemaOwnerName, options, previousSchema != null,
+                objectsToFetch, extracted, null);
+    }
+
+    /**
+     * Отримує пакетно DDL вже відібраних об'єктів однієї схеми.
+     * @param sharedPool Пул для паралельного отримання типів; якщо null, за потреби створюється власний.
+     * @param incremental true, якщо це лише змінені об'єкти (тип отримується пакетно лише від bulkFetchSize об'єктів).
+     * @param progress Облік прогресу схеми при пакетному витягненні кількох схем; може бути null.
+     */
+    private void fetchListedObjectsInBulk(Connection connection, OracleConnectionPool sharedPool, ConnectionDetails connectionDetails,
+                                          String schemaOwnerName, ExtractionOptions options, boolean incremental,
+                                          List<ListedObject> objectsToFetch, ExtractedObjects extracted,
+                                          OwnerProgress progress) throws SQLException {
+        Map<ObjectType, Integer> fetchCountsByType = new EnumMap<>(ObjectType.class);
+        for (ListedObject listedObject : objectsToFetch) {
+            fetchCountsByType.merge(listedObject.objectType(), 1, Integer::sum);
+        }
+        Set<ObjectType> bulkTypes = EnumSet.noneOf(ObjectType.class);
+        fetchCountsByType.forEach((objectType, count) -> {
+            if (BulkDdlFetcher.supports(objectType) && (!incremental || count >= options.getBulkFetchSize())) {
+                bulkTypes.add(objectType);
+            }
+        });
+
+        BulkDdlFetcher fetcher = new BulkDdlFetcher(options.getBulkFetchSize(), clobReader, options.getTransformProfile());
+        Map<ObjectType, Map<String, String>> bulkDdls = new EnumMap<>(ObjectType.class);
+        if (options.isParallel() && bulkTypes.size() > 1) {
+            if (sharedPool != null) {
+                bulkDdls.putAll(fetchTypesInParallel(fetcher, bulkTypes, sharedPool, schemaOwnerName, options));
+            } else {
+                try (OracleConnectionPool pool = new OracleConnectionPool(connectionDetails, options, options.getParallelism())) {
+                    bulkDdls.putAll(fetchTypesInParallel(fetcher, bulkTypes, pool, schemaOwnerName, options));
+                }
+            }
+        } else {
+            for (ObjectType objectType : bulkTypes) {
+                bulkDdls.put(objectType, fetchTypeInBulk(fetcher, connection, objectType, schemaOwnerName));
+            }
+        }
+
+        int fallbackCount = 0;
+        for (ListedObject listedObject : objectsToFetch) {
+            Map<String, String> ddlsOfType = bulkDdls.getOrDefault(listedObject.objectType(), Collections.emptyMap());
+            String ddl = ddlsOfType.get(listedObject.objectName());
+            if (ddl != null) {
+                reportObjectResult(listedObject, schemaOwnerName, ddl);
+            } else {
+                fallbackCount++;
+                ddl = fetchObjectDdl(connection, listedObject, schemaOwnerName);
+            }
+            extracted.put(listedObject, ddl);
+            if (progress != null) {
+                progress.objectProcessed(ddl != null);
+            }
+        }
+        System.out.println("Пакетне витягнення схеми '" + schemaOwnerName + "' завершено: отримано " + objectsToFetch.size()
+                + " DDL, з них поодиноких викликів GET_DDL: " + fallbackCount);
+    }
+
+    private Map<String, String> fetchTypeInBulk(BulkDdlFetcher fetcher, Connection connection, ObjectType objectType, String schemaOwnerName) {
+        try {
+            return fetcher.fetchAll(connection, objectType, schemaOwnerName);
+        } catch (SQLException e) {
+            // Не зупиняємо витягнення: об'єкти цього типу будуть отримані по одному через GET_DDL
+            System.err.println("Помилка пакетного отримання DDL типу " + objectType + " (схема " + schemaOwnerName + "): " + e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private Map<ObjectType, Map<String, String>> fetchTypesInParallel(BulkDdlFetcher fetcher, Set<ObjectType> objectTypes,
+                                                                      OracleConnectionPool pool, String schemaOwnerName,
+                                                                      ExtractionOptions options) throws SQLException {
+        int parallelism = options.getParallelism();
+        Map<ObjectType, Map<String, String>> result = new ConcurrentHashMap<>();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ddl-bulk-" + schemaOwnerName + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (ObjectType objectType : objectTypes) {
+                tasks.add(() -> {
+                    Connection workerConnection = pool.borrow();
+                    try {
+                        result.put(objectType, fetchTypeInBulk(fetcher, workerConnection, objectType, schemaOwnerName));
+                    } finally {
+                        pool.release(workerConnection);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Пакетне витягнення схеми '" + schemaOwnerName + "' перервано.", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Помилка робочого з'єднання при пакетному витягненні схеми '" + schemaOwnerName + "': " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private PreparedStatement prepareSchemaObjectsStatement(Connection connection, String sqlTemplate, String schemaOwnerName,
+                                                            ObjectFilter objectFilter) throws SQLException {
+        return prepareSchemaObjectsStatement(connection, sqlTemplate, List.of(schemaOwnerName), objectFilter);
+    }
+
+    /**
+     * Готує запит до all_objects: типи об'єктів обмежуються перетином OBJECT_TYPES_TO_EXTRACT з типами фільтра,
+     * шаблони імен додаються як умови WHERE з параметрами після параметрів власників.
+     */
+    private PreparedStatement prepareSchemaObjectsStatement(Connection connection, String sqlTemplate, List<String> schemaOwnerNames,
+                                                            ObjectFilter objectFilter) throws SQLException {
+        String ownerPlaceholders = String.join(", ", Collections.nCopies(schemaOwnerNames.size(), "?"));
+        ObjectType[] objectTypes = Arrays.stream(OBJECT_TYPES_TO_EXTRACT).filter(objectFilter::acceptsType).toArray(ObjectType[]::new);
+        // Порожній перелік типів неприпустимий у IN (), тому NULL: запит не поверне жодного рядка
+        String objectTypesSqlString = (objectTypes.length > 0) ? buildObjectTypesSqlString(objectTypes) : "NULL";
+        String namePredicates = buildNamePredicatesSql(objectFilter);
+        PreparedStatement pstmt = connection.prepareStatement(String.format(sqlTemplate, ownerPlaceholders, objectTypesSqlString, namePredicates));
+        int parameterIndex = 1;
+        for (String schemaOwnerName : schemaOwnerNames) {
+            pstmt.setString(parameterIndex++, schemaOwnerName.toUpperCase());
+        }
+        for (String pattern : objectFilter.getIncludePatterns()) {
+            pstmt.setString(parameterIndex++, pattern);
+        }
+        for (String pattern : objectFilter.getExcludePatterns()) {
+            pstmt.setString(parameterIndex++, pattern);
+        }
+        return pstmt;
+    }
+
+    /**
+     * Умови за іменами об'єктів: хоча б один шаблон включення (OR) і жодного шаблону виключення (AND NOT).
+     * Шаблони LIKE використовують \ як символ екранування, REGEX - REGEXP_LIKE.
+     */
+    private String buildNamePredicatesSql(ObjectFilter objectFilter) {
+        boolean regex = objectFilter.getPatternSyntax() == ObjectFilter.PatternSyntax.REGEX;
+        String matchSql = regex ? "REGEXP_LIKE(object_name, ?)" : "object_name LIKE ? ESCAPE '\\'";
+        StringBuilder sb = new StringBuilder();
+        List<String> includePatterns = objectFilter.getIncludePatterns();
+        if (!includePatterns.isEmpty()) {
+            sb.append(" AND (").append(String.join(" OR ", Collections.nCopies(includePatterns.size(), matchSql))).append(")");
+        }
+        for (int i = 0; i < objectFilter.getExcludePatterns().size(); i++) {
+            sb.append(" AND NOT ").append(matchSql);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Читає поточний рядок списку all_objects.
+     * @return ListedObject або null, якщо об'єкт потрібно пропустити (невідомий тип).
+     */
+    private ListedObject readListedObject(ResultSet rs) throws SQLException {
+        return readListedObject(rs, false);
+    }
+
+    /**
+     * @param withDdlHash true, якщо рядок отримано запитом {@link #GET_HASHED_SCHEMA_OBJECTS_SQL_TEMPLATE}.
+     */
+    private ListedObject readListedObject(ResultSet rs, boolean withDdlHash) throws SQLException {
+        String owner = rs.getString("owner");
+        String objectName = rs.getString("object_name");
+        String objectTypeString = rs.getString("object_type");
+
+        ObjectType currentObjectType = getObjectTypeFromString(objectTypeString);
+        if (currentObjectType == ObjectType.OTHER && !"CONSTRAINT".equals(objectTypeString)) {
+            System.out.println("Пропущено невідомий тип об'єкта: " + objectTypeString + " для " + objectName);
+            return null;
+        }
+        return new ListedObject(owner, currentObjectType, objectTypeString, objectName, toLocalDateTime(rs.getTimestamp("last_ddl_time")),
+                withDdlHash ? rs.getString("ddl_hash") : null);
+    }
+
+    private String fetchObjectDdl(Connection connection, ListedObject listedObject, String schemaOwnerName) {
+        try {
+            return fetchObjectDdlOrFail(connection, listedObject, schemaOwnerName);
+        } catch (SQLException e) {
+            reportObjectResult(listedObject, schemaOwnerName, null);
+            return null;
+        }
+    }
+
+    /**
+     * Як {@link #fetchObjectDdl(Connection, ListedObject, String)}, але помилку виклику GET_DDL передає викликачу,
+     * щоб обмежувач міг відрізнити її від об'єкта без DDL (null).
+     */
+    private String fetchObjectDdlOrFail(Connection connection, ListedObject listedObject, String schemaOwnerName) throws SQLException {
+        String ddl = getObjectDdl(connection, listedObject.objectTypeString(), listedObject.objectName(), schemaOwnerName);
+        reportObjectResult(listedObject, schemaOwnerName, ddl);
+        return ddl;
+    }
+
+    /**
+     * Отримує DDL у послідовному режимі, дотримуючись межі викликів за секунду, якщо її задано.
+     * @param limiter Обмежувач або null.
+     */
+    private String fetchObjectDdl(Connection connection, ListedObject listedObject, String schemaOwnerName,
+                                  AdaptiveConcurrencyLimiter limiter) throws SQLException {
+        if (limiter == null) {
+            return fetchObjectDdl(connection, listedObject, schemaOwnerName);
+        }
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Витягнення схеми '" + schemaOwnerName + "' перервано.", e);
+        }
+        long callStartNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            String ddl = fetchObjectDdlOrFail(connection, listedObject, schemaOwnerName);
+            failed = false;
+            return ddl;
+        } catch (SQLException e) {
+            reportObjectResult(listedObject, schemaOwnerName, null);
+            return null;
+        } finally {
+            limiter.release(System.nanoTime() - callStartNanos, failed);
+        }
+    }
+
+    private void reportLimiterMetrics(String schemaOwnerName, AdaptiveConcurrencyLimiter limiter) {
+        if (limiter != null) {
+            System.out.println("Обмеження викликів GET_DDL (" + schemaOwnerName + "): " + limiter.describeMetrics());
+        }
+    }
+
+    private void reportObjectResult(ListedObject listedObject, String schemaOwnerName, String ddl) {
+        if (ddl != null) {
+            // Розкоментовано для індикації прогресу
+            System.out.println("Витягнуто DDL для: " + listedObject.objectType() + "/" + listedObject.objectName() + " (Власник: " + schemaOwnerName + ")");
+        } else {
+            // Розкоментовано для індикації прогресу
+            System.out.println("Порожній DDL для: " + listedObject.objectType() + "/" + listedObject.objectName() + " (Власник: " + schemaOwnerName + "). Пропущено.");
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return (timestamp != null) ? timestamp.toLocalDateTime() : null;
+    }
+
     private String buildObjectTypesSqlString(ObjectType[] objectTypes) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < objectTypes.length; i++) {
@@ -122,18 +864,14 @@ public class OracleSchemaExtractor {
             cs.setString(4, schemaName);
             cs.execute();
 
-            java.sql.Clob clob = cs.getClob(1);
+            Clob clob = cs.getClob(1);
             if (clob != null) {
-                if (clob.length() > 0) {
-                    ddl = clob.getSubString(1, (int) clob.length());
-                } else {
-                    ddl = "";
-                }
+                ddl = clobReader.read(clob);
                 clob.free();
             }
         } catch (SQLException e) {
             System.err.println("Помилка отримання DDL для " + effectiveObjectType + " " + schemaName + "." + objectName + ": " + e.getMessage());
-            return null;
+            throw e;
         }
         return ddl;
     }
@@ -152,4 +890,77 @@ public class OracleSchemaExtractor {
             return ObjectType.OTHER;
         }
     }
+
+    // Рядок зі списку all_objects: власник, тип для схеми, оригінальний тип з БД (для GET_DDL), ім'я, час останньої DDL-зміни
+    // та хеш DDL з БД (лише у режимі хешування на стороні БД, інакше null)
+    record ListedObject(String owner, ObjectType objectType, String objectTypeString, String objectName, LocalDateTime lastDdlTime,
+                        String ddlHash) {
+    }
+
+    // Прогрес і час витягнення однієї схеми при пакетному витягненні кількох схем; оновлюється з робочих потоків
+    private static final class OwnerProgress {
+        private final String owner;
+        private final int objectCount;
+        private final SchemaExtractionListener listener;
+        private final AtomicInteger processedCount = new AtomicInteger();
+        private final AtomicInteger extractedCount = new AtomicInteger();
+        private volatile long startNanos;
+        private volatile Duration elapsed;
+
+        OwnerProgress(String owner, int objectCount, SchemaExtractionListener listener) {
+            this.owner = owner;
+            this.objectCount = objectCount;
+            this.listener = listener;
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+            listener.schemaStarted(owner, objectCount);
+            if (objectCount == 0) {
+                complete();
+            }
+        }
+
+        void objectProcessed(boolean ddlExtracted) {
+            if (ddlExtracted) {
+                extractedCount.incrementAndGet();
+            }
+            int processed = processedCount.incrementAndGet();
+            listener.objectProcessed(owner, processed, objectCount);
+            if (processed == objectCount) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            listener.schemaCompleted(owner, extractedCount.get(), elapsed);
+        }
+
+        String describe() {
+            return owner + ": " + extractedCount.get() + " з " + objectCount + " DDL"
+                    + (elapsed != null ? ", " + elapsed.toMillis() + " мс" : ", не завершено");
+        }
+    }
+
+    // Накопичувач результату витягнення: DDL та LAST_DDL_TIME об'єктів, для яких отримано DDL, і LAST_DDL_TIME решти об'єктів списку
+    private static final class ExtractedObjects {
+        private final SchemaObjectStore<String> ddls = new SchemaObjectStore<>();
+        private final SchemaObjectStore<LocalDateTime> lastDdlTimes = new SchemaObjectStore<>();
+        private final SchemaObjectStore<LocalDateTime> withoutDdl = new SchemaObjectStore<>();
+        private int carriedForwardCount = 0;
+
+        void put(ListedObject listedObject, String ddl) {
+            if (ddl == null) {
+                if (listedObject.lastDdlTime() != null) {
+                    withoutDdl.put(listedObject.objectType(), listedObject.objectName(), listedObject.lastDdlTime());
+                }
+                return;
+            }
+            ddls.put(listedObject.objectType(), listedObject.objectName(), ddl);
+            if (listedObject.lastDdlTime() != null) {
+                lastDdlTimes.put(listedObject.objectType(), listedObject.objectName(), listedObject.lastDdlTime());
+            }
+        }
+    }
 }
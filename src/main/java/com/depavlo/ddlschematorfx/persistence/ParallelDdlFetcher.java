@@ -0,0 +1,197 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Обмежений пул робочих потоків, кожен з яких отримує DDL через власне з'єднання з {@link OracleConnectionPool}.
+ * Об'єкти подаються потоково через {@link #submit(int, OracleSchemaExtractor.ListedObject)};
+ * якщо в черзі вже забагато задач, виклик блокується, тому пам'ять не росте разом з розміром схеми.
+ * Якщо у параметрах увімкнено адаптивну кількість викликів або межу викликів за секунду, кожен виклик
+ * проходить через {@link AdaptiveConcurrencyLimiter}.
+ * Результати зберігаються за індексом об'єкта у списку, щоб викликач міг зібрати їх у вихідному порядку,
+ * або передаються у {@link ResultSink} (наприклад, одразу на запис у директорію знімка).
+ */
+class ParallelDdlFetcher implements AutoCloseable {
+
+    // Скільки задач на одне робоче з'єднання може чекати в черзі, поки список об'єктів ще читається
+    private static final int QUEUED_TASKS_PER_WORKER = 4;
+
+    /**
+     * Виклик GET_DDL для одного об'єкта: null - об'єкт без DDL, SQLException - помилка саме цього виклику
+     * (об'єкт пропускається, для обмежувача це сигнал перевантаження; інші об'єкти продовжують оброблятися).
+     */
+    @FunctionalInterface
+    interface DdlCall {
+        String fetch(Connection connection, OracleSchemaExtractor.ListedObject listedObject) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ResultSink {
+        void accept(int objectIndex, OracleSchemaExtractor.ListedObject listedObject, String ddl) throws IOException, InterruptedException;
+    }
+
+    private final int parallelism;
+    private final DdlCall ddlCall;
+    private final ResultSink resultSink;
+    private final OracleConnectionPool pool;
+    private final boolean ownsPool;
+    private final AdaptiveConcurrencyLimiter limiter; // null, якщо обмеження викликів не налаштовано
+    private final ExecutorService executor;
+    private final Semaphore queuedTasks;
+    private final Map<Integer, String> fetchedDdls = new ConcurrentHashMap<>();
+    private final AtomicReference<Exception> fatalError = new AtomicReference<>();
+    private final AtomicInteger missingDdlCount = new AtomicInteger();
+    private final AtomicInteger submittedCount = new AtomicInteger();
+
+    ParallelDdlFetcher(ConnectionDetails connectionDetails, ExtractionOptions options, String schemaOwnerName, DdlCall ddlCall) {
+        this(connectionDetails, options, schemaOwnerName, ddlCall, null);
+    }
+
+    /**
+     * @param resultSink Отримувач DDL; якщо null, результати накопичуються і повертаються з {@link #awaitResults()}.
+     */
+    ParallelDdlFetcher(ConnectionDetails connectionDetails, ExtractionOptions options, String schemaOwnerName, DdlCall ddlCall,
+                       ResultSink resultSink) {
+        this(new OracleConnectionPool(connectionDetails, options, options.getParallelism()), true, options, schemaOwnerName, ddlCall, resultSink);
+    }
+
+    /**
+     * Робочі потоки беруть з'єднання зі спільного пулу, який не закривається разом з цим об'єктом
+     * (наприклад, один пул на пакетне витягнення кількох схем).
+     */
+    ParallelDdlFetcher(OracleConnectionPool sharedPool, ExtractionOptions options, String threadNameLabel, DdlCall ddlCall,
+                       ResultSink resultSink) {
+        this(sharedPool, false, options, threadNameLabel, ddlCall, resultSink);
+    }
+
+    private ParallelDdlFetcher(OracleConnectionPool pool, boolean ownsPool, ExtractionOptions options, String threadNameLabel,
+                               DdlCall ddlCall, ResultSink resultSink) {
+        this.parallelism = Math.min(options.getParallelism(), pool.getMaxSize());
+        this.ddlCall = ddlCall;
+        this.resultSink = (resultSink != null) ? resultSink : (objectIndex, listedObject, ddl) -> fetchedDdls.put(objectIndex, ddl);
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.limiter = AdaptiveConcurrencyLimiter.fromOptions(options, parallelism, threadNameLabel);
+        this.queuedTasks = new Semaphore(parallelism * QUEUED_TASKS_PER_WORKER);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ddl-extract-" + threadNameLabel + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ставить об'єкт у чергу на отримання DDL. Блокується, якщо черга заповнена.
+     * @param objectIndex Індекс об'єкта у списку викликача (ключ результату).
+     * @param listedObject Об'єкт зі списку all_objects.
+     */
+    void submit(int objectIndex, OracleSchemaExtractor.ListedObject listedObject) throws InterruptedException {
+        queuedTasks.acquire();
+        submittedCount.incrementAndGet();
+        executor.execute(() -> {
+            Connection workerConnection = null;
+            boolean permitHeld = false;
+            long callStartNanos = 0;
+            try {
+                if (limiter != null) {
+                    limiter.acquire();
+                    permitHeld = true;
+                }
+                workerConnection = pool.borrow();
+                callStartNanos = System.nanoTime();
+                String ddl = null;
+                boolean callFailed = false;
+                try {
+                    ddl = ddlCall.fetch(workerConnection, listedObject);
+                } catch (SQLException e) {
+                    callFailed = true;
+                }
+                if (permitHeld) {
+                    // Об'єкт без DDL (null) - успішний виклик; перевантаженням вважається лише помилка виклику
+                    limiter.release(System.nanoTime() - callStartNanos, callFailed);
+                    permitHeld = false;
+                }
+                if (ddl != null) {
+                    resultSink.accept(objectIndex, listedObject, ddl);
+                } else {
+                    missingDdlCount.incrementAndGet();
+                }
+            } catch (SQLException | IOException | InterruptedException e) {
+                fatalError.compareAndSet(null, e);
+            } finally {
+                if (permitHeld) {
+                    limiter.release(System.nanoTime() - callStartNanos, true);
+                }
+                pool.release(workerConnection);
+                queuedTasks.release();
+            }
+        });
+    }
+
+    /**
+     * @return true, якщо якийсь робочий потік не зміг отримати з'єднання або передати результат; подальші об'єкти подавати немає сенсу.
+     */
+    boolean hasFailed() {
+        return fatalError.get() != null;
+    }
+
+    /**
+     * Чекає завершення всіх поданих задач.
+     * @return Мапа індекс об'єкта -> DDL (об'єкти без DDL відсутні); порожня, якщо задано власний {@link ResultSink}.
+     */
+    Map<Integer, String> awaitResults() throws SQLException, InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        Exception fatal = fatalError.get();
+        if (fatal != null) {
+            throw new SQLException("Помилка робочого з'єднання при паралельному витягненні: " + fatal.getMessage(), fatal);
+        }
+        return fetchedDdls;
+    }
+
+    /**
+     * @return Обмежувач одночасних викликів (поточний ліміт, затримка) або null, якщо обмеження не налаштовано.
+     */
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    int getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    int getMissingDdlCount() {
+        return missingDdlCount.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsPool) {
+            pool.close();
+        }
+    }
+}
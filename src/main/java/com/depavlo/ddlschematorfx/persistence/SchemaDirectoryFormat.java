@@ -0,0 +1,86 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ObjectType;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Формат директорії знімка схеми: meta.properties, маніфест об'єктів objects.properties
+ * та файли DDL виду {@code <TYPE>/<NAME>.sql}.
+ * Спільний для збереження/завантаження у SchemaService та витягнення схеми одразу на диск.
+ */
+public final class SchemaDirectoryFormat {
+
+    public static final String META_PROPERTIES_FILE = "meta.properties";
+    public static final String KEY_SCHEMA_NAME = "schemaName";
+    public static final String KEY_EXTRACTION_TIMESTAMP = "extractionTimestamp";
+    public static final String KEY_ORIGINAL_CONN_NAME = "originalConnectionName";
+    public static final String KEY_CURRENT_SOURCE_ID = "currentSourceIdentifier";
+    public static final String KEY_ORIGINAL_SOURCE_ID = "originalSourceIdentifier";
+    public static final String KEY_TRANSFORM_PROFILE = "transformProfile";
+
+    // Маніфест об'єктів знімка: ключі виду TYPE/NAME.<атрибут>, наприклад TABLE/EMPLOYEES.lastDdlTime
+    public static final String OBJECTS_MANIFEST_FILE = "objects.properties";
+    public static final String MANIFEST_SUFFIX_LAST_DDL_TIME = ".lastDdlTime";
+    // LAST_DDL_TIME об'єкта зі списку all_objects, для якого DDL не отримано (файлу DDL немає)
+    public static final String MANIFEST_SUFFIX_WITHOUT_DDL_LAST_DDL_TIME = ".lastDdlTimeWithoutDdl";
+    // SHA-256 DDL (див. DdlUtils.sha256Hex) для перевірки змін через хеш на стороні БД
+    public static final String MANIFEST_SUFFIX_DDL_HASH = ".ddlHash";
+    // Відбиток для порівняння (DdlUtils.comparisonFingerprint) та версія нормалізації, з якою його обчислено
+    public static final String MANIFEST_SUFFIX_FINGERPRINT = ".fingerprint";
+    public static final String MANIFEST_KEY_FINGERPRINT_VERSION = "fingerprintVersion";
+
+    public static final String DDL_FILE_EXTENSION = ".sql";
+
+    private SchemaDirectoryFormat() {
+    }
+
+    /**
+     * Ім'я об'єкта, придатне для імені файлу. Саме під цим ім'ям об'єкт буде завантажено з директорії.
+     */
+    public static String cleanObjectName(String objectName) {
+        return objectName.replaceAll("[^a-zA-Z0-9_.-]", "_");
+    }
+
+    public static String manifestKey(ObjectType objectType, String objectName) {
+        return objectType.name() + "/" + cleanObjectName(objectName);
+    }
+
+    public static Path ddlFilePath(Path schemaDirectory, ObjectType objectType, String objectName) {
+        return schemaDirectory.resolve(objectType.name()).resolve(cleanObjectName(objectName) + DDL_FILE_EXTENSION);
+    }
+
+    /**
+     * Записує DDL об'єкта у файл {@code <TYPE>/<NAME>.sql}, створюючи директорію типу за потреби.
+     */
+    public static void writeDdlFile(Path schemaDirectory, ObjectType objectType, String objectName, String ddl) throws IOException {
+        Path ddlFilePath = ddlFilePath(schemaDirectory, objectType, objectName);
+        Files.createDirectories(ddlFilePath.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(ddlFilePath, StandardCharsets.UTF_8)) {
+            writer.write(ddl);
+        }
+    }
+
+    public static void storeProperties(Path file, Properties properties, String comment) throws IOException {
+        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(file.toFile()), StandardCharsets.UTF_8)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    public static Properties loadProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(file.toFile()), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,32 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import java.time.Duration;
+
+/**
+ * Отримувач прогресу пакетного витягнення кількох схем.
+ * Методи можуть викликатися з робочих потоків витягнення, тому реалізація має бути потокобезпечною
+ * (у JavaFX - передавати оновлення через Platform.runLater або Task.updateMessage).
+ */
+public interface SchemaExtractionListener {
+
+    /**
+     * Розпочато отримання DDL схеми.
+     * @param objectCount Кількість об'єктів схеми за списком all_objects.
+     */
+    default void schemaStarted(String schemaOwnerName, int objectCount) {
+    }
+
+    /**
+     * Оброблено ще один об'єкт схеми (DDL отримано або пропущено).
+     */
+    default void objectProcessed(String schemaOwnerName, int processedCount, int objectCount) {
+    }
+
+    /**
+     * Отримання DDL схеми завершено.
+     * @param extractedCount Кількість об'єктів, для яких отримано DDL.
+     * @param elapsed Час від початку отримання DDL цієї схеми.
+     */
+    default void schemaCompleted(String schemaOwnerName, int extractedCount, Duration elapsed) {
+    }
+}
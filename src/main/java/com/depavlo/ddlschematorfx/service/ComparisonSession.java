@@ -0,0 +1,241 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.ComparisonOptions;
+import com.depavlo.ddlschematorfx.model.ComparisonProgress;
+import com.depavlo.ddlschematorfx.model.ComparisonResult;
+import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.DifferenceType;
+import com.depavlo.ddlschematorfx.model.ObjectKey;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.model.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+/**
+ * Сеанс порівняння двох схем, що зберігає попередній набір відмінностей.
+ * Після повторного витягнення або завантаження однієї зі схем {@link #update(Schema, Schema)} знаходить об'єкти,
+ * хеш DDL яких змінився з попереднього порівняння (або які додано чи видалено), порівнює лише їх
+ * і оновлює наявні відмінності. Хеші беруться зі схем (для знімків з директорії - з маніфесту), тому
+ * незмінені об'єкти не читаються і не нормалізуються. Якщо змінився власник схеми, нормалізація всіх об'єктів
+ * інша, і сеанс порівнює схеми повністю. Набір зберігається без перейменувань (одна відмінність - один об'єкт);
+ * перейменування шукаються в кожному результаті заново.
+ * Методи сеансу синхронізовані: оновлення виконуються по черзі.
+ */
+public class ComparisonSession {
+
+    /**
+     * Порядок відмінностей повного порівняння: спершу видалені об'єкти, потім додані та змінені; в межах групи - за типом та ім'ям.
+     */
+    public static final Comparator<Difference> DIFFERENCE_ORDER = Comparator
+            .comparing((Difference difference) -> difference.getType() != DifferenceType.REMOVED)
+            .thenComparing(Difference::getObjectType)
+            .thenComparing(Difference::getObjectName);
+
+    /**
+     * Зміни значущих відмінностей після оновлення сеансу.
+     * @param addedDifferences Відмінності об'єктів, які раніше не відрізнялися (або були приховані правилами).
+     * @param updatedDifferences Нові відмінності об'єктів, що відрізнялися й раніше (замінюють попередні).
+     * @param resolvedKeys Об'єкти, які більше не відрізняються.
+     * @param recomparedObjectCount Кількість повторно порівняних об'єктів.
+     * @param result Повний результат сеансу після оновлення.
+     */
+    public record Update(List<Difference> addedDifferences, List<Difference> updatedDifferences, List<ObjectKey> resolvedKeys,
+                         int recomparedObjectCount, ComparisonResult result) {
+
+        public boolean isEmpty() {
+            return addedDifferences.isEmpty() && updatedDifferences.isEmpty() && resolvedKeys.isEmpty();
+        }
+    }
+
+    private final SchemaComparisonService comparisonService;
+    private final ComparisonOptions options;
+    private Schema sourceSchema;
+    private Schema targetSchema;
+    private Map<ObjectKey, String> sourceDdlHashes = Map.of(); // Хеші DDL на момент останнього порівняння
+    private Map<ObjectKey, String> targetDdlHashes = Map.of();
+    private final Map<ObjectKey, Difference> differencesByKey = new HashMap<>(); // Включно з прихованими правилами, без перейменувань
+    private ComparisonResult result;
+
+    ComparisonSession(SchemaComparisonService comparisonService, Schema sourceSchema, Schema targetSchema, ComparisonOptions options) {
+        this.comparisonService = comparisonService;
+        this.sourceSchema = sourceSchema;
+        this.targetSchema = targetSchema;
+        this.options = options;
+    }
+
+    /**
+     * Повне порівняння схем сеансу (див. {@link SchemaComparisonService#compare}).
+     */
+    public synchronized ComparisonResult compare(int parallelism) {
+        return compare(parallelism, null);
+    }
+
+    /**
+     * Повне порівняння з публікацією проміжних результатів підписнику
+     * (див. {@link SchemaComparisonService#compare(Schema, Schema, ComparisonOptions, int, Flow.Subscriber)}).
+     */
+    public synchronized ComparisonResult compare(int parallelism, Flow.Subscriber<? super ComparisonProgress> subscriber) {
+        Map<ObjectKey, String> newSourceHashes = snapshotDdlHashes(sourceSchema);
+        Map<ObjectKey, String> newTargetHashes = snapshotDdlHashes(targetSchema);
+        // Скасоване порівняння (CancellationException) не змінює стан сеансу
+        ComparisonResult fullResult = comparisonService.compareWithoutRenames(sourceSchema, targetSchema, options, parallelism, subscriber);
+        sourceDdlHashes = newSourceHashes;
+        targetDdlHashes = newTargetHashes;
+        differencesByKey.clear();
+        for (Difference difference : fullResult.getDifferences()) {
+            differencesByKey.put(keyOf(difference), difference);
+        }
+        for (Difference difference : fullResult.getSuppressedDifferences()) {
+            differencesByKey.put(keyOf(difference), difference);
+        }
+        result = buildResult();
+        return result;
+    }
+
+    /**
+     * Порівнює заново лише об'єкти, що змінилися з останнього порівняння, і оновлює відмінності.
+     * Перейменування шукаються заново серед усіх пар REMOVED + ADDED, бо зміна одного об'єкта може утворити або розірвати пару.
+     * @param newSourceSchema Актуальна схема-джерело (та сама або повторно витягнута); null - без змін.
+     * @param newTargetSchema Актуальна цільова схема; null - без змін.
+     */
+    public synchronized Update update(Schema newSourceSchema, Schema newTargetSchema) {
+        Schema updatedSource = (newSourceSchema != null) ? newSourceSchema : sourceSchema;
+        Schema updatedTarget = (newTargetSchema != null) ? newTargetSchema : targetSchema;
+        List<Difference> previousDifferences = (result != null) ? result.getDifferences() : List.of();
+        if (result == null || !sameOwner(sourceSchema, updatedSource) || !sameOwner(targetSchema, updatedTarget)) {
+            sourceSchema = updatedSource;
+            targetSchema = updatedTarget;
+            compare(1);
+            return createUpdate(previousDifferences, sourceDdlHashes.size() + targetDdlHashes.size());
+        }
+        sourceSchema = updatedSource;
+        targetSchema = updatedTarget;
+
+        Map<ObjectKey, String> newSourceHashes = snapshotDdlHashes(sourceSchema);
+        Map<ObjectKey, String> newTargetHashes = snapshotDdlHashes(targetSchema);
+        Set<ObjectKey> changedKeys = new HashSet<>();
+        collectChangedKeys(sourceDdlHashes, newSourceHashes, changedKeys);
+        collectChangedKeys(targetDdlHashes, newTargetHashes, changedKeys);
+        // Хеші замінюються лише після порівняння: після скасування наступне оновлення знайде ті самі зміни
+        List<Difference> recomparedDifferences = comparisonService.compareObjects(sourceSchema, targetSchema, options, changedKeys);
+        sourceDdlHashes = newSourceHashes;
+        targetDdlHashes = newTargetHashes;
+
+        // Кожна відмінність без пошуку перейменувань стосується одного об'єкта, тому набір оновлюється за ключами
+        differencesByKey.keySet().removeAll(changedKeys);
+        for (Difference difference : recomparedDifferences) {
+            differencesByKey.put(keyOf(difference), difference);
+        }
+        result = buildResult();
+        Update update = createUpdate(previousDifferences, changedKeys.size());
+        System.out.println("Повторне порівняння " + sourceSchema.getName() + " / " + targetSchema.getName() + ": змінено об'єктів "
+                + changedKeys.size() + ", нових відмінностей " + update.addedDifferences().size() + ", оновлено "
+                + update.updatedDifferences().size() + ", усунуто " + update.resolvedKeys().size());
+        return update;
+    }
+
+    public synchronized Schema getSourceSchema() {
+        return sourceSchema;
+    }
+
+    public synchronized Schema getTargetSchema() {
+        return targetSchema;
+    }
+
+    public ComparisonOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return Результат останнього порівняння або null, якщо порівняння ще не виконувалось.
+     */
+    public synchronized ComparisonResult getResult() {
+        return result;
+    }
+
+    // Різниця між попередніми і поточними значущими відмінностями
+    private Update createUpdate(List<Difference> previousDifferences, int recomparedObjectCount) {
+        Map<ObjectKey, Difference> previous = new HashMap<>();
+        for (Difference difference : previousDifferences) {
+            previous.put(keyOf(difference), difference);
+        }
+        List<Difference> added = new ArrayList<>();
+        List<Difference> updated = new ArrayList<>();
+        for (Difference difference : result.getDifferences()) {
+            Difference previousDifference = previous.remove(keyOf(difference));
+            if (previousDifference == null) {
+                added.add(difference);
+            } else if (!sameDifference(previousDifference, difference)) {
+                updated.add(difference);
+            }
+        }
+        List<ObjectKey> resolved = new ArrayList<>(previous.keySet());
+        return new Update(added, updated, resolved, recomparedObjectCount, result);
+    }
+
+    // Перейменування створюються заново при кожному оновленні; незмінене перейменування - та сама пара з тими самими DDL
+    private static boolean sameDifference(Difference previous, Difference current) {
+        if (previous == current) {
+            return true;
+        }
+        return previous.getType() == DifferenceType.RENAMED && current.getType() == DifferenceType.RENAMED
+                && Objects.equals(previous.getPreviousObjectName(), current.getPreviousObjectName())
+                && Objects.equals(previous.getSourceDdl(), current.getSourceDdl())
+                && Objects.equals(previous.getTargetDdl(), current.getTargetDdl());
+    }
+
+    // Результат з набору відмінностей за ключами; пари REMOVED + ADDED перевіряються на перейменування
+    private ComparisonResult buildResult() {
+        List<Difference> significant = new ArrayList<>();
+        List<Difference> suppressed = new ArrayList<>();
+        for (Difference difference : differencesByKey.values()) {
+            (difference.isSuppressed() ? suppressed : significant).add(difference);
+        }
+        significant.sort(DIFFERENCE_ORDER);
+        suppressed.sort(DIFFERENCE_ORDER);
+        return comparisonService.detectRenames(new ComparisonResult(significant, suppressed, options), sourceSchema, targetSchema);
+    }
+
+    private static void collectChangedKeys(Map<ObjectKey, String> previous, Map<ObjectKey, String> current, Set<ObjectKey> changedKeys) {
+        for (Map.Entry<ObjectKey, String> entry : current.entrySet()) {
+            if (!previous.containsKey(entry.getKey()) || !Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (ObjectKey key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+    }
+
+    // Хеші DDL усіх об'єктів схеми (для знімків з директорії - з маніфесту, без читання файлів)
+    private static Map<ObjectKey, String> snapshotDdlHashes(Schema schema) {
+        try (Schema.ReadLease lease = schema.acquireReadLease()) {
+            Map<ObjectKey, String> hashes = new HashMap<>(schema.getObjectCount() * 2);
+            for (ObjectType objectType : schema.getObjectTypes()) {
+                for (String objectName : schema.getObjectNames(objectType)) {
+                    hashes.put(ObjectKey.of(objectType, objectName), schema.getObjectDdlHash(objectType, objectName));
+                }
+            }
+            return Collections.unmodifiableMap(hashes);
+        }
+    }
+
+    private static boolean sameOwner(Schema previous, Schema current) {
+        return previous == current || (previous.getName() != null && previous.getName().equals(current.getName()));
+    }
+
+    public static ObjectKey keyOf(Difference difference) {
+        return ObjectKey.of(difference.getObjectType(), difference.getObjectName());
+    }
+}
@@ -0,0 +1,301 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.DifferenceType;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.utils.DdlNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Пошук перейменованих об'єктів серед пар REMOVED × ADDED одного типу.
+ * DDL кожного кандидата нормалізується (без префіксів власника, пробілів, регістру і коментарів) і розбивається на токени;
+ * власне ім'я об'єкта замінюється заповнювачем, щоб воно не впливало на подібність. Для послідовностей з трьох токенів
+ * будується MinHash-ескіз, а кандидати на пару знаходяться через LSH (ескіз ділиться на смуги, і лише об'єкти
+ * з однаковою хоча б однією смугою порівнюються). Тому вартість майже лінійна за кількістю кандидатів,
+ * а не квадратична, як при попарному порівнянні текстів.
+ * <p>
+ * Подібність - оцінка коефіцієнта Жаккара множин послідовностей токенів за ескізами. Пари з оцінкою не нижче порогу
+ * призначаються жадібно за спаданням оцінки: кожен об'єкт входить щонайбільше в одне перейменування.
+ */
+final class RenameDetector {
+
+    private static final int HASH_COUNT = 128;
+    private static final int BAND_COUNT = 32;
+    private static final int ROWS_PER_BAND = HASH_COUNT / BAND_COUNT; // Поріг LSH ~ (1/32)^(1/4) ~ 0.42 - нижче за будь-який розумний поріг подібності
+    private static final int SHINGLE_SIZE = 3;
+    private static final String NAME_PLACEHOLDER = "\u0000NAME";
+    private static final long[] SEEDS = new long[HASH_COUNT];
+
+    static {
+        long state = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix64(state);
+        }
+    }
+
+    private static final Set<DdlNormalizer.Option> TOKEN_OPTIONS = EnumSet.of(
+            DdlNormalizer.Option.IGNORE_WHITESPACE, DdlNormalizer.Option.IGNORE_CASE, DdlNormalizer.Option.IGNORE_COMMENTS);
+
+    private final double threshold;
+    private final DdlNormalizer sourceNormalizer;
+    private final DdlNormalizer targetNormalizer;
+
+    RenameDetector(String sourceOwner, String targetOwner, double threshold) {
+        this.threshold = threshold;
+        this.sourceNormalizer = new DdlNormalizer(sourceOwner, TOKEN_OPTIONS);
+        this.targetNormalizer = new DdlNormalizer(targetOwner, TOKEN_OPTIONS);
+    }
+
+    /**
+     * Замінює знайдені пари REMOVED + ADDED на RENAMED.
+     * Відмінність RENAMED стає на місце ADDED (нове ім'я), відповідна REMOVED видаляється; решта списку не змінюється.
+     */
+    List<Difference> detect(List<Difference> differences) {
+        Map<ObjectType, List<Difference>> removedByType = new EnumMap<>(ObjectType.class);
+        Map<ObjectType, List<Difference>> addedByType = new EnumMap<>(ObjectType.class);
+        for (Difference difference : differences) {
+            if (difference.getType() == DifferenceType.REMOVED && difference.getSourceDdl() != null) {
+                removedByType.computeIfAbsent(difference.getObjectType(), type -> new ArrayList<>()).add(difference);
+            } else if (difference.getType() == DifferenceType.ADDED && difference.getTargetDdl() != null) {
+                addedByType.computeIfAbsent(difference.getObjectType(), type -> new ArrayList<>()).add(difference);
+            }
+        }
+
+        // За посиланням: equals у Difference порівнює лише тип та ім'я
+        Map<Difference, Difference> renamedByAdded = new IdentityHashMap<>();
+        Set<Difference> renamedRemoved = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<ObjectType, List<Difference>> entry : addedByType.entrySet()) {
+            List<Difference> removed = removedByType.get(entry.getKey());
+            if (removed != null) {
+                matchType(removed, entry.getValue(), renamedByAdded, renamedRemoved);
+            }
+        }
+        if (renamedByAdded.isEmpty()) {
+            return differences;
+        }
+        List<Difference> result = new ArrayList<>(differences.size() - renamedByAdded.size());
+        for (Difference difference : differences) {
+            if (renamedRemoved.contains(difference)) {
+                continue;
+            }
+            Difference renamed = renamedByAdded.get(difference);
+            result.add((renamed != null) ? renamed : difference);
+        }
+        System.out.println("Виявлено перейменувань: " + renamedByAdded.size());
+        return result;
+    }
+
+    private void matchType(List<Difference> removed, List<Difference> added,
+                           Map<Difference, Difference> renamedByAdded, Set<Difference> renamedRemoved) {
+        long[][] removedSketches = new long[removed.size()][];
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < removed.size(); i++) {
+            Difference difference = removed.get(i);
+            removedSketches[i] = sketch(tokenize(sourceNormalizer.normalize(difference.getSourceDdl()), difference.getObjectName()));
+            for (int band = 0; band < BAND_COUNT; band++) {
+                buckets.computeIfAbsent(bandKey(removedSketches[i], band), key -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        record Candidate(int added, int removed, double similarity) {
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        Set<Integer> checked = new HashSet<>();
+        for (int a = 0; a < added.size(); a++) {
+            Difference difference = added.get(a);
+            long[] addedSketch = sketch(tokenize(targetNormalizer.normalize(difference.getTargetDdl()), difference.getObjectName()));
+            checked.clear();
+            for (int band = 0; band < BAND_COUNT; band++) {
+                List<Integer> bucket = buckets.get(bandKey(addedSketch, band));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int r : bucket) {
+                    if (checked.add(r)) {
+                        double similarity = estimateSimilarity(addedSketch, removedSketches[r]);
+                        if (similarity >= threshold) {
+                            candidates.add(new Candidate(a, r, similarity));
+                        }
+                    }
+                }
+            }
+        }
+
+        // Жадібне призначення: спершу найподібніші пари; за однакової оцінки - за іменами, щоб результат був детермінованим
+        candidates.sort((left, right) -> {
+            int bySimilarity = Double.compare(right.similarity(), left.similarity());
+            if (bySimilarity != 0) {
+                return bySimilarity;
+            }
+            int byAdded = added.get(left.added()).getObjectName().compareTo(added.get(right.added()).getObjectName());
+            return (byAdded != 0) ? byAdded : removed.get(left.removed()).getObjectName().compareTo(removed.get(right.removed()).getObjectName());
+        });
+        boolean[] addedUsed = new boolean[added.size()];
+        boolean[] removedUsed = new boolean[removed.size()];
+        for (Candidate candidate : candidates) {
+            if (addedUsed[candidate.added()] || removedUsed[candidate.removed()]) {
+                continue;
+            }
+            addedUsed[candidate.added()] = true;
+            removedUsed[candidate.removed()] = true;
+            Difference addedDifference = added.get(candidate.added());
+            Difference removedDifference = removed.get(candidate.removed());
+            // Оцінка 1.0 не гарантує рівності текстів, тому для обраної пари токени порівнюються точно
+            boolean definitionChanged = !tokenize(sourceNormalizer.normalize(removedDifference.getSourceDdl()), removedDifference.getObjectName())
+                    .equals(tokenize(targetNormalizer.normalize(addedDifference.getTargetDdl()), addedDifference.getObjectName()));
+            renamedByAdded.put(addedDifference, Difference.renamed(addedDifference.getObjectType(), removedDifference.getObjectName(),
+                    addedDifference.getObjectName(), addedDifference.getObjectOwner(),
+                    removedDifference.getSourceDdl(), addedDifference.getTargetDdl(), candidate.similarity(), definitionChanged));
+            renamedRemoved.add(removedDifference);
+        }
+    }
+
+    /**
+     * Токени нормалізованого DDL: слова (ідентифікатори, числа), літерали та ідентифікатори в лапках цілими, інші символи окремо.
+     * Подвоєна лапка всередині літерала ('IT''S') не завершує його.
+     * Ім'я об'єкта замінюється заповнювачем лише як ціле слово або частина імені, відокремлена '_'
+     * (наприклад, PK_&lt;ім'я&gt;): коротке ім'я (T, ID) не повинно змінювати ключові слова й інші імена, що його містять.
+     */
+    static List<String> tokenize(String ddl, String objectName) {
+        String name = (objectName != null && !objectName.isEmpty()) ? objectName.toUpperCase(Locale.ROOT) : null;
+        List<String> tokens = new ArrayList<>();
+        int length = ddl.length();
+        int i = 0;
+        while (i < length) {
+            char c = ddl.charAt(i);
+            int end;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '\'' || c == '"') {
+                end = i + 1;
+                while (true) {
+                    end = ddl.indexOf(c, end);
+                    if (end < 0) {
+                        end = length;
+                        break;
+                    }
+                    if (end + 1 < length && ddl.charAt(end + 1) == c) {
+                        end += 2; // Подвоєна лапка - частина тексту
+                        continue;
+                    }
+                    end++;
+                    break;
+                }
+                String token = ddl.substring(i, end);
+                tokens.add((c == '"' && name != null) ? maskName(token, name) : token);
+            } else if (isWordChar(c)) {
+                end = i + 1;
+                while (end < length && isWordChar(ddl.charAt(end))) {
+                    end++;
+                }
+                String token = ddl.substring(i, end);
+                tokens.add((name != null) ? maskName(token, name) : token);
+            } else {
+                end = i + 1;
+                tokens.add(String.valueOf(c));
+            }
+            i = end;
+        }
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+    }
+
+    // Входження імені, з обох боків обмежені початком чи кінцем токена або символом, що не входить в ідентифікатор ('_', '"')
+    static String maskName(String token, String name) {
+        int index = token.indexOf(name);
+        if (index < 0) {
+            return token;
+        }
+        StringBuilder masked = null;
+        int copied = 0;
+        while (index >= 0) {
+            int end = index + name.length();
+            if (isNameBoundary(token, index - 1) && isNameBoundary(token, end)) {
+                if (masked == null) {
+                    masked = new StringBuilder(token.length() + NAME_PLACEHOLDER.length());
+                }
+                masked.append(token, copied, index).append(NAME_PLACEHOLDER);
+                copied = end;
+                index = token.indexOf(name, end);
+            } else {
+                index = token.indexOf(name, index + 1);
+            }
+        }
+        return (masked == null) ? token : masked.append(token, copied, token.length()).toString();
+    }
+
+    private static boolean isNameBoundary(String token, int index) {
+        if (index < 0 || index >= token.length()) {
+            return true;
+        }
+        char c = token.charAt(index);
+        return !(Character.isLetterOrDigit(c) || c == '$' || c == '#');
+    }
+
+    // MinHash-ескіз множини послідовностей із SHINGLE_SIZE токенів
+    static long[] sketch(List<String> tokens) {
+        long[] minimums = new long[HASH_COUNT];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        int shingleCount = Math.max(1, tokens.size() - SHINGLE_SIZE + 1);
+        long[] tokenHashes = new long[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            tokenHashes[i] = mix64(tokens.get(i).hashCode() * 0x9E3779B97F4A7C15L + tokens.get(i).length());
+        }
+        for (int s = 0; s < shingleCount; s++) {
+            long shingle = 0x6A09E667F3BCC909L;
+            for (int t = s; t < Math.min(s + SHINGLE_SIZE, tokens.size()); t++) {
+                shingle = mix64(shingle ^ tokenHashes[t]);
+            }
+            for (int h = 0; h < HASH_COUNT; h++) {
+                long value = mix64(shingle ^ SEEDS[h]);
+                if (value < minimums[h]) {
+                    minimums[h] = value;
+                }
+            }
+        }
+        return minimums;
+    }
+
+    static double estimateSimilarity(long[] sketch, long[] otherSketch) {
+        int equal = 0;
+        for (int h = 0; h < HASH_COUNT; h++) {
+            if (sketch[h] == otherSketch[h]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASH_COUNT;
+    }
+
+    private static long bandKey(long[] sketch, int band) {
+        long key = band;
+        for (int row = band * ROWS_PER_BAND; row < (band + 1) * ROWS_PER_BAND; row++) {
+            key = mix64(key ^ sketch[row]);
+        }
+        return key;
+    }
+
+    // Фіналізатор SplitMix64
+    private static long mix64(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -1,101 +1,792 @@
 package com.depavlo.ddlschematorfx.service;
 
+import com.depavlo.ddlschematorfx.model.ComparisonOptions;
+import com.depavlo.ddlschematorfx.model.ComparisonProgress;
+import com.depavlo.ddlschematorfx.model.ComparisonResult;
+import com.depavlo.ddlschematorfx.model.ComparisonRule;
 import com.depavlo.ddlschematorfx.model.Difference;
 import com.depavlo.ddlschematorfx.model.DifferenceType;
+import com.depavlo.ddlschematorfx.model.DriftMatrix;
+import com.depavlo.ddlschematorfx.model.ObjectKey;
 import com.depavlo.ddlschematorfx.model.ObjectType;
 import com.depavlo.ddlschematorfx.model.Schema;
-import com.depavlo.ddlschematorfx.utils.DdlUtils; // Імпорт утиліт
-import org.apache.commons.collections4.keyvalue.MultiKey;
+import com.depavlo.ddlschematorfx.persistence.NormalizationCache;
+import com.depavlo.ddlschematorfx.utils.DdlNormalizer;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.SubmissionPublisher;
 
 public class SchemaComparisonService {
 
+    // Розмір діапазону імен, який порівнюється одним завданням без подальшого поділу
+    private static final int PARALLEL_SLICE_SIZE = 256;
+    // Кількість об'єктів між публікаціями проміжного результату
+    private static final int PROGRESS_STEP = 256;
+
+    private volatile NormalizationCache normalizationCache; // null - кожне порівняння нормалізує DDL заново
+
+    public NormalizationCache getNormalizationCache() {
+        return normalizationCache;
+    }
+
+    /**
+     * Встановлює постійний кеш нормалізації: перед нормалізацією DDL порівняння шукає її результат у кеші
+     * за хешем тексту, власником і версією набору правил.
+     * @param normalizationCache Кеш або null, щоб нормалізувати без кешу.
+     */
+    public void setNormalizationCache(NormalizationCache normalizationCache) {
+        this.normalizationCache = normalizationCache;
+    }
+
+    /**
+     * Порівняння з правилами за замовчуванням ({@link ComparisonOptions#defaults()}).
+     * @return Лише значущі відмінності; приховані правилами не повертаються.
+     */
     public List<Difference> compareSchemas(Schema sourceSchema, Schema targetSchema) {
+        return compare(sourceSchema, targetSchema, ComparisonOptions.defaults(), 1).getDifferences();
+    }
+
+    /**
+     * Паралельне порівняння з правилами за замовчуванням (див. {@link #compare(Schema, Schema, ComparisonOptions, int)}).
+     */
+    public List<Difference> compareSchemas(Schema sourceSchema, Schema targetSchema, int parallelism) {
+        return compare(sourceSchema, targetSchema, ComparisonOptions.defaults(), parallelism).getDifferences();
+    }
+
+    /**
+     * Порівнює схеми, застосовуючи правила порівняння до об'єктів, DDL яких відрізняється.
+     * Спершу виконується дешева перевірка: рівність хешів або відбитків (DDL без префіксів власника) означає, що об'єкт не змінився,
+     * і нормалізація не потрібна. Лише для решти об'єктів DDL нормалізується з правилами: якщо після нормалізації тексти рівні,
+     * відмінність потрапляє до прихованих із переліком правил, які її приховали.
+     * <p>
+     * Простір об'єктів ділиться за типом і на діапазони імен; при parallelism > 1 діапазони порівнюються у ForkJoinPool.
+     * Результати діапазонів об'єднуються в порядку діапазонів, тому список відмінностей не залежить від parallelism.
+     * Якщо ввімкнено пошук перейменувань, пари REMOVED + ADDED з подібним DDL замінюються на RENAMED ({@link RenameDetector}).
+     * @param options Правила порівняння; null - правила за замовчуванням.
+     * @param parallelism Кількість потоків порівняння; 1 - послідовне порівняння в поточному потоці.
+     */
+    public ComparisonResult compare(Schema sourceSchema, Schema targetSchema, ComparisonOptions options, int parallelism) {
+        return compare(sourceSchema, targetSchema, options, parallelism, null);
+    }
+
+    /**
+     * Порівняння з публікацією проміжних результатів: підписник отримує знайдені відмінності частинами
+     * (кожні {@value #PROGRESS_STEP} перевірених об'єктів діапазону) разом з лічильником перевірених об'єктів,
+     * не чекаючи завершення порівняння. Публікація асинхронна ({@link SubmissionPublisher}): повільний підписник
+     * не блокує порівняння, доки не заповнено буфер. Після завершення підписник отримує onComplete, після помилки - onError.
+     * <p>
+     * При parallelism > 1 частини надходять у порядку завершення діапазонів, а не в порядку результату.
+     * Опубліковані відмінності - до пошуку перейменувань; остаточний впорядкований список повертається в результаті.
+     * <p>
+     * Порівняння переривається {@link CancellationException}, якщо потік, що його викликав, перервано
+     * (наприклад, скасовано JavaFX Task) або підписник скасував підписку; ознака перевіряється перед кожною частиною
+     * з {@value #PROGRESS_STEP} об'єктів діапазону і перед пошуком перейменувань.
+     * @param subscriber Підписник на проміжні результати; null - без публікації.
+     */
+    public ComparisonResult compare(Schema sourceSchema, Schema targetSchema, ComparisonOptions options, int parallelism,
+                                    Flow.Subscriber<? super ComparisonProgress> subscriber) {
+        return detectRenames(compareWithoutRenames(sourceSchema, targetSchema, options, parallelism, subscriber), sourceSchema, targetSchema);
+    }
+
+    /**
+     * Порівняння без пошуку перейменувань: кожна відмінність стосується рівно одного об'єкта (для сеансу порівняння).
+     */
+    ComparisonResult compareWithoutRenames(Schema sourceSchema, Schema targetSchema, ComparisonOptions options, int parallelism) {
+        return compareWithoutRenames(sourceSchema, targetSchema, options, parallelism, null);
+    }
+
+    ComparisonResult compareWithoutRenames(Schema sourceSchema, Schema targetSchema, ComparisonOptions options, int parallelism,
+                                           Flow.Subscriber<? super ComparisonProgress> subscriber) {
+        if (sourceSchema == null || targetSchema == null) {
+            throw new IllegalArgumentException("Source and target schemas cannot be null.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, got: " + parallelism);
+        }
+        ComparisonOptions effectiveOptions = (options != null) ? options : ComparisonOptions.defaults();
+        // Оренди: поки схеми порівнюються (зокрема потоками ForkJoinPool), їхні DDL не вивантажуються на диск
+        try (Schema.ReadLease sourceLease = sourceSchema.acquireReadLease();
+             Schema.ReadLease targetLease = targetSchema.acquireReadLease()) {
+            ComparisonContext context = new ComparisonContext(sourceSchema, targetSchema, effectiveOptions, normalizationCache);
+            List<ComparisonSlice> slices = createSlices(context);
+            if (subscriber != null) {
+                int totalObjectCount = 0;
+                for (ComparisonSlice slice : slices) {
+                    totalObjectCount += slice.to - slice.from;
+                }
+                context.progress = new ProgressPublisher(subscriber, totalObjectCount);
+            }
+            try {
+                List<Difference> differences = new ArrayList<>();
+                List<Difference> suppressedDifferences = new ArrayList<>();
+                for (Difference difference : compareSlices(slices, parallelism)) {
+                    (difference.isSuppressed() ? suppressedDifferences : differences).add(difference);
+                }
+                if (context.cache != null) {
+                    context.cache.flush();
+                }
+                if (context.progress != null) {
+                    context.progress.complete();
+                }
+                return new ComparisonResult(differences, suppressedDifferences, effectiveOptions);
+            } catch (RuntimeException | Error e) {
+                if (context.progress != null) {
+                    context.progress.fail(e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private List<Difference> compareSlices(List<ComparisonSlice> slices, int parallelism) {
+        List<Difference> allDifferences = new ArrayList<>();
+        if (parallelism == 1) {
+            // Обхід за іменами: DDL схем, відкритих з директорії, читаються лише для об'єктів, які справді порівнюються
+            for (ComparisonSlice slice : slices) {
+                slice.compareRange(slice.from, slice.to, allDifferences);
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                allDifferences = pool.invoke(new RecursiveTask<List<Difference>>() {
+                    @Override
+                    protected List<Difference> compute() {
+                        ForkJoinTask.invokeAll(slices);
+                        List<Difference> differences = new ArrayList<>();
+                        for (ComparisonSlice slice : slices) {
+                            differences.addAll(slice.join());
+                        }
+                        return differences;
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return allDifferences;
+    }
+
+    /**
+     * Замінює пари REMOVED + ADDED з подібним DDL на RENAMED, якщо пошук перейменувань увімкнено в параметрах результату.
+     */
+    ComparisonResult detectRenames(ComparisonResult result, Schema sourceSchema, Schema targetSchema) {
+        ComparisonOptions options = result.getOptions();
+        if (!options.isRenameDetectionEnabled()) {
+            return result;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Comparison cancelled.");
+        }
+        RenameDetector detector = new RenameDetector(sourceSchema.getName(), targetSchema.getName(), options.getRenameSimilarityThreshold());
+        List<Difference> differences = detector.detect(result.getDifferences());
+        return (differences == result.getDifferences()) ? result
+                : new ComparisonResult(differences, result.getSuppressedDifferences(), options);
+    }
+
+    /**
+     * Відкриває сеанс порівняння, який після першого порівняння перераховує лише змінені об'єкти
+     * ({@link ComparisonSession#update(Schema, Schema)}).
+     * @param options Правила порівняння; null - правила за замовчуванням.
+     */
+    public ComparisonSession openSession(Schema sourceSchema, Schema targetSchema, ComparisonOptions options) {
         if (sourceSchema == null || targetSchema == null) {
             throw new IllegalArgumentException("Source and target schemas cannot be null.");
         }
+        ComparisonOptions sessionOptions = (options != null) ? options.copy() : ComparisonOptions.defaults();
+        return new ComparisonSession(this, sourceSchema, targetSchema, sessionOptions);
+    }
 
-        List<Difference> differences = new ArrayList<>();
-        Map<MultiKey<?>, String> sourceObjects = sourceSchema.getObjectDdls();
-        Map<MultiKey<?>, String> targetObjects = targetSchema.getObjectDdls();
-
-        // Об'єкти, що є в source, але відсутні в target (REMOVED)
-        for (Map.Entry<MultiKey<?>, String> sourceEntry : sourceObjects.entrySet()) {
-            MultiKey<?> sourceMultiKey = sourceEntry.getKey();
-            if (!targetObjects.containsKey(sourceMultiKey)) {
-                if (sourceMultiKey.size() == 2 && sourceMultiKey.getKey(0) instanceof ObjectType && sourceMultiKey.getKey(1) instanceof String) {
-                    ObjectType objectType = (ObjectType) sourceMultiKey.getKey(0);
-                    String objectName = (String) sourceMultiKey.getKey(1);
-                    differences.add(new Difference(
-                            DifferenceType.REMOVED,
-                            objectType,
-                            objectName,
-                            sourceSchema.getName(),
-                            sourceEntry.getValue(),
-                            null,
-                            "Object removed from target schema (Owner: " + sourceSchema.getName() + ")"
-                    ));
-                } else {
-                    System.err.println("Warning: Invalid MultiKey structure in sourceObjects for key: " + sourceMultiKey);
+    /**
+     * Порівнює лише вказані об'єкти (для сеансу порівняння).
+     * @return Відмінності цих об'єктів, включно з прихованими правилами порівняння.
+     */
+    List<Difference> compareObjects(Schema sourceSchema, Schema targetSchema, ComparisonOptions options, Collection<ObjectKey> objectKeys) {
+        try (Schema.ReadLease sourceLease = sourceSchema.acquireReadLease();
+             Schema.ReadLease targetLease = targetSchema.acquireReadLease()) {
+            ComparisonContext context = new ComparisonContext(sourceSchema, targetSchema, options, normalizationCache);
+            List<Difference> differences = new ArrayList<>();
+            int checkedCount = 0;
+            for (ObjectKey key : objectKeys) {
+                if (checkedCount++ % PROGRESS_STEP == 0) {
+                    context.checkCancelled();
                 }
+                if (sourceSchema.containsObject(key.objectType(), key.objectName())) {
+                    compareSourceObject(context, key.objectType(), key.objectName(), differences);
+                }
+                if (targetSchema.containsObject(key.objectType(), key.objectName())) {
+                    compareTargetObject(context, key.objectType(), key.objectName(), differences);
+                }
+            }
+            if (context.cache != null) {
+                context.cache.flush();
             }
+            return differences;
         }
+    }
 
-        // Об'єкти, що є в target (ADDED або MODIFIED)
-        for (Map.Entry<MultiKey<?>, String> targetEntry : targetObjects.entrySet()) {
-            MultiKey<?> targetMultiKey = targetEntry.getKey();
-            String originalTargetDdl = targetEntry.getValue();
+    /**
+     * Порівнює кілька середовищ за один прохід: DDL кожного об'єкта кожної схеми нормалізується один раз
+     * (з правилами порівняння, через кеш нормалізації), після чого об'єкти з однаковими відбитками групуються у варіанти.
+     * Вартість лінійна за кількістю схем, на відміну від попарних порівнянь N×(N-1).
+     * @param schemas Схеми в порядку стовпців матриці (щонайменше дві).
+     * @param options Правила порівняння; null - правила за замовчуванням.
+     * @param parallelism Кількість потоків; схеми обробляються паралельно.
+     */
+    public DriftMatrix compareAll(List<Schema> schemas, ComparisonOptions options, int parallelism) {
+        // contains(null) кидає NullPointerException для незмінних списків (List.of), тому перевірка поелементна
+        if (schemas == null || schemas.size() < 2 || schemas.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("At least two non-null schemas are required.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, got: " + parallelism);
+        }
+        ComparisonOptions effectiveOptions = (options != null) ? options : ComparisonOptions.defaults();
+        NormalizationCache cache = normalizationCache;
+        int environmentCount = schemas.size();
 
-            if (targetMultiKey.size() == 2 && targetMultiKey.getKey(0) instanceof ObjectType && targetMultiKey.getKey(1) instanceof String) {
-                ObjectType objectType = (ObjectType) targetMultiKey.getKey(0);
-                String objectName = (String) targetMultiKey.getKey(1);
+        List<SchemaFingerprintTask> tasks = new ArrayList<>(environmentCount);
+        for (Schema schema : schemas) {
+            tasks.add(new SchemaFingerprintTask(schema, effectiveOptions, cache));
+        }
+        if (parallelism == 1) {
+            tasks.forEach(SchemaFingerprintTask::invoke);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, environmentCount));
+            try {
+                pool.invoke(new RecursiveTask<Void>() {
+                    @Override
+                    protected Void compute() {
+                        ForkJoinTask.invokeAll(tasks);
+                        return null;
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+        if (cache != null) {
+            cache.flush();
+        }
 
-                if (!sourceObjects.containsKey(targetMultiKey)) {
-                    // Об'єкт додано
-                    differences.add(new Difference(
-                            DifferenceType.ADDED,
-                            objectType,
-                            objectName,
-                            targetSchema.getName(),
-                            null,
-                            originalTargetDdl,
-                            "Object added to target schema (Owner: " + targetSchema.getName() + ")"
-                    ));
-                } else {
-                    // Об'єкт існує в обох схемах, перевіряємо на зміни
-                    String originalSourceDdl = sourceObjects.get(targetMultiKey);
-
-                    // Нормалізуємо DDL для порівняння, видаляючи префікси схем
-                    String normalizedSourceDdl = DdlUtils.stripSchemaPrefixesForComparison(originalSourceDdl, sourceSchema.getName());
-                    String normalizedTargetDdl = DdlUtils.stripSchemaPrefixesForComparison(originalTargetDdl, targetSchema.getName());
-
-                    // Додатково, можна нормалізувати регістр та пробільні символи, якщо потрібно
-                    // normalizedSourceDdl = normalizedSourceDdl.toUpperCase().replaceAll("\\s+", " ").trim();
-                    // normalizedTargetDdl = normalizedTargetDdl.toUpperCase().replaceAll("\\s+", " ").trim();
-
-
-                    boolean areDdlsEqual = (normalizedSourceDdl == null && normalizedTargetDdl == null) ||
-                            (normalizedSourceDdl != null && normalizedSourceDdl.equals(normalizedTargetDdl));
-
-                    if (!areDdlsEqual) {
-                        differences.add(new Difference(
-                                DifferenceType.MODIFIED,
-                                objectType,
-                                objectName,
-                                targetSchema.getName(),
-                                originalSourceDdl, // Зберігаємо оригінальні DDL
-                                originalTargetDdl,
-                                "Object DDL has been modified (Compared owners: Source '" + sourceSchema.getName() + "', Target '" + targetSchema.getName() + "')"
-                        ));
+        // Рядки матриці: об'єднання об'єктів усіх схем, впорядковане за типом та ім'ям
+        TreeMap<ObjectKey, String[]> fingerprintsByObject = new TreeMap<>(
+                Comparator.comparing(ObjectKey::objectType).thenComparing(ObjectKey::objectName));
+        for (int environment = 0; environment < environmentCount; environment++) {
+            for (Map.Entry<ObjectKey, String> entry : tasks.get(environment).join().entrySet()) {
+                fingerprintsByObject.computeIfAbsent(entry.getKey(), key -> new String[environmentCount])[environment] = entry.getValue();
+            }
+        }
+
+        List<DriftMatrix.ObjectDrift> objects = new ArrayList<>(fingerprintsByObject.size());
+        Map<ObjectType, DriftMatrix.TypeSummary> typeSummaries = new EnumMap<>(ObjectType.class);
+        ObjectType currentType = null;
+        MessageDigest[] typeDigests = null;
+        int typeObjectCount = 0;
+        int typeDriftingCount = 0;
+        int[] variants = new int[environmentCount];
+        for (Map.Entry<ObjectKey, String[]> entry : fingerprintsByObject.entrySet()) {
+            ObjectKey key = entry.getKey();
+            String[] fingerprints = entry.getValue();
+            if (key.objectType() != currentType) {
+                if (currentType != null) {
+                    typeSummaries.put(currentType, createTypeSummary(currentType, typeDigests, typeObjectCount, typeDriftingCount));
+                }
+                currentType = key.objectType();
+                typeDigests = new MessageDigest[environmentCount];
+                typeObjectCount = 0;
+                typeDriftingCount = 0;
+            }
+            // Варіанти нумеруються в порядку першої появи; середовищ небагато, тому лінійний пошук
+            int variantCount = 0;
+            for (int environment = 0; environment < environmentCount; environment++) {
+                String fingerprint = fingerprints[environment];
+                variants[environment] = DriftMatrix.ABSENT;
+                if (fingerprint == null) {
+                    continue;
+                }
+                if (typeDigests[environment] == null) {
+                    typeDigests[environment] = newSha256();
+                }
+                if (SchemaFingerprintTask.UNREADABLE_FINGERPRINT.equals(fingerprint)) {
+                    // Непрочитаний DDL не збігається ні з чим, навіть з іншим непрочитаним
+                    variants[environment] = DriftMatrix.UNKNOWN;
+                    typeDigests[environment].update((key.objectName() + "\n?" + environment + '\n').getBytes(StandardCharsets.UTF_8));
+                    continue;
+                }
+                for (int previous = 0; previous < environment; previous++) {
+                    if (fingerprint.equals(fingerprints[previous])) {
+                        variants[environment] = variants[previous];
+                        break;
+                    }
+                }
+                if (variants[environment] == DriftMatrix.ABSENT) {
+                    variants[environment] = variantCount++;
+                }
+                typeDigests[environment].update((key.objectName() + '\n' + fingerprint + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            DriftMatrix.ObjectDrift drift = new DriftMatrix.ObjectDrift(key.objectType(), key.objectName(), variants, variantCount);
+            objects.add(drift);
+            typeObjectCount++;
+            if (!drift.isConsistent()) {
+                typeDriftingCount++;
+            }
+        }
+        if (currentType != null) {
+            typeSummaries.put(currentType, createTypeSummary(currentType, typeDigests, typeObjectCount, typeDriftingCount));
+        }
+
+        List<String> environmentNames = new ArrayList<>(environmentCount);
+        for (Schema schema : schemas) {
+            environmentNames.add(schema.getName());
+        }
+        return new DriftMatrix(environmentNames, objects, typeSummaries, effectiveOptions);
+    }
+
+    private static DriftMatrix.TypeSummary createTypeSummary(ObjectType objectType, MessageDigest[] digests, int objectCount, int driftingCount) {
+        String[] hashes = new String[digests.length];
+        for (int i = 0; i < digests.length; i++) {
+            hashes[i] = (digests[i] != null) ? HexFormat.of().withUpperCase().formatHex(digests[i].digest()) : null;
+        }
+        return new DriftMatrix.TypeSummary(objectType, hashes, objectCount, driftingCount);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Відбитки всіх об'єктів однієї схеми з правилами порівняння (без правил - відбитки самої схеми)
+    private static final class SchemaFingerprintTask extends RecursiveTask<Map<ObjectKey, String>> {
+        private static final String UNREADABLE_FINGERPRINT = ""; // Об'єкт є, але його DDL не вдалося прочитати (DriftMatrix.UNKNOWN)
+
+        private final Schema schema;
+        private final boolean hasRules;
+        private final NormalizationCache cache;
+        private final OwnerNormalizer baseNormalizer;
+        private final OwnerNormalizer ruleNormalizer;
+
+        private SchemaFingerprintTask(Schema schema, ComparisonOptions options, NormalizationCache cache) {
+            this.schema = schema;
+            this.hasRules = options.hasRules();
+            this.cache = cache;
+            this.baseNormalizer = OwnerNormalizer.create(schema.getName(), EnumSet.noneOf(DdlNormalizer.Option.class));
+            this.ruleNormalizer = OwnerNormalizer.create(schema.getName(), options.getNormalizerOptions());
+        }
+
+        @Override
+        protected Map<ObjectKey, String> compute() {
+            // Оренда: поки схема порівнюється, її DDL не вивантажуються на диск
+            try (Schema.ReadLease lease = schema.acquireReadLease()) {
+                Map<ObjectKey, String> fingerprints = new HashMap<>(schema.getObjectCount() * 2);
+                for (ObjectType objectType : schema.getObjectTypes()) {
+                    for (String objectName : schema.getObjectNames(objectType)) {
+                        String fingerprint;
+                        if (hasRules) {
+                            String ddl = schema.getObjectDdl(objectType, objectName);
+                            fingerprint = (ddl != null)
+                                    ? cachedNormalize(cache, ruleNormalizer, schema.getObjectDdlHash(objectType, objectName), ddl).fingerprint()
+                                    : null;
+                        } else {
+                            fingerprint = cachedFingerprint(cache, schema, baseNormalizer, objectType, objectName);
+                        }
+                        fingerprints.put(ObjectKey.of(objectType, objectName), (fingerprint != null) ? fingerprint : UNREADABLE_FINGERPRINT);
                     }
                 }
-            } else {
-                System.err.println("Warning: Invalid MultiKey structure in targetObjects for key: " + targetMultiKey);
+                return fingerprints;
             }
         }
-        return differences;
+    }
+
+    /**
+     * Ділить порівняння на частини за типом об'єкта: спершу об'єкти source (пошук REMOVED), потім об'єкти target (ADDED або MODIFIED).
+     * Імена впорядковуються, тому порядок відмінностей не залежить від того, як схему завантажено.
+     */
+    private List<ComparisonSlice> createSlices(ComparisonContext context) {
+        List<ComparisonSlice> slices = new ArrayList<>();
+        for (ObjectType objectType : context.sourceSchema.getObjectTypes()) {
+            String[] objectNames = context.sourceSchema.getObjectNames(objectType).toArray(new String[0]);
+            Arrays.sort(objectNames);
+            slices.add(new ComparisonSlice(context, objectType, objectNames, true, 0, objectNames.length));
+        }
+        for (ObjectType objectType : context.targetSchema.getObjectTypes()) {
+            String[] objectNames = context.targetSchema.getObjectNames(objectType).toArray(new String[0]);
+            Arrays.sort(objectNames);
+            slices.add(new ComparisonSlice(context, objectType, objectNames, false, 0, objectNames.length));
+        }
+        return slices;
+    }
+
+    /**
+     * Відбиток об'єкта ({@link Schema#getObjectFingerprint}): відомий схемі, з кешу нормалізації або обчислений.
+     */
+    private static String cachedFingerprint(NormalizationCache cache, Schema schema, OwnerNormalizer baseNormalizer, ObjectType objectType, String objectName) {
+        String fingerprint = schema.getKnownObjectFingerprint(objectType, objectName);
+        String ddlHash = (fingerprint == null && cache != null) ? schema.getObjectDdlHash(objectType, objectName) : null;
+        if (ddlHash == null) {
+            return (fingerprint != null) ? fingerprint : schema.getObjectFingerprint(objectType, objectName);
+        }
+        String key = NormalizationCache.key(ddlHash, baseNormalizer.owner(), baseNormalizer.ruleSetVersion());
+        NormalizationCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            schema.setObjectFingerprint(objectType, objectName, cached.fingerprint());
+            return cached.fingerprint();
+        }
+        long start = System.nanoTime();
+        fingerprint = schema.getObjectFingerprint(objectType, objectName);
+        if (fingerprint != null) {
+            cache.put(key, new NormalizationCache.Entry(fingerprint, 0, null), System.nanoTime() - start);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Нормалізує DDL (або бере результат з кешу нормалізації).
+     * @param cache Кеш нормалізації; null - нормалізувати без кешу.
+     * @param ddlHash Хеш ddl; null - обчислюється, якщо кеш встановлений.
+     */
+    private static NormalizationCache.Entry cachedNormalize(NormalizationCache cache, OwnerNormalizer ownerNormalizer, String ddlHash, String ddl) {
+        String key = null;
+        if (cache != null) {
+            key = NormalizationCache.key((ddlHash != null) ? ddlHash : DdlUtils.sha256Hex(ddl), ownerNormalizer.owner(), ownerNormalizer.ruleSetVersion());
+            NormalizationCache.Entry cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long start = System.nanoTime();
+        Set<DdlNormalizer.Option> appliedOptions = EnumSet.noneOf(DdlNormalizer.Option.class);
+        String normalized = ownerNormalizer.normalizer().normalize(ddl, appliedOptions);
+        int appliedBits = 0;
+        for (DdlNormalizer.Option option : appliedOptions) {
+            appliedBits |= 1 << option.ordinal();
+        }
+        NormalizationCache.Entry entry = new NormalizationCache.Entry(DdlUtils.sha256Hex(normalized), appliedBits, normalized);
+        if (cache != null) {
+            cache.put(key, entry, System.nanoTime() - start);
+        }
+        return entry;
+    }
+
+    /**
+     * Нормалізатор для власника схеми з версією набору правил, яка входить у ключ кешу нормалізації.
+     */
+    private record OwnerNormalizer(DdlNormalizer normalizer, String owner, String ruleSetVersion) {
+
+        private static OwnerNormalizer create(String owner, Set<DdlNormalizer.Option> options) {
+            int optionBits = 0;
+            for (DdlNormalizer.Option option : options) {
+                optionBits |= 1 << option.ordinal();
+            }
+            return new OwnerNormalizer(new DdlNormalizer(owner, options), owner,
+                    DdlUtils.COMPARISON_FINGERPRINT_VERSION + "." + optionBits);
+        }
+    }
+
+    /**
+     * Нормалізатори одного порівняння, скомпільовані один раз для власників source і target.
+     * Для кожного правила є також пара нормалізаторів без нього: за ними визначається, які правила справді приховали відмінність.
+     * Результати нормалізації беруться з кешу нормалізації, якщо він встановлений.
+     */
+    private static final class ComparisonContext {
+        private static final DdlNormalizer.Option[] OPTIONS = DdlNormalizer.Option.values();
+
+        private final Schema sourceSchema;
+        private final Schema targetSchema;
+        private final Set<ComparisonRule> rules;
+        private final NormalizationCache cache;
+        private final OwnerNormalizer sourceBaseNormalizer; // Лише префікси власника (відбиток об'єкта)
+        private final OwnerNormalizer targetBaseNormalizer;
+        private final OwnerNormalizer sourceNormalizer;
+        private final OwnerNormalizer targetNormalizer;
+        private final Map<DdlNormalizer.Option, OwnerNormalizer[]> withoutOption = new EnumMap<>(DdlNormalizer.Option.class);
+        private ProgressPublisher progress; // null - проміжні результати не публікуються
+        // Потік, що викликав порівняння: Task.cancel() перериває його, а не потоки ForkJoinPool
+        private final Thread callerThread = Thread.currentThread();
+
+        private ComparisonContext(Schema sourceSchema, Schema targetSchema, ComparisonOptions options, NormalizationCache cache) {
+            this.sourceSchema = sourceSchema;
+            this.targetSchema = targetSchema;
+            this.rules = options.getRules();
+            this.cache = cache;
+            Set<DdlNormalizer.Option> noOptions = EnumSet.noneOf(DdlNormalizer.Option.class);
+            this.sourceBaseNormalizer = OwnerNormalizer.create(sourceSchema.getName(), noOptions);
+            this.targetBaseNormalizer = OwnerNormalizer.create(targetSchema.getName(), noOptions);
+            Set<DdlNormalizer.Option> normalizerOptions = options.getNormalizerOptions();
+            this.sourceNormalizer = OwnerNormalizer.create(sourceSchema.getName(), normalizerOptions);
+            this.targetNormalizer = OwnerNormalizer.create(targetSchema.getName(), normalizerOptions);
+            for (DdlNormalizer.Option option : normalizerOptions) {
+                Set<DdlNormalizer.Option> reduced = EnumSet.copyOf(normalizerOptions);
+                reduced.remove(option);
+                withoutOption.put(option, new OwnerNormalizer[]{
+                        OwnerNormalizer.create(sourceSchema.getName(), reduced),
+                        OwnerNormalizer.create(targetSchema.getName(), reduced)
+                });
+            }
+        }
+
+        /**
+         * Перериває порівняння, якщо потік, що його викликав, перервано або підписник скасував підписку.
+         * Викликається і з потоків ForkJoinPool: join() у потоці, що викликав, на переривання не реагує.
+         */
+        private void checkCancelled() {
+            if (callerThread.isInterrupted() || (progress != null && progress.isCancelled())) {
+                throw new CancellationException("Comparison cancelled.");
+            }
+        }
+
+        private String fingerprint(Schema schema, OwnerNormalizer baseNormalizer, ObjectType objectType, String objectName) {
+            return cachedFingerprint(cache, schema, baseNormalizer, objectType, objectName);
+        }
+
+        private NormalizationCache.Entry normalize(OwnerNormalizer ownerNormalizer, String ddlHash, String ddl) {
+            return cachedNormalize(cache, ownerNormalizer, ddlHash, ddl);
+        }
+
+        /**
+         * Правила, без яких нормалізовані тексти вже не рівні. Якщо рівність забезпечують кілька правил разом
+         * (жодне окремо не обов'язкове), повертаються всі правила, що змінили текст.
+         * @param appliedBits Біти правил нормалізатора, що змінили хоча б один з текстів.
+         */
+        private Set<ComparisonRule> suppressingRules(String sourceDdlHash, String sourceDdl, String targetDdlHash, String targetDdl, int appliedBits) {
+            Set<ComparisonRule> suppressing = EnumSet.noneOf(ComparisonRule.class);
+            Set<ComparisonRule> applied = EnumSet.noneOf(ComparisonRule.class);
+            for (DdlNormalizer.Option option : OPTIONS) {
+                OwnerNormalizer[] normalizers = withoutOption.get(option);
+                if ((appliedBits & (1 << option.ordinal())) == 0 || normalizers == null) {
+                    continue;
+                }
+                applied.add(ComparisonRule.fromNormalizerOption(option));
+                String sourceFingerprint = normalize(normalizers[0], sourceDdlHash, sourceDdl).fingerprint();
+                if (!sourceFingerprint.equals(normalize(normalizers[1], targetDdlHash, targetDdl).fingerprint())) {
+                    suppressing.add(ComparisonRule.fromNormalizerOption(option));
+                }
+            }
+            if (suppressing.isEmpty()) {
+                suppressing.addAll(applied);
+            }
+            if (suppressing.isEmpty()) {
+                suppressing.addAll(rules); // Правило змінило текст так, що лічильник не спрацював (наприклад, лише регістр у префіксі)
+            }
+            return suppressing;
+        }
+    }
+
+    // Діапазон [from, to) впорядкованих імен одного типу; великий діапазон ділиться навпіл
+    private final class ComparisonSlice extends RecursiveTask<List<Difference>> {
+        private final ComparisonContext context;
+        private final ObjectType objectType;
+        private final String[] objectNames;
+        private final boolean sourceObjects; // true - імена з source (REMOVED), false - з target (ADDED/MODIFIED)
+        private final int from;
+        private final int to;
+
+        private ComparisonSlice(ComparisonContext context, ObjectType objectType, String[] objectNames,
+                                boolean sourceObjects, int from, int to) {
+            this.context = context;
+            this.objectType = objectType;
+            this.objectNames = objectNames;
+            this.sourceObjects = sourceObjects;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Difference> compute() {
+            if (to - from <= PARALLEL_SLICE_SIZE) {
+                List<Difference> differences = new ArrayList<>();
+                compareRange(from, to, differences);
+                return differences;
+            }
+            int middle = (from + to) >>> 1;
+            ComparisonSlice left = new ComparisonSlice(context, objectType, objectNames, sourceObjects, from, middle);
+            ComparisonSlice right = new ComparisonSlice(context, objectType, objectNames, sourceObjects, middle, to);
+            left.fork();
+            List<Difference> rightDifferences = right.compute();
+            List<Difference> differences = left.join();
+            differences.addAll(rightDifferences);
+            return differences;
+        }
+
+        private void compareRange(int rangeFrom, int rangeTo, List<Difference> differences) {
+            int stepFrom = rangeFrom;
+            while (stepFrom < rangeTo) {
+                context.checkCancelled();
+                int stepTo = Math.min(rangeTo, stepFrom + PROGRESS_STEP);
+                int foundFrom = differences.size();
+                for (int i = stepFrom; i < stepTo; i++) {
+                    if (sourceObjects) {
+                        compareSourceObject(context, objectType, objectNames[i], differences);
+                    } else {
+                        compareTargetObject(context, objectType, objectNames[i], differences);
+                    }
+                }
+                if (context.progress != null) {
+                    context.progress.publish(differences.subList(foundFrom, differences.size()), stepTo - stepFrom);
+                }
+                stepFrom = stepTo;
+            }
+        }
+    }
+
+    /**
+     * Публікація проміжних результатів одного порівняння.
+     * Лічильник оновлюється і частина передається видавцю під одним блокуванням, тому підписник бачить лічильник,
+     * що лише зростає, навіть коли діапазони порівнюються паралельно.
+     */
+    private static final class ProgressPublisher {
+        private final SubmissionPublisher<ComparisonProgress> publisher = new SubmissionPublisher<>();
+        private final int totalObjectCount;
+        private int comparedObjectCount;
+
+        private ProgressPublisher(Flow.Subscriber<? super ComparisonProgress> subscriber, int totalObjectCount) {
+            this.totalObjectCount = totalObjectCount;
+            publisher.subscribe(subscriber);
+        }
+
+        private void publish(List<Difference> found, int objectCount) {
+            List<Difference> significant = new ArrayList<>(found.size());
+            int suppressedCount = 0;
+            for (Difference difference : found) {
+                if (difference.isSuppressed()) {
+                    suppressedCount++;
+                } else {
+                    significant.add(difference);
+                }
+            }
+            synchronized (this) {
+                comparedObjectCount += objectCount;
+                // Блокує лише при заповненому буфері підписника
+                publisher.submit(new ComparisonProgress(significant, suppressedCount, comparedObjectCount, totalObjectCount));
+            }
+        }
+
+        /**
+         * Підписник скасував підписку (наприклад, закрито вікно результатів): продовжувати порівняння немає для кого.
+         */
+        private boolean isCancelled() {
+            return !publisher.hasSubscribers();
+        }
+
+        private void complete() {
+            publisher.close();
+        }
+
+        private void fail(Throwable error) {
+            publisher.closeExceptionally(error);
+        }
+    }
+
+    // Об'єкти, що є в source, але відсутні в target (REMOVED)
+    private void compareSourceObject(ComparisonContext context, ObjectType objectType, String objectName,
+                                     List<Difference> differences) {
+        Schema sourceSchema = context.sourceSchema;
+        if (!context.targetSchema.containsObject(objectType, objectName)) {
+            differences.add(new Difference(
+                    DifferenceType.REMOVED,
+                    objectType,
+                    objectName,
+                    sourceSchema.getName(),
+                    sourceSchema.getObjectDdl(objectType, objectName),
+                    null,
+                    "Object removed from target schema (Owner: " + sourceSchema.getName() + ")"
+            ));
+        }
+    }
+
+    // Об'єкти, що є в target (ADDED або MODIFIED)
+    private void compareTargetObject(ComparisonContext context, ObjectType objectType, String objectName,
+                                     List<Difference> differences) {
+        Schema sourceSchema = context.sourceSchema;
+        Schema targetSchema = context.targetSchema;
+        if (!sourceSchema.containsObject(objectType, objectName)) {
+            String originalTargetDdl = targetSchema.getObjectDdl(objectType, objectName);
+            // Об'єкт додано
+            differences.add(new Difference(
+                    DifferenceType.ADDED,
+                    objectType,
+                    objectName,
+                    targetSchema.getName(),
+                    null,
+                    originalTargetDdl,
+                    "Object added to target schema (Owner: " + targetSchema.getName() + ")"
+            ));
+        } else {
+            // Об'єкт існує в обох схемах, перевіряємо на зміни.
+            // Однаковий текст дає однаковий хеш (для знімків з директорії - з маніфесту, без читання файлів).
+            // Для схем з різними власниками однаковий текст після видалення префіксів може відрізнятися, тому лише для однакових імен
+            if (sourceSchema.getName() != null && sourceSchema.getName().equalsIgnoreCase(targetSchema.getName())) {
+                String sourceDdlHash = sourceSchema.getObjectDdlHash(objectType, objectName);
+                if (sourceDdlHash != null && sourceDdlHash.equals(targetSchema.getObjectDdlHash(objectType, objectName))) {
+                    return;
+                }
+            }
+            // Відбиток - хеш DDL без префіксів власника, тому його рівність рівнозначна рівності текстів без префіксів
+            String sourceFingerprint = context.fingerprint(sourceSchema, context.sourceBaseNormalizer, objectType, objectName);
+            String targetFingerprint = context.fingerprint(targetSchema, context.targetBaseNormalizer, objectType, objectName);
+            if (sourceFingerprint != null && sourceFingerprint.equals(targetFingerprint)) {
+                return;
+            }
+            String originalSourceDdl = sourceSchema.getObjectDdl(objectType, objectName);
+            String originalTargetDdl = targetSchema.getObjectDdl(objectType, objectName);
+            if (originalSourceDdl == null || originalTargetDdl == null) {
+                if (originalSourceDdl != null || originalTargetDdl != null) {
+                    differences.add(createModifiedDifference(sourceSchema, targetSchema, objectType, objectName, originalSourceDdl, originalTargetDdl, null));
+                }
+                return;
+            }
+            if (context.rules.isEmpty()) {
+                differences.add(createModifiedDifference(sourceSchema, targetSchema, objectType, objectName, originalSourceDdl, originalTargetDdl, null));
+                return;
+            }
+            // Тексти відрізняються: нормалізуємо з правилами порівняння
+            String sourceDdlHash = sourceSchema.getObjectDdlHash(objectType, objectName);
+            String targetDdlHash = targetSchema.getObjectDdlHash(objectType, objectName);
+            NormalizationCache.Entry normalizedSource = context.normalize(context.sourceNormalizer, sourceDdlHash, originalSourceDdl);
+            NormalizationCache.Entry normalizedTarget = context.normalize(context.targetNormalizer, targetDdlHash, originalTargetDdl);
+            Set<ComparisonRule> suppressedByRules = normalizedSource.fingerprint().equals(normalizedTarget.fingerprint())
+                    ? context.suppressingRules(sourceDdlHash, originalSourceDdl, targetDdlHash, originalTargetDdl,
+                    normalizedSource.appliedOptions() | normalizedTarget.appliedOptions())
+                    : null;
+            differences.add(createModifiedDifference(sourceSchema, targetSchema, objectType, objectName, originalSourceDdl, originalTargetDdl,
+                    suppressedByRules));
+        }
+    }
+
+    private Difference createModifiedDifference(Schema sourceSchema, Schema targetSchema, ObjectType objectType, String objectName,
+                                                String originalSourceDdl, String originalTargetDdl, Set<ComparisonRule> suppressedByRules) {
+        return new Difference(
+                DifferenceType.MODIFIED,
+                objectType,
+                objectName,
+                targetSchema.getName(),
+                originalSourceDdl, // Зберігаємо оригінальні DDL
+                originalTargetDdl,
+                "Object DDL has been modified (Compared owners: Source '" + sourceSchema.getName() + "', Target '" + targetSchema.getName() + "')",
+                suppressedByRules
+        );
     }
 }
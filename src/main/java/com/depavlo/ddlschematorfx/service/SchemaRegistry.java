@@ -0,0 +1,203 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потокобезпечний реєстр завантажених схем з індексами за ID, поточним і початковим ідентифікатором джерела та назвою.
+ * Усі індекси разом зі знімком для обходу зберігаються в одному незмінному об'єкті, який публікується через volatile-поле.
+ * Пошук за будь-яким індексом - O(1) без блокувань, і читач завжди бачить узгоджений стан: схему або до заміни, або після неї,
+ * але ніколи проміжний стан без жодної з них. Зміни виконуються під одним блокуванням і перебудовують індекси
+ * (O(кількість схем) - схем у програмі небагато, а змінюються вони рідко порівняно з пошуком).
+ * Знімок для обходу з інтерфейсу ({@link #snapshot()}) - незмінний список у порядку реєстрації.
+ * <p>
+ * Поточний ідентифікатор джерела унікальний: реєстрація схеми з тим самим джерелом замінює попередню.
+ * Початковий ідентифікатор і назва можуть повторюватися (кілька знімків однієї схеми), тому ці індекси зберігають списки.
+ * Значення індексів фіксуються під час реєстрації; зміну джерела зареєстрованої схеми слід виконувати через
+ * {@link #updateCurrentSourceIdentifier(Schema, String)}.
+ */
+final class SchemaRegistry {
+
+    // Значення ключів, під якими схему проіндексовано (поля схеми можуть змінитися після реєстрації)
+    private record Registration(Schema schema, String currentSourceIdentifier, String originalSourceIdentifier, String name) {
+    }
+
+    // Незмінний стан реєстру: реєстрації у порядку реєстрації та побудовані з них індекси
+    private static final class Index {
+        private static final Index EMPTY = new Index(new LinkedHashMap<>());
+
+        private final Map<String, Registration> byId;
+        private final Map<String, Schema> byCurrentSource;
+        private final Map<String, List<Schema>> byOriginalSource;
+        private final Map<String, List<Schema>> byName;
+        private final List<Schema> snapshot;
+
+        private Index(LinkedHashMap<String, Registration> registrations) {
+            Map<String, Schema> currentSources = new HashMap<>();
+            Map<String, List<Schema>> originalSources = new HashMap<>();
+            Map<String, List<Schema>> names = new HashMap<>();
+            List<Schema> schemas = new ArrayList<>(registrations.size());
+            for (Registration registration : registrations.values()) {
+                Schema schema = registration.schema();
+                schemas.add(schema);
+                if (registration.currentSourceIdentifier() != null) {
+                    currentSources.put(registration.currentSourceIdentifier(), schema);
+                }
+                if (registration.originalSourceIdentifier() != null) {
+                    originalSources.computeIfAbsent(registration.originalSourceIdentifier(), key -> new ArrayList<>(1)).add(schema);
+                }
+                if (registration.name() != null) {
+                    names.computeIfAbsent(registration.name(), key -> new ArrayList<>(1)).add(schema);
+                }
+            }
+            originalSources.replaceAll((key, list) -> Collections.unmodifiableList(list));
+            names.replaceAll((key, list) -> Collections.unmodifiableList(list));
+            this.byId = Collections.unmodifiableMap(registrations);
+            this.byCurrentSource = currentSources;
+            this.byOriginalSource = originalSources;
+            this.byName = names;
+            this.snapshot = Collections.unmodifiableList(schemas);
+        }
+
+        private LinkedHashMap<String, Registration> copyRegistrations() {
+            return new LinkedHashMap<>(byId);
+        }
+    }
+
+    private final Object writeLock = new Object();
+    private volatile Index index = Index.EMPTY;
+
+    /**
+     * Реєструє схему, атомарно замінюючи схему з тим самим ID або поточним джерелом.
+     * Повторна реєстрація тієї самої схеми лишає її на своєму місці у знімку; нова схема додається в кінець.
+     * @return Замінені схеми (без newSchema); порожній список, якщо заміни не було.
+     */
+    List<Schema> register(Schema schema) {
+        if (schema == null || schema.getId() == null) {
+            throw new IllegalArgumentException("Schema and its ID must not be null.");
+        }
+        String currentSource = normalizeKey(schema.getCurrentSourceIdentifier());
+        synchronized (writeLock) {
+            Index current = index;
+            LinkedHashMap<String, Registration> registrations = current.copyRegistrations();
+            List<Schema> replaced = new ArrayList<>(2);
+            Registration sameId = registrations.get(schema.getId());
+            if (sameId != null && sameId.schema() != schema) {
+                registrations.remove(schema.getId());
+                replaced.add(sameId.schema());
+            }
+            Schema sameSource = (currentSource != null) ? current.byCurrentSource.get(currentSource) : null;
+            if (sameSource != null && sameSource != schema) {
+                registrations.remove(sameSource.getId());
+                if (!replaced.contains(sameSource)) {
+                    replaced.add(sameSource);
+                }
+            }
+            registrations.put(schema.getId(), new Registration(schema, currentSource,
+                    normalizeKey(schema.getOriginalSourceIdentifier()), normalizeKey(schema.getName())));
+            index = new Index(registrations);
+            return replaced;
+        }
+    }
+
+    /**
+     * @return Видалена схема або null.
+     */
+    Schema remove(String schemaId) {
+        if (schemaId == null) {
+            return null;
+        }
+        synchronized (writeLock) {
+            LinkedHashMap<String, Registration> registrations = index.copyRegistrations();
+            Registration registration = registrations.remove(schemaId);
+            if (registration == null) {
+                return null;
+            }
+            index = new Index(registrations);
+            return registration.schema();
+        }
+    }
+
+    /**
+     * @return Усі видалені схеми.
+     */
+    List<Schema> clear() {
+        synchronized (writeLock) {
+            List<Schema> removed = index.snapshot;
+            index = Index.EMPTY;
+            return removed;
+        }
+    }
+
+    /**
+     * Змінює поточний ідентифікатор джерела зареєстрованої схеми і її запис в індексі.
+     * Якщо джерело вже належить іншій схемі, та лишається в реєстрі, але більше не знаходиться за цим джерелом.
+     * @return Схема, що втратила джерело, або null.
+     */
+    Schema updateCurrentSourceIdentifier(Schema schema, String currentSourceIdentifier) {
+        String currentSource = normalizeKey(currentSourceIdentifier);
+        synchronized (writeLock) {
+            schema.setCurrentSourceIdentifier(currentSourceIdentifier);
+            Index current = index;
+            Registration registration = current.byId.get(schema.getId());
+            if (registration == null || registration.schema() != schema) {
+                return null; // Не зареєстрована: змінюється лише поле схеми
+            }
+            LinkedHashMap<String, Registration> registrations = current.copyRegistrations();
+            Schema displaced = (currentSource != null) ? current.byCurrentSource.get(currentSource) : null;
+            if (displaced == schema) {
+                displaced = null;
+            }
+            if (displaced != null) {
+                Registration displacedRegistration = registrations.get(displaced.getId());
+                registrations.put(displaced.getId(), new Registration(displaced, null,
+                        displacedRegistration.originalSourceIdentifier(), displacedRegistration.name()));
+            }
+            registrations.put(schema.getId(), new Registration(schema, currentSource, registration.originalSourceIdentifier(), registration.name()));
+            index = new Index(registrations);
+            return displaced;
+        }
+    }
+
+    Schema get(String schemaId) {
+        Registration registration = (schemaId != null) ? index.byId.get(schemaId) : null;
+        return (registration != null) ? registration.schema() : null;
+    }
+
+    Schema findByCurrentSourceIdentifier(String currentSourceIdentifier) {
+        String key = normalizeKey(currentSourceIdentifier);
+        return (key != null) ? index.byCurrentSource.get(key) : null;
+    }
+
+    List<Schema> findByOriginalSourceIdentifier(String originalSourceIdentifier) {
+        String key = normalizeKey(originalSourceIdentifier);
+        return (key != null) ? index.byOriginalSource.getOrDefault(key, List.of()) : List.of();
+    }
+
+    List<Schema> findByName(String name) {
+        String key = normalizeKey(name);
+        return (key != null) ? index.byName.getOrDefault(key, List.of()) : List.of();
+    }
+
+    /**
+     * @return Незмінний список зареєстрованих схем у порядку реєстрації.
+     */
+    List<Schema> snapshot() {
+        return index.snapshot;
+    }
+
+    int size() {
+        return index.snapshot.size();
+    }
+
+    // Порожні ідентифікатори не індексуються
+    private static String normalizeKey(String key) {
+        return (key != null && !key.trim().isEmpty()) ? key : null;
+    }
+}
@@ -1,23 +1,25 @@
 package com.depavlo.ddlschematorfx.service;
 
 import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.DdlContentPool;
+import com.depavlo.ddlschematorfx.model.LazyDdlFile;
+import com.depavlo.ddlschematorfx.model.MetadataTransformProfile;
+import com.depavlo.ddlschematorfx.model.ObjectFilter;
+import com.depavlo.ddlschematorfx.model.ObjectKey;
 import com.depavlo.ddlschematorfx.model.ObjectType;
 import com.depavlo.ddlschematorfx.model.Schema;
-import org.apache.commons.collections4.map.MultiKeyMap;
-import org.apache.commons.collections4.keyvalue.MultiKey;
+import com.depavlo.ddlschematorfx.model.SchemaObjectStore;
+import com.depavlo.ddlschematorfx.persistence.DdlSpillStore;
+import com.depavlo.ddlschematorfx.persistence.SchemaDirectoryFormat;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -26,21 +28,27 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.stream.Stream;
 
 public class SchemaService {
 
-    private final Map<String, Schema> loadedSchemas = new HashMap<>();
-    private static final String META_PROPERTIES_FILE = "meta.properties";
-    private static final String KEY_SCHEMA_NAME = "schemaName";
-    private static final String KEY_EXTRACTION_TIMESTAMP = "extractionTimestamp";
-    private static final String KEY_ORIGINAL_CONN_NAME = "originalConnectionName";
-    private static final String KEY_CURRENT_SOURCE_ID = "currentSourceIdentifier";
-    private static final String KEY_ORIGINAL_SOURCE_ID = "originalSourceIdentifier";
+    // Частка максимального розміру купи під тексти DDL за замовчуванням
+    private static final int DEFAULT_MEMORY_BUDGET_PERCENT = 25;
 
+    /**
+     * Пам'ять, яку займають DDL схеми.
+     * @param inMemoryBytes Оцінка пам'яті під тексти в пулі (спільні з іншими схемами тексти враховуються повністю).
+     * @param fileBackedObjectCount Об'єкти, DDL яких читаються з файлів (знімок директорії або вивантаження).
+     */
+    public record SchemaMemoryFootprint(String schemaId, String schemaName, int inMemoryObjectCount,
+                                        int fileBackedObjectCount, long inMemoryBytes, long lastAccessMillis) {
+    }
+
+    private final SchemaRegistry loadedSchemas = new SchemaRegistry();
+    private final DdlSpillStore spillStore = DdlSpillStore.shared();
+    private long memoryBudgetBytes = Runtime.getRuntime().maxMemory() / 100 * DEFAULT_MEMORY_BUDGET_PERCENT;
 
     public void addSchema(Schema newSchema) {
         if (newSchema == null || newSchema.getId() == null) {
@@ -49,44 +57,163 @@ public class SchemaService {
         }
 
         String currentSourceId = newSchema.getCurrentSourceIdentifier();
-
-        if (currentSourceId != null && !currentSourceId.trim().isEmpty()) {
-            Optional<Schema> existingSchemaOpt = loadedSchemas.values().stream()
-                    .filter(s -> currentSourceId.equals(s.getCurrentSourceIdentifier()))
-                    .findFirst();
-
-            if (existingSchemaOpt.isPresent()) {
-                Schema oldSchema = existingSchemaOpt.get();
-                loadedSchemas.remove(oldSchema.getId());
-                System.out.println("Оновлено схему для джерела: " + currentSourceId + ". Старий ID: " + oldSchema.getId() + ", Новий ID: " + newSchema.getId());
-            }
-        } else {
+        if (currentSourceId == null || currentSourceId.trim().isEmpty()) {
             System.out.println("Увага: Схема '" + newSchema.getName() + "' (ID: " + newSchema.getId() + ") додається без currentSourceIdentifier. Неможливо відстежити дублікати за джерелом.");
         }
 
-        loadedSchemas.put(newSchema.getId(), newSchema);
+        newSchema.markAccessed();
+        // Заміна схеми з тим самим джерелом атомарна: інші потоки бачать або стару, або нову схему.
+        // Замінена схема не звільняється: її ще можуть читати порівняння чи відкриті вікна результатів;
+        // посилання на DDL у пулі знімаються, коли вона стане недосяжною (Cleaner у Schema)
+        for (Schema oldSchema : loadedSchemas.register(newSchema)) {
+            System.out.println("Оновлено схему для джерела: " + currentSourceId + ". Старий ID: " + oldSchema.getId() + ", Новий ID: " + newSchema.getId());
+        }
         System.out.println("Схему '" + newSchema.getName() + "' (ID: " + newSchema.getId() + ", CurrentSourceID: " + (currentSourceId != null ? currentSourceId : "N/A") + ") додано/оновлено у сховищі.");
+        enforceMemoryBudget(newSchema);
+        System.out.println(DdlContentPool.shared().describe());
     }
 
     public Schema getSchema(String schemaId) {
         return loadedSchemas.get(schemaId);
     }
 
+    /**
+     * Змінює поточний ідентифікатор джерела схеми (наприклад, після збереження в директорію) разом з індексом сховища.
+     */
+    public void updateCurrentSourceIdentifier(Schema schema, String currentSourceIdentifier) {
+        Schema displaced = loadedSchemas.updateCurrentSourceIdentifier(schema, currentSourceIdentifier);
+        if (displaced != null) {
+            System.out.println("Увага: джерело " + currentSourceIdentifier + " тепер належить схемі '" + schema.getName()
+                    + "' (ID: " + schema.getId() + "); схема з ID " + displaced.getId() + " лишається у сховищі без пошуку за джерелом.");
+        }
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Встановлює межу пам'яті під тексти DDL у спільному пулі; за її перевищення DDL схем, до яких
+     * найдовше не зверталися, вивантажуються у тимчасові файли.
+     */
+    public void setMemoryBudgetBytes(long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive, got: " + memoryBudgetBytes);
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        enforceMemoryBudget(null);
+    }
+
+    /**
+     * Вивантажує DDL найдавніше використаних схем у тимчасові файли, поки пул перевищує бюджет.
+     * Вивантажені DDL читаються з файлів при зверненні (через {@link com.depavlo.ddlschematorfx.model.DdlFileCache}),
+     * тому для решти програми схема не змінюється.
+     * @param protectedSchema Схема, яку не вивантажуємо (щойно додана); може бути null.
+     */
+    private synchronized void enforceMemoryBudget(Schema protectedSchema) {
+        DdlContentPool pool = DdlContentPool.shared();
+        if (pool.getStoredBytes() <= memoryBudgetBytes) {
+            return;
+        }
+        List<Schema> candidates = new ArrayList<>(loadedSchemas.snapshot());
+        candidates.sort(Comparator.comparingLong(Schema::getLastAccessMillis));
+        for (Schema schema : candidates) {
+            if (pool.getStoredBytes() <= memoryBudgetBytes) {
+                break;
+            }
+            if (schema == protectedSchema || schema.getInMemoryObjectCount() == 0) {
+                continue;
+            }
+            if (schema.isInUse()) {
+                // Її сховища DDL зараз читають фонові операції (порівняння, збереження)
+                System.out.println("Схема '" + schema.getName() + "' використовується і не вивантажується.");
+                continue;
+            }
+            try {
+                int spilledCount = schema.spillDdl(spillStore::write);
+                if (spilledCount == 0) {
+                    continue; // Оренду взято між перевіркою і вивантаженням
+                }
+                System.out.println("Бюджет пам'яті DDL (" + (memoryBudgetBytes / 1024) + " КБ) перевищено: DDL " + spilledCount
+                        + " об'єктів схеми '" + schema.getName() + "' вивантажено на диск.");
+            } catch (IOException e) {
+                System.err.println("Не вдалося вивантажити DDL схеми '" + schema.getName() + "': " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Пам'ять під DDL кожної завантаженої схеми, від найнещодавніше використаної.
+     */
+    public List<SchemaMemoryFootprint> getSchemaMemoryFootprints() {
+        List<SchemaMemoryFootprint> footprints = new ArrayList<>();
+        for (Schema schema : loadedSchemas.snapshot()) {
+            footprints.add(new SchemaMemoryFootprint(schema.getId(), schema.getName(), schema.getInMemoryObjectCount(),
+                    schema.getLazyObjectCount(), schema.getInMemoryDdlBytes(), schema.getLastAccessMillis()));
+        }
+        footprints.sort(Comparator.comparingLong(SchemaMemoryFootprint::lastAccessMillis).reversed());
+        return footprints;
+    }
+
+    public String describeMemoryUsage() {
+        StringBuilder description = new StringBuilder();
+        description.append(DdlContentPool.shared().describe())
+                .append("\nБюджет пам'яті DDL: ").append(memoryBudgetBytes / 1024).append(" КБ");
+        for (SchemaMemoryFootprint footprint : getSchemaMemoryFootprints()) {
+            description.append("\n").append(footprint.schemaName()).append(": ")
+                    .append(footprint.inMemoryObjectCount()).append(" DDL у пам'яті (~").append(footprint.inMemoryBytes() / 1024).append(" КБ), ")
+                    .append(footprint.fileBackedObjectCount()).append(" у файлах");
+        }
+        return description.toString();
+    }
+
+    /**
+     * Шукає схему за поточним ідентифікатором джерела (DB::connId::schemaName або DIR::path).
+     * @return Знайдена схема або null.
+     */
+    public Schema findSchemaByCurrentSourceIdentifier(String currentSourceIdentifier) {
+        return loadedSchemas.findByCurrentSourceIdentifier(currentSourceIdentifier);
+    }
+
+    /**
+     * @return Схеми, отримані з того самого початкового джерела (DB-схема та її знімки), у порядку додавання.
+     */
+    public List<Schema> findSchemasByOriginalSourceIdentifier(String originalSourceIdentifier) {
+        return loadedSchemas.findByOriginalSourceIdentifier(originalSourceIdentifier);
+    }
+
+    /**
+     * @return Схеми з вказаною назвою (власником) з різних джерел, у порядку додавання.
+     */
+    public List<Schema> findSchemasByName(String schemaName) {
+        return loadedSchemas.findByName(schemaName);
+    }
+
+    /**
+     * Видаляє схему зі сховища. Посилання схеми на DDL у спільному пулі знімаються, коли вона стане недосяжною,
+     * тож фонові операції, що ще працюють з нею, бачать її повністю.
+     * @return Видалена схема або null.
+     */
     public Schema removeSchema(String schemaId) {
         return loadedSchemas.remove(schemaId);
     }
 
+    /**
+     * @return Незмінний знімок завантажених схем у порядку додавання; безпечний для обходу під час змін сховища.
+     */
     public List<Schema> getAllSchemas() {
-        return new ArrayList<>(loadedSchemas.values());
+        return loadedSchemas.snapshot();
     }
 
     public void clearSchemas() {
-        loadedSchemas.clear();
+        loadedSchemas.clear(); // DDL схем звільняються, коли вони стануть недосяжними (див. removeSchema)
         System.out.println("Сховище схем очищено.");
     }
 
     public void clearDirectory(Path directoryPath) throws IOException {
         if (Files.exists(directoryPath) && Files.isDirectory(directoryPath)) {
+            detachSchemasFromDirectory(directoryPath, null);
             System.out.println("Очищення директорії: " + directoryPath);
             try (Stream<Path> walk = Files.walk(directoryPath)) {
                 walk.sorted(Comparator.reverseOrder())
@@ -106,21 +233,39 @@ public class SchemaService {
         }
     }
 
+    /**
+     * Перед перезаписом або очищенням директорії читає в пам'ять DDL схем, що ще посилаються на її файли.
+     * @param schemaToSave Схема, яка зберігається (може бути не зареєстрована у сховищі); null - лише зареєстровані.
+     */
+    private void detachSchemasFromDirectory(Path directoryPath, Schema schemaToSave) throws IOException {
+        List<Schema> schemas = new ArrayList<>(loadedSchemas.snapshot());
+        if (schemaToSave != null && !schemas.contains(schemaToSave)) {
+            schemas.add(schemaToSave);
+        }
+        for (Schema schema : schemas) {
+            if (schema.isBackedByDirectory(directoryPath)) {
+                System.out.println("Схема '" + schema.getName() + "' посилається на файли " + directoryPath + ": читання " + schema.getLazyObjectCount() + " DDL у пам'ять.");
+                schema.materializeLazyDdl(directoryPath);
+            }
+        }
+    }
+
     public void saveSchemaToFile(Schema schema, Path baseDirectoryPath, String schemaDirectoryName) throws IOException {
         if (schema == null || baseDirectoryPath == null || schemaDirectoryName == null || schemaDirectoryName.trim().isEmpty()) {
             throw new IllegalArgumentException("Schema, base directory path, and schema directory name must be provided and not empty.");
         }
 
         Path schemaDirectory = baseDirectoryPath.resolve(schemaDirectoryName);
+        detachSchemasFromDirectory(schemaDirectory, schema);
         Files.createDirectories(schemaDirectory);
         System.out.println("Використання/створення директорії для схеми: " + schemaDirectory.toAbsolutePath());
 
         Properties metaProps = new Properties();
-        metaProps.setProperty(KEY_SCHEMA_NAME, schema.getName());
-        metaProps.setProperty(KEY_EXTRACTION_TIMESTAMP, schema.getExtractionTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        metaProps.setProperty(SchemaDirectoryFormat.KEY_SCHEMA_NAME, schema.getName());
+        metaProps.setProperty(SchemaDirectoryFormat.KEY_EXTRACTION_TIMESTAMP, schema.getExtractionTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
 
         if (schema.getSourceConnection() != null && schema.getSourceConnection().getName() != null) {
-            metaProps.setProperty(KEY_ORIGINAL_CONN_NAME, schema.getSourceConnection().getName());
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_CONN_NAME, schema.getSourceConnection().getName());
         } else {
             // Якщо sourceConnection немає (наприклад, схема була завантажена з файлів),
             // можна спробувати взяти originalConnectionName з originalSourceIdentifier, якщо він є і це DB-схема
@@ -130,102 +275,126 @@ public class SchemaService {
                 if (parts.length > 1) { // parts[1] - це connectionId, нам потрібна назва, яку ми не зберігаємо напряму в sourceId
                     // На жаль, назву з'єднання ми не зберігаємо в originalSourceIdentifier напряму.
                     // Тому тут буде N/A або можна залишити як було.
-                    metaProps.setProperty(KEY_ORIGINAL_CONN_NAME, "N/A_FROM_ORIGINAL_FILE_LOAD");
+                    metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_CONN_NAME, "N/A_FROM_ORIGINAL_FILE_LOAD");
                 } else {
-                    metaProps.setProperty(KEY_ORIGINAL_CONN_NAME, "N/A_OR_FROM_FILE");
+                    metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_CONN_NAME, "N/A_OR_FROM_FILE");
                 }
             } else {
-                metaProps.setProperty(KEY_ORIGINAL_CONN_NAME, "N/A_OR_FROM_FILE");
+                metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_CONN_NAME, "N/A_OR_FROM_FILE");
             }
         }
 
         // KEY_CURRENT_SOURCE_ID завжди відображає поточне місце збереження
         String currentSavePathIdentifier = "DIR::" + schemaDirectory.toAbsolutePath().toString();
-        metaProps.setProperty(KEY_CURRENT_SOURCE_ID, currentSavePathIdentifier);
+        metaProps.setProperty(SchemaDirectoryFormat.KEY_CURRENT_SOURCE_ID, currentSavePathIdentifier);
 
         if (schema.getOriginalSourceIdentifier() != null) {
-            metaProps.setProperty(KEY_ORIGINAL_SOURCE_ID, schema.getOriginalSourceIdentifier());
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_SOURCE_ID, schema.getOriginalSourceIdentifier());
         } else {
             // Якщо originalSourceIdentifier не було, то поточне місце стає і оригінальним
-            metaProps.setProperty(KEY_ORIGINAL_SOURCE_ID, currentSavePathIdentifier);
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_ORIGINAL_SOURCE_ID, currentSavePathIdentifier);
         }
 
 
-        Path metaFilePath = schemaDirectory.resolve(META_PROPERTIES_FILE);
-        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(metaFilePath.toFile()), StandardCharsets.UTF_8)) {
-            metaProps.store(writer, "Schema Metadata");
-            System.out.println("Збережено " + META_PROPERTIES_FILE + " у " + metaFilePath.toAbsolutePath());
+        if (schema.getTransformProfile() != null) {
+            metaProps.setProperty(SchemaDirectoryFormat.KEY_TRANSFORM_PROFILE, schema.getTransformProfile().getProfileName());
         }
 
-        if (schema.getObjectDdls() != null) {
-            for (Map.Entry<MultiKey<?>, String> entry : schema.getObjectDdls().entrySet()) {
-                MultiKey<?> multiKey = entry.getKey();
-                String ddl = entry.getValue();
-
-                if (ddl == null || ddl.trim().isEmpty()) continue;
-
-                if (multiKey.size() == 2 && multiKey.getKey(0) instanceof ObjectType && multiKey.getKey(1) instanceof String) {
-                    ObjectType objectType = (ObjectType) multiKey.getKey(0);
-                    String objectName = (String) multiKey.getKey(1);
+        Path metaFilePath = schemaDirectory.resolve(SchemaDirectoryFormat.META_PROPERTIES_FILE);
+        SchemaDirectoryFormat.storeProperties(metaFilePath, metaProps, "Schema Metadata");
+        System.out.println("Збережено " + SchemaDirectoryFormat.META_PROPERTIES_FILE + " у " + metaFilePath.toAbsolutePath());
 
-                    Path objectTypeDirectory = schemaDirectory.resolve(objectType.name());
-                    Files.createDirectories(objectTypeDirectory);
-                    String cleanObjectName = objectName.replaceAll("[^a-zA-Z0-9_.-]", "_");
-                    Path ddlFilePath = objectTypeDirectory.resolve(cleanObjectName + ".sql");
-
-                    try (BufferedWriter writer = Files.newBufferedWriter(ddlFilePath, StandardCharsets.UTF_8)) {
-                        writer.write(ddl);
-                    } catch (IOException e) {
-                        System.err.println("Помилка при збереженні DDL для " + objectType.name() + "/" + objectName + ": " + e.getMessage());
+        Properties objectsManifest = new Properties();
+        try (Schema.ReadLease lease = schema.acquireReadLease()) {
+            schema.forEachObjectDdl((objectType, objectName, ddl) -> {
+                if (ddl == null || ddl.trim().isEmpty()) {
+                    return;
+                }
+                try {
+                    SchemaDirectoryFormat.writeDdlFile(schemaDirectory, objectType, objectName, ddl);
+                    LocalDateTime lastDdlTime = schema.getObjectLastDdlTime(objectType, objectName);
+                    if (lastDdlTime != null) {
+                        objectsManifest.setProperty(SchemaDirectoryFormat.manifestKey(objectType, objectName) + SchemaDirectoryFormat.MANIFEST_SUFFIX_LAST_DDL_TIME,
+                                lastDdlTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
                     }
-                } else {
-                    System.err.println("Некоректний формат MultiKey при збереженні: " + multiKey);
+                    objectsManifest.setProperty(SchemaDirectoryFormat.manifestKey(objectType, objectName) + SchemaDirectoryFormat.MANIFEST_SUFFIX_DDL_HASH,
+                            schema.getObjectDdlHash(objectType, objectName));
+                    objectsManifest.setProperty(SchemaDirectoryFormat.manifestKey(objectType, objectName) + SchemaDirectoryFormat.MANIFEST_SUFFIX_FINGERPRINT,
+                            schema.getObjectFingerprint(objectType, objectName));
+                } catch (IOException e) {
+                    System.err.println("Помилка при збереженні DDL для " + objectType.name() + "/" + objectName + ": " + e.getMessage());
                 }
-            }
+            });
+        }
+        schema.getObjectsWithoutDdl().forEach((objectType, objectName, lastDdlTime) ->
+                objectsManifest.setProperty(SchemaDirectoryFormat.manifestKey(objectType, objectName) + SchemaDirectoryFormat.MANIFEST_SUFFIX_WITHOUT_DDL_LAST_DDL_TIME,
+                        lastDdlTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+        if (!objectsManifest.isEmpty()) {
+            objectsManifest.setProperty(SchemaDirectoryFormat.MANIFEST_KEY_FINGERPRINT_VERSION, String.valueOf(DdlUtils.COMPARISON_FINGERPRINT_VERSION));
+            Path manifestPath = schemaDirectory.resolve(SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE);
+            SchemaDirectoryFormat.storeProperties(manifestPath, objectsManifest, "Schema Objects Manifest");
         }
         System.out.println("Збереження схеми '" + schema.getName() + "' у директорію '" + schemaDirectoryName + "' завершено.");
     }
 
     public Schema loadSchemaFromDirectory(Path schemaDirectoryPath) throws IOException {
+        return loadSchemaFromDirectory(schemaDirectoryPath, ObjectFilter.acceptAll());
+    }
+
+    /**
+     * Завантажує знімок схеми з директорії, пропускаючи об'єкти, що не проходять фільтр.
+     * Файли відкинутих об'єктів не читаються. Застосовуються ті самі правила, що й при витягненні з БД.
+     * @param objectFilter Фільтр об'єктів; null - завантажуються всі об'єкти.
+     */
+    public Schema loadSchemaFromDirectory(Path schemaDirectoryPath, ObjectFilter objectFilter) throws IOException {
+        ObjectFilter effectiveFilter = (objectFilter != null) ? objectFilter : ObjectFilter.acceptAll();
         if (schemaDirectoryPath == null || !Files.isDirectory(schemaDirectoryPath)) {
             throw new IllegalArgumentException("Необхідно вказати дійсну директорію схеми.");
         }
 
-        Path metaFilePath = schemaDirectoryPath.resolve(META_PROPERTIES_FILE);
+        Path metaFilePath = schemaDirectoryPath.resolve(SchemaDirectoryFormat.META_PROPERTIES_FILE);
         if (!Files.exists(metaFilePath)) {
-            throw new IOException(META_PROPERTIES_FILE + " не знайдено у директорії: " + schemaDirectoryPath);
+            throw new IOException(SchemaDirectoryFormat.META_PROPERTIES_FILE + " не знайдено у директорії: " + schemaDirectoryPath);
         }
 
-        Properties metaProps = new Properties();
-        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(metaFilePath.toFile()), StandardCharsets.UTF_8)) {
-            metaProps.load(reader);
-        }
+        Properties metaProps = SchemaDirectoryFormat.loadProperties(metaFilePath);
 
-        String schemaNameFromFile = metaProps.getProperty(KEY_SCHEMA_NAME);
-        String timestampString = metaProps.getProperty(KEY_EXTRACTION_TIMESTAMP);
-        String originalSourceIdFromFile = metaProps.getProperty(KEY_ORIGINAL_SOURCE_ID);
+        String schemaNameFromFile = metaProps.getProperty(SchemaDirectoryFormat.KEY_SCHEMA_NAME);
+        String timestampString = metaProps.getProperty(SchemaDirectoryFormat.KEY_EXTRACTION_TIMESTAMP);
+        String originalSourceIdFromFile = metaProps.getProperty(SchemaDirectoryFormat.KEY_ORIGINAL_SOURCE_ID);
         // currentSourceIdentifier з meta.properties тепер може бути корисним для originalSourceIdentifier,
         // але для самого завантаженого об'єкта currentSourceIdentifier буде DIR::шлях
-        // String currentSourceIdFromMeta = metaProps.getProperty(KEY_CURRENT_SOURCE_ID);
+        // String currentSourceIdFromMeta = metaProps.getProperty(SchemaDirectoryFormat.KEY_CURRENT_SOURCE_ID);
 
 
         if (schemaNameFromFile == null || schemaNameFromFile.trim().isEmpty()) {
-            throw new IOException("Властивість '" + KEY_SCHEMA_NAME + "' не знайдена або порожня у " + META_PROPERTIES_FILE);
+            throw new IOException("Властивість '" + SchemaDirectoryFormat.KEY_SCHEMA_NAME + "' не знайдена або порожня у " + SchemaDirectoryFormat.META_PROPERTIES_FILE);
         }
         if (timestampString == null || timestampString.trim().isEmpty()) {
-            throw new IOException("Властивість '" + KEY_EXTRACTION_TIMESTAMP + "' не знайдена або порожня у " + META_PROPERTIES_FILE);
+            throw new IOException("Властивість '" + SchemaDirectoryFormat.KEY_EXTRACTION_TIMESTAMP + "' не знайдена або порожня у " + SchemaDirectoryFormat.META_PROPERTIES_FILE);
         }
 
         LocalDateTime extractionTimestampFromFile;
         try {
             extractionTimestampFromFile = LocalDateTime.parse(timestampString, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         } catch (DateTimeParseException e) {
-            throw new IOException("Некоректний формат часу у " + META_PROPERTIES_FILE + " для властивості '" + KEY_EXTRACTION_TIMESTAMP + "'. Очікується ISO_LOCAL_DATE_TIME.", e);
+            throw new IOException("Некоректний формат часу у " + SchemaDirectoryFormat.META_PROPERTIES_FILE + " для властивості '" + SchemaDirectoryFormat.KEY_EXTRACTION_TIMESTAMP + "'. Очікується ISO_LOCAL_DATE_TIME.", e);
         }
 
-        MultiKeyMap<Object, String> objectDdls = new MultiKeyMap<>();
         System.out.println("Завантаження схеми '" + schemaNameFromFile + "' з директорії: " + schemaDirectoryPath);
-
+        Properties objectsManifest = loadObjectsManifest(schemaDirectoryPath);
+        Map<ObjectKey, String> manifestDdlHashes = loadManifestEntries(objectsManifest, SchemaDirectoryFormat.MANIFEST_SUFFIX_DDL_HASH);
+        // Відбитки, обчислені іншою версією нормалізації, відкидаються
+        boolean fingerprintsCurrent = String.valueOf(DdlUtils.COMPARISON_FINGERPRINT_VERSION)
+                .equals(objectsManifest.getProperty(SchemaDirectoryFormat.MANIFEST_KEY_FINGERPRINT_VERSION));
+        Map<ObjectKey, String> manifestFingerprints = fingerprintsCurrent
+                ? loadManifestEntries(objectsManifest, SchemaDirectoryFormat.MANIFEST_SUFFIX_FINGERPRINT) : Map.of();
+        // Маніфест записується після всіх файлів DDL, тому хеш з нього достовірний лише для файлів, не змінених після маніфесту
+        Path manifestPath = schemaDirectoryPath.resolve(SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE);
+        long snapshotWrittenMillis = Files.exists(manifestPath) ? Files.getLastModifiedTime(manifestPath).toMillis() : Long.MIN_VALUE;
+
+        // Файли лише індексуються (ім'я, розмір, час зміни); вміст читається при першому зверненні до DDL
+        SchemaObjectStore<LazyDdlFile> ddlFileIndex = new SchemaObjectStore<>();
         try (Stream<Path> objectTypeDirs = Files.list(schemaDirectoryPath)) {
             objectTypeDirs.filter(Files::isDirectory).forEach(objectTypeDir -> {
                 String objectTypeString = objectTypeDir.getFileName().toString();
@@ -235,17 +404,30 @@ public class SchemaService {
                 } catch (IllegalArgumentException e) {
                     return;
                 }
+                if (!effectiveFilter.acceptsType(currentObjectType)) {
+                    return;
+                }
 
                 try (Stream<Path> ddlFiles = Files.list(objectTypeDir)) {
-                    ddlFiles.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".sql"))
+                    ddlFiles.filter(file -> file.toString().endsWith(SchemaDirectoryFormat.DDL_FILE_EXTENSION))
                             .forEach(ddlFile -> {
                                 String fileName = ddlFile.getFileName().toString();
-                                String objectName = fileName.substring(0, fileName.length() - 4);
+                                String objectName = fileName.substring(0, fileName.length() - SchemaDirectoryFormat.DDL_FILE_EXTENSION.length());
+                                if (!effectiveFilter.accepts(currentObjectType, objectName)) {
+                                    return;
+                                }
                                 try {
-                                    String ddlContent = Files.readString(ddlFile, StandardCharsets.UTF_8);
-                                    objectDdls.put(currentObjectType, objectName, ddlContent);
+                                    BasicFileAttributes attributes = Files.readAttributes(ddlFile, BasicFileAttributes.class);
+                                    if (!attributes.isRegularFile()) {
+                                        return;
+                                    }
+                                    long lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+                                    String ddlHash = (lastModifiedMillis <= snapshotWrittenMillis)
+                                            ? manifestDdlHashes.get(ObjectKey.of(currentObjectType, objectName)) : null;
+                                    ddlFileIndex.put(currentObjectType, objectName,
+                                            new LazyDdlFile(ddlFile, attributes.size(), lastModifiedMillis, ddlHash));
                                 } catch (IOException ex) {
-                                    System.err.println("Помилка читання файлу DDL " + ddlFile.toAbsolutePath() + ": " + ex.getMessage());
+                                    System.err.println("Помилка читання атрибутів файлу DDL " + ddlFile.toAbsolutePath() + ": " + ex.getMessage());
                                 }
                             });
                 } catch (IOException ex) {
@@ -254,12 +436,84 @@ public class SchemaService {
             });
         }
 
+        Map<ObjectKey, String> lastDdlTimes = loadManifestEntries(objectsManifest, SchemaDirectoryFormat.MANIFEST_SUFFIX_LAST_DDL_TIME);
+
         String schemaId = UUID.randomUUID().toString();
         String currentSourceIdentifierForThisLoad = "DIR::" + schemaDirectoryPath.toAbsolutePath().toString();
 
         // Якщо originalSourceIdFromFile відсутній у meta.properties, то currentSourceIdentifierForThisLoad стає і оригінальним
         String finalOriginalSourceId = (originalSourceIdFromFile != null && !originalSourceIdFromFile.trim().isEmpty()) ? originalSourceIdFromFile : currentSourceIdentifierForThisLoad;
 
-        return new Schema(schemaId, schemaNameFromFile, objectDdls, extractionTimestampFromFile, null, currentSourceIdentifierForThisLoad, finalOriginalSourceId);
+        Schema schema = new Schema(schemaId, schemaNameFromFile, null, extractionTimestampFromFile, null, currentSourceIdentifierForThisLoad, finalOriginalSourceId);
+        schema.attachLazyDdlFiles(ddlFileIndex);
+        // Відбиток з маніфесту, як і хеш, достовірний лише для файлів, не змінених після запису маніфесту
+        ddlFileIndex.forEach((objectType, objectName, ddlFile) -> {
+            if (ddlFile.ddlHash() != null) {
+                schema.setObjectFingerprint(objectType, objectName, manifestFingerprints.get(ObjectKey.of(objectType, objectName)));
+            }
+        });
+        lastDdlTimes.forEach((key, lastDdlTime) -> {
+            if (ddlFileIndex.containsKey(key)) {
+                try {
+                    schema.getObjectLastDdlTimes().put(key, LocalDateTime.parse(lastDdlTime, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                } catch (DateTimeParseException e) {
+                    System.err.println("Некоректний LAST_DDL_TIME у " + SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE + " для " + key + ": " + lastDdlTime);
+                }
+            }
+        });
+        loadManifestEntries(objectsManifest, SchemaDirectoryFormat.MANIFEST_SUFFIX_WITHOUT_DDL_LAST_DDL_TIME).forEach((key, lastDdlTime) -> {
+            try {
+                schema.getObjectsWithoutDdl().put(key, LocalDateTime.parse(lastDdlTime, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            } catch (DateTimeParseException e) {
+                System.err.println("Некоректний LAST_DDL_TIME у " + SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE + " для " + key + ": " + lastDdlTime);
+            }
+        });
+        System.out.println("Схему '" + schemaNameFromFile + "' відкрито: проіндексовано " + ddlFileIndex.size() + " файлів DDL, вміст читатиметься за потреби.");
+        schema.setTransformProfile(MetadataTransformProfile.fromProfileName(metaProps.getProperty(SchemaDirectoryFormat.KEY_TRANSFORM_PROFILE)));
+        return schema;
+    }
+
+    /**
+     * Читає маніфест об'єктів знімка.
+     * @return Вміст маніфесту; порожній, якщо маніфесту немає або його не вдалося прочитати.
+     */
+    private Properties loadObjectsManifest(Path schemaDirectoryPath) {
+        Path manifestPath = schemaDirectoryPath.resolve(SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE);
+        if (!Files.exists(manifestPath)) {
+            return new Properties();
+        }
+        try {
+            return SchemaDirectoryFormat.loadProperties(manifestPath);
+        } catch (IOException e) {
+            System.err.println("Помилка читання " + SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE + " у " + schemaDirectoryPath + ": " + e.getMessage());
+            return new Properties();
+        }
+    }
+
+    /**
+     * Вибирає з маніфесту знімка значення одного атрибута всіх об'єктів.
+     * @param suffix Суфікс атрибута, наприклад {@link SchemaDirectoryFormat#MANIFEST_SUFFIX_LAST_DDL_TIME}.
+     * @return Мапа (ObjectType, ім'я) -> значення.
+     */
+    private Map<ObjectKey, String> loadManifestEntries(Properties objectsManifest, String suffix) {
+        Map<ObjectKey, String> entries = new HashMap<>();
+        for (String key : objectsManifest.stringPropertyNames()) {
+            if (!key.endsWith(suffix)) {
+                continue;
+            }
+            String objectKey = key.substring(0, key.length() - suffix.length());
+            int separatorIndex = objectKey.indexOf('/');
+            if (separatorIndex <= 0) {
+                continue;
+            }
+            try {
+                ObjectType objectType = ObjectType.valueOf(objectKey.substring(0, separatorIndex));
+                String objectName = objectKey.substring(separatorIndex + 1);
+                entries.put(ObjectKey.of(objectType, objectName), objectsManifest.getProperty(key));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Некоректний запис у " + SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE + ": " + key + " (" + e.getMessage() + ")");
+            }
+        }
+        return entries;
     }
 }
@@ -14,6 +14,7 @@ public class ScriptGenerationService {
 
     private static final int ORDER_DROP_MODIFIED_RECREATABLE = 10;
     private static final int ORDER_DROP_REMOVED = 20;
+    private static final int ORDER_RENAME = 25;
     private static final int ORDER_CREATE_ADDED = 30;
     private static final int ORDER_ALTER_OR_CREATE_REPLACE_MODIFIED = 40;
     private static final int ORDER_MANUAL_REVIEW_MODIFIED = 50;
@@ -35,6 +36,9 @@ public class ScriptGenerationService {
                 case MODIFIED:
                     migrationScripts.addAll(generateModifyScripts(diff));
                     break;
+                case RENAMED:
+                    migrationScripts.addAll(generateRenameScripts(diff));
+                    break;
             }
         }
         return migrationScripts;
@@ -80,6 +84,56 @@ public class ScriptGenerationService {
         return new MigrationScript(diff.getObjectType(), fileName, content, ORDER_DROP_REMOVED);
     }
 
+    private List<MigrationScript> generateRenameScripts(Difference diff) {
+        List<MigrationScript> scripts = new ArrayList<>();
+        String oldName = sanitizeIdentifier(diff.getPreviousObjectName());
+        String newName = sanitizeIdentifier(diff.getObjectName());
+        String fileName = String.format("RENAME_%s_%s.sql", diff.getObjectType(), sanitizeFileName(diff.getObjectName()));
+        String header = String.format("-- RENAMED %s: %s -> %s (подібність DDL: %.0f%%)\n",
+                diff.getObjectType(), diff.getPreviousObjectName(), diff.getObjectName(), diff.getSimilarity() * 100);
+
+        String renameStatement;
+        boolean isPublicSynonym = diff.getObjectType() == ObjectType.SYNONYM && "PUBLIC".equalsIgnoreCase(diff.getObjectOwner());
+        switch (diff.getObjectType()) {
+            case TABLE:
+                renameStatement = String.format("ALTER TABLE %s RENAME TO %s;", oldName, newName);
+                break;
+            case INDEX:
+                // Змінений індекс перестворюється (див. нижче), тому перейменовувати його немає сенсу
+                renameStatement = diff.isDefinitionChanged() ? null : String.format("ALTER INDEX %s RENAME TO %s;", oldName, newName);
+                break;
+            case TRIGGER:
+                renameStatement = String.format("ALTER TRIGGER %s RENAME TO %s;", oldName, newName);
+                break;
+            case VIEW:
+            case SEQUENCE:
+            case SYNONYM:
+                // RENAME працює лише для об'єктів власної схеми, тому public-синонім перестворюється
+                renameStatement = isPublicSynonym ? null : String.format("RENAME %s TO %s;", oldName, newName);
+                break;
+            default:
+                renameStatement = null; // PL/SQL-об'єкти та інші типи Oracle не перейменовує
+                break;
+        }
+
+        if (renameStatement == null) {
+            // Створюємо об'єкт з новим ім'ям і видаляємо старий (DROP старого виконується раніше за CREATE нового)
+            scripts.add(generateCreateScript(new Difference(DifferenceType.ADDED, diff.getObjectType(), diff.getObjectName(),
+                    diff.getObjectOwner(), null, diff.getTargetDdl(), null)));
+            scripts.add(generateDropScript(new Difference(DifferenceType.REMOVED, diff.getObjectType(), diff.getPreviousObjectName(),
+                    diff.getObjectOwner(), diff.getSourceDdl(), null, null)));
+            return scripts;
+        }
+        scripts.add(new MigrationScript(diff.getObjectType(), fileName, header + renameStatement + "\n/", ORDER_RENAME));
+
+        // DDL після перейменування ще відрізняється: решту змін обробляємо як зміну об'єкта з новим ім'ям
+        if (diff.isDefinitionChanged()) {
+            scripts.addAll(generateModifyScripts(new Difference(DifferenceType.MODIFIED, diff.getObjectType(), diff.getObjectName(),
+                    diff.getObjectOwner(), diff.getSourceDdl(), diff.getTargetDdl(), null)));
+        }
+        return scripts;
+    }
+
     private List<MigrationScript> generateModifyScripts(Difference diff) {
         List<MigrationScript> scripts = new ArrayList<>();
         // String objectOwner = sanitizeIdentifier(diff.getObjectOwner()); // Власник тепер менш важливий для генерації
@@ -0,0 +1,597 @@
+package com.depavlo.ddlschematorfx.utils;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Нормалізація DDL для порівняння за один прохід лексичного аналізатора Oracle SQL/PL-SQL.
+ * Аналізатор розпізнає однорядкові й багаторядкові коментарі, рядкові літерали ({@code '...'}, {@code q'[...]'}, {@code N'...'})
+ * та ідентифікатори в лапках, тому префікс власника видаляється лише там, де він справді є префіксом імені об'єкта,
+ * а не всередині літералів чи коментарів. Додатково можна ігнорувати незначущі відмінності ({@link Option}):
+ * усі ввімкнені правила застосовуються в тому самому проході.
+ * <p>
+ * Текст обробляється як масив символів у буферах, що повторно використовуються в межах потоку;
+ * якщо нормалізація нічого не змінила, повертається вихідний рядок. Екземпляр незмінний і потокобезпечний.
+ */
+public final class DdlNormalizer {
+
+    public enum Option {
+        IGNORE_WHITESPACE,         // Послідовності пробілів - один пробіл і лише між словами; пробіли на початку й у кінці відкидаються
+        IGNORE_CASE,               // Верхній регістр поза літералами та ідентифікаторами в лапках
+        IGNORE_COMMENTS,           // Коментарі відкидаються (підказки оптимізатора /*+ */ та --+ зберігаються)
+        IGNORE_STORAGE_CLAUSES,    // STORAGE(...), TABLESPACE, PCTFREE/PCTUSED/INITRANS/MAXTRANS, SEGMENT CREATION, [NO]LOGGING, [NO]COMPRESS
+        IGNORE_SYSTEM_CONSTRAINT_NAMES, // Згенеровані імена обмежень SYS_C<число> замінюються на SYS_C
+        IGNORE_PARTITION_LISTS     // Списки розділів (PARTITION ..., ...) відкидаються; спосіб розбиття (PARTITION BY ...) зберігається
+    }
+
+    // Буфери потоку: вхідний текст, результат і правила, що змінили текст під час поточного виклику
+    private static final class Buffers {
+        private char[] input = new char[4096];
+        private final StringBuilder output = new StringBuilder(4096);
+        private int appliedOptions; // Біти Option.ordinal()
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    // Більші буфери не тримаються в потоці після обробки
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+    private static final Option[] OPTIONS = Option.values();
+
+    // Атрибути, після яких DBMS_METADATA друкує [NO]LOGGING і [NO]COMPRESS (крім інших параметрів зберігання)
+    private static final String[] STORAGE_ATTRIBUTE_PREDECESSORS = {
+            "INDEX", "CACHE", "NOCACHE", "READS", "PARALLEL", "NOPARALLEL", "MONITORING", "NOMONITORING",
+            "ROWDEPENDENCIES", "NOROWDEPENDENCIES", "ENABLE", "DISABLE"
+    };
+
+    private final char[] schemaName; // null - префікси не видаляються
+    private final boolean ignoreWhitespace;
+    private final boolean ignoreCase;
+    private final boolean ignoreComments;
+    private final boolean ignoreStorageClauses;
+    private final boolean ignoreSystemConstraintNames;
+    private final boolean ignorePartitionLists;
+
+    /**
+     * @param schemaName Власник, префікси якого видаляються ({@code OWNER.OBJECT}, {@code "OWNER"."OBJECT"}); null або порожнє - не видаляються.
+     * @param options Додаткові правила; null - жодних.
+     */
+    public DdlNormalizer(String schemaName, Set<Option> options) {
+        this.schemaName = (schemaName != null && !schemaName.trim().isEmpty()) ? schemaName.toCharArray() : null;
+        Set<Option> effectiveOptions = (options != null) ? options : EnumSet.noneOf(Option.class);
+        this.ignoreWhitespace = effectiveOptions.contains(Option.IGNORE_WHITESPACE);
+        this.ignoreCase = effectiveOptions.contains(Option.IGNORE_CASE);
+        this.ignoreComments = effectiveOptions.contains(Option.IGNORE_COMMENTS);
+        this.ignoreStorageClauses = effectiveOptions.contains(Option.IGNORE_STORAGE_CLAUSES);
+        this.ignoreSystemConstraintNames = effectiveOptions.contains(Option.IGNORE_SYSTEM_CONSTRAINT_NAMES);
+        this.ignorePartitionLists = effectiveOptions.contains(Option.IGNORE_PARTITION_LISTS);
+    }
+
+    /**
+     * @return Нормалізований DDL (той самий екземпляр, якщо змін немає) або null, якщо ddl дорівнює null.
+     */
+    public String normalize(String ddl) {
+        return normalize(ddl, null);
+    }
+
+    /**
+     * @param appliedOptions Сюди додаються правила, що змінили текст (наближено для пробілів); null - не збирати.
+     * @return Нормалізований DDL (той самий екземпляр, якщо змін немає) або null, якщо ddl дорівнює null.
+     */
+    public String normalize(String ddl, Set<Option> appliedOptions) {
+        if (ddl == null) {
+            return null;
+        }
+        int length = ddl.length();
+        Buffers buffers = BUFFERS.get();
+        if (buffers.input.length < length) {
+            buffers.input = new char[Math.max(length, buffers.input.length * 2)];
+        }
+        char[] in = buffers.input;
+        ddl.getChars(0, length, in, 0);
+        StringBuilder out = buffers.output;
+        out.setLength(0);
+        buffers.appliedOptions = 0;
+
+        boolean pendingSpace = false; // Пропущені пробіли, коментарі або вирази, на місці яких може знадобитися роздільник
+        int lastStorageClauseEnd = -1; // Кінець останнього відкинутого параметра зберігання у вхідному тексті
+        int i = 0;
+        while (i < length) {
+            char c = in[i];
+            char next = (i + 1 < length) ? in[i + 1] : '\0';
+            int end;
+            if (Character.isWhitespace(c)) {
+                end = skipWhitespace(in, i, length);
+                if (ignoreWhitespace) {
+                    if (end - i != 1 || c != ' ') {
+                        markApplied(buffers, Option.IGNORE_WHITESPACE);
+                    }
+                    pendingSpace = true;
+                } else {
+                    out.append(in, i, end - i);
+                }
+                i = end;
+                continue;
+            }
+            if (c == '-' && next == '-') {
+                end = lineCommentEnd(in, i, length);
+                boolean hint = i + 2 < length && in[i + 2] == '+';
+                if (ignoreComments && !hint) {
+                    markApplied(buffers, Option.IGNORE_COMMENTS);
+                    pendingSpace = true;
+                } else {
+                    pendingSpace = appendRaw(buffers, in, i, end, pendingSpace);
+                }
+                i = end;
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                end = blockCommentEnd(in, i, length);
+                boolean hint = i + 2 < length && in[i + 2] == '+';
+                if (ignoreComments && !hint) {
+                    markApplied(buffers, Option.IGNORE_COMMENTS);
+                    pendingSpace = true;
+                } else {
+                    pendingSpace = appendRaw(buffers, in, i, end, pendingSpace);
+                }
+                i = end;
+                continue;
+            }
+            if (c == '\'') {
+                end = skipQuoted(in, i, length, '\'');
+                pendingSpace = appendRaw(buffers, in, i, end, pendingSpace);
+                i = end;
+                continue;
+            }
+            int quoteStart = prefixedLiteralQuote(in, i, length);
+            if (quoteStart >= 0) {
+                end = (in[quoteStart - 1] == 'q' || in[quoteStart - 1] == 'Q')
+                        ? skipAlternativeQuote(in, quoteStart, length)
+                        : skipQuoted(in, quoteStart, length, '\'');
+                // Регістр префікса q/N/nq незначущий, вміст літералу - значущий
+                pendingSpace = appendToken(buffers, in, i, quoteStart, pendingSpace);
+                out.append(in, quoteStart, end - quoteStart);
+                i = end;
+                continue;
+            }
+            if (c == '"') {
+                end = skipQuoted(in, i, length, '"');
+                int prefixEnd = ownerPrefixEnd(in, i, i + 1, end - 1, end, length);
+                if (prefixEnd >= 0) {
+                    i = prefixEnd;
+                    continue;
+                }
+                if (ignoreSystemConstraintNames && isSystemConstraintName(in, i + 1, end - 1)) {
+                    markApplied(buffers, Option.IGNORE_SYSTEM_CONSTRAINT_NAMES);
+                    appendSeparator(buffers, '"', pendingSpace);
+                    out.append("\"SYS_C\"");
+                    pendingSpace = false;
+                } else {
+                    pendingSpace = appendRaw(buffers, in, i, end, pendingSpace);
+                }
+                i = end;
+                continue;
+            }
+            if (isIdentifierStart(c)) {
+                end = i + 1;
+                while (end < length && isIdentifierPart(in[end])) {
+                    end++;
+                }
+                int prefixEnd = ownerPrefixEnd(in, i, i, end, end, length);
+                if (prefixEnd >= 0) {
+                    i = prefixEnd;
+                    continue;
+                }
+                int clauseEnd = ignoreStorageClauses ? storageClauseEnd(in, i, end, length, lastStorageClauseEnd) : -1;
+                if (clauseEnd >= 0) {
+                    markApplied(buffers, Option.IGNORE_STORAGE_CLAUSES);
+                    trimTrailingWhitespace(out);
+                    pendingSpace = true;
+                    i = clauseEnd;
+                    lastStorageClauseEnd = clauseEnd;
+                    continue;
+                }
+                if (ignoreSystemConstraintNames && isSystemConstraintName(in, i, end)) {
+                    markApplied(buffers, Option.IGNORE_SYSTEM_CONSTRAINT_NAMES);
+                    appendSeparator(buffers, 'S', pendingSpace);
+                    out.append("SYS_C");
+                    pendingSpace = false;
+                    i = end;
+                    continue;
+                }
+                pendingSpace = appendToken(buffers, in, i, end, pendingSpace);
+                i = end;
+                continue;
+            }
+            if (c == '(' && ignorePartitionLists && startsPartitionList(in, i + 1, length)) {
+                markApplied(buffers, Option.IGNORE_PARTITION_LISTS);
+                trimTrailingWhitespace(out);
+                pendingSpace = true;
+                i = skipParentheses(in, i, length);
+                continue;
+            }
+            pendingSpace = appendToken(buffers, in, i, i + 1, pendingSpace);
+            i++;
+        }
+
+        if (appliedOptions != null) {
+            for (Option option : OPTIONS) {
+                if ((buffers.appliedOptions & (1 << option.ordinal())) != 0) {
+                    appliedOptions.add(option);
+                }
+            }
+        }
+        String result = ddl.contentEquals(out) ? ddl : out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER || in.length > MAX_RETAINED_BUFFER) {
+            BUFFERS.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Перевіряє, чи є ідентифікатор [nameStart, nameEnd) іменем власника, за яким іде {@code .} та ім'я об'єкта.
+     * Ідентифікатор без лапок порівнюється без урахування регістру (Oracle переводить його у верхній регістр),
+     * у лапках - точно. Ідентифікатор після крапки ({@code X.OWNER.T}) - не власник, а ім'я об'єкта іншої схеми.
+     * @param tokenStart Початок токена ідентифікатора (для ідентифікатора в лапках - лапка).
+     * @param tokenEnd Кінець токена ідентифікатора (для ідентифікатора в лапках - після лапки).
+     * @return Позиція імені об'єкта (префікс разом з крапкою пропускається) або -1.
+     */
+    private int ownerPrefixEnd(char[] in, int tokenStart, int nameStart, int nameEnd, int tokenEnd, int length) {
+        if (schemaName == null || nameEnd - nameStart != schemaName.length) {
+            return -1;
+        }
+        boolean quoted = tokenStart != nameStart;
+        for (int k = 0; k < schemaName.length; k++) {
+            boolean matches = quoted ? in[nameStart + k] == Character.toUpperCase(schemaName[k])
+                    : Character.toUpperCase(in[nameStart + k]) == Character.toUpperCase(schemaName[k]);
+            if (!matches) {
+                return -1;
+            }
+        }
+        int previous = tokenStart - 1;
+        while (previous >= 0 && Character.isWhitespace(in[previous])) {
+            previous--;
+        }
+        if (previous >= 0 && in[previous] == '.') {
+            return -1;
+        }
+        int dot = skipWhitespace(in, tokenEnd, length);
+        if (dot >= length || in[dot] != '.') {
+            return -1;
+        }
+        int objectStart = skipWhitespace(in, dot + 1, length);
+        if (objectStart < length && (in[objectStart] == '"' || isIdentifierPart(in[objectStart]))) {
+            return objectStart;
+        }
+        return -1;
+    }
+
+    /**
+     * Розпізнає атрибут фізичного зберігання, що починається словом [start, end).
+     * @return Кінець атрибута разом з аргументами або -1, якщо слово не є атрибутом зберігання.
+     */
+    private static int storageClauseEnd(char[] in, int start, int end, int length, int lastStorageClauseEnd) {
+        int argument = nextTokenStart(in, end, length);
+        if (wordEquals(in, start, end, "STORAGE")) {
+            return (argument < length && in[argument] == '(') ? skipParentheses(in, argument, length) : -1;
+        }
+        if (wordEquals(in, start, end, "TABLESPACE")) {
+            if (argument < length && in[argument] == '"') {
+                return skipQuoted(in, argument, length, '"');
+            }
+            return (argument < length && isIdentifierStart(in[argument])) ? identifierEnd(in, argument, length) : -1;
+        }
+        if (wordEquals(in, start, end, "PCTFREE") || wordEquals(in, start, end, "PCTUSED")
+                || wordEquals(in, start, end, "INITRANS") || wordEquals(in, start, end, "MAXTRANS")) {
+            return (argument < length && Character.isDigit(in[argument])) ? identifierEnd(in, argument, length) : -1;
+        }
+        if (wordEquals(in, start, end, "SEGMENT")) {
+            int creationEnd = wordAt(in, argument, length, "CREATION");
+            if (creationEnd < 0) {
+                return -1;
+            }
+            int mode = nextTokenStart(in, creationEnd, length);
+            int modeEnd = wordAt(in, mode, length, "IMMEDIATE");
+            return (modeEnd >= 0) ? modeEnd : wordAt(in, mode, length, "DEFERRED");
+        }
+        if (wordEquals(in, start, end, "COMPUTE")) {
+            return wordAt(in, argument, length, "STATISTICS");
+        }
+        if (wordEquals(in, start, end, "COMPRESS")) {
+            int basicEnd = wordAt(in, argument, length, "BASIC");
+            if (basicEnd >= 0) {
+                return basicEnd;
+            }
+            if (argument < length && Character.isDigit(in[argument])) {
+                return identifierEnd(in, argument, length);
+            }
+            return inStorageClausePosition(in, start, lastStorageClauseEnd) ? end : -1;
+        }
+        if (wordEquals(in, start, end, "NOCOMPRESS") || wordEquals(in, start, end, "LOGGING") || wordEquals(in, start, end, "NOLOGGING")) {
+            return inStorageClausePosition(in, start, lastStorageClauseEnd) ? end : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Слово без аргументу ([NO]LOGGING, [NO]COMPRESS) є параметром зберігання лише в позиції атрибутів:
+     * після {@code )}, після іншого параметра зберігання (відкинутого, числового аргументу)
+     * або після атрибутів, за якими DBMS_METADATA їх друкує ({@code USING INDEX}, {@code NOCACHE} у LOB тощо).
+     * В інших місцях (стовпець LOGGING у списку вибірки, змінна в PL/SQL) слово зберігається.
+     */
+    private static boolean inStorageClausePosition(char[] in, int start, int lastStorageClauseEnd) {
+        int previous = start - 1;
+        while (previous >= 0 && Character.isWhitespace(in[previous])) {
+            previous--;
+        }
+        if (previous < 0) {
+            return false;
+        }
+        if (previous < lastStorageClauseEnd || in[previous] == ')') {
+            return true;
+        }
+        if (!isIdentifierPart(in[previous])) {
+            return false;
+        }
+        int wordStart = previous;
+        while (wordStart > 0 && isIdentifierPart(in[wordStart - 1])) {
+            wordStart--;
+        }
+        if (wordStart > 0 && (in[wordStart - 1] == '.' || in[wordStart - 1] == '"')) {
+            return false;
+        }
+        boolean number = true;
+        for (int k = wordStart; k <= previous; k++) {
+            number &= Character.isDigit(in[k]);
+        }
+        if (number) {
+            return true;
+        }
+        for (String word : STORAGE_ATTRIBUTE_PREDECESSORS) {
+            if (wordEquals(in, wordStart, previous + 1, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Після '(' іде PARTITION або SUBPARTITION, але не PARTITION BY (аналітичні функції, складене розбиття)
+    private static boolean startsPartitionList(char[] in, int from, int length) {
+        int word = nextTokenStart(in, from, length);
+        int wordEnd = wordAt(in, word, length, "PARTITION");
+        if (wordEnd < 0) {
+            wordEnd = wordAt(in, word, length, "SUBPARTITION");
+        }
+        return wordEnd >= 0 && wordAt(in, nextTokenStart(in, wordEnd, length), length, "BY") < 0;
+    }
+
+    // SYS_C з лише цифрами після префікса (ім'я обмеження, згенероване Oracle)
+    private static boolean isSystemConstraintName(char[] in, int start, int end) {
+        if (end - start <= 5 || !wordEquals(in, start, start + 5, "SYS_C")) {
+            return false;
+        }
+        for (int k = start + 5; k < end; k++) {
+            if (!Character.isDigit(in[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void markApplied(Buffers buffers, Option option) {
+        buffers.appliedOptions |= 1 << option.ordinal();
+    }
+
+    // Дописує токен поза літералами: з пробілом-роздільником за потреби і з урахуванням IGNORE_CASE
+    private boolean appendToken(Buffers buffers, char[] in, int start, int end, boolean pendingSpace) {
+        appendSeparator(buffers, in[start], pendingSpace);
+        StringBuilder out = buffers.output;
+        if (ignoreCase) {
+            for (int k = start; k < end; k++) {
+                char upper = Character.toUpperCase(in[k]);
+                if (upper != in[k]) {
+                    markApplied(buffers, Option.IGNORE_CASE);
+                }
+                out.append(upper);
+            }
+        } else {
+            out.append(in, start, end - start);
+        }
+        return false;
+    }
+
+    // Дописує літерал, ідентифікатор у лапках або коментар без змін
+    private boolean appendRaw(Buffers buffers, char[] in, int start, int end, boolean pendingSpace) {
+        appendSeparator(buffers, in[start], pendingSpace);
+        buffers.output.append(in, start, end - start);
+        return false;
+    }
+
+    // Пробіл зберігається лише там, де без нього два слова злилися б в одне
+    private void appendSeparator(Buffers buffers, char nextChar, boolean pendingSpace) {
+        StringBuilder out = buffers.output;
+        if (!pendingSpace || out.length() == 0) {
+            return;
+        }
+        if (isWordChar(out.charAt(out.length() - 1)) && isWordChar(nextChar)) {
+            out.append(' ');
+        } else if (ignoreWhitespace) {
+            markApplied(buffers, Option.IGNORE_WHITESPACE);
+        }
+    }
+
+    // Пробіли перед відкинутим виразом відкидаються разом з ним, щоб "X TABLESPACE T\n" і "X\n" збігалися
+    private static void trimTrailingWhitespace(StringBuilder out) {
+        int length = out.length();
+        while (length > 0 && Character.isWhitespace(out.charAt(length - 1))) {
+            length--;
+        }
+        out.setLength(length);
+    }
+
+    private static int skipWhitespace(char[] in, int from, int length) {
+        int i = from;
+        while (i < length && Character.isWhitespace(in[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    // Початок наступного токена після пробілів і коментарів
+    private static int nextTokenStart(char[] in, int from, int length) {
+        int i = skipWhitespace(in, from, length);
+        while (i + 1 < length) {
+            if (in[i] == '-' && in[i + 1] == '-') {
+                i = skipWhitespace(in, lineCommentEnd(in, i, length), length);
+            } else if (in[i] == '/' && in[i + 1] == '*') {
+                i = skipWhitespace(in, blockCommentEnd(in, i, length), length);
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // Кінець рядкового коментаря разом з кінцем рядка, інакше після стиснення пробілів коментар поглине наступний рядок
+    private static int lineCommentEnd(char[] in, int start, int length) {
+        int end = start + 2;
+        while (end < length && in[end] != '\n') {
+            end++;
+        }
+        return (end < length) ? end + 1 : end;
+    }
+
+    private static int blockCommentEnd(char[] in, int start, int length) {
+        int end = start + 2;
+        while (end + 1 < length && !(in[end] == '*' && in[end + 1] == '/')) {
+            end++;
+        }
+        return Math.min(end + 2, length);
+    }
+
+    // Позиція після дужки, що закриває дужку в позиції open (з урахуванням літералів і коментарів); незакрита - кінець тексту
+    private static int skipParentheses(char[] in, int open, int length) {
+        int depth = 0;
+        int i = open;
+        while (i < length) {
+            char c = in[i];
+            if (c == '\'' || c == '"') {
+                i = skipQuoted(in, i, length, c);
+                continue;
+            }
+            if (c == '-' && i + 1 < length && in[i + 1] == '-') {
+                i = lineCommentEnd(in, i, length);
+                continue;
+            }
+            if (c == '/' && i + 1 < length && in[i + 1] == '*') {
+                i = blockCommentEnd(in, i, length);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    // Кінець літералу або ідентифікатора в лапках (подвоєна лапка - екранування); незакритий - до кінця тексту
+    private static int skipQuoted(char[] in, int start, int length, char quote) {
+        int i = start + 1;
+        while (i < length) {
+            if (in[i] == quote) {
+                if (i + 1 < length && in[i + 1] == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * Розпізнає літерали з префіксом: q'X...X', N'...' та nq'X...X'.
+     * @return Позиція апострофа після префікса або -1.
+     */
+    private static int prefixedLiteralQuote(char[] in, int i, int length) {
+        if (i > 0 && isIdentifierPart(in[i - 1])) {
+            return -1;
+        }
+        int j = i;
+        if (in[j] == 'n' || in[j] == 'N') {
+            j++;
+        }
+        if (j < length && (in[j] == 'q' || in[j] == 'Q')) {
+            j++;
+        }
+        return (j > i && j < length && in[j] == '\'') ? j : -1;
+    }
+
+    // Кінець літералу q'X...X', де quote - позиція апострофа; X - довільний символ або дужка, що має пару
+    private static int skipAlternativeQuote(char[] in, int quote, int length) {
+        if (quote + 1 >= length) {
+            return length;
+        }
+        char open = in[quote + 1];
+        char close = switch (open) {
+            case '[' -> ']';
+            case '{' -> '}';
+            case '(' -> ')';
+            case '<' -> '>';
+            default -> open;
+        };
+        int i = quote + 2;
+        while (i + 1 < length) {
+            if (in[i] == close && in[i + 1] == '\'') {
+                return i + 2;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int identifierEnd(char[] in, int start, int length) {
+        int end = start;
+        while (end < length && isIdentifierPart(in[end])) {
+            end++;
+        }
+        return end;
+    }
+
+    // Слово без лапок у позиції start, що збігається з word без урахування регістру; кінець слова або -1
+    private static int wordAt(char[] in, int start, int length, String word) {
+        if (start >= length || !isIdentifierStart(in[start])) {
+            return -1;
+        }
+        int end = identifierEnd(in, start, length);
+        return wordEquals(in, start, end, word) ? end : -1;
+    }
+
+    private static boolean wordEquals(char[] in, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int k = 0; k < word.length(); k++) {
+            if (Character.toUpperCase(in[start + k]) != word.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isIdentifierPart(c) || c == '"' || c == '\'';
+    }
+}
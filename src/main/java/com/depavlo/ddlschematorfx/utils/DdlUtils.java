@@ -2,48 +2,35 @@ package com.depavlo.ddlschematorfx.utils;
 
 import com.depavlo.ddlschematorfx.model.ObjectType; // Потрібно для деяких специфічних правил
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class DdlUtils {
 
     /**
-     * Намагається видалити префікси схеми з DDL рядка для цілей порівняння.
-     * Це спрощений підхід, який може не покривати всі випадки.
+     * Версія нормалізації, від якої залежить {@link #comparisonFingerprint(String, String)}.
+     * Змінюється разом з правилами нормалізації; відбитки, збережені з іншою версією, не використовуються.
+     */
+    public static final int COMPARISON_FINGERPRINT_VERSION = 4; // 4 - [NO]LOGGING/[NO]COMPRESS лише в позиції параметрів зберігання
+
+    /**
+     * Видаляє префікси схеми з DDL рядка для цілей порівняння.
      * Приклад: "SCHEMA_A"."TABLE_B" -> "TABLE_B"
      * SCHEMA_A.TABLE_C -> TABLE_C
+     * Префікси всередині рядкових літералів і коментарів не змінюються (див. {@link DdlNormalizer}).
      * @param ddl DDL рядок.
-     * @param schemaName Ім'я схеми, префікси якої потрібно видалити.
-     * @return DDL рядок з видаленими (або заміненими) префіксами схеми.
+     * @param schemaName Ім'я схеми, префікси якої потрібно видалити (без урахування регістру).
+     * @return DDL рядок з видаленими префіксами схеми.
      */
     public static String stripSchemaPrefixesForComparison(String ddl, String schemaName) {
         if (ddl == null || schemaName == null || schemaName.trim().isEmpty()) {
             return ddl;
         }
-
-        // Екрануємо ім'я схеми для використання в регулярному виразі
-        String quotedSchemaName = Pattern.quote(schemaName.toUpperCase()); // Oracle часто зберігає імена у верхньому регістрі
-
-        // Регулярний вираз для пошуку "SCHEMA_NAME"."OBJECT_NAME" або SCHEMA_NAME.OBJECT_NAME
-        // Перша група захоплює лапки навколо імені об'єкта, якщо вони є.
-        // Друга група захоплює саме ім'я об'єкта.
-        // (?i) - ігнорування регістру для SCHEMA_NAME
-        // Pattern pattern = Pattern.compile("(?i)" + quotedSchemaName + "\\s*\\.\\s*(\"?)([a-zA-Z0-9_\\$#]+)(\"?)");
-        // Більш обережний варіант: шукаємо "SCHEMA"."OBJ" або SCHEMA.OBJ
-        // Важливо не замінити SCHEMA. в коментарях або рядкових літералах. Це складно з простим regex.
-        
-        String regex1 = "(?i)(?:\\b" + quotedSchemaName + "\\b\\s*\\.\\s*)(\"?[A-Za-z0-9_$#]+\"?)"; // SCHEMA.OBJECT or SCHEMA."OBJECT"
-        // Замінюємо SCHEMA.OBJECT на OBJECT (або "OBJECT")
-        String result = ddl.replaceAll(regex1, "$1");
-
-        // Додатково для випадків, коли ім'я схеми може бути в лапках: \"" + schemaName + "\"."
-        String quotedSchemaInPattern = Pattern.quote("\"" + schemaName.toUpperCase() + "\"");
-        String regex2 = "(?i)(?:" + quotedSchemaInPattern + "\\s*\\.\\s*)(\"?[A-Za-z0-9_$#]+\"?)"; // "SCHEMA"."OBJECT"
-        result = result.replaceAll(regex2, "$1");
-        
-        // Дуже спрощено, може потребувати доопрацювання для різних стилів цитування та пробілів.
-        // Цей підхід не ідеальний і може мати хибні спрацювання або пропуски.
-        return result;
+        return new DdlNormalizer(schemaName, null).normalize(ddl);
     }
 
     /**
@@ -94,4 +81,32 @@ public class DdlUtils {
         }
         return ddl; // Повертаємо оригінал, якщо шаблон не знайдено
     }
+
+    /**
+     * Відбиток DDL для порівняння: SHA-256 тексту після видалення префіксів власника ({@link #stripSchemaPrefixesForComparison}).
+     * Однакові відбитки означають, що порівняння схем не покаже різниці для об'єкта, навіть якщо власники різні.
+     * @return Відбиток або null, якщо ddl дорівнює null.
+     */
+    public static String comparisonFingerprint(String ddl, String schemaName) {
+        return sha256Hex(stripSchemaPrefixesForComparison(ddl, schemaName));
+    }
+
+    /**
+     * SHA-256 від DDL у кодуванні UTF-8 у вигляді шістнадцяткового рядка у верхньому регістрі.
+     * Збігається з RAWTOHEX(DBMS_CRYPTO.HASH(clob, DBMS_CRYPTO.HASH_SH256)) на стороні БД,
+     * оскільки DBMS_CRYPTO перед хешуванням перетворює CLOB в AL32UTF8.
+     * @param ddl DDL рядок.
+     * @return Хеш або null, якщо ddl дорівнює null.
+     */
+    public static String sha256Hex(String ddl) {
+        if (ddl == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().withUpperCase().formatHex(digest.digest(ddl.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
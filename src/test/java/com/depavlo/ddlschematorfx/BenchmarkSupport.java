@@ -0,0 +1,92 @@
+package com.depavlo.ddlschematorfx;
+
+import java.util.function.Supplier;
+
+/**
+ * Прогони бенчмарків у стилі JMH для тестів, що вмикаються через -Dbenchmark=true:
+ * ітерації прогріву, потім ітерації вимірювання фіксованої тривалості, з яких береться найкраща.
+ * Результати операцій накопичуються в {@link #sink}, щоб JIT не відкинув обчислення.
+ */
+public final class BenchmarkSupport {
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 300_000_000L;
+
+    private static volatile long sink;
+
+    private BenchmarkSupport() {
+    }
+
+    @FunctionalInterface
+    public interface Operation {
+        long run();
+    }
+
+    /**
+     * @return Найкращий середній час однієї операції серед ітерацій вимірювання, мкс.
+     */
+    public static double microsPerOp(Operation operation) {
+        long consumed = 0;
+        double best = Double.MAX_VALUE;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; iteration++) {
+            long operations = 0;
+            long start = System.nanoTime();
+            long deadline = start + ITERATION_NANOS;
+            long now;
+            do {
+                consumed += operation.run();
+                operations++;
+                now = System.nanoTime();
+            } while (now < deadline);
+            if (iteration >= WARMUP_ITERATIONS) {
+                best = Math.min(best, (now - start) / 1000.0 / operations);
+            }
+        }
+        sink += consumed;
+        return best;
+    }
+
+    /**
+     * Приблизний утримуваний обсяг купи структури: різниця зайнятої пам'яті після повного збирання сміття
+     * до створення структури і після, поки структура досяжна.
+     */
+    public static <T> long retainedBytes(Supplier<T> factory) {
+        long before = usedHeapAfterGc();
+        T retained = factory.get();
+        long after = usedHeapAfterGc();
+        sink += System.identityHashCode(retained);
+        return after - before;
+    }
+
+    /**
+     * Байти, виділені поточним потоком під час операції (HotSpot; -1, якщо вимірювання недоступне).
+     */
+    public static long allocatedBytes(Runnable operation) {
+        java.lang.management.ThreadMXBean threads = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean hotspot) || !hotspot.isThreadAllocatedMemorySupported()) {
+            operation.run();
+            return -1;
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = hotspot.getThreadAllocatedBytes(threadId);
+        operation.run();
+        return hotspot.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 5; attempt++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
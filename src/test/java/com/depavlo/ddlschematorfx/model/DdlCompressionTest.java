@@ -0,0 +1,166 @@
+package com.depavlo.ddlschematorfx.model;
+
+import com.depavlo.ddlschematorfx.BenchmarkSupport;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DdlCompressionTest {
+
+    // Синтетичний DDL у форматі DBMS_METADATA; i робить кожен текст унікальним
+    static String syntheticDdl(int i, Random random) {
+        String name = "OBJ_" + i;
+        return switch (i % 4) {
+            case 0 -> {
+                StringBuilder sb = new StringBuilder("\n  CREATE TABLE \"APP\".\"" + name + "\" \n   (\t\"ID\" NUMBER(10,0) NOT NULL ENABLE, \n");
+                int columns = 3 + random.nextInt(12);
+                for (int c = 0; c < columns; c++) {
+                    sb.append("\t\"COL_").append(c).append("\" VARCHAR2(").append(10 + random.nextInt(4000)).append(" BYTE), \n");
+                }
+                yield sb.append("\t CONSTRAINT \"PK_").append(name).append("\" PRIMARY KEY (\"ID\")\n")
+                        .append("  USING INDEX PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS \n")
+                        .append("  STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645\n")
+                        .append("  PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1\n")
+                        .append("  BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)\n")
+                        .append("  TABLESPACE \"USERS\"  ENABLE\n   ) SEGMENT CREATION IMMEDIATE \n")
+                        .append("  PCTFREE 10 PCTUSED 40 INITRANS 1 MAXTRANS 255 \n NOCOMPRESS LOGGING\n  TABLESPACE \"USERS\" ").toString();
+            }
+            case 1 -> "\n  CREATE UNIQUE INDEX \"APP\".\"IDX_" + name + "\" ON \"APP\".\"T_" + random.nextInt(1000) + "\" (\"COL_"
+                    + random.nextInt(10) + "\") \n  PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS \n"
+                    + "  STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645\n  PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1\n"
+                    + "  BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)\n  TABLESPACE \"USERS\" ";
+            case 2 -> "\n  CREATE OR REPLACE FORCE EDITIONABLE VIEW \"APP\".\"V_" + name + "\" (\"ID\", \"NAME\") AS \n  SELECT ID, COL_"
+                    + random.nextInt(10) + " FROM APP.T_" + random.nextInt(1000) + " WHERE STATUS = " + random.nextInt(5)
+                    + " AND CREATED > SYSDATE - " + random.nextInt(365);
+            default -> {
+                StringBuilder sb = new StringBuilder("\n  CREATE OR REPLACE EDITIONABLE PROCEDURE \"APP\".\"P_" + name + "\" (P_ID IN NUMBER) IS\n"
+                        + "  V_COUNT PLS_INTEGER := 0;\nBEGIN\n");
+                int statements = 2 + random.nextInt(10);
+                for (int s = 0; s < statements; s++) {
+                    sb.append("  UPDATE APP.T_").append(random.nextInt(1000)).append(" SET COL_").append(s)
+                            .append(" = NULL WHERE ID = P_ID;\n  V_COUNT := V_COUNT + SQL%ROWCOUNT;\n");
+                }
+                yield sb.append("  COMMIT;\nEXCEPTION\n  WHEN OTHERS THEN\n    ROLLBACK;\n    RAISE;\nEND;").toString();
+            }
+        };
+    }
+
+    @Test
+    void roundTripPreservesText() {
+        Random random = new Random(1);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            texts.add(syntheticDdl(i, random));
+        }
+        texts.add("CREATE VIEW V AS SELECT 'Привіт, світ' AS MSG, '€' AS CUR FROM DUAL");
+        texts.add("");
+        for (String text : texts) {
+            DdlCompression.CompressedText compressed = DdlCompression.compress(text);
+            assertEquals(text, DdlCompression.decompress(compressed));
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, compressed.utf8Length());
+        }
+    }
+
+    @Test
+    void poolReturnsSameTextWithCompressionOnAndOff() {
+        DdlContentPool pool = new DdlContentPool(2);
+        pool.setCompressionEnabled(true);
+        Random random = new Random(2);
+        List<String> texts = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            texts.add(syntheticDdl(i * 4, random)); // Таблиці довші за MIN_COMPRESSED_LENGTH
+            hashes.add(pool.acquire(texts.get(i)));
+        }
+        assertTrue(pool.getStoredBytes() < pool.getStoredChars() / 2, pool.describe());
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(texts.get(i), pool.get(hashes.get(i)));
+            }
+        }
+    }
+
+    private static int deflatedSize(byte[] input, byte[] dictionary) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] buffer = new byte[input.length + 128];
+        int length = 0;
+        while (!deflater.finished()) {
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        deflater.end();
+        return length;
+    }
+
+    /**
+     * Пам'ять і затримка get() пулу на синтетичній схемі зі 100k об'єктів зі стисненням і без,
+     * для влучань у LRU розпакованих текстів і промахів, та внесок словника (mvn test -Dbenchmark=true).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkPoolMemoryAndLatency() {
+        int objectCount = 100_000;
+        Random random = new Random(13);
+        String[] texts = new String[objectCount];
+        long chars = 0;
+        for (int i = 0; i < objectCount; i++) {
+            texts[i] = syntheticDdl(i, random);
+            chars += texts[i].length();
+        }
+
+        long rawHeap = BenchmarkSupport.retainedBytes(() -> fillPool(texts, false));
+        long compressedHeap = BenchmarkSupport.retainedBytes(() -> fillPool(texts, true));
+
+        long withDictionary = 0;
+        long withoutDictionary = 0;
+        for (int i = 0; i < objectCount; i++) {
+            if (texts[i].length() >= DdlContentPool.MIN_COMPRESSED_LENGTH) {
+                byte[] utf8 = texts[i].getBytes(StandardCharsets.UTF_8);
+                withDictionary += DdlCompression.compress(texts[i]).data().length;
+                withoutDictionary += deflatedSize(utf8, null);
+            }
+        }
+
+        DdlContentPool rawPool = fillPool(texts, false);
+        DdlContentPool compressedPool = fillPool(texts, true);
+        String[] hashes = new String[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            hashes[i] = DdlUtils.sha256Hex(texts[i]);
+        }
+        int hotSetSize = DdlContentPool.DEFAULT_HOT_CACHE_SIZE / 2;
+        int[] cursor = {0};
+        double rawGet = BenchmarkSupport.microsPerOp(() -> rawPool.get(hashes[cursor[0]++ % objectCount]).length());
+        // Тексти таблиць (кожен 4-й) завжди стиснені; гаряча множина вміщується в LRU, холодна - ні
+        double hotGet = BenchmarkSupport.microsPerOp(() -> compressedPool.get(hashes[(cursor[0]++ % hotSetSize) * 4]).length());
+        double coldGet = BenchmarkSupport.microsPerOp(() -> compressedPool.get(hashes[(cursor[0]++ * 4) % objectCount]).length());
+
+        System.out.println(String.format("%,d objects, %,d chars of DDL", objectCount, chars));
+        System.out.println(String.format("retained heap: raw %.1f MB, compressed %.1f MB (%.1fx)",
+                rawHeap / 1048576.0, compressedHeap / 1048576.0, rawHeap / (double) compressedHeap));
+        System.out.println(String.format("compressed texts >= %d chars: with dictionary %,d bytes, plain DEFLATE %,d bytes (%.2fx)",
+                DdlContentPool.MIN_COMPRESSED_LENGTH, withDictionary, withoutDictionary, withoutDictionary / (double) withDictionary));
+        System.out.println(String.format("get(): raw %.3f us, compressed LRU hit %.3f us, compressed LRU miss %.3f us", rawGet, hotGet, coldGet));
+    }
+
+    private static DdlContentPool fillPool(String[] texts, boolean compression) {
+        DdlContentPool pool = new DdlContentPool();
+        pool.setCompressionEnabled(compression);
+        for (String text : texts) {
+            pool.acquire(new String(text.toCharArray())); // Власна копія, як у тексту щойно прочитаного з JDBC
+        }
+        return pool;
+    }
+}
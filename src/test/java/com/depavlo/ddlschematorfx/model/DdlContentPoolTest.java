@@ -0,0 +1,170 @@
+package com.depavlo.ddlschematorfx.model;
+
+import com.depavlo.ddlschematorfx.service.SchemaService;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DdlContentPoolTest {
+
+    // Унікальний текст: спільний пул використовують і інші тести, тож лічильники перевіряються для власних ключів
+    private static String uniqueDdl(String name) {
+        return "CREATE TABLE \"APP\".\"" + name + "\" (\"ID\" NUMBER) -- " + UUID.randomUUID();
+    }
+
+    private static Schema schema(String sourceIdentifier) {
+        return new Schema(UUID.randomUUID().toString(), "APP", null, null, null, sourceIdentifier, sourceIdentifier);
+    }
+
+    @Test
+    void acquireAndReleaseCountReferences() {
+        DdlContentPool pool = new DdlContentPool();
+        String ddl = "CREATE TABLE \"APP\".\"T\" (\"ID\" NUMBER)";
+        String copy = new String(ddl.toCharArray());
+        assertNotSame(ddl, copy);
+
+        String hash = pool.acquire(ddl);
+        assertEquals(DdlUtils.sha256Hex(ddl), hash);
+        assertSame(hash, pool.acquire(copy));
+        assertSame(hash, pool.acquireExisting(hash));
+        assertNull(pool.acquireExisting(DdlUtils.sha256Hex("CREATE TABLE X")));
+        assertNull(pool.acquireExisting(null));
+        assertEquals(1, pool.getEntryCount());
+        assertEquals(3, pool.getReferenceCount());
+        assertEquals(3, pool.getReferenceCount(hash));
+        assertEquals(ddl.length(), pool.getStoredChars());
+
+        pool.release(hash);
+        pool.release(hash);
+        assertEquals(ddl, pool.get(hash));
+        assertEquals(1, pool.getReferenceCount(hash));
+        pool.release(hash);
+        assertNull(pool.get(hash));
+        assertEquals(0, pool.getEntryCount());
+        assertEquals(0, pool.getReferenceCount());
+        assertEquals(0, pool.getStoredChars());
+        assertEquals(0, pool.getStoredBytes());
+
+        // Зайве звільнення та null нічого не змінюють
+        pool.release(hash);
+        pool.release(null);
+        assertEquals(0, pool.getReferenceCount());
+        assertThrows(IllegalArgumentException.class, () -> pool.acquire(null));
+    }
+
+    @Test
+    void compressedTextsRoundTrip() {
+        DdlContentPool pool = new DdlContentPool(1);
+        String uncompressed = "CREATE TABLE \"APP\".\"BEFORE\" (\"ID\" NUMBER" + ", \"COL\" VARCHAR2(100)".repeat(40) + ")";
+        String uncompressedHash = pool.acquire(uncompressed);
+        pool.setCompressionEnabled(true);
+        StringBuilder ddl = new StringBuilder("CREATE TABLE \"APP\".\"WIDE\" (\n  \"ID\" NUMBER");
+        for (int i = 0; i < 100; i++) {
+            ddl.append(",\n  \"COLUMN_").append(i).append("\" VARCHAR2(100)");
+        }
+        String text = ddl.append("\n)").toString();
+        String hash = pool.acquire(text);
+        String shortHash = pool.acquire("CREATE SEQUENCE \"APP\".\"S\"");
+
+        assertTrue(pool.getStoredSize(hash) < text.length());
+        assertEquals(text, pool.get(hash));
+        assertEquals("CREATE SEQUENCE \"APP\".\"S\"", pool.get(shortHash));
+        // Текст, доданий до ввімкнення стиснення, лишається нестисненим
+        assertEquals(uncompressed.length(), pool.getStoredSize(uncompressedHash));
+        // Розпакована копія в кеші не заважає звільненню тексту
+        pool.release(hash);
+        assertNull(pool.get(hash));
+        assertEquals(0, pool.getStoredSize(hash));
+    }
+
+    @Test
+    void schemasShareTextsOfIdenticalDdl() {
+        DdlContentPool pool = DdlContentPool.shared();
+        String shared = uniqueDdl("SHARED");
+        Schema dev = schema("TEST::DEV");
+        Schema prod = schema("TEST::PROD");
+        dev.addObjectDdl(ObjectType.TABLE, "SHARED", shared);
+        prod.addObjectDdl(ObjectType.TABLE, "SHARED", new String(shared.toCharArray()));
+
+        String hash = dev.getObjectDdlHash(ObjectType.TABLE, "SHARED");
+        assertSame(hash, prod.getObjectDdlHash(ObjectType.TABLE, "SHARED"));
+        assertEquals(2, pool.getReferenceCount(hash));
+
+        Schema copy = schema("TEST::COPY");
+        assertTrue(copy.copyObjectDdlFrom(dev, ObjectType.TABLE, "SHARED"));
+        assertFalse(copy.copyObjectDdlFrom(dev, ObjectType.TABLE, "MISSING"));
+        assertEquals(3, pool.getReferenceCount(hash));
+
+        // Зміна DDL в одній схемі не зачіпає інші
+        String changed = uniqueDdl("SHARED");
+        prod.addObjectDdl(ObjectType.TABLE, "SHARED", changed);
+        assertEquals(2, pool.getReferenceCount(hash));
+        assertEquals(shared, dev.getObjectDdl(ObjectType.TABLE, "SHARED"));
+        assertEquals(changed, prod.getObjectDdl(ObjectType.TABLE, "SHARED"));
+        copy.removeObjectDdl(ObjectType.TABLE, "SHARED");
+        assertEquals(1, pool.getReferenceCount(hash));
+
+        dev.releaseDdlContent();
+        prod.releaseDdlContent();
+        copy.releaseDdlContent();
+        assertNull(pool.get(hash));
+    }
+
+    @Test
+    void releasingReplacedSchemaKeepsTextsSharedWithOthers() {
+        DdlContentPool pool = DdlContentPool.shared();
+        SchemaService schemaService = new SchemaService();
+        String shared = uniqueDdl("SHARED");
+        String onlyInOld = uniqueDdl("DROPPED");
+        String onlyInNew = uniqueDdl("ADDED");
+
+        Schema old = schema("TEST::REPLACED");
+        old.addObjectDdl(ObjectType.TABLE, "SHARED", shared);
+        old.addObjectDdl(ObjectType.TABLE, "DROPPED", onlyInOld);
+        Schema other = schema("TEST::OTHER");
+        other.addObjectDdl(ObjectType.TABLE, "SHARED", shared);
+        schemaService.addSchema(old);
+        schemaService.addSchema(other);
+        String sharedHash = old.getObjectDdlHash(ObjectType.TABLE, "SHARED");
+        String droppedHash = old.getObjectDdlHash(ObjectType.TABLE, "DROPPED");
+
+        Schema replacement = schema("TEST::REPLACED");
+        replacement.copyObjectDdlFrom(old, ObjectType.TABLE, "SHARED");
+        replacement.addObjectDdl(ObjectType.TABLE, "ADDED", onlyInNew);
+        schemaService.addSchema(replacement);
+        String addedHash = replacement.getObjectDdlHash(ObjectType.TABLE, "ADDED");
+
+        // Сховище замінює схему, але не звільняє її: стару схему ще можуть читати
+        assertSame(replacement, schemaService.findSchemaByCurrentSourceIdentifier("TEST::REPLACED"));
+        assertEquals(onlyInOld, old.getObjectDdl(ObjectType.TABLE, "DROPPED"));
+        assertEquals(3, pool.getReferenceCount(sharedHash));
+
+        old.releaseDdlContent();
+        assertEquals(0, old.getObjectCount());
+        assertEquals(2, pool.getReferenceCount(sharedHash));
+        assertNull(pool.get(droppedHash));
+        assertEquals(shared, other.getObjectDdl(ObjectType.TABLE, "SHARED"));
+        assertEquals(shared, replacement.getObjectDdl(ObjectType.TABLE, "SHARED"));
+        assertEquals(onlyInNew, replacement.getObjectDdl(ObjectType.TABLE, "ADDED"));
+
+        // Повторне звільнення не знімає чужих посилань
+        old.releaseDdlContent();
+        assertEquals(2, pool.getReferenceCount(sharedHash));
+        assertEquals(1, pool.getReferenceCount(addedHash));
+
+        schemaService.clearSchemas();
+        other.releaseDdlContent();
+        replacement.releaseDdlContent();
+        assertNull(pool.get(sharedHash));
+        assertNull(pool.get(addedHash));
+    }
+}
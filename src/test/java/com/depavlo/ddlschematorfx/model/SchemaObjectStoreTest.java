@@ -0,0 +1,156 @@
+package com.depavlo.ddlschematorfx.model;
+
+import com.depavlo.ddlschematorfx.BenchmarkSupport;
+import org.apache.commons.collections4.map.MultiKeyMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaObjectStoreTest {
+
+    private static final ObjectType[] TYPES = {ObjectType.TABLE, ObjectType.INDEX, ObjectType.VIEW, ObjectType.PROCEDURE,
+            ObjectType.PACKAGE, ObjectType.TRIGGER, ObjectType.SEQUENCE, ObjectType.SYNONYM};
+
+    @Test
+    void putGetRemoveAndSize() {
+        SchemaObjectStore<String> store = new SchemaObjectStore<>();
+        assertNull(store.put(ObjectType.TABLE, "T", "DDL1"));
+        assertEquals("DDL1", store.put(ObjectType.TABLE, "T", "DDL2"));
+        store.put(ObjectType.INDEX, "T", "IDX");
+        assertEquals(2, store.size());
+        assertEquals("DDL2", store.get(ObjectKey.of(ObjectType.TABLE, "T")));
+        assertEquals("IDX", store.get(ObjectType.INDEX, "T"));
+        assertEquals("IDX", store.remove(ObjectType.INDEX, "T"));
+        assertNull(store.remove(ObjectType.INDEX, "T"));
+        assertEquals(1, store.size());
+        assertThrows(IllegalArgumentException.class, () -> store.put(ObjectType.TABLE, "X", null));
+    }
+
+    @Test
+    void namesAreInterned() {
+        SchemaObjectStore<String> store = new SchemaObjectStore<>();
+        store.put(ObjectType.TABLE, new String("EMPLOYEES"), "DDL");
+        assertSame("EMPLOYEES", store.keys().get(0).objectName());
+    }
+
+    @Test
+    void copyAndIterationCoverAllEntries() {
+        SchemaObjectStore<Integer> store = new SchemaObjectStore<>();
+        for (int i = 0; i < 100; i++) {
+            store.put(TYPES[i % TYPES.length], "OBJ_" + i, i);
+        }
+        SchemaObjectStore<Integer> copy = new SchemaObjectStore<>(store);
+        int[] sum = {0};
+        copy.forEach((type, name, value) -> sum[0] += value);
+        assertEquals(4950, sum[0]);
+        assertEquals(13, copy.sizeOfType(ObjectType.TABLE));
+        assertTrue(copy.getObjectTypes().containsAll(List.of(TYPES)));
+    }
+
+    /**
+     * Порівняння з MultiKeyMap (попереднє сховище Schema) та HashMap з ключем ObjectKey на схемі зі 100k об'єктів:
+     * пошук за (тип, ім'я), повний обхід і утримуваний обсяг купи (mvn test -Dbenchmark=true).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstMultiKeyMapAndObjectKeyMap() {
+        int objectCount = 100_000;
+        List<ObjectKey> keys = new ArrayList<>(objectCount);
+        for (int i = 0; i < objectCount; i++) {
+            keys.add(ObjectKey.of(TYPES[i % TYPES.length], "OBJECT_NAME_" + i));
+        }
+        String value = "DDL";
+
+        MultiKeyMap<Object, String> multiKeyMap = new MultiKeyMap<>();
+        Map<ObjectKey, String> objectKeyMap = new HashMap<>();
+        SchemaObjectStore<String> store = new SchemaObjectStore<>();
+        for (ObjectKey key : keys) {
+            multiKeyMap.put(key.objectType(), key.objectName(), value);
+            objectKeyMap.put(key, value);
+            store.put(key.objectType(), key.objectName(), value);
+        }
+
+        // Пошук за окремими типом та іменем, як у викликачів, у випадковому порядку; для ObjectKey ключ створюється при пошуку
+        List<ObjectKey> lookupOrder = new ArrayList<>(keys);
+        Collections.shuffle(lookupOrder, new Random(1));
+        ObjectType[] lookupTypes = lookupOrder.stream().map(ObjectKey::objectType).toArray(ObjectType[]::new);
+        String[] lookupNames = lookupOrder.stream().map(key -> new String(key.objectName())).toArray(String[]::new);
+
+        double multiKeyLookup = BenchmarkSupport.microsPerOp(() -> {
+            long found = 0;
+            for (int i = 0; i < lookupNames.length; i++) {
+                found += (multiKeyMap.get(lookupTypes[i], lookupNames[i]) != null) ? 1 : 0;
+            }
+            return found;
+        });
+        double objectKeyLookup = BenchmarkSupport.microsPerOp(() -> {
+            long found = 0;
+            for (int i = 0; i < lookupNames.length; i++) {
+                found += (objectKeyMap.get(new ObjectKey(lookupTypes[i], lookupNames[i])) != null) ? 1 : 0;
+            }
+            return found;
+        });
+        double storeLookup = BenchmarkSupport.microsPerOp(() -> {
+            long found = 0;
+            for (int i = 0; i < lookupNames.length; i++) {
+                found += (store.get(lookupTypes[i], lookupNames[i]) != null) ? 1 : 0;
+            }
+            return found;
+        });
+
+        double multiKeyIteration = BenchmarkSupport.microsPerOp(() -> {
+            long total = 0;
+            for (Map.Entry<org.apache.commons.collections4.keyvalue.MultiKey<?>, String> entry : multiKeyMap.entrySet()) {
+                total += ((String) entry.getKey().getKey(1)).length() + entry.getValue().length();
+            }
+            return total;
+        });
+        double objectKeyIteration = BenchmarkSupport.microsPerOp(() -> {
+            long total = 0;
+            for (Map.Entry<ObjectKey, String> entry : objectKeyMap.entrySet()) {
+                total += entry.getKey().objectName().length() + entry.getValue().length();
+            }
+            return total;
+        });
+        double storeIteration = BenchmarkSupport.microsPerOp(() -> {
+            long[] total = {0};
+            store.forEach((type, name, ddl) -> total[0] += name.length() + ddl.length());
+            return total[0];
+        });
+
+        // Імена вже інтерновані й утримуються списком keys, тому вимірюється лише сама структура
+        long multiKeyHeap = BenchmarkSupport.retainedBytes(() -> {
+            MultiKeyMap<Object, String> map = new MultiKeyMap<>();
+            keys.forEach(key -> map.put(key.objectType(), key.objectName(), value));
+            return map;
+        });
+        long objectKeyHeap = BenchmarkSupport.retainedBytes(() -> {
+            Map<ObjectKey, String> map = new HashMap<>();
+            keys.forEach(key -> map.put(new ObjectKey(key.objectType(), key.objectName()), value));
+            return map;
+        });
+        long storeHeap = BenchmarkSupport.retainedBytes(() -> {
+            SchemaObjectStore<String> copy = new SchemaObjectStore<>();
+            keys.forEach(key -> copy.put(key.objectType(), key.objectName(), value));
+            return copy;
+        });
+
+        System.out.println(String.format("%,d objects          lookup all (ms)  iterate all (ms)  retained heap (MB)", objectCount));
+        System.out.println(String.format("MultiKeyMap          %10.2f  %16.2f  %18.1f", multiKeyLookup / 1000, multiKeyIteration / 1000, multiKeyHeap / 1048576.0));
+        System.out.println(String.format("HashMap<ObjectKey>   %10.2f  %16.2f  %18.1f", objectKeyLookup / 1000, objectKeyIteration / 1000, objectKeyHeap / 1048576.0));
+        System.out.println(String.format("SchemaObjectStore    %10.2f  %16.2f  %18.1f", storeLookup / 1000, storeIteration / 1000, storeHeap / 1048576.0));
+        assertEquals(objectCount, store.size());
+    }
+}
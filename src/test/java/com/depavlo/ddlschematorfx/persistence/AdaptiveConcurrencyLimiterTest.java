@@ -0,0 +1,90 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Обмежувач з підставленою затримкою: виклики видаються раундами по поточному ліміту, а затримка кожного виклику
+ * обчислюється моделлю БД залежно від кількості одночасних викликів.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASE_LATENCY_NANOS = 5_000_000;
+
+    private static final class Run {
+        int maxLimit;
+        double averageLimit;
+        int finalLimit;
+    }
+
+    private static Run simulate(AdaptiveConcurrencyLimiter limiter, int rounds, IntToLongFunction latencyForConcurrency,
+                                double largeObjectShare, Random random) throws InterruptedException {
+        Run run = new Run();
+        long limitSum = 0;
+        for (int round = 0; round < rounds; round++) {
+            int concurrency = limiter.getCurrentLimit();
+            for (int i = 0; i < concurrency; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < concurrency; i++) {
+                long latency = latencyForConcurrency.applyAsLong(concurrency);
+                if (random.nextDouble() < largeObjectShare) {
+                    latency *= 20; // Великий об'єкт: довгий GET_DDL без перевантаження БД
+                }
+                limiter.release(latency, false);
+            }
+            limitSum += concurrency;
+            run.maxLimit = Math.max(run.maxLimit, concurrency);
+        }
+        run.averageLimit = limitSum / (double) rounds;
+        run.finalLimit = limiter.getCurrentLimit();
+        return run;
+    }
+
+    @Test
+    void largeObjectsWithoutContentionDoNotReduceLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 16, 1, true, 0);
+        Run run = simulate(limiter, 400, concurrency -> BASE_LATENCY_NANOS, 0.1, new Random(7));
+        assertEquals(16, run.finalLimit, limiter.describeMetrics());
+        assertEquals(0, limiter.getFailedCalls());
+    }
+
+    @Test
+    void queueingDatabaseKeepsLimitNearItsCapacity() throws Exception {
+        int capacity = 4;
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 32, 1, true, 0);
+        // Понад capacity одночасних викликів затримка росте пропорційно довжині черги
+        Run run = simulate(limiter, 600, concurrency -> BASE_LATENCY_NANOS * Math.max(capacity, concurrency) / capacity,
+                0.05, new Random(11));
+        assertTrue(run.averageLimit < 3 * capacity, "average limit " + run.averageLimit + ": " + limiter.describeMetrics());
+        assertTrue(run.finalLimit >= capacity / 2 && run.finalLimit <= 3 * capacity, limiter.describeMetrics());
+        assertTrue(run.maxLimit < 32, limiter.describeMetrics());
+    }
+
+    @Test
+    void sustainedSlowdownBecomesNewBaseline() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 8, 8, true, 0);
+        simulate(limiter, 50, concurrency -> BASE_LATENCY_NANOS, 0, new Random(3));
+        // БД сповільнилася для всіх викликів незалежно від кількості одночасних: ліміт падає, але потім відновлюється
+        Run run = simulate(limiter, 800, concurrency -> 5 * BASE_LATENCY_NANOS, 0, new Random(5));
+        assertEquals(8, run.finalLimit, limiter.describeMetrics());
+    }
+
+    @Test
+    void failedCallsReduceLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 16, 16, true, 0);
+        for (int i = 0; i < 16; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < 16; i++) {
+            limiter.release(BASE_LATENCY_NANOS, i == 0);
+        }
+        assertEquals(12, limiter.getCurrentLimit());
+        assertEquals(1, limiter.getFailedCalls());
+    }
+}
@@ -0,0 +1,140 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+import com.depavlo.ddlschematorfx.model.MetadataTransformProfile;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Перевірка пакетного отримання DDL проти заглушки JDBC: заглушка відповідає на OPEN / FETCH_DDL / CLOSE так,
+ * як це робить PL/SQL-блок BulkDdlFetcher (імена через \n, довжини через кому, DDL одним CLOB).
+ */
+class BulkDdlFetcherTest {
+
+    private static final int HANDLE = 42;
+
+    private final Deque<List<String[]>> batches = new ArrayDeque<>();
+    private final List<Integer> requestedCounts = new ArrayList<>();
+    private final List<Integer> closedHandles = new ArrayList<>();
+
+    private Connection stubConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> method.getName().equals("prepareCall") ? stubCall((String) args[0]) : null);
+    }
+
+    private CallableStatement stubCall(String sql) {
+        Map<Integer, Object> in = new HashMap<>();
+        Map<Integer, Object> out = new HashMap<>();
+        return (CallableStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{CallableStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setInt", "setString" -> in.put((Integer) args[0], args[1]);
+                        case "execute" -> {
+                            out.clear();
+                            if (sql.contains("DBMS_METADATA.OPEN")) {
+                                requestedCounts.add((Integer) in.get(3));
+                                out.put(4, HANDLE);
+                            } else if (sql.contains("DBMS_METADATA.FETCH_DDL")) {
+                                assertEquals(HANDLE, in.get(1));
+                                List<String[]> batch = batches.poll();
+                                if (batch != null) {
+                                    StringBuilder names = new StringBuilder();
+                                    StringBuilder lengths = new StringBuilder();
+                                    StringBuilder buffer = new StringBuilder();
+                                    for (String[] object : batch) {
+                                        names.append(object[0]).append('\n');
+                                        lengths.append(object[1].length()).append(',');
+                                        buffer.append(object[1]);
+                                    }
+                                    out.put(2, clob(names.toString()));
+                                    out.put(3, clob(lengths.toString()));
+                                    out.put(4, clob(buffer.toString()));
+                                }
+                            } else if (sql.contains("DBMS_METADATA.CLOSE")) {
+                                closedHandles.add((Integer) in.get(1));
+                            }
+                            return false;
+                        }
+                        case "getInt" -> {
+                            return out.get((Integer) args[0]);
+                        }
+                        case "getClob" -> {
+                            return out.get((Integer) args[0]);
+                        }
+                        case "getString" -> throw new AssertionError("Batch values must be read as CLOB");
+                        default -> {
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    private Clob clob(String value) {
+        return (Clob) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Clob.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getCharacterStream" -> new StringReader(value);
+                    case "length" -> (long) value.length();
+                    default -> null;
+                });
+    }
+
+    @Test
+    void fetchesAllBatchesAndMergesDdlsWithSameName() throws Exception {
+        batches.add(List.of(new String[]{"PKG_A", "CREATE PACKAGE PKG_A AS END;"}, new String[]{"PKG_B", "CREATE PACKAGE PKG_B AS END;"}));
+        batches.add(List.of(new String[]{"PKG_A", "\nCREATE PACKAGE BODY PKG_A AS END;"}, new String[]{"", "ORPHAN"}));
+
+        Map<String, String> ddls = new BulkDdlFetcher(2, MetadataTransformProfile.DATABASE_DEFAULT)
+                .fetchAll(stubConnection(), ObjectType.PACKAGE, "app");
+
+        assertEquals(List.of("PKG_A", "PKG_B"), new ArrayList<>(ddls.keySet()));
+        assertEquals("CREATE PACKAGE PKG_A AS END;\nCREATE PACKAGE BODY PKG_A AS END;", ddls.get("PKG_A"));
+        assertEquals(List.of(2), requestedCounts);
+        assertEquals(List.of(HANDLE), closedHandles);
+    }
+
+    /**
+     * Пакет максимального розміру з довгими іменами: імена та довжини разом значно більші за 32767 символів,
+     * тобто не вмістилися б у VARCHAR2 PL/SQL.
+     */
+    @Test
+    void largestBatchWithLongNamesExceedsVarchar2Limit() throws Exception {
+        List<String[]> batch = new ArrayList<>();
+        int nameLength = 0;
+        for (int i = 0; i < ExtractionOptions.MAX_BULK_FETCH_SIZE; i++) {
+            String name = "T_" + "X".repeat(120) + "_" + i;
+            nameLength += name.length() + 1;
+            batch.add(new String[]{name, "CREATE TABLE " + name + " (ID NUMBER)"});
+        }
+        batches.add(batch);
+        assertTrue(nameLength > 32767);
+
+        Map<String, String> ddls = new BulkDdlFetcher(ExtractionOptions.MAX_BULK_FETCH_SIZE, MetadataTransformProfile.DATABASE_DEFAULT)
+                .fetchAll(stubConnection(), ObjectType.TABLE, "APP");
+
+        assertEquals(ExtractionOptions.MAX_BULK_FETCH_SIZE, ddls.size());
+        String lastName = batch.get(batch.size() - 1)[0];
+        assertEquals("CREATE TABLE " + lastName + " (ID NUMBER)", ddls.get(lastName));
+    }
+
+    @Test
+    void rejectsFetchSizeAboveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new BulkDdlFetcher(ExtractionOptions.MAX_BULK_FETCH_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionOptions.defaults().setBulkFetchSize(ExtractionOptions.MAX_BULK_FETCH_SIZE + 1));
+    }
+}
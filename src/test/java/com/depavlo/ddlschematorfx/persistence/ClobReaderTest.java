@@ -0,0 +1,110 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.BenchmarkSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.CharArrayReader;
+import java.lang.reflect.Proxy;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClobReaderTest {
+
+    /**
+     * CLOB з вмістом у пам'яті: getSubString копіює символи в новий рядок, getCharacterStream читає їх без копії,
+     * як це мінімально мусить робити драйвер.
+     */
+    private static Clob clob(String value) {
+        char[] chars = value.toCharArray();
+        return (Clob) Proxy.newProxyInstance(ClobReaderTest.class.getClassLoader(), new Class<?>[]{Clob.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "length" -> (long) chars.length;
+                    case "getSubString" -> new String(chars, (int) ((long) args[0] - 1), (int) args[1]);
+                    case "getCharacterStream" -> new CharArrayReader(chars);
+                    default -> null;
+                });
+    }
+
+    private static String ddl(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        String line = "  UPDATE APP.ORDERS SET STATUS = 'Оброблено' WHERE ID = P_ID;\n";
+        while (sb.length() < length) {
+            sb.append(line);
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    // Попередній шлях читання: окремий запит довжини і getSubString
+    private static String readWithSubString(Clob clob) throws SQLException {
+        long length = clob.length();
+        return (length == 0) ? "" : clob.getSubString(1, (int) length);
+    }
+
+    @Test
+    void readsWholeContent() throws SQLException {
+        ClobReader reader = new ClobReader();
+        assertEquals("", reader.read(clob("")));
+        String large = ddl(100_000); // Кілька буферів читання
+        assertEquals(large, reader.read(clob(large)));
+        String small = ddl(300);
+        assertEquals(small, reader.read(clob(small))); // Буфер, збільшений великим CLOB, перевикористовується
+        assertEquals(3, reader.getReadCount());
+        assertEquals(100_300, reader.getCharsRead());
+    }
+
+    /**
+     * Виділена пам'ять і час на один CLOB: getSubString проти потокового читання (mvn test -Dbenchmark=true).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstGetSubString() throws SQLException {
+        ClobReader reader = new ClobReader();
+        for (int length : new int[]{2_000, 64_000, 2_000_000}) {
+            Clob clob = clob(ddl(length));
+            assertEquals(readWithSubString(clob), reader.read(clob));
+            int repetitions = Math.max(10, 20_000_000 / length);
+            for (int i = 0; i < repetitions; i++) { // Прогрів перед вимірюванням виділень
+                readWithSubString(clob);
+                reader.read(clob);
+            }
+            long subStringBytes = BenchmarkSupport.allocatedBytes(() -> {
+                try {
+                    for (int i = 0; i < repetitions; i++) {
+                        readWithSubString(clob);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }) / repetitions;
+            long readerBytes = BenchmarkSupport.allocatedBytes(() -> {
+                try {
+                    for (int i = 0; i < repetitions; i++) {
+                        reader.read(clob);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }) / repetitions;
+            double subStringMicros = BenchmarkSupport.microsPerOp(() -> {
+                try {
+                    return readWithSubString(clob).length();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            double readerMicros = BenchmarkSupport.microsPerOp(() -> {
+                try {
+                    return reader.read(clob).length();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            System.out.println(String.format("%,d chars: length()+getSubString %,d bytes/object %.2f us, ClobReader %,d bytes/object %.2f us",
+                    length, subStringBytes, subStringMicros, readerBytes, readerMicros));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.MetadataTransformProfile;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataSessionSetupTest {
+
+    private final List<String> executed = new ArrayList<>();
+
+    private Connection recordingConnection() {
+        Statement statement = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("execute")) {
+                        executed.add((String) args[0]);
+                        return false;
+                    }
+                    return null;
+                });
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> method.getName().equals("createStatement") ? statement : null);
+    }
+
+    @Test
+    void databaseDefaultLeavesSessionUntouched() throws Exception {
+        MetadataSessionSetup.apply(recordingConnection(), MetadataTransformProfile.DATABASE_DEFAULT);
+        MetadataSessionSetup.apply(recordingConnection(), null);
+        assertTrue(executed.isEmpty(), executed.toString());
+    }
+
+    @Test
+    void compareLeanSetsNlsAndTransformParams() throws Exception {
+        MetadataSessionSetup.apply(recordingConnection(), MetadataTransformProfile.COMPARE_LEAN);
+        assertEquals(2, executed.size());
+        assertTrue(executed.get(0).startsWith("ALTER SESSION SET NLS_LANGUAGE"));
+        assertTrue(executed.get(1).contains("'STORAGE', FALSE"));
+    }
+}
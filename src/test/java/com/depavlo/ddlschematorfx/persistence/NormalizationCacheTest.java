@@ -0,0 +1,55 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NormalizationCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void secondInstanceOnSameLogKeepsEntriesOnlyInMemory() throws Exception {
+        Path file = tempDir.resolve("normalization.log");
+        NormalizationCache owner = NormalizationCache.open(file, 100, false);
+        owner.put("owned", new NormalizationCache.Entry("f1", 0, null), 1);
+
+        NormalizationCache other = NormalizationCache.open(file, 100, false);
+        other.put("memory-only", new NormalizationCache.Entry("f2", 0, null), 1);
+        assertNotNull(other.get("memory-only"));
+        other.close();
+        owner.close();
+
+        NormalizationCache reopened = NormalizationCache.open(file, 100, false);
+        try {
+            assertNotNull(reopened.get("owned"));
+            assertNull(reopened.get("memory-only"));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveEntries() throws Exception {
+        Path file = tempDir.resolve("normalization.log");
+        NormalizationCache cache = NormalizationCache.open(file, 10, false);
+        for (int i = 0; i < 25; i++) {
+            cache.put("k" + i, new NormalizationCache.Entry("f" + i, 0, null), 1);
+        }
+        cache.close();
+
+        NormalizationCache reopened = NormalizationCache.open(file, 10, false);
+        try {
+            assertEquals(10, reopened.size());
+            assertNotNull(reopened.get("k24"));
+        } finally {
+            reopened.close();
+        }
+    }
+}
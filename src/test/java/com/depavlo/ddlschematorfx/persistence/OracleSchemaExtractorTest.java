@@ -0,0 +1,385 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+import com.depavlo.ddlschematorfx.model.ObjectFilter;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.model.Schema;
+import com.depavlo.ddlschematorfx.service.SchemaService;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OracleSchemaExtractorTest {
+
+    private static final String STUB_URL = "jdbc:ddlstub:extractor";
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    // Рядок all_objects; ddl == null - GET_DDL повертає NULL, ddl == "" - GET_DDL завершується помилкою
+    private record DictionaryRow(String owner, String objectName, String objectType, LocalDateTime lastDdlTime, String ddl) {
+
+        private DictionaryRow(String objectName, String objectType, LocalDateTime lastDdlTime, String ddl) {
+            this("APP", objectName, objectType, lastDdlTime, ddl);
+        }
+
+        // Хеш, який повертає вбудована функція ddl_hash (NULL, якщо GET_DDL не повертає тексту)
+        private String ddlHash() {
+            return (ddl == null || ddl.isEmpty()) ? null : DdlUtils.sha256Hex(ddl);
+        }
+    }
+
+    private static final List<DictionaryRow> dictionary = new ArrayList<>();
+    private static final AtomicInteger listingQueries = new AtomicInteger();
+    private static final AtomicInteger getDdlCalls = new AtomicInteger();
+    private static final List<String> fetchedDdlNames = Collections.synchronizedList(new ArrayList<>());
+    private static volatile String lastListingSql;
+    private static volatile List<String> lastListingParameters;
+    private static Driver stubDriver;
+
+    @BeforeAll
+    static void registerStubDriver() throws SQLException {
+        stubDriver = (Driver) Proxy.newProxyInstance(OracleSchemaExtractorTest.class.getClassLoader(), new Class<?>[]{Driver.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "acceptsURL" -> STUB_URL.equals(args[0]);
+                    case "connect" -> STUB_URL.equals(args[0]) ? stubConnection() : null;
+                    default -> defaultValue(method);
+                });
+        DriverManager.registerDriver(stubDriver);
+    }
+
+    @AfterAll
+    static void deregisterStubDriver() throws SQLException {
+        DriverManager.deregisterDriver(stubDriver);
+    }
+
+    @BeforeEach
+    void resetDictionary() {
+        dictionary.clear();
+        dictionary.add(new DictionaryRow("T1", "TABLE", BASE_TIME, "CREATE TABLE \"APP\".\"T1\" (\"ID\" NUMBER)"));
+        dictionary.add(new DictionaryRow("T2", "TABLE", BASE_TIME.plusHours(1), "CREATE TABLE \"APP\".\"T2\" (\"ID\" NUMBER)"));
+        dictionary.add(new DictionaryRow("V1", "VIEW", BASE_TIME.plusHours(2), "CREATE OR REPLACE FORCE VIEW \"APP\".\"V1\" AS SELECT ID FROM T1"));
+        // Об'єкти без DDL: найпізніша зміна схеми - саме в них
+        dictionary.add(new DictionaryRow("Q1", "QUEUE", BASE_TIME.plusHours(3), ""));
+        dictionary.add(new DictionaryRow("SYS_IL0000012345C00002$$", "INDEX", BASE_TIME.plusHours(4), null));
+        listingQueries.set(0);
+        getDdlCalls.set(0);
+        fetchedDdlNames.clear();
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static Connection stubConnection() {
+        return (Connection) Proxy.newProxyInstance(OracleSchemaExtractorTest.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "prepareStatement" -> dictionaryQuery((String) args[0]);
+                    case "prepareCall" -> getDdlCall();
+                    default -> defaultValue(method);
+                });
+    }
+
+    private static PreparedStatement dictionaryQuery(String sql) {
+        boolean probe = sql.contains("COUNT(*)");
+        boolean hashed = sql.contains("ddl_hash");
+        List<String> parameters = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(OracleSchemaExtractorTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("setString")) {
+                        parameters.add((String) args[1]);
+                        return null;
+                    }
+                    if (!method.getName().equals("executeQuery")) {
+                        return defaultValue(method);
+                    }
+                    List<Map<String, Object>> rows = new ArrayList<>();
+                    if (probe) {
+                        List<DictionaryRow> owned = dictionary.stream().filter(r -> parameters.contains(r.owner())).toList();
+                        LocalDateTime max = owned.stream().map(DictionaryRow::lastDdlTime).max(LocalDateTime::compareTo).orElse(null);
+                        Map<String, Object> row = new HashMap<>();
+                        row.put("object_count", owned.size());
+                        row.put("max_last_ddl_time", (max != null) ? Timestamp.valueOf(max) : null);
+                        rows.add(row);
+                    } else {
+                        listingQueries.incrementAndGet();
+                        lastListingSql = sql;
+                        lastListingParameters = List.copyOf(parameters);
+                        // Першими прив'язуються власники; умови за іменами заглушка не перевіряє
+                        for (DictionaryRow dictionaryRow : dictionary) {
+                            if (!parameters.contains(dictionaryRow.owner())) {
+                                continue;
+                            }
+                            Map<String, Object> row = new HashMap<>();
+                            row.put("owner", dictionaryRow.owner());
+                            row.put("object_name", dictionaryRow.objectName());
+                            row.put("object_type", dictionaryRow.objectType());
+                            row.put("last_ddl_time", Timestamp.valueOf(dictionaryRow.lastDdlTime()));
+                            if (hashed) {
+                                row.put("ddl_hash", dictionaryRow.ddlHash());
+                            }
+                            rows.add(row);
+                        }
+                    }
+                    return resultSet(rows);
+                });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        int[] position = {-1};
+        return (ResultSet) Proxy.newProxyInstance(OracleSchemaExtractorTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++position[0] < rows.size();
+                    case "getString", "getTimestamp" -> rows.get(position[0]).get((String) args[0]);
+                    case "getInt" -> rows.get(position[0]).get((String) args[0]);
+                    default -> defaultValue(method);
+                });
+    }
+
+    private static DictionaryRow dictionaryRow(String owner, String objectName) {
+        return dictionary.stream().filter(r -> r.owner().equals(owner) && r.objectName().equals(objectName)).findFirst().orElseThrow();
+    }
+
+    private static CallableStatement getDdlCall() {
+        String[] objectName = new String[1];
+        String[] owner = {"APP"};
+        return (CallableStatement) Proxy.newProxyInstance(OracleSchemaExtractorTest.class.getClassLoader(), new Class<?>[]{CallableStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setString" -> {
+                            if ((Integer) args[0] == 3) {
+                                objectName[0] = (String) args[1];
+                            } else if ((Integer) args[0] == 4) {
+                                owner[0] = (String) args[1];
+                            }
+                            return null;
+                        }
+                        case "execute" -> {
+                            getDdlCalls.incrementAndGet();
+                            fetchedDdlNames.add(owner[0] + "." + objectName[0]);
+                            DictionaryRow row = dictionaryRow(owner[0], objectName[0]);
+                            if ("".equals(row.ddl())) {
+                                throw new SQLException("ORA-31603: object \"" + objectName[0] + "\" of type QUEUE not found in schema \"APP\"");
+                            }
+                            return true;
+                        }
+                        case "getClob" -> {
+                            String ddl = dictionaryRow(owner[0], objectName[0]).ddl();
+                            return (ddl == null) ? null : clob(ddl);
+                        }
+                        default -> {
+                            return defaultValue(method);
+                        }
+                    }
+                });
+    }
+
+    private static Clob clob(String value) {
+        return (Clob) Proxy.newProxyInstance(OracleSchemaExtractorTest.class.getClassLoader(), new Class<?>[]{Clob.class},
+                (proxy, method, args) -> method.getName().equals("getCharacterStream") ? new StringReader(value) : defaultValue(method));
+    }
+
+    private static ConnectionDetails stubConnectionDetails() {
+        return new ConnectionDetails("stub", "stub", STUB_URL, null, null, "APP", null);
+    }
+
+    @Test
+    void objectsWithoutDdlAreRecordedWithSnapshot() throws Exception {
+        Schema schema = new OracleSchemaExtractor().extractSchema(stubConnectionDetails(), "APP");
+
+        assertEquals(3, schema.getObjectCount());
+        assertEquals(5, getDdlCalls.get());
+        assertEquals(2, schema.getObjectsWithoutDdl().size());
+        assertEquals(BASE_TIME.plusHours(3), schema.getObjectsWithoutDdl().get(ObjectType.QUEUE, "Q1"));
+        assertEquals(5, schema.getListedObjectCount());
+        assertEquals(BASE_TIME.plusHours(4), schema.getMaxObjectLastDdlTime());
+    }
+
+    @Test
+    void unchangedSchemaIsCarriedForwardAfterOneProbe() throws Exception {
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        Schema previous = extractor.extractSchema(stubConnectionDetails(), "APP");
+        listingQueries.set(0);
+        getDdlCalls.set(0);
+
+        Schema current = extractor.extractSchemaIncremental(stubConnectionDetails(), "APP", previous, ExtractionOptions.defaults());
+
+        assertEquals(0, listingQueries.get());
+        assertEquals(0, getDdlCalls.get());
+        assertEquals(3, current.getObjectCount());
+        assertEquals(previous.getObjectDdl(ObjectType.VIEW, "V1"), current.getObjectDdl(ObjectType.VIEW, "V1"));
+        assertEquals(2, current.getObjectsWithoutDdl().size());
+    }
+
+    @Test
+    void savedSnapshotKeepsObjectsWithoutDdl(@TempDir Path directory) throws Exception {
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        SchemaService schemaService = new SchemaService();
+        schemaService.saveSchemaToFile(extractor.extractSchema(stubConnectionDetails(), "APP"), directory, "APP_SNAPSHOT");
+        Schema loaded = schemaService.loadSchemaFromDirectory(directory.resolve("APP_SNAPSHOT"));
+        assertEquals(5, loaded.getListedObjectCount());
+        listingQueries.set(0);
+        getDdlCalls.set(0);
+
+        Schema current = extractor.extractSchemaIncremental(stubConnectionDetails(), "APP", loaded, ExtractionOptions.defaults());
+
+        assertEquals(0, getDdlCalls.get());
+        assertEquals(3, current.getObjectCount());
+    }
+
+    @Test
+    void changedSchemaIsListedAgain() throws Exception {
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        Schema previous = extractor.extractSchema(stubConnectionDetails(), "APP");
+        dictionary.add(new DictionaryRow("T3", "TABLE", BASE_TIME.plusHours(1), "CREATE TABLE \"APP\".\"T3\" (\"ID\" NUMBER)"));
+        listingQueries.set(0);
+        getDdlCalls.set(0);
+
+        Schema current = extractor.extractSchemaIncremental(stubConnectionDetails(), "APP", previous, ExtractionOptions.defaults());
+
+        assertEquals(1, listingQueries.get());
+        // Нова таблиця та об'єкти без DDL; незмінені таблиці й подання перенесено
+        assertEquals(3, getDdlCalls.get());
+        assertEquals(4, current.getObjectCount());
+        assertTrue(current.containsObject(ObjectType.TABLE, "T3"));
+    }
+
+    @Test
+    void extractionToDirectoryWritesIntoEmptyOrAbsentDirectory(@TempDir Path directory) throws Exception {
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        Files.createDirectory(directory.resolve("EMPTY"));
+        for (String name : new String[]{"EMPTY", "ABSENT"}) {
+            Path written = extractor.extractSchemaToDirectory(stubConnectionDetails(), "APP", directory, name, ExtractionOptions.defaults());
+            assertEquals(directory.resolve(name), written);
+            assertEquals(3, new SchemaService().loadSchemaFromDirectory(written).getObjectCount());
+        }
+    }
+
+    @Test
+    void extractionToDirectoryRejectsNonEmptyDirectory(@TempDir Path directory) throws Exception {
+        Path snapshot = Files.createDirectory(directory.resolve("APP_SNAPSHOT"));
+        Path existing = Files.writeString(snapshot.resolve("keep.txt"), "previous snapshot");
+        Files.writeString(directory.resolve("FILE"), "not a directory");
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        listingQueries.set(0);
+
+        assertThrows(DirectoryNotEmptyException.class,
+                () -> extractor.extractSchemaToDirectory(stubConnectionDetails(), "APP", directory, "APP_SNAPSHOT", ExtractionOptions.defaults()));
+        assertThrows(FileAlreadyExistsException.class,
+                () -> extractor.extractSchemaToDirectory(stubConnectionDetails(), "APP", directory, "FILE", ExtractionOptions.defaults()));
+
+        // Перевірка виконується до підключення, наявний вміст не змінюється
+        assertEquals(0, listingQueries.get());
+        try (Stream<Path> entries = Files.list(snapshot)) {
+            assertEquals(List.of(existing), entries.toList());
+        }
+        assertEquals("previous snapshot", Files.readString(existing));
+    }
+
+    @Test
+    void severalOwnersAreListedWithOneQuery() throws Exception {
+        dictionary.add(new DictionaryRow("HR", "EMPLOYEES", "TABLE", BASE_TIME, "CREATE TABLE \"HR\".\"EMPLOYEES\" (\"ID\" NUMBER)"));
+        dictionary.add(new DictionaryRow("HR", "T1", "TABLE", BASE_TIME, "CREATE TABLE \"HR\".\"T1\" (\"NAME\" VARCHAR2(10))"));
+
+        Map<String, Schema> schemas = new OracleSchemaExtractor().extractSchemas(stubConnectionDetails(), List.of("app", "HR", " hr "),
+                ExtractionOptions.defaults(), null);
+
+        assertEquals(1, listingQueries.get());
+        assertEquals(List.of("APP", "HR"), lastListingParameters);
+        assertEquals(List.of("APP", "HR"), List.copyOf(schemas.keySet()));
+        assertEquals(3, schemas.get("APP").getObjectCount());
+        assertEquals(2, schemas.get("HR").getObjectCount());
+        // Однакові імена різних власників не змішуються
+        assertEquals("CREATE TABLE \"HR\".\"T1\" (\"NAME\" VARCHAR2(10))", schemas.get("HR").getObjectDdl(ObjectType.TABLE, "T1"));
+        assertEquals("CREATE TABLE \"APP\".\"T1\" (\"ID\" NUMBER)", schemas.get("APP").getObjectDdl(ObjectType.TABLE, "T1"));
+    }
+
+    @Test
+    void objectFilterIsPushedDownToDictionaryQuery() throws Exception {
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        Schema previous = extractor.extractSchema(stubConnectionDetails(), "APP");
+        ObjectFilter filter = new ObjectFilter();
+        filter.setObjectTypes(EnumSet.of(ObjectType.TABLE, ObjectType.VIEW));
+        filter.addIncludePattern("T%");
+        filter.addIncludePattern("V%");
+        filter.addExcludePattern("T2");
+        ExtractionOptions options = ExtractionOptions.defaults();
+        options.setObjectFilter(filter);
+        listingQueries.set(0);
+        getDdlCalls.set(0);
+
+        extractor.extractSchemaIncremental(stubConnectionDetails(), "APP", previous, options);
+
+        // Попередній знімок містить об'єкти, які фільтр відкидає, тому перевірку "нічого не змінилося" пропущено
+        assertEquals(1, listingQueries.get());
+        assertTrue(lastListingSql.contains("object_type IN ('TABLE', 'VIEW')"), lastListingSql);
+        assertTrue(lastListingSql.contains(" AND (object_name LIKE ? ESCAPE '\\' OR object_name LIKE ? ESCAPE '\\')"), lastListingSql);
+        assertTrue(lastListingSql.contains(" AND NOT object_name LIKE ? ESCAPE '\\'"), lastListingSql);
+        assertEquals(List.of("APP", "T%", "V%", "T2"), lastListingParameters);
+    }
+
+    @Test
+    void serverSideHashingFetchesOnlyObjectsWithChangedDdl() throws Exception {
+        OracleSchemaExtractor extractor = new OracleSchemaExtractor();
+        Schema previous = extractor.extractSchema(stubConnectionDetails(), "APP");
+        String changedDdl = "CREATE TABLE \"APP\".\"T2\" (\"ID\" NUMBER, \"NAME\" VARCHAR2(10))";
+        dictionary.set(1, new DictionaryRow("T2", "TABLE", BASE_TIME.plusHours(5), changedDdl));
+        // Перекомпіляція змінює LAST_DDL_TIME подання, але не його DDL
+        DictionaryRow view = dictionary.get(2);
+        dictionary.set(2, new DictionaryRow(view.objectName(), view.objectType(), BASE_TIME.plusHours(6), view.ddl()));
+        ExtractionOptions options = ExtractionOptions.defaults();
+        options.setServerSideHashing(true);
+        getDdlCalls.set(0);
+        fetchedDdlNames.clear();
+
+        Schema current = extractor.extractSchemaIncremental(stubConnectionDetails(), "APP", previous, options);
+
+        assertTrue(lastListingSql.contains("ddl_hash"), lastListingSql);
+        // Хеш є лише в об'єктів з DDL; об'єкти без DDL запитуються повторно, як і без хешування
+        assertEquals(List.of("APP.T2", "APP.Q1", "APP.SYS_IL0000012345C00002$$"), List.copyOf(fetchedDdlNames));
+        assertEquals(changedDdl, current.getObjectDdl(ObjectType.TABLE, "T2"));
+        assertEquals(previous.getObjectDdl(ObjectType.VIEW, "V1"), current.getObjectDdl(ObjectType.VIEW, "V1"));
+    }
+}
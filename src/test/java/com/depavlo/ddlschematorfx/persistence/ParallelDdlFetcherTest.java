@@ -0,0 +1,90 @@
+package com.depavlo.ddlschematorfx.persistence;
+
+import com.depavlo.ddlschematorfx.model.ConnectionDetails;
+import com.depavlo.ddlschematorfx.model.ExtractionOptions;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelDdlFetcherTest {
+
+    private static final String STUB_URL = "jdbc:ddlstub:parallel";
+    private static Driver stubDriver;
+
+    @BeforeAll
+    static void registerStubDriver() throws SQLException {
+        Connection connection = (Connection) Proxy.newProxyInstance(ParallelDdlFetcherTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+        stubDriver = (Driver) Proxy.newProxyInstance(ParallelDdlFetcherTest.class.getClassLoader(), new Class<?>[]{Driver.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "acceptsURL" -> STUB_URL.equals(args[0]);
+                    case "connect" -> STUB_URL.equals(args[0]) ? connection : null;
+                    default -> null;
+                });
+        DriverManager.registerDriver(stubDriver);
+    }
+
+    @AfterAll
+    static void deregisterStubDriver() throws SQLException {
+        DriverManager.deregisterDriver(stubDriver);
+    }
+
+    private static ExtractionOptions adaptiveOptions() {
+        ExtractionOptions options = ExtractionOptions.defaults();
+        options.setParallelism(4);
+        options.setAdaptiveConcurrency(true);
+        return options;
+    }
+
+    private static ConnectionDetails stubConnectionDetails() {
+        return new ConnectionDetails("stub", "stub", STUB_URL, null, null, "APP", null);
+    }
+
+    private static OracleSchemaExtractor.ListedObject object(int index) {
+        return new OracleSchemaExtractor.ListedObject("APP", ObjectType.TABLE, "TABLE", "T" + index, null, null);
+    }
+
+    @Test
+    void objectWithoutDdlIsNotAFailedCall() throws Exception {
+        try (ParallelDdlFetcher fetcher = new ParallelDdlFetcher(stubConnectionDetails(), adaptiveOptions(), "APP",
+                (connection, listedObject) -> listedObject.objectName().endsWith("0") ? null : "CREATE TABLE " + listedObject.objectName())) {
+            for (int i = 0; i < 40; i++) {
+                fetcher.submit(i, object(i));
+            }
+            Map<Integer, String> ddls = fetcher.awaitResults();
+            assertEquals(36, ddls.size());
+            assertEquals(4, fetcher.getMissingDdlCount());
+            assertEquals(40, fetcher.getLimiter().getTotalCalls());
+            assertEquals(0, fetcher.getLimiter().getFailedCalls());
+        }
+    }
+
+    @Test
+    void failedCallSkipsObjectAndSignalsLimiter() throws Exception {
+        try (ParallelDdlFetcher fetcher = new ParallelDdlFetcher(stubConnectionDetails(), adaptiveOptions(), "APP",
+                (connection, listedObject) -> {
+                    if (listedObject.objectName().endsWith("0")) {
+                        throw new SQLException("ORA-04021: timeout occurred while waiting to lock object");
+                    }
+                    return "CREATE TABLE " + listedObject.objectName();
+                })) {
+            for (int i = 0; i < 40; i++) {
+                fetcher.submit(i, object(i));
+            }
+            Map<Integer, String> ddls = fetcher.awaitResults();
+            assertEquals(36, ddls.size());
+            assertEquals(4, fetcher.getMissingDdlCount());
+            assertEquals(4, fetcher.getLimiter().getFailedCalls());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.ComparisonOptions;
+import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.DifferenceType;
+import com.depavlo.ddlschematorfx.model.ObjectKey;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.model.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparisonSessionTest {
+
+    private final SchemaComparisonService service = new SchemaComparisonService();
+
+    // Таблиця з однаковими стовпцями, крім column: достатньо подібна, щоб зміна column не розривала перейменування
+    private static String table(String name, String column) {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE \"APP\".\"").append(name).append("\" (\n  \"ID\" NUMBER NOT NULL");
+        for (int i = 1; i <= 12; i++) {
+            ddl.append(",\n  \"ATTR_").append(i).append("\" VARCHAR2(").append(10 * i).append(")");
+        }
+        return ddl.append(",\n  \"").append(column).append("\" VARCHAR2(20),\n  CONSTRAINT \"").append(name)
+                .append("_PK\" PRIMARY KEY (\"ID\")\n)").toString();
+    }
+
+    private static Schema schema(String connection, Map<String, String> tables) {
+        Schema schema = new Schema(UUID.randomUUID().toString(), "APP", null, null, null, connection, connection);
+        tables.forEach((name, ddl) -> schema.addObjectDdl(ObjectType.TABLE, name, ddl));
+        return schema;
+    }
+
+    private static ObjectKey key(String name) {
+        return ObjectKey.of(ObjectType.TABLE, name);
+    }
+
+    private static Set<ObjectKey> keys(List<Difference> differences) {
+        Set<ObjectKey> keys = new HashSet<>();
+        for (Difference difference : differences) {
+            keys.add(ComparisonSession.keyOf(difference));
+        }
+        return keys;
+    }
+
+    private static List<String> describe(List<Difference> differences) {
+        List<String> described = new ArrayList<>();
+        for (Difference difference : differences) {
+            described.add(difference.getType() + " " + difference.getObjectName() + " <- " + difference.getPreviousObjectName());
+        }
+        return described;
+    }
+
+    // Оновлений сеанс дає той самий результат, що й повне порівняння тих самих схем
+    private void assertMatchesFullComparison(ComparisonSession.Update update, Schema source, Schema target, ComparisonOptions options) {
+        assertEquals(describe(service.compare(source, target, options, 1).getDifferences()), describe(update.result().getDifferences()));
+    }
+
+    @Test
+    void updateReportsAddedUpdatedAndResolvedKeys() {
+        Map<String, String> sourceTables = new LinkedHashMap<>();
+        sourceTables.put("A", table("A", "A1"));
+        sourceTables.put("B", table("B", "B1"));
+        sourceTables.put("C", table("C", "C1"));
+        sourceTables.put("D", table("D", "D1"));
+        Map<String, String> targetTables = new LinkedHashMap<>(sourceTables);
+        targetTables.put("B", table("B", "B2")); // Змінено
+        targetTables.put("D", table("D", "D2")); // Змінено
+        targetTables.remove("C"); // Видалено
+        Schema source = schema("SRC", sourceTables);
+        ComparisonOptions options = ComparisonOptions.defaults();
+        ComparisonSession session = service.openSession(source, schema("TGT", targetTables), options);
+        assertEquals(List.of("REMOVED C <- null", "MODIFIED B <- null", "MODIFIED D <- null"), describe(session.compare(1).getDifferences()));
+
+        targetTables.put("A", table("A", "A2")); // Новий MODIFIED
+        targetTables.put("B", table("B", "B1")); // Усунуто
+        targetTables.put("C", table("C", "C1")); // Усунуто
+        targetTables.put("D", table("D", "D3")); // Оновлено
+        targetTables.put("E", table("E", "E1")); // Новий ADDED
+        Schema target = schema("TGT", targetTables);
+        ComparisonSession.Update update = session.update(null, target);
+
+        assertEquals(Set.of(key("A"), key("E")), keys(update.addedDifferences()));
+        assertEquals(Set.of(key("D")), keys(update.updatedDifferences()));
+        assertEquals(table("D", "D3"), update.updatedDifferences().get(0).getTargetDdl());
+        assertEquals(Set.of(key("B"), key("C")), new HashSet<>(update.resolvedKeys()));
+        assertEquals(5, update.recomparedObjectCount());
+        assertMatchesFullComparison(update, source, target, options);
+
+        ComparisonSession.Update unchanged = session.update(null, schema("TGT", targetTables));
+        assertTrue(unchanged.isEmpty());
+        assertEquals(0, unchanged.recomparedObjectCount());
+    }
+
+    @Test
+    void updatePairsAndUnpairsRenames() {
+        Map<String, String> sourceTables = new LinkedHashMap<>();
+        sourceTables.put("KEEP", table("KEEP", "K"));
+        sourceTables.put("ORDERS", table("ORDERS", "STATUS"));
+        Map<String, String> targetTables = new LinkedHashMap<>();
+        targetTables.put("KEEP", table("KEEP", "K"));
+        Schema source = schema("SRC", sourceTables);
+        ComparisonOptions options = ComparisonOptions.defaults();
+        ComparisonSession session = service.openSession(source, schema("TGT", targetTables), options);
+        assertEquals(List.of("REMOVED ORDERS <- null"), describe(session.compare(1).getDifferences()));
+
+        // Поява подібного об'єкта утворює пару: REMOVED ORDERS усунуто, RENAMED ORDERS_V2 додано
+        targetTables.put("ORDERS_V2", table("ORDERS_V2", "STATUS"));
+        Schema paired = schema("TGT", targetTables);
+        ComparisonSession.Update pairing = session.update(null, paired);
+        assertEquals(List.of("RENAMED ORDERS_V2 <- ORDERS"), describe(pairing.addedDifferences()));
+        assertEquals(List.of(key("ORDERS")), pairing.resolvedKeys());
+        assertTrue(pairing.updatedDifferences().isEmpty());
+        assertMatchesFullComparison(pairing, source, paired, options);
+
+        // Зміна DDL перейменованого об'єкта оновлює ту саму пару
+        targetTables.put("ORDERS_V2", table("ORDERS_V2", "STATE"));
+        Schema changed = schema("TGT", targetTables);
+        ComparisonSession.Update changedPair = session.update(null, changed);
+        assertEquals(List.of("RENAMED ORDERS_V2 <- ORDERS"), describe(changedPair.updatedDifferences()));
+        assertTrue(changedPair.addedDifferences().isEmpty());
+        assertTrue(changedPair.resolvedKeys().isEmpty());
+        assertMatchesFullComparison(changedPair, source, changed, options);
+
+        // Зникнення одного з пари її розриває: знову REMOVED ORDERS, а RENAMED усунуто
+        targetTables.remove("ORDERS_V2");
+        Schema unpaired = schema("TGT", targetTables);
+        ComparisonSession.Update unpairing = session.update(null, unpaired);
+        assertEquals(List.of("REMOVED ORDERS <- null"), describe(unpairing.addedDifferences()));
+        assertEquals(List.of(key("ORDERS_V2")), unpairing.resolvedKeys());
+        assertEquals(DifferenceType.REMOVED, unpairing.result().getDifferences().get(0).getType());
+        assertMatchesFullComparison(unpairing, source, unpaired, options);
+    }
+}
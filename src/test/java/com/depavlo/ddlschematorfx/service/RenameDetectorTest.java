@@ -0,0 +1,95 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.DifferenceType;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RenameDetectorTest {
+
+    private static final String NAME = "\u0000NAME";
+
+    private static String table(String name, String... columns) {
+        StringBuilder sb = new StringBuilder("CREATE TABLE \"APP\".\"" + name + "\" (\n  \"ID\" NUMBER NOT NULL ENABLE");
+        for (String column : columns) {
+            sb.append(",\n  \"").append(column).append("\" VARCHAR2(100)");
+        }
+        return sb.append(",\n  CONSTRAINT \"PK_").append(name).append("\" PRIMARY KEY (\"ID\") ENABLE\n) SEGMENT CREATION DEFERRED").toString();
+    }
+
+    private static Difference removed(ObjectType type, String name, String ddl) {
+        return new Difference(DifferenceType.REMOVED, type, name, "APP", ddl, null, "removed");
+    }
+
+    private static Difference added(ObjectType type, String name, String ddl) {
+        return new Difference(DifferenceType.ADDED, type, name, "APP", null, ddl, "added");
+    }
+
+    @Test
+    void shortNameMasksOnlyWholeNameParts() {
+        assertEquals(List.of("CREATE", "TABLE", NAME, "(", "ID", "NUMBER", "NOT", "NULL", ",", NAME + "_ID", "NUMBER", ",",
+                        "CONSTRAINT", "PK_" + NAME, "PRIMARY", "KEY", "(", "ID", ")", ")"),
+                RenameDetector.tokenize("CREATE TABLE T (ID NUMBER NOT NULL, T_ID NUMBER, CONSTRAINT PK_T PRIMARY KEY (ID))", "T"));
+        assertEquals(List.of("\"" + NAME + "\"", "\"" + NAME + "_ID\"", "\"TEMP\"", "EMPLOYEES"),
+                RenameDetector.tokenize("\"EMP\" \"EMP_ID\" \"TEMP\" EMPLOYEES", "EMP"));
+    }
+
+    @Test
+    void doubledQuoteDoesNotEndLiteral() {
+        assertEquals(List.of("SELECT", "'IT''S'", ",", "'A'", "FROM", "DUAL"),
+                RenameDetector.tokenize("SELECT 'IT''S', 'A' FROM DUAL", null));
+        assertEquals(List.of("''''", ")"), RenameDetector.tokenize("'''' )", null));
+        assertEquals(List.of("'UNTERMINATED"), RenameDetector.tokenize("'UNTERMINATED", null));
+    }
+
+    @Test
+    void renamedObjectWithShortNameIsPaired() {
+        // До маскування цілими словами ім'я T псувало TABLE, NOT і ENABLE лише з боку source, і пара не знаходилась
+        Difference removedTable = removed(ObjectType.TABLE, "T", table("T", "NAME", "CREATED_BY"));
+        Difference addedTable = added(ObjectType.TABLE, "T2", table("T2", "NAME", "CREATED_BY"));
+        Difference unrelated = added(ObjectType.TABLE, "AUDIT_LOG", table("AUDIT_LOG", "EVENT", "PAYLOAD", "STATUS", "HOST"));
+        Difference otherType = removed(ObjectType.VIEW, "V", "CREATE OR REPLACE FORCE VIEW \"APP\".\"V\" AS SELECT ID FROM T");
+
+        List<Difference> result = new RenameDetector("APP", "APP", 0.8)
+                .detect(List.of(removedTable, otherType, addedTable, unrelated));
+
+        assertEquals(3, result.size());
+        assertSame(otherType, result.get(0));
+        Difference renamed = result.get(1);
+        assertEquals(DifferenceType.RENAMED, renamed.getType());
+        assertEquals("T", renamed.getPreviousObjectName());
+        assertEquals("T2", renamed.getObjectName());
+        assertFalse(renamed.isDefinitionChanged());
+        assertEquals(1.0, renamed.getSimilarity());
+        assertSame(unrelated, result.get(2));
+    }
+
+    @Test
+    void changedDefinitionIsReportedOnRenamedPair() {
+        String[] columns = {"C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9", "C10", "C11", "C12"};
+        String[] changedColumns = columns.clone();
+        changedColumns[11] = "C12_NEW";
+        List<Difference> result = new RenameDetector("APP", "APP_TEST", 0.6).detect(List.of(
+                removed(ObjectType.TABLE, "ORDERS", table("ORDERS", columns)),
+                added(ObjectType.TABLE, "ORDERS_V2", table("ORDERS_V2", changedColumns).replace("\"APP\".", "\"APP_TEST\"."))));
+
+        assertEquals(1, result.size());
+        assertEquals(DifferenceType.RENAMED, result.get(0).getType());
+        assertEquals("ORDERS", result.get(0).getPreviousObjectName());
+        assertEquals(true, result.get(0).isDefinitionChanged());
+    }
+
+    @Test
+    void dissimilarObjectsAreNotPaired() {
+        List<Difference> differences = List.of(
+                removed(ObjectType.TABLE, "T", table("T", "NAME")),
+                added(ObjectType.TABLE, "EVENTS", table("EVENTS", "E1", "E2", "E3", "E4", "E5", "E6", "E7", "E8")));
+        assertSame(differences, new RenameDetector("APP", "APP", 0.8).detect(differences));
+    }
+}
@@ -0,0 +1,384 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.ComparisonOptions;
+import com.depavlo.ddlschematorfx.model.ComparisonProgress;
+import com.depavlo.ddlschematorfx.model.ComparisonResult;
+import com.depavlo.ddlschematorfx.model.ComparisonRule;
+import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.DriftMatrix;
+import com.depavlo.ddlschematorfx.model.LazyDdlFile;
+import com.depavlo.ddlschematorfx.model.ObjectKey;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.model.Schema;
+import com.depavlo.ddlschematorfx.model.SchemaObjectStore;
+import com.depavlo.ddlschematorfx.persistence.NormalizationCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaComparisonServiceTest {
+
+    private static final ObjectType[] TYPES = {ObjectType.TABLE, ObjectType.VIEW, ObjectType.PROCEDURE, ObjectType.INDEX, ObjectType.SEQUENCE};
+
+    private static String ddl(ObjectType type, String owner, String name, int variant) {
+        return switch (type) {
+            case TABLE -> "CREATE TABLE \"" + owner + "\".\"" + name + "\" (\n  \"ID\" NUMBER NOT NULL,\n  \"C" + variant
+                    + "\" VARCHAR2(" + (10 + variant) + ")\n) SEGMENT CREATION DEFERRED";
+            case VIEW -> "CREATE OR REPLACE FORCE VIEW \"" + owner + "\".\"" + name + "\" AS SELECT ID, C" + variant + " FROM T_" + variant;
+            case PROCEDURE -> "CREATE OR REPLACE PROCEDURE \"" + owner + "\".\"" + name + "\" AS\nBEGIN\n  -- версія " + variant
+                    + "\n  NULL;\nEND;";
+            case INDEX -> "CREATE INDEX \"" + owner + "\".\"" + name + "\" ON \"" + owner + "\".\"T_" + variant + "\" (\"ID\")";
+            default -> "CREATE SEQUENCE \"" + owner + "\".\"" + name + "\" MINVALUE 1 INCREMENT BY " + (variant + 1);
+        };
+    }
+
+    /**
+     * Пара схем із заданою кількістю об'єктів: частина змінена, видалена, додана, перейменована,
+     * частина відрізняється лише пробілами та власником (приховується правилами).
+     */
+    private static Schema[] generateSchemas(int objectCount, long seed) {
+        Random random = new Random(seed);
+        Schema source = new Schema(UUID.randomUUID().toString(), "APP", null, null, null, "GEN::SRC", "GEN::SRC");
+        Schema target = new Schema(UUID.randomUUID().toString(), "APP", null, null, null, "GEN::TGT", "GEN::TGT");
+        for (int i = 0; i < objectCount; i++) {
+            ObjectType type = TYPES[i % TYPES.length];
+            String name = type.name().charAt(0) + "_OBJ_" + i;
+            int variant = random.nextInt(5);
+            int roll = random.nextInt(100);
+            if (roll < 5) {
+                source.addObjectDdl(type, name, ddl(type, "APP", name, variant)); // Видалено в target
+            } else if (roll < 10) {
+                target.addObjectDdl(type, name, ddl(type, "APP", name, variant)); // Додано в target
+            } else if (roll < 20) {
+                source.addObjectDdl(type, name, ddl(type, "APP", name, variant));
+                target.addObjectDdl(type, name, ddl(type, "APP", name, variant + 1)); // Змінено
+            } else if (roll < 25) {
+                source.addObjectDdl(type, name, ddl(type, "APP", name, variant));
+                target.addObjectDdl(type, name, ddl(type, "APP_TEST", name, variant).replace("\n", "\n  ")); // Лише власник і пробіли
+            } else if (roll < 28) {
+                source.addObjectDdl(type, name, ddl(type, "APP", name, variant));
+                target.addObjectDdl(type, name + "_NEW", ddl(type, "APP", name + "_NEW", variant)); // Перейменовано
+            } else {
+                source.addObjectDdl(type, name, ddl(type, "APP", name, variant));
+                target.addObjectDdl(type, name, ddl(type, "APP", name, variant));
+            }
+        }
+        return new Schema[]{source, target};
+    }
+
+    private static List<String> describe(List<Difference> differences) {
+        List<String> described = new ArrayList<>();
+        for (Difference difference : differences) {
+            described.add(difference.getType() + " " + difference.getObjectType() + " " + difference.getObjectOwner() + "."
+                    + difference.getObjectName() + " <- " + difference.getPreviousObjectName() + " " + difference.getSuppressedByRules()
+                    + " " + difference.isDefinitionChanged() + "\n" + difference.getSourceDdl() + "\n" + difference.getTargetDdl());
+        }
+        return described;
+    }
+
+    @Test
+    void parallelComparisonMatchesSequential() {
+        Schema[] schemas = generateSchemas(3000, 42);
+        SchemaComparisonService service = new SchemaComparisonService();
+        ComparisonOptions options = ComparisonOptions.defaults();
+        options.setRenameDetectionEnabled(true);
+
+        ComparisonResult sequential = service.compare(schemas[0], schemas[1], options, 1);
+        assertFalse(sequential.getDifferences().isEmpty());
+        assertFalse(sequential.getSuppressedDifferences().isEmpty());
+        for (int parallelism : new int[]{2, 4, 8}) {
+            ComparisonResult parallel = service.compare(schemas[0], schemas[1], options, parallelism);
+            assertEquals(describe(sequential.getDifferences()), describe(parallel.getDifferences()), "parallelism " + parallelism);
+            assertEquals(describe(sequential.getSuppressedDifferences()), describe(parallel.getSuppressedDifferences()), "parallelism " + parallelism);
+        }
+    }
+
+    @Test
+    void interruptedCallerCancelsComparison() {
+        Schema[] schemas = generateSchemas(2_000, 7);
+        SchemaComparisonService service = new SchemaComparisonService();
+        for (int parallelism : new int[]{1, 4}) {
+            Thread.currentThread().interrupt(); // Так Task.cancel() перериває потік порівняння
+            try {
+                assertThrows(CancellationException.class,
+                        () -> service.compare(schemas[0], schemas[1], ComparisonOptions.defaults(), parallelism));
+            } finally {
+                Thread.interrupted();
+            }
+        }
+        ComparisonSession session = service.openSession(schemas[0], schemas[1], ComparisonOptions.defaults());
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> session.compare(2));
+        } finally {
+            Thread.interrupted();
+        }
+        // Скасоване порівняння не залишає сеанс у проміжному стані
+        assertEquals(null, session.getResult());
+        assertEquals(describe(service.compare(schemas[0], schemas[1], ComparisonOptions.defaults(), 1).getDifferences()),
+                describe(session.compare(2).getDifferences()));
+    }
+
+    @Test
+    void cancelledSubscriptionStopsComparison() {
+        Schema[] schemas = generateSchemas(50_000, 8);
+        SchemaComparisonService service = new SchemaComparisonService();
+        AtomicInteger comparedObjectCount = new AtomicInteger();
+        // Як закрите вікно результатів: після першої частини підписка скасовується
+        Flow.Subscriber<ComparisonProgress> subscriber = new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ComparisonProgress progress) {
+                comparedObjectCount.set(progress.getComparedObjectCount());
+                subscription.cancel();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+        assertThrows(CancellationException.class,
+                () -> service.compare(schemas[0], schemas[1], ComparisonOptions.defaults(), 2, subscriber));
+        assertTrue(comparedObjectCount.get() > 0 && comparedObjectCount.get() < 50_000, "compared: " + comparedObjectCount.get());
+    }
+
+    // Пара об'єктів, що відрізняються лише тим, що приховують правила rules
+    private static Difference compareSingle(String sourceDdl, String targetDdl, Set<ComparisonRule> rules) {
+        Schema source = new Schema(UUID.randomUUID().toString(), "APP", null, null, null, "T::SRC", "T::SRC");
+        Schema target = new Schema(UUID.randomUUID().toString(), "APP", null, null, null, "T::TGT", "T::TGT");
+        source.addObjectDdl(ObjectType.TABLE, "T", sourceDdl);
+        target.addObjectDdl(ObjectType.TABLE, "T", targetDdl);
+        ComparisonOptions options = ComparisonOptions.exact();
+        options.setRules(rules);
+        ComparisonResult result = new SchemaComparisonService().compare(source, target, options, 1);
+        assertEquals(1, result.getDifferences().size() + result.getSuppressedDifferences().size());
+        return result.getDifferences().isEmpty() ? result.getSuppressedDifferences().get(0) : result.getDifferences().get(0);
+    }
+
+    @Test
+    void suppressedDifferencesRecordTheRulesThatHidThem() {
+        Set<ComparisonRule> allRules = EnumSet.allOf(ComparisonRule.class);
+        String table = "CREATE TABLE \"APP\".\"T\" (\"ID\" NUMBER, CONSTRAINT \"SYS_C001\" CHECK (ID > 0))";
+
+        Difference storage = compareSingle(table + " SEGMENT CREATION IMMEDIATE PCTFREE 10 NOCOMPRESS LOGGING TABLESPACE \"USERS\"",
+                table + " SEGMENT CREATION DEFERRED PCTFREE 20 NOLOGGING TABLESPACE \"DATA\"", allRules);
+        assertEquals(EnumSet.of(ComparisonRule.IGNORE_STORAGE_CLAUSES), storage.getSuppressedByRules());
+
+        Difference constraintName = compareSingle(table, table.replace("SYS_C001", "SYS_C002"), allRules);
+        assertEquals(EnumSet.of(ComparisonRule.IGNORE_SYSTEM_CONSTRAINT_NAMES), constraintName.getSuppressedByRules());
+
+        String partitioned = table + " PARTITION BY RANGE (\"ID\") ";
+        Difference partitions = compareSingle(partitioned + "(PARTITION \"P1\" VALUES LESS THAN (10))",
+                partitioned + "(PARTITION \"P1\" VALUES LESS THAN (10), PARTITION \"P2\" VALUES LESS THAN (MAXVALUE))", allRules);
+        assertEquals(EnumSet.of(ComparisonRule.IGNORE_PARTITION_LISTS), partitions.getSuppressedByRules());
+
+        // Відмінність, яку приховують лише два правила разом, записує обидва
+        Difference both = compareSingle(table + " TABLESPACE \"USERS\"", table.replace("SYS_C001", "SYS_C002") + " TABLESPACE \"DATA\"", allRules);
+        assertEquals(EnumSet.of(ComparisonRule.IGNORE_STORAGE_CLAUSES, ComparisonRule.IGNORE_SYSTEM_CONSTRAINT_NAMES), both.getSuppressedByRules());
+
+        // Без потрібного правила відмінність лишається видимою
+        Difference visible = compareSingle(table + " NOLOGGING", table + " LOGGING", EnumSet.of(ComparisonRule.IGNORE_SYSTEM_CONSTRAINT_NAMES));
+        assertFalse(visible.isSuppressed());
+    }
+
+    @Test
+    void identicalTextIsMatchedWithoutNormalization(@TempDir Path directory) throws Exception {
+        Schema[] schemas = generateSchemas(500, 11);
+        Schema source = schemas[0];
+        Schema target = new Schema(UUID.randomUUID().toString(), "APP", null, null, null, "GEN::COPY", "GEN::COPY");
+        for (ObjectType type : source.getObjectTypes()) {
+            for (String name : source.getObjectNames(type)) {
+                target.addObjectDdl(type, name, new String(source.getObjectDdl(type, name).toCharArray()));
+            }
+        }
+        SchemaComparisonService service = new SchemaComparisonService();
+        try (NormalizationCache cache = NormalizationCache.open(directory.resolve("cache.log"), 1000, false)) {
+            service.setNormalizationCache(cache);
+            ComparisonOptions options = ComparisonOptions.defaults();
+            options.setRules(EnumSet.allOf(ComparisonRule.class));
+            ComparisonResult result = service.compare(source, target, options, 2);
+            assertTrue(result.getDifferences().isEmpty());
+            assertTrue(result.getSuppressedDifferences().isEmpty());
+            // Рівні хеші тексту: ні відбитків, ні нормалізації з правилами
+            assertEquals(0, cache.size());
+            for (ObjectType type : source.getObjectTypes()) {
+                for (String name : source.getObjectNames(type)) {
+                    assertNull(source.getKnownObjectFingerprint(type, name), name);
+                    assertNull(target.getKnownObjectFingerprint(type, name), name);
+                }
+            }
+        }
+    }
+
+    private static Schema environment(String owner, String connection) {
+        return new Schema(UUID.randomUUID().toString(), owner, null, null, null, connection, connection);
+    }
+
+    @Test
+    void compareAllGroupsVariantsAndSummarizesTypes() {
+        String[] owners = {"APP", "APP_TEST", "APP", "APP_DEV"};
+        List<Schema> schemas = new ArrayList<>();
+        for (int i = 0; i < owners.length; i++) {
+            Schema schema = environment(owners[i], "ENV::" + i);
+            schema.addObjectDdl(ObjectType.TABLE, "T1", ddl(ObjectType.TABLE, owners[i], "T1", 0)); // Однакова без власника
+            String variant = ddl(ObjectType.TABLE, owners[i], "T2", i % 2);
+            schema.addObjectDdl(ObjectType.TABLE, "T2", (i == 3) ? variant.replace("\n", "\n   ") : variant); // Пробіли приховує правило
+            if (i % 2 == 1) {
+                schema.addObjectDdl(ObjectType.TABLE, "T3", ddl(ObjectType.TABLE, owners[i], "T3", 0)); // Лише в 1 і 3
+            }
+            if (i == 0) {
+                schema.addObjectDdl(ObjectType.VIEW, "V1", ddl(ObjectType.VIEW, owners[i], "V1", 0));
+            }
+            schemas.add(schema);
+        }
+        DriftMatrix matrix = new SchemaComparisonService().compareAll(schemas, ComparisonOptions.defaults(), 2);
+
+        assertEquals(List.of(owners), matrix.getEnvironmentNames());
+        List<String> rows = new ArrayList<>();
+        for (DriftMatrix.ObjectDrift object : matrix.getObjects()) {
+            StringBuilder row = new StringBuilder(object.getObjectType() + " " + object.getObjectName() + " " + object.getVariantCount() + ":");
+            for (int i = 0; i < owners.length; i++) {
+                row.append(' ').append(object.getVariant(i));
+            }
+            rows.add(row.toString());
+        }
+        assertEquals(List.of("TABLE T1 1: 0 0 0 0", "TABLE T2 2: 0 1 0 1", "TABLE T3 1: -1 0 -1 0", "VIEW V1 1: 0 -1 -1 -1"), rows);
+        DriftMatrix.ObjectDrift t3 = matrix.getObjects().get(2);
+        assertTrue(t3.agrees(0, 2)); // Відсутній в обох
+        assertFalse(t3.agrees(0, 1));
+        assertFalse(t3.isConsistent());
+        assertTrue(matrix.getObjects().get(0).isConsistent());
+
+        DriftMatrix.TypeSummary tables = matrix.getTypeSummaries().get(ObjectType.TABLE);
+        assertEquals(3, tables.getObjectCount());
+        assertEquals(2, tables.getDriftingObjectCount());
+        assertEquals(tables.getSummaryHash(0), tables.getSummaryHash(2));
+        assertEquals(tables.getSummaryHash(1), tables.getSummaryHash(3));
+        assertFalse(tables.getSummaryHash(0).equals(tables.getSummaryHash(1)));
+        DriftMatrix.TypeSummary views = matrix.getTypeSummaries().get(ObjectType.VIEW);
+        assertEquals(1, views.getDriftingObjectCount());
+        assertNull(views.getSummaryHash(1));
+        assertTrue(views.getSummaryHash(0) != null);
+        assertEquals(Set.of(ObjectType.TABLE, ObjectType.VIEW), matrix.getTypeSummaries().keySet());
+    }
+
+    @Test
+    void compareAllAgreesWithPairwiseComparison() {
+        Schema[] pair = generateSchemas(600, 21);
+        List<Schema> schemas = List.of(pair[0], pair[1], generateSchemas(600, 22)[1]);
+        ComparisonOptions options = ComparisonOptions.defaults();
+        options.setRenameDetectionEnabled(false); // Матриця не шукає перейменувань
+        SchemaComparisonService service = new SchemaComparisonService();
+        DriftMatrix matrix = service.compareAll(schemas, options, 3);
+
+        for (int i = 0; i < schemas.size(); i++) {
+            for (int j = i + 1; j < schemas.size(); j++) {
+                Set<ObjectKey> differing = new HashSet<>();
+                for (Difference difference : service.compare(schemas.get(i), schemas.get(j), options, 1).getDifferences()) {
+                    differing.add(ComparisonSession.keyOf(difference));
+                }
+                assertFalse(differing.isEmpty());
+                for (DriftMatrix.ObjectDrift object : matrix.getObjects()) {
+                    ObjectKey key = ObjectKey.of(object.getObjectType(), object.getObjectName());
+                    assertEquals(!differing.contains(key), object.agrees(i, j), key + " in " + i + "/" + j);
+                }
+            }
+        }
+        // Кількість потоків не впливає на результат
+        assertEquals(matrix.format(), service.compareAll(schemas, options, 1).format());
+    }
+
+    @Test
+    void compareAllReportsUnreadableObjectsAsUnknown(@TempDir Path directory) {
+        List<Schema> schemas = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Schema schema = environment("APP", "ENV::" + i);
+            schema.addObjectDdl(ObjectType.TABLE, "T1", ddl(ObjectType.TABLE, "APP", "T1", 0));
+            SchemaObjectStore<LazyDdlFile> files = new SchemaObjectStore<>();
+            files.put(ObjectType.TABLE, "T2", new LazyDdlFile(directory.resolve("missing-" + i + ".sql"), 10, 0, null));
+            schema.attachLazyDdlFiles(files);
+            schemas.add(schema);
+        }
+        SchemaComparisonService service = new SchemaComparisonService();
+        for (ComparisonOptions options : new ComparisonOptions[]{ComparisonOptions.defaults(), ComparisonOptions.exact()}) {
+            DriftMatrix matrix = service.compareAll(schemas, options, 1);
+            DriftMatrix.ObjectDrift unreadable = matrix.getObjects().get(1);
+            assertEquals("T2", unreadable.getObjectName());
+            assertEquals(DriftMatrix.UNKNOWN, unreadable.getVariant(0));
+            assertEquals(DriftMatrix.UNKNOWN, unreadable.getVariant(1));
+            assertFalse(unreadable.agrees(0, 1));
+            assertFalse(unreadable.isConsistent());
+            DriftMatrix.TypeSummary tables = matrix.getTypeSummaries().get(ObjectType.TABLE);
+            assertEquals(1, tables.getDriftingObjectCount());
+            assertFalse(tables.getSummaryHash(0).equals(tables.getSummaryHash(1)));
+            assertTrue(matrix.format().contains("??  TABLE T2"), matrix.format());
+        }
+    }
+
+    /**
+     * Вимірювання масштабування порівняння за кількістю потоків (mvn test -Dbenchmark=true).
+     * Пошук перейменувань послідовний, тому вимкнений: вимірюється лише порівняння діапазонів.
+     * Спершу всі варіанти прогріваються (JIT, кеші відбитків схем), потім для кожного береться найкращий з 3 прогонів.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void measureComparisonScaling() {
+        Schema[] schemas = generateSchemas(50_000, 7);
+        SchemaComparisonService service = new SchemaComparisonService();
+        ComparisonOptions options = ComparisonOptions.defaults();
+        options.setRenameDetectionEnabled(false);
+        List<String> expected = describe(service.compare(schemas[0], schemas[1], options, 1).getDifferences());
+        System.out.println("Порівняння " + schemas[0].getObjectCount() + " / " + schemas[1].getObjectCount()
+                + " об'єктів, процесорів: " + Runtime.getRuntime().availableProcessors());
+        int[] parallelismLevels = {1, 2, 4, 8, 16};
+        for (int warmup = 0; warmup < 3; warmup++) {
+            for (int parallelism : parallelismLevels) {
+                service.compare(schemas[0], schemas[1], options, parallelism);
+            }
+        }
+        double sequentialMillis = 0;
+        for (int parallelism : parallelismLevels) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                ComparisonResult result = service.compare(schemas[0], schemas[1], options, parallelism);
+                best = Math.min(best, System.nanoTime() - start);
+                assertEquals(expected, describe(result.getDifferences()));
+            }
+            double millis = best / 1_000_000.0;
+            if (parallelism == 1) {
+                sequentialMillis = millis;
+            }
+            System.out.println(String.format("  потоків %2d: %8.1f мс, прискорення %.2fx", parallelism, millis, sequentialMillis / millis));
+        }
+    }
+}
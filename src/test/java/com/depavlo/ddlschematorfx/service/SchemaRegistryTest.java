@@ -0,0 +1,229 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaRegistryTest {
+
+    private static Schema schema(String name, String currentSource, String originalSource) {
+        return new Schema(UUID.randomUUID().toString(), name, null, null, null, currentSource, originalSource);
+    }
+
+    @Test
+    void registerReplacesSchemaWithSameCurrentSource() {
+        SchemaRegistry registry = new SchemaRegistry();
+        Schema first = schema("APP", "DB::1::APP", "DB::1::APP");
+        Schema other = schema("HR", "DB::1::HR", "DB::1::HR");
+        Schema second = schema("APP", "DB::1::APP", "DB::1::APP");
+
+        assertTrue(registry.register(first).isEmpty());
+        assertTrue(registry.register(other).isEmpty());
+        assertEquals(List.of(first), registry.register(second));
+
+        assertNull(registry.get(first.getId()));
+        assertSame(second, registry.findByCurrentSourceIdentifier("DB::1::APP"));
+        assertEquals(List.of(second), registry.findByName("APP"));
+        assertEquals(List.of(other, second), registry.snapshot());
+    }
+
+    @Test
+    void reRegisteringSameSchemaKeepsItsPosition() {
+        SchemaRegistry registry = new SchemaRegistry();
+        Schema first = schema("APP", "DB::1::APP", null);
+        Schema second = schema("HR", "DB::1::HR", null);
+        registry.register(first);
+        registry.register(second);
+
+        assertTrue(registry.register(first).isEmpty());
+        assertEquals(List.of(first, second), registry.snapshot());
+    }
+
+    @Test
+    void updateCurrentSourceIdentifierDisplacesPreviousOwner() {
+        SchemaRegistry registry = new SchemaRegistry();
+        Schema loaded = schema("APP", "DIR::/snapshots/app", "DB::1::APP");
+        Schema extracted = schema("APP", "DB::1::APP", "DB::1::APP");
+        registry.register(loaded);
+        registry.register(extracted);
+
+        assertSame(loaded, registry.updateCurrentSourceIdentifier(extracted, "DIR::/snapshots/app"));
+        assertSame(extracted, registry.findByCurrentSourceIdentifier("DIR::/snapshots/app"));
+        assertNull(registry.findByCurrentSourceIdentifier("DB::1::APP"));
+        assertSame(loaded, registry.get(loaded.getId()));
+        assertEquals(List.of(loaded, extracted), registry.findByOriginalSourceIdentifier("DB::1::APP"));
+    }
+
+    @Test
+    void removeAndClear() {
+        SchemaRegistry registry = new SchemaRegistry();
+        Schema first = schema("APP", "DB::1::APP", null);
+        Schema second = schema("HR", "DB::1::HR", null);
+        registry.register(first);
+        registry.register(second);
+
+        assertSame(first, registry.remove(first.getId()));
+        assertNull(registry.remove(first.getId()));
+        assertTrue(registry.findByName("APP").isEmpty());
+        assertEquals(List.of(second), registry.clear());
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * Читачі без блокувань не повинні бачити проміжного стану заміни: схема з джерелом, яке весь час зареєстроване,
+     * завжди знаходиться за джерелом, назвою та ID.
+     */
+    @Test
+    void concurrentReadersNeverObserveMissingSchemaDuringReplacement() throws Exception {
+        SchemaRegistry registry = new SchemaRegistry();
+        String source = "DB::1::APP";
+        registry.register(schema("APP", source, source));
+        for (int i = 0; i < 20; i++) {
+            registry.register(schema("OTHER" + i, "DB::1::OTHER" + i, null));
+        }
+
+        int readerCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(readerCount);
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < readerCount; r++) {
+            Thread reader = new Thread(() -> {
+                started.countDown();
+                while (running.get() && failure.get() == null) {
+                    Schema bySource = registry.findByCurrentSourceIdentifier(source);
+                    if (bySource == null) {
+                        failure.set("findByCurrentSourceIdentifier returned null");
+                    } else if (registry.get(bySource.getId()) == null && registry.findByCurrentSourceIdentifier(source) == bySource) {
+                        failure.set("get returned null for a registered schema");
+                    } else if (registry.findByName("APP").isEmpty()) {
+                        failure.set("findByName returned an empty list");
+                    } else if (registry.findByOriginalSourceIdentifier(source).isEmpty()) {
+                        failure.set("findByOriginalSourceIdentifier returned an empty list");
+                    } else if (!registry.snapshot().contains(registry.findByCurrentSourceIdentifier(source))
+                            && registry.findByCurrentSourceIdentifier(source) == bySource) {
+                        failure.set("snapshot does not contain the registered schema");
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 20_000 && failure.get() == null; i++) {
+            Schema replacement = schema("APP", source, source);
+            List<Schema> replaced = registry.register(replacement);
+            assertEquals(1, replaced.size());
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(21, registry.size());
+    }
+
+    /**
+     * Паралельні register, remove і updateCurrentSourceIdentifier: після завершення всі індекси відповідають знімку,
+     * а кожна зареєстрована схема або лишилася в реєстрі, або повернута рівно одним із методів як замінена чи видалена.
+     */
+    @Test
+    void concurrentWritersKeepIndexesConsistent() throws Exception {
+        SchemaRegistry registry = new SchemaRegistry();
+        int sourceCount = 16;
+        int writerCount = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ConcurrentLinkedQueue<Schema> registered = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Schema> dropped = new ConcurrentLinkedQueue<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            Thread writer = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int i = 0; i < 5_000; i++) {
+                        int roll = random.nextInt(10);
+                        List<Schema> snapshot = registry.snapshot();
+                        if (roll < 5 || snapshot.isEmpty()) {
+                            int source = random.nextInt(sourceCount);
+                            Schema schema = schema("APP" + (source % 4), "DB::" + source, "ORIG::" + (source % 8));
+                            registered.add(schema);
+                            dropped.addAll(registry.register(schema));
+                        } else if (roll < 8) {
+                            Schema removed = registry.remove(snapshot.get(random.nextInt(snapshot.size())).getId());
+                            if (removed != null) {
+                                dropped.add(removed);
+                            }
+                        } else {
+                            Schema schema = snapshot.get(random.nextInt(snapshot.size()));
+                            registry.updateCurrentSourceIdentifier(schema, "DB::" + random.nextInt(sourceCount));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertNull(failure.get());
+
+        List<Schema> snapshot = registry.snapshot();
+        assertEquals(snapshot.size(), registry.size());
+        Set<Schema> remaining = Collections.newSetFromMap(new IdentityHashMap<>());
+        remaining.addAll(snapshot);
+        assertEquals(snapshot.size(), remaining.size(), "snapshot contains duplicates");
+        for (Schema schema : snapshot) {
+            assertSame(schema, registry.get(schema.getId()));
+        }
+        // Кожна схема або в реєстрі, або повернута як замінена чи видалена - рівно один раз
+        Set<Schema> droppedOnce = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Schema schema : dropped) {
+            assertTrue(droppedOnce.add(schema), "schema dropped twice");
+            assertFalse(remaining.contains(schema), "dropped schema is still registered");
+        }
+        assertEquals(registered.size(), remaining.size() + droppedOnce.size());
+
+        for (int source = 0; source < sourceCount; source++) {
+            Schema bySource = registry.findByCurrentSourceIdentifier("DB::" + source);
+            if (bySource != null) {
+                assertTrue(remaining.contains(bySource));
+                assertEquals("DB::" + source, bySource.getCurrentSourceIdentifier());
+            }
+        }
+        for (int name = 0; name < 4; name++) {
+            String key = "APP" + name;
+            assertEquals(snapshot.stream().filter(schema -> key.equals(schema.getName())).toList(), registry.findByName(key));
+        }
+        for (int original = 0; original < 8; original++) {
+            String key = "ORIG::" + original;
+            assertEquals(snapshot.stream().filter(schema -> key.equals(schema.getOriginalSourceIdentifier())).toList(),
+                    registry.findByOriginalSourceIdentifier(key));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.ObjectFilter;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import com.depavlo.ddlschematorfx.model.Schema;
+import com.depavlo.ddlschematorfx.persistence.SchemaDirectoryFormat;
+import com.depavlo.ddlschematorfx.utils.DdlUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaServiceTest {
+
+    private static final String ORDERS_DDL = "CREATE TABLE \"APP\".\"ORDERS\" (\"ID\" NUMBER) SEGMENT CREATION IMMEDIATE";
+    private static final String CUSTOMERS_DDL = "CREATE TABLE \"APP\".\"CUSTOMERS\" (\"ID\" NUMBER)";
+    private static final String ORDERS_VIEW_DDL = "CREATE OR REPLACE FORCE VIEW \"APP\".\"V_ORDERS\" AS SELECT ID FROM ORDERS";
+
+    private final SchemaService schemaService = new SchemaService();
+
+    private static Schema schema(String sourceIdentifier) {
+        Schema schema = new Schema(UUID.randomUUID().toString(), "APP", null, LocalDateTime.of(2026, 3, 1, 12, 0), null,
+                sourceIdentifier, sourceIdentifier);
+        schema.addObjectDdl(ObjectType.TABLE, "ORDERS", ORDERS_DDL);
+        schema.addObjectDdl(ObjectType.TABLE, "CUSTOMERS", CUSTOMERS_DDL);
+        schema.addObjectDdl(ObjectType.VIEW, "V_ORDERS", ORDERS_VIEW_DDL);
+        return schema;
+    }
+
+    private Path saveSnapshot(Path directory) throws Exception {
+        schemaService.saveSchemaToFile(schema("TEST::" + UUID.randomUUID()), directory, "APP_SNAPSHOT");
+        return directory.resolve("APP_SNAPSHOT");
+    }
+
+    private static Path ddlFile(Path snapshot, ObjectType objectType, String objectName) {
+        return snapshot.resolve(objectType.name()).resolve(objectName + SchemaDirectoryFormat.DDL_FILE_EXTENSION);
+    }
+
+    @Test
+    void loadedSnapshotReadsDdlOnDemand(@TempDir Path directory) throws Exception {
+        Schema loaded = schemaService.loadSchemaFromDirectory(saveSnapshot(directory));
+
+        assertEquals(3, loaded.getObjectCount());
+        assertEquals(3, loaded.getLazyObjectCount());
+        assertEquals(0, loaded.getInMemoryObjectCount());
+        assertEquals(ORDERS_DDL, loaded.getObjectDdl(ObjectType.TABLE, "ORDERS"));
+
+        // Змінений об'єкт переходить у пул, решта лишається у файлах
+        loaded.addObjectDdl(ObjectType.TABLE, "CUSTOMERS", CUSTOMERS_DDL + " NOLOGGING");
+        assertEquals(1, loaded.getInMemoryObjectCount());
+        assertEquals(2, loaded.getLazyObjectCount());
+        assertNull(loaded.getKnownObjectFingerprint(ObjectType.TABLE, "CUSTOMERS"));
+    }
+
+    @Test
+    void manifestHashesAndFingerprintsAreUsedWithoutReadingFiles(@TempDir Path directory) throws Exception {
+        Path snapshot = saveSnapshot(directory);
+        Schema loaded = schemaService.loadSchemaFromDirectory(snapshot);
+        Files.delete(ddlFile(snapshot, ObjectType.TABLE, "ORDERS"));
+
+        assertEquals(DdlUtils.sha256Hex(ORDERS_DDL), loaded.getObjectDdlHash(ObjectType.TABLE, "ORDERS"));
+        assertEquals(DdlUtils.comparisonFingerprint(ORDERS_DDL, "APP"), loaded.getKnownObjectFingerprint(ObjectType.TABLE, "ORDERS"));
+        assertEquals(DdlUtils.comparisonFingerprint(ORDERS_DDL, "APP"), loaded.getObjectFingerprint(ObjectType.TABLE, "ORDERS"));
+    }
+
+    @Test
+    void filesChangedAfterManifestAreNotTrusted(@TempDir Path directory) throws Exception {
+        Path snapshot = saveSnapshot(directory);
+        Path customers = ddlFile(snapshot, ObjectType.TABLE, "CUSTOMERS");
+        String editedDdl = CUSTOMERS_DDL.replace("NUMBER", "NUMBER(10)");
+        Files.writeString(customers, editedDdl);
+        long manifestMillis = Files.getLastModifiedTime(snapshot.resolve(SchemaDirectoryFormat.OBJECTS_MANIFEST_FILE)).toMillis();
+        Files.setLastModifiedTime(customers, FileTime.fromMillis(manifestMillis + 60_000));
+
+        Schema loaded = schemaService.loadSchemaFromDirectory(snapshot);
+
+        assertNull(loaded.getKnownObjectFingerprint(ObjectType.TABLE, "CUSTOMERS"));
+        assertEquals(DdlUtils.sha256Hex(editedDdl), loaded.getObjectDdlHash(ObjectType.TABLE, "CUSTOMERS"));
+        assertEquals(DdlUtils.comparisonFingerprint(editedDdl, "APP"), loaded.getObjectFingerprint(ObjectType.TABLE, "CUSTOMERS"));
+        assertEquals(DdlUtils.sha256Hex(ORDERS_DDL), loaded.getObjectDdlHash(ObjectType.TABLE, "ORDERS"));
+    }
+
+    @Test
+    void objectFilterSkipsRejectedObjectsOnLoad(@TempDir Path directory) throws Exception {
+        Path snapshot = saveSnapshot(directory);
+        ObjectFilter filter = new ObjectFilter();
+        filter.setObjectTypes(Set.of(ObjectType.TABLE));
+        filter.addExcludePattern("CUST%");
+
+        Schema loaded = schemaService.loadSchemaFromDirectory(snapshot, filter);
+
+        assertEquals(1, loaded.getObjectCount());
+        assertTrue(loaded.containsObject(ObjectType.TABLE, "ORDERS"));
+        assertFalse(loaded.containsObject(ObjectType.TABLE, "CUSTOMERS"));
+        assertFalse(loaded.containsObject(ObjectType.VIEW, "V_ORDERS"));
+    }
+
+    @Test
+    void memoryBudgetSpillsSchemasNotInUse() throws Exception {
+        Schema idle = schema("TEST::IDLE");
+        Schema busy = schema("TEST::BUSY");
+        schemaService.addSchema(idle);
+        schemaService.addSchema(busy);
+
+        try (Schema.ReadLease lease = busy.acquireReadLease()) {
+            schemaService.setMemoryBudgetBytes(1);
+
+            assertEquals(0, idle.getInMemoryObjectCount());
+            assertEquals(3, idle.getLazyObjectCount());
+            assertEquals(3, busy.getInMemoryObjectCount());
+        }
+        // Вивантажені DDL читаються з тимчасових файлів, хеші не змінюються
+        assertEquals(ORDERS_VIEW_DDL, idle.getObjectDdl(ObjectType.VIEW, "V_ORDERS"));
+        assertEquals(DdlUtils.sha256Hex(ORDERS_DDL), idle.getObjectDdlHash(ObjectType.TABLE, "ORDERS"));
+        assertEquals(3, idle.getObjectCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.depavlo.ddlschematorfx.service;
+
+import com.depavlo.ddlschematorfx.model.Difference;
+import com.depavlo.ddlschematorfx.model.MigrationScript;
+import com.depavlo.ddlschematorfx.model.ObjectType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScriptGenerationServiceTest {
+
+    private final ScriptGenerationService service = new ScriptGenerationService();
+
+    private List<MigrationScript> renameScripts(ObjectType type, String previousName, String name, String owner,
+                                                String sourceDdl, String targetDdl, boolean definitionChanged) {
+        return service.generateScripts(List.of(
+                Difference.renamed(type, previousName, name, owner, sourceDdl, targetDdl, 0.9, definitionChanged)));
+    }
+
+    @Test
+    void unchangedTableIsRenamedInPlace() {
+        List<MigrationScript> scripts = renameScripts(ObjectType.TABLE, "T", "T2", "APP",
+                "CREATE TABLE \"APP\".\"T\" (\"ID\" NUMBER)", "CREATE TABLE \"APP\".\"T2\" (\"ID\" NUMBER)", false);
+
+        assertEquals(1, scripts.size());
+        MigrationScript script = scripts.get(0);
+        assertEquals("RENAME_TABLE_T2.sql", script.getFileName());
+        assertEquals(25, script.getExecutionOrder());
+        assertTrue(script.getScriptContent().startsWith("-- RENAMED TABLE: T -> T2"), script.getScriptContent());
+        assertTrue(script.getScriptContent().endsWith("ALTER TABLE T RENAME TO T2;\n/"), script.getScriptContent());
+    }
+
+    @Test
+    void changedTableIsRenamedAndReviewed() {
+        List<MigrationScript> scripts = renameScripts(ObjectType.TABLE, "ORDERS", "OrderLines", "APP",
+                "CREATE TABLE \"APP\".\"ORDERS\" (\"ID\" NUMBER)", "CREATE TABLE \"APP\".\"OrderLines\" (\"ID\" NUMBER, \"QTY\" NUMBER)", true);
+
+        assertEquals(2, scripts.size());
+        // Ім'я з малими літерами береться в лапки
+        assertTrue(scripts.get(0).getScriptContent().endsWith("ALTER TABLE ORDERS RENAME TO \"OrderLines\";\n/"), scripts.get(0).getScriptContent());
+        assertTrue(scripts.get(1).getFileName().startsWith("REVIEW_TABLE_"), scripts.get(1).getFileName());
+        assertTrue(scripts.get(1).getScriptContent().contains("\"QTY\""), scripts.get(1).getScriptContent());
+    }
+
+    @Test
+    void renameStatementDependsOnObjectType() {
+        assertTrue(renameScripts(ObjectType.TRIGGER, "TRG_A", "TRG_B", "APP", "CREATE TRIGGER A", "CREATE TRIGGER B", false)
+                .get(0).getScriptContent().endsWith("ALTER TRIGGER TRG_A RENAME TO TRG_B;\n/"));
+        assertTrue(renameScripts(ObjectType.SEQUENCE, "SEQ_A", "SEQ_B", "APP", "CREATE SEQUENCE A", "CREATE SEQUENCE B", false)
+                .get(0).getScriptContent().endsWith("RENAME SEQ_A TO SEQ_B;\n/"));
+        assertTrue(renameScripts(ObjectType.INDEX, "IDX_A", "IDX_B", "APP", "CREATE INDEX A", "CREATE INDEX B", false)
+                .get(0).getScriptContent().endsWith("ALTER INDEX IDX_A RENAME TO IDX_B;\n/"));
+    }
+
+    @Test
+    void objectsWithoutRenameAreRecreated() {
+        List<MigrationScript> procedure = renameScripts(ObjectType.PROCEDURE, "P_OLD", "P_NEW", "APP",
+                "CREATE OR REPLACE PROCEDURE \"APP\".\"P_OLD\" AS BEGIN NULL; END;",
+                "CREATE OR REPLACE PROCEDURE \"APP\".\"P_NEW\" AS BEGIN NULL; END;", false);
+        assertEquals(List.of("CREATE_PROCEDURE_P_NEW.sql", "DROP_PROCEDURE_P_OLD.sql"),
+                procedure.stream().map(MigrationScript::getFileName).toList());
+        assertEquals("DROP PROCEDURE P_OLD;\n/", procedure.get(1).getScriptContent());
+        // DROP старого виконується раніше за CREATE нового
+        assertTrue(procedure.get(1).getExecutionOrder() < procedure.get(0).getExecutionOrder());
+
+        List<MigrationScript> changedIndex = renameScripts(ObjectType.INDEX, "IDX_A", "IDX_B", "APP",
+                "CREATE INDEX \"APP\".\"IDX_A\" ON \"APP\".\"T\" (\"ID\")", "CREATE INDEX \"APP\".\"IDX_B\" ON \"APP\".\"T\" (\"ID\", \"NAME\")", true);
+        assertEquals(List.of("CREATE_INDEX_IDX_B.sql", "DROP_INDEX_IDX_A.sql"),
+                changedIndex.stream().map(MigrationScript::getFileName).toList());
+        assertFalse(changedIndex.stream().anyMatch(script -> script.getScriptContent().contains("RENAME")));
+
+        List<MigrationScript> publicSynonym = renameScripts(ObjectType.SYNONYM, "S_OLD", "S_NEW", "PUBLIC",
+                "CREATE PUBLIC SYNONYM \"S_OLD\" FOR \"APP\".\"T\"", "CREATE PUBLIC SYNONYM \"S_NEW\" FOR \"APP\".\"T\"", false);
+        assertEquals(2, publicSynonym.size());
+        assertEquals("DROP PUBLIC SYNONYM S_OLD;\n/", publicSynonym.get(1).getScriptContent());
+    }
+}
@@ -0,0 +1,202 @@
+package com.depavlo.ddlschematorfx.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DdlNormalizerTest {
+
+    private final DdlNormalizer prefixes = new DdlNormalizer("APP", null);
+
+    @Test
+    void stripsUnquotedAndQuotedOwnerPrefixes() {
+        assertEquals("CREATE VIEW V AS SELECT * FROM T JOIN \"U\" ON 1 = 1",
+                prefixes.normalize("CREATE VIEW APP.V AS SELECT * FROM app . T JOIN \"APP\".\"U\" ON 1 = 1"));
+        assertEquals("SELECT * FROM \"T\"", prefixes.normalize("SELECT * FROM \"APP\" . \"T\""));
+    }
+
+    @Test
+    void keepsPrefixesThatAreNotTheOwner() {
+        String ddl = "SELECT * FROM \"APP_X\".T, APPX.T, \"App\".T, OTHER.APP.T, APP";
+        assertSame(ddl, prefixes.normalize(ddl));
+    }
+
+    @Test
+    void keepsOwnerInsideStringLiterals() {
+        String ddl = "SELECT 'APP.T', 'it''s APP.T' FROM DUAL";
+        assertSame(ddl, prefixes.normalize(ddl));
+    }
+
+    @Test
+    void keepsOwnerInsideAlternativeQuoteLiterals() {
+        assertEquals("SELECT q'[it's APP.T]', Q'{APP.X}', q'!APP.Y!', q'<APP.Z>' FROM T",
+                prefixes.normalize("SELECT q'[it's APP.T]', Q'{APP.X}', q'!APP.Y!', q'<APP.Z>' FROM APP.T"));
+        // Лапка всередині q'[...]' не закриває літерал
+        assertEquals("SELECT q'[ ' APP.T ]' FROM T", prefixes.normalize("SELECT q'[ ' APP.T ]' FROM APP.T"));
+    }
+
+    @Test
+    void keepsOwnerInsideNationalLiterals() {
+        assertEquals("SELECT N'APP.T', n'it''s APP.X', nq'[APP.Y]' FROM T",
+                prefixes.normalize("SELECT N'APP.T', n'it''s APP.X', nq'[APP.Y]' FROM APP.T"));
+    }
+
+    @Test
+    void keepsOwnerInsideComments() {
+        assertEquals("-- APP.T\nSELECT 1 FROM T /* APP.T */",
+                prefixes.normalize("-- APP.T\nSELECT 1 FROM APP.T /* APP.T */"));
+    }
+
+    @Test
+    void ignoreCommentsKeepsOptimizerHints() {
+        DdlNormalizer normalizer = new DdlNormalizer(null, EnumSet.of(DdlNormalizer.Option.IGNORE_COMMENTS));
+        // Відкинутий рядковий коментар забирає і свій кінець рядка; пробіли навколо зберігаються
+        assertEquals("SELECT /*+ INDEX(T) */ A  FROM T --+ ORDERED\n   ",
+                normalizer.normalize("SELECT /*+ INDEX(T) */ A /* column */ FROM T --+ ORDERED\n -- trailing\n  "));
+    }
+
+    @Test
+    void whitespaceAndCaseRulesLeaveLiteralsAndQuotedIdentifiersAlone() {
+        DdlNormalizer normalizer = new DdlNormalizer(null,
+                EnumSet.of(DdlNormalizer.Option.IGNORE_WHITESPACE, DdlNormalizer.Option.IGNORE_CASE, DdlNormalizer.Option.IGNORE_COMMENTS));
+        Set<DdlNormalizer.Option> applied = EnumSet.noneOf(DdlNormalizer.Option.class);
+        assertEquals("SELECT A,'Ab  c' FROM \"t\" WHERE Q'[ a  b ]'=N'x'",
+                normalizer.normalize("  select  a -- c\n , 'Ab  c' from \"t\"  /* x */ where q'[ a  b ]' = n'x'\n", applied));
+        assertEquals(EnumSet.of(DdlNormalizer.Option.IGNORE_WHITESPACE, DdlNormalizer.Option.IGNORE_CASE, DdlNormalizer.Option.IGNORE_COMMENTS),
+                applied);
+    }
+
+    @Test
+    void unchangedTextIsReturnedAsIs() {
+        String ddl = "CREATE TABLE T (ID NUMBER)";
+        assertSame(ddl, prefixes.normalize(ddl));
+        assertNull(prefixes.normalize(null));
+    }
+
+    @Test
+    void ignoreStorageClausesDropsMetadataAttributes() {
+        DdlNormalizer normalizer = new DdlNormalizer(null, EnumSet.of(DdlNormalizer.Option.IGNORE_STORAGE_CLAUSES));
+        Set<DdlNormalizer.Option> applied = EnumSet.noneOf(DdlNormalizer.Option.class);
+        String ddl = "CREATE TABLE \"T\" (\"ID\" NUMBER, CONSTRAINT \"T_PK\" PRIMARY KEY (\"ID\")\n"
+                + "  USING INDEX PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS\n"
+                + "  STORAGE(INITIAL 65536 NEXT 1048576) TABLESPACE \"USERS\" ENABLE)\n"
+                + " SEGMENT CREATION IMMEDIATE PCTFREE 10 PCTUSED 40 NOCOMPRESS LOGGING\n"
+                + " STORAGE(INITIAL 65536) TABLESPACE USERS";
+        assertEquals("CREATE TABLE \"T\" (\"ID\" NUMBER, CONSTRAINT \"T_PK\" PRIMARY KEY (\"ID\")\n"
+                        + "  USING INDEX ENABLE)",
+                normalizer.normalize(ddl, applied));
+        assertEquals(EnumSet.of(DdlNormalizer.Option.IGNORE_STORAGE_CLAUSES), applied);
+        assertEquals("CREATE INDEX \"I\" ON \"T\" (\"A\", \"B\")",
+                normalizer.normalize("CREATE INDEX \"I\" ON \"T\" (\"A\", \"B\") COMPRESS 1 NOLOGGING"));
+        assertEquals("CREATE TABLE \"T\" (\"C\" CLOB) LOB (\"C\") STORE AS BASICFILE (ENABLE STORAGE IN ROW CHUNK 8192 NOCACHE)",
+                normalizer.normalize("CREATE TABLE \"T\" (\"C\" CLOB) LOB (\"C\") STORE AS BASICFILE (ENABLE STORAGE IN ROW CHUNK 8192 NOCACHE LOGGING)"));
+    }
+
+    @Test
+    void ignoreStorageClausesKeepsKeywordsOutsideClausePosition() {
+        DdlNormalizer normalizer = new DdlNormalizer(null, EnumSet.of(DdlNormalizer.Option.IGNORE_STORAGE_CLAUSES));
+        Set<DdlNormalizer.Option> applied = EnumSet.noneOf(DdlNormalizer.Option.class);
+        String view = "CREATE OR REPLACE VIEW V AS SELECT ID, LOGGING, COMPRESS, T.NOLOGGING FROM T WHERE NOCOMPRESS = 1";
+        assertSame(view, normalizer.normalize(view, applied));
+        String table = "CREATE TABLE T (LOGGING NUMBER, COMPRESS VARCHAR2(1))";
+        assertSame(table, normalizer.normalize(table, applied));
+        String procedure = "CREATE PROCEDURE P IS LOGGING BOOLEAN := TRUE; BEGIN IF LOGGING THEN NULL; END IF; END;";
+        assertSame(procedure, normalizer.normalize(procedure, applied));
+        assertEquals(EnumSet.noneOf(DdlNormalizer.Option.class), applied);
+    }
+
+    @Test
+    void ignoreSystemConstraintNamesReplacesOnlyGeneratedNames() {
+        DdlNormalizer normalizer = new DdlNormalizer(null, EnumSet.of(DdlNormalizer.Option.IGNORE_SYSTEM_CONSTRAINT_NAMES));
+        Set<DdlNormalizer.Option> applied = EnumSet.noneOf(DdlNormalizer.Option.class);
+        assertEquals("ALTER TABLE T ADD CONSTRAINT \"SYS_C\" CHECK (ID > 0) ; ALTER TABLE T DROP CONSTRAINT SYS_C",
+                normalizer.normalize("ALTER TABLE T ADD CONSTRAINT \"SYS_C0012345\" CHECK (ID > 0) ; ALTER TABLE T DROP CONSTRAINT SYS_C9", applied));
+        assertEquals(EnumSet.of(DdlNormalizer.Option.IGNORE_SYSTEM_CONSTRAINT_NAMES), applied);
+        String userNames = "ALTER TABLE T ADD CONSTRAINT \"SYS_C12AB\" CHECK (1 = 1) ADD CONSTRAINT SYS_C CHECK ('SYS_C001' IS NOT NULL)";
+        assertSame(userNames, normalizer.normalize(userNames));
+    }
+
+    @Test
+    void ignorePartitionListsKeepsPartitioningMethod() {
+        DdlNormalizer normalizer = new DdlNormalizer(null, EnumSet.of(DdlNormalizer.Option.IGNORE_PARTITION_LISTS));
+        Set<DdlNormalizer.Option> applied = EnumSet.noneOf(DdlNormalizer.Option.class);
+        assertEquals("CREATE TABLE T (D DATE) PARTITION BY RANGE (D)",
+                normalizer.normalize("CREATE TABLE T (D DATE) PARTITION BY RANGE (D) (PARTITION P1 VALUES LESS THAN (DATE '2024-01-01'),"
+                        + " PARTITION P2 VALUES LESS THAN (MAXVALUE))", applied));
+        assertEquals(EnumSet.of(DdlNormalizer.Option.IGNORE_PARTITION_LISTS), applied);
+        String analytic = "CREATE VIEW V AS SELECT ROW_NUMBER() OVER (PARTITION BY A ORDER BY B) RN FROM T";
+        assertSame(analytic, normalizer.normalize(analytic));
+    }
+
+    // Видалення префіксів регулярними виразами, яке замінив лексичний аналізатор (для порівняння швидкодії)
+    private static String regexStripSchemaPrefixes(String ddl, String schemaName) {
+        String quotedSchemaName = Pattern.quote(schemaName.toUpperCase());
+        String result = ddl.replaceAll("(?i)(?:\\b" + quotedSchemaName + "\\b\\s*\\.\\s*)(\"?[A-Za-z0-9_$#]+\"?)", "$1");
+        String quotedSchemaInPattern = Pattern.quote("\"" + schemaName.toUpperCase() + "\"");
+        return result.replaceAll("(?i)(?:" + quotedSchemaInPattern + "\\s*\\.\\s*)(\"?[A-Za-z0-9_$#]+\"?)", "$1");
+    }
+
+    private static String packageBody(int procedures) {
+        StringBuilder sb = new StringBuilder("CREATE OR REPLACE PACKAGE BODY \"APP\".\"PKG\" AS\n");
+        for (int p = 0; p < procedures; p++) {
+            sb.append("  -- Процедура ").append(p).append(" читає APP.T").append(p).append('\n')
+                    .append("  PROCEDURE P").append(p).append(" IS\n  BEGIN\n")
+                    .append("    UPDATE APP.T").append(p).append(" SET NAME = q'[it's APP.T]' WHERE ID IN (SELECT ID FROM \"APP\".\"S")
+                    .append(p).append("\");\n")
+                    .append("    INSERT INTO APP.LOG (MSG) VALUES ('done APP.T").append(p).append("'); /* APP.LOG */\n")
+                    .append("  END P").append(p).append(";\n");
+        }
+        return sb.append("END PKG;").toString();
+    }
+
+    private interface Operation {
+        String run(String ddl);
+    }
+
+    // Прогін у стилі JMH: ітерації прогріву, потім ітерації вимірювання фіксованої тривалості; результат споживається
+    private static double measureMicrosPerOp(Operation operation, String ddl) {
+        long sink = 0;
+        double best = Double.MAX_VALUE;
+        for (int iteration = 0; iteration < 8; iteration++) {
+            long operations = 0;
+            long start = System.nanoTime();
+            long deadline = start + 300_000_000L;
+            long now;
+            do {
+                sink += operation.run(ddl).length();
+                operations++;
+                now = System.nanoTime();
+            } while (now < deadline);
+            if (iteration >= 3) {
+                best = Math.min(best, (now - start) / 1000.0 / operations);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    /**
+     * Порівняння швидкодії з видаленням префіксів регулярними виразами (mvn test -Dbenchmark=true).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstRegexPath() {
+        DdlNormalizer normalizer = new DdlNormalizer("APP", null);
+        for (int procedures : new int[]{10, 100, 1000}) {
+            String ddl = packageBody(procedures);
+            double lexer = measureMicrosPerOp(normalizer::normalize, ddl);
+            double regex = measureMicrosPerOp(text -> regexStripSchemaPrefixes(text, "APP"), ddl);
+            System.out.println(String.format("DDL %,d chars: lexer %.1f us/op, regex %.1f us/op, %.1fx",
+                    ddl.length(), lexer, regex, regex / lexer));
+        }
+    }
+}